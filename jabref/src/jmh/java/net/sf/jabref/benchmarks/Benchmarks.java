@@ -1,8 +1,12 @@
 package net.sf.jabref.benchmarks;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -13,19 +17,32 @@ import net.sf.jabref.Defaults;
 import net.sf.jabref.Globals;
 import net.sf.jabref.JabRefPreferences;
 import net.sf.jabref.MetaData;
+import net.sf.jabref.bst.VM;
 import net.sf.jabref.exporter.BibDatabaseWriter;
 import net.sf.jabref.exporter.SaveException;
 import net.sf.jabref.exporter.SavePreferences;
 import net.sf.jabref.importer.ParserResult;
 import net.sf.jabref.importer.fileformat.BibtexParser;
+import net.sf.jabref.importer.fileformat.ParallelBibtexParser;
+import net.sf.jabref.logic.auxparser.AuxParser;
+import net.sf.jabref.logic.auxparser.AuxParserResult;
+import net.sf.jabref.logic.labelpattern.BibtexKeyGenerator;
+import net.sf.jabref.logic.labelpattern.LabelPatternUtil;
+import net.sf.jabref.logic.search.SearchExecutor;
+import net.sf.jabref.logic.search.SearchIndex;
 import net.sf.jabref.logic.search.SearchQuery;
+import net.sf.jabref.model.DuplicateBlockingIndex;
+import net.sf.jabref.model.DuplicateCheck;
 import net.sf.jabref.model.database.BibDatabase;
 import net.sf.jabref.model.database.BibDatabaseMode;
 import net.sf.jabref.model.database.BibDatabaseModeDetection;
 import net.sf.jabref.model.entry.BibEntry;
 
+import org.antlr.runtime.RecognitionException;
 import org.openjdk.jmh.Main;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -69,14 +86,55 @@ public class Benchmarks {
         return parser.parse();
     }
 
+    @State(Scope.Thread)
+    public static class ParseState {
+
+        @Param({"1000", "10000", "100000"})
+        int numberOfEntries;
+
+        String bibtexString;
+
+        @Setup
+        public void init() throws IOException, SaveException {
+            Globals.prefs = JabRefPreferences.getInstance();
+
+            BibDatabase database = new BibDatabase();
+            for (int i = 0; i < numberOfEntries; i++) {
+                BibEntry entry = new BibEntry();
+                entry.setCiteKey("id" + i);
+                entry.setField("title", "This is my title " + i);
+                entry.setField("author", "Firstname Lastname and FirstnameA LastnameA and FirstnameB LastnameB" + i);
+                entry.setField("journal", "Journal Title " + i);
+                entry.setField("year", "1" + i);
+                database.insertEntry(entry);
+            }
+            StringWriter stringWriter = new StringWriter();
+            new BibDatabaseWriter().writePartOfDatabase(stringWriter,
+                    new BibDatabaseContext(database, new MetaData(), new Defaults()), database.getEntries(),
+                    new SavePreferences());
+            bibtexString = stringWriter.toString();
+        }
+    }
+
+    @Benchmark
+    public ParserResult parseSequentially(ParseState state) throws IOException {
+        return BibtexParser.parse(new StringReader(state.bibtexString));
+    }
+
+    @Benchmark
+    public ParserResult parseInParallel(ParseState state) throws IOException {
+        return ParallelBibtexParser.parse(new StringReader(state.bibtexString));
+    }
+
     @Benchmark
     public String write() throws IOException {
         StringWriter stringWriter = new StringWriter();
 
+        // written entries are not formatted again, so reformat them to measure formatting
         BibDatabaseWriter databaseWriter = new BibDatabaseWriter();
         databaseWriter.writePartOfDatabase(stringWriter,
                 new BibDatabaseContext(database, new MetaData(), new Defaults()), database.getEntries(),
-                new SavePreferences());
+                new SavePreferences().withReformatFile(true));
         return stringWriter.toString();
     }
 
@@ -89,11 +147,204 @@ public class Benchmarks {
         return matchedEntries;
     }
 
+    @Benchmark
+    public List<BibEntry> parallelSearch() {
+        SearchQuery searchQuery = new SearchQuery("Journal Title 500", false, false);
+        return new SearchExecutor().search(searchQuery, database.getEntries(), null);
+    }
+
+    @State(Scope.Thread)
+    public static class SearchIndexState {
+
+        @Param({"1000", "10000", "100000"})
+        int numberOfEntries;
+
+        BibDatabase database = new BibDatabase();
+        SearchIndex index;
+        SearchQuery searchQuery = new SearchQuery("Journal Title 500", false, false);
+
+        @Setup
+        public void init() {
+            Globals.prefs = JabRefPreferences.getInstance();
+
+            for (int i = 0; i < numberOfEntries; i++) {
+                BibEntry entry = new BibEntry();
+                entry.setCiteKey("id" + i);
+                entry.setField("title", "This is my title " + i);
+                entry.setField("author", "Firstname Lastname and FirstnameA LastnameA and FirstnameB LastnameB" + i);
+                entry.setField("journal", "Journal Title " + i);
+                entry.setField("year", "1" + i);
+                database.insertEntry(entry);
+            }
+            index = new SearchIndex(database);
+        }
+    }
+
+    @Benchmark
+    public List<BibEntry> searchByScanning(SearchIndexState state) {
+        return state.database.getEntries().stream().filter(state.searchQuery::isMatch).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BibEntry> searchWithIndex(SearchIndexState state) {
+        return state.index.getMatches(state.searchQuery);
+    }
+
+    @Benchmark
+    public int findDuplicatesAllPairs() {
+        List<BibEntry> entries = database.getEntries();
+        int duplicates = 0;
+        for (int i = 0; i < (entries.size() - 1); i++) {
+            for (int j = i + 1; j < entries.size(); j++) {
+                if (DuplicateCheck.isDuplicate(entries.get(i), entries.get(j), BibDatabaseMode.BIBTEX)) {
+                    duplicates++;
+                }
+            }
+        }
+        return duplicates;
+    }
+
+    @Benchmark
+    public int findDuplicatesWithBlockingIndex() {
+        List<BibEntry> entries = database.getEntries();
+        DuplicateBlockingIndex index = new DuplicateBlockingIndex(entries);
+        int duplicates = 0;
+        for (BibEntry first : entries) {
+            for (BibEntry second : index.getCandidates(first)) {
+                if ((index.getPosition(second) > index.getPosition(first))
+                        && DuplicateCheck.isDuplicate(first, second, BibDatabaseMode.BIBTEX)) {
+                    duplicates++;
+                }
+            }
+        }
+        return duplicates;
+    }
+
     @Benchmark
     public BibDatabaseMode inferBibDatabaseMode() {
         return BibDatabaseModeDetection.inferMode(database);
     }
 
+    @State(Scope.Thread)
+    public static class BstState {
+
+        @Param({"1000", "20000"})
+        int numberOfEntries;
+
+        VM vm;
+        List<BibEntry> entries = new ArrayList<>();
+
+        @Setup
+        public void init() throws IOException, RecognitionException {
+            Globals.prefs = JabRefPreferences.getInstance();
+
+            vm = new VM(new File("src/test/resources/net/sf/jabref/bst/abbrv.bst"));
+            for (int i = 0; i < numberOfEntries; i++) {
+                BibEntry entry = new BibEntry();
+                entry.setType("article");
+                entry.setCiteKey("id" + i);
+                entry.setField("title", "This is my title " + i);
+                entry.setField("author", "Firstname Lastname and FirstnameA LastnameA and FirstnameB LastnameB" + i);
+                entry.setField("journal", "Journal Title " + i);
+                entry.setField("volume", String.valueOf(i % 50));
+                entry.setField("pages", "1--" + i);
+                entry.setField("year", "1" + i);
+                entries.add(entry);
+            }
+        }
+    }
+
+    @Benchmark
+    public String runBst(BstState state) {
+        return state.vm.run(state.entries);
+    }
+
+    @State(Scope.Thread)
+    public static class KeyGenerationState {
+
+        @Param({"1000", "100000"})
+        int numberOfEntries;
+
+        BibDatabase database = new BibDatabase();
+        MetaData metaData = new MetaData();
+
+        @Setup
+        public void init() {
+            Globals.prefs = JabRefPreferences.getInstance();
+
+            // a hundred authors, so most keys have to be made unique
+            for (int i = 0; i < numberOfEntries; i++) {
+                BibEntry entry = new BibEntry();
+                entry.setType("article");
+                entry.setField("title", "This is my title " + i);
+                entry.setField("author", "Firstname Lastname" + (i % 100));
+                entry.setField("year", "2010");
+                database.insertEntry(entry);
+            }
+        }
+
+        @Setup(Level.Invocation)
+        public void clearKeys() {
+            for (BibEntry entry : database.getEntries()) {
+                database.setCiteKeyForEntry(entry, null);
+            }
+        }
+    }
+
+    @Benchmark
+    public BibDatabase generateKeysOneByOne(KeyGenerationState state) {
+        for (BibEntry entry : state.database.getEntries()) {
+            LabelPatternUtil.makeLabel(state.metaData, state.database, entry);
+        }
+        return state.database;
+    }
+
+    @Benchmark
+    public BibDatabase generateKeysWithGenerator(KeyGenerationState state) {
+        new BibtexKeyGenerator(state.metaData, state.database).generateKeys(state.database.getEntries());
+        return state.database;
+    }
+
+    @State(Scope.Thread)
+    public static class AuxState {
+
+        @Param({"1000", "10000", "100000"})
+        int numberOfEntries;
+
+        BibDatabase database = new BibDatabase();
+        String auxFile;
+
+        @Setup
+        public void init() throws IOException {
+            Globals.prefs = JabRefPreferences.getInstance();
+
+            // every other entry is cited, and every tenth has a cross reference
+            StringBuilder aux = new StringBuilder();
+            for (int i = 0; i < numberOfEntries; i++) {
+                BibEntry entry = new BibEntry();
+                entry.setCiteKey("id" + i);
+                entry.setField("title", "This is my title " + i);
+                entry.setField("year", "1" + i);
+                if ((i % 10) == 0) {
+                    entry.setField("crossref", "id" + (numberOfEntries - 1 - i));
+                }
+                database.insertEntry(entry);
+                if ((i % 2) == 0) {
+                    aux.append("\\citation{id").append(i).append("}\n");
+                }
+            }
+            Path auxPath = Files.createTempFile("benchmark", ".aux");
+            auxPath.toFile().deleteOnExit();
+            Files.write(auxPath, aux.toString().getBytes(StandardCharsets.UTF_8));
+            auxFile = auxPath.toString();
+        }
+    }
+
+    @Benchmark
+    public AuxParserResult resolveAux(AuxState state) {
+        return new AuxParser(state.auxFile, state.database).parse();
+    }
+
     public static void main(String[] args) throws IOException, RunnerException {
         Main.main(args);
     }
@@ -108,64 +108,77 @@ public class FieldComparator implements Comparator<BibEntry> {
 
     @Override
     public int compare(BibEntry e1, BibEntry e2) {
-        String f1;
-        String f2;
+        return compareSortKeys(getSortKey(e1), getSortKey(e2));
+    }
 
+    /**
+     * Returns what this comparator compares the given entry by. Comparing the sort keys of two entries using
+     * {@link #compareSortKeys(Object, Object)} gives the same result as comparing the entries, so the keys can be
+     * computed once when entries are compared often.
+     *
+     * @return null if the entry does not have the field, an Integer for numbers, or the value in lower case
+     */
+    public Object getSortKey(BibEntry entry) {
+        String value;
         if (fieldType == FieldType.TYPE) {
             // Sort by type.
-            f1 = e1.getType();
-            f2 = e2.getType();
+            value = entry.getType();
         } else {
-            // If the field is author or editor, we rearrange names so they are
-            // sorted according to last name.
-            f1 = getField(e1);
-            f2 = getField(e2);
+            value = getField(entry);
         }
 
-        // Catch all cases involving null:
-        if ((f1 == null) && (f2 == null)) {
-            return 0;
-        } else if(f1 == null) {
-            return multiplier;
-        } else if (f2 == null) {
-            return -multiplier;
+        if (value == null) {
+            return null;
         }
 
-        // Now we now that both f1 and f2 are != null
         if (fieldType == FieldType.NAME) {
-            f1 = AuthorList.fixAuthorForAlphabetization(f1);
-            f2 = AuthorList.fixAuthorForAlphabetization(f2);
+            // If the field is author or editor, we rearrange names so they are
+            // sorted according to last name.
+            value = AuthorList.fixAuthorForAlphabetization(value);
         } else if (fieldType == FieldType.YEAR) {
-            Integer f1year = StringUtil.intValueOfWithNull(f1);
-            Integer f2year = StringUtil.intValueOfWithNull(f2);
-            int comparisonResult = Integer.compare(f1year == null ? 0 : f1year, f2year == null ? 0 : f2year);
-            return comparisonResult * multiplier;
+            Integer year = StringUtil.intValueOfWithNull(value);
+            return year == null ? 0 : year;
         } else if (fieldType == FieldType.MONTH) {
-            return Integer.compare(MonthUtil.getMonth(f1).number, MonthUtil.getMonth(f2).number) * multiplier;
+            return MonthUtil.getMonth(value).number;
         }
 
         if (isNumeric) {
-            Integer i1 = StringUtil.intValueOfWithNull(f1);
-            Integer i2 = StringUtil.intValueOfWithNull(f2);
-
-            if ((i2 != null) && (i1 != null)) {
-                // Ok, parsing was successful. Update f1 and f2:
-                return i1.compareTo(i2) * multiplier;
-            } else if (i1 != null) {
-                // The first one was parseable, but not the second one.
-                // This means we consider one < two
-                return -1 * multiplier;
-            } else if (i2 != null) {
-                // The second one was parseable, but not the first one.
-                // This means we consider one > two
-                return 1 * multiplier;
+            Integer number = StringUtil.intValueOfWithNull(value);
+            if (number != null) {
+                return number;
             }
-            // Else none of them were parseable, and we can fall back on comparing strings.
+            // Else it is not parseable, and we fall back on comparing strings.
+        }
+
+        return value.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Compares two keys returned by {@link #getSortKey(BibEntry)}.
+     */
+    public int compareSortKeys(Object key1, Object key2) {
+        // Catch all cases involving null:
+        if ((key1 == null) && (key2 == null)) {
+            return 0;
+        } else if (key1 == null) {
+            return multiplier;
+        } else if (key2 == null) {
+            return -multiplier;
+        }
+
+        if ((key1 instanceof Integer) && (key2 instanceof Integer)) {
+            return Integer.compare((Integer) key1, (Integer) key2) * multiplier;
+        } else if (key1 instanceof Integer) {
+            // The first one was parseable, but not the second one.
+            // This means we consider one < two
+            return -1 * multiplier;
+        } else if (key2 instanceof Integer) {
+            // The second one was parseable, but not the first one.
+            // This means we consider one > two
+            return 1 * multiplier;
         }
 
-        String ours = f1.toLowerCase(Locale.ENGLISH);
-        String theirs = f2.toLowerCase(Locale.ENGLISH);
-        return COLLATOR.compare(ours, theirs) * multiplier;
+        return COLLATOR.compare((String) key1, (String) key2) * multiplier;
     }
 
     private String getField(BibEntry entry) {
@@ -0,0 +1,50 @@
+package net.sf.jabref.bst;
+
+import java.util.Arrays;
+import java.util.EmptyStackException;
+
+/**
+ * The operand stack of the {@link VM}.
+ * <p>
+ * Unlike {@link java.util.Stack}, this stack is not synchronized, as a VM is only used by one thread. It holds
+ * strings, integers, function literals and null for missing fields.
+ */
+public class BstStack {
+
+    private Object[] elements = new Object[32];
+    private int size;
+
+
+    public void push(Object element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size] = element;
+        size++;
+    }
+
+    public Object pop() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        size--;
+        Object element = elements[size];
+        elements[size] = null;
+        return element;
+    }
+
+    public Object peek() {
+        if (size == 0) {
+            throw new EmptyStackException();
+        }
+        return elements[size - 1];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -17,15 +17,22 @@ package net.sf.jabref.bst;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
-import java.util.Stack;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -65,7 +72,10 @@ public class VM implements Warn {
 
     private Map<String, BstFunction> functions = new HashMap<>();
 
-    private Stack<Object> stack = new Stack<>();
+    private BstStack stack = new BstStack();
+
+    // incremented whenever a variable or function is declared, which invalidates the resolved names
+    private int declarations;
 
     public static final Integer FALSE = 0;
 
@@ -83,6 +93,22 @@ public class VM implements Warn {
 
     private static final Pattern ADD_PERIOD_PATTERN = Pattern.compile("([^\\.\\?\\!\\}\\s])(\\}|\\s)*$");
 
+    /**
+     * Built-in functions which change more than the stack and the current entry, functions calling these cannot be
+     * iterated in parallel
+     */
+    private static final List<String> GLOBAL_BUILT_IN_FUNCTIONS = Arrays.asList("call.type$", "newline$", "stack$",
+            "top$", "warning$", "write$");
+
+    private static final int MINIMUM_ENTRIES_FOR_PARALLEL_ITERATION = 512;
+
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private int minimumEntriesForParallelIteration = MINIMUM_ENTRIES_FOR_PARALLEL_ITERATION;
+
+    // only set for the copies of the VM iterating over the entries in parallel
+    private IterationLog iterationLog;
+
 
     public static class Identifier {
 
@@ -131,6 +157,29 @@ public class VM implements Warn {
         this(VM.charStream2CommonTree(bst));
     }
 
+    /**
+     * Creates a copy of the given VM with its own stack and global variables, which shares the entries of the given
+     * VM. The functions are compiled again, as compiled functions belong to their VM.
+     */
+    private VM(VM original) {
+        this(original.tree);
+        file = original.file;
+        preamble = original.preamble;
+        bbl = new StringBuilder();
+        entries = original.entries;
+        strings = new HashMap<>(original.strings);
+        integers = new HashMap<>(original.integers);
+        functions = new HashMap<>(buildInFunctions);
+        for (Map.Entry<String, BstFunction> function : original.functions.entrySet()) {
+            if (function.getValue() instanceof StackFunction) {
+                functions.put(function.getKey(), new StackFunction(((StackFunction) function.getValue()).getTree()));
+            } else if (function.getValue() instanceof MacroFunction) {
+                functions.put(function.getKey(), new MacroFunction(((MacroFunction) function.getValue()).replacement));
+            }
+        }
+        iterationLog = new IterationLog();
+    }
+
     private VM(CommonTree tree) {
         this.tree = tree;
 
@@ -370,8 +419,7 @@ public class VM implements Warn {
             Object f2 = stack.pop();
             Object i = stack.pop();
 
-            if (!((f1 instanceof Identifier) || (f1 instanceof Tree))
-                    && ((f2 instanceof Identifier) || (f2 instanceof Tree)) && (i instanceof Integer)) {
+            if (!isFunctionLiteral(f1) && isFunctionLiteral(f2) && (i instanceof Integer)) {
                 throw new VMException("Expecting two functions and an integer for if$.");
             }
 
@@ -519,7 +567,7 @@ public class VM implements Warn {
          * designers while debugging.
          */
         buildInFunctions.put("stack$", context -> {
-            while (!stack.empty()) {
+            while (!stack.isEmpty()) {
                 LOGGER.debug(stack.pop());
             }
         });
@@ -721,8 +769,7 @@ public class VM implements Warn {
         Object f2 = stack.pop();
         Object f1 = stack.pop();
 
-        if (!((f1 instanceof Identifier) || (f1 instanceof Tree))
-                && ((f2 instanceof Identifier) || (f2 instanceof Tree))) {
+        if (!isFunctionLiteral(f1) && isFunctionLiteral(f2)) {
             throw new VMException("Expecting two functions for while$.");
         }
 
@@ -831,6 +878,7 @@ public class VM implements Warn {
 
             if (strings.containsKey(name)) {
                 strings.put(name, (String) o2);
+                writeGlobal(name);
                 return true;
             }
             return false;
@@ -844,6 +892,7 @@ public class VM implements Warn {
 
         if (integers.containsKey(name)) {
             integers.put(name, (Integer) o2);
+            writeGlobal(name);
             return true;
         }
         return false;
@@ -869,7 +918,9 @@ public class VM implements Warn {
         functions = new HashMap<>();
         functions.putAll(buildInFunctions);
 
-        stack = new Stack<>();
+        declarations++;
+
+        stack = new BstStack();
 
         // Create entries
         entries = new ArrayList<>(bibtex.size());
@@ -945,6 +996,7 @@ public class VM implements Warn {
                 e.getFields().put("crossref", null);
             }
         }
+        declarations++;
     }
 
     /**
@@ -963,6 +1015,7 @@ public class VM implements Warn {
         String name = child.getChild(0).getText();
         String replacement = child.getChild(1).getText();
         functions.put(name, new MacroFunction(replacement));
+        declarations++;
     }
 
 
@@ -1025,23 +1078,251 @@ public class VM implements Warn {
         for (BstEntry entry : entries) {
             entry.localStrings.put("sort.key$", null);
         }
+        declarations++;
     }
 
     private void reverse(Tree child) {
+        List<BstEntry> order = new ArrayList<>(entries);
+        Collections.reverse(order);
+        forEachEntry(child.getChild(0).getText(), order);
+    }
 
-        BstFunction f = functions.get(child.getChild(0).getText());
+    private void iterate(Tree child) {
+        forEachEntry(child.getChild(0).getText(), entries);
+    }
 
-        ListIterator<BstEntry> i = entries.listIterator(entries.size());
-        while (i.hasPrevious()) {
-            f.execute(i.previous());
+    /**
+     * Executes the given function for each of the given entries.
+     * <p>
+     * If the function only uses built-in functions which change the stack and the current entry, the entries are
+     * split into chunks which are executed on copies of the VM in parallel. Each copy has its own stack and global
+     * variables. Global variables may only be used as temporary variables, which every execution writes before it
+     * reads them. The values written by the last execution become the values of this VM afterwards and the warnings
+     * are printed in order of the entries, like if the entries had been executed in order. If an execution fails or
+     * depends on an earlier one, the entries are reset and executed in order instead.
+     */
+    private void forEachEntry(String name, List<BstEntry> order) {
+        BstFunction f = functions.get(name);
+
+        if ((order.size() >= minimumEntriesForParallelIteration) && isEntryLocal(name)
+                && executeInParallel(name, order)) {
+            return;
+        }
+
+        for (BstEntry entry : order) {
+            f.execute(entry);
         }
     }
 
-    private void iterate(Tree child) {
-        BstFunction f = functions.get(child.getChild(0).getText());
+    /**
+     * Returns whether the given function and all functions it may call only change the stack, the current entry
+     * and global variables.
+     */
+    private boolean isEntryLocal(String name) {
+        Set<BstFunction> globalFunctions = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String globalFunction : GLOBAL_BUILT_IN_FUNCTIONS) {
+            globalFunctions.add(buildInFunctions.get(globalFunction));
+        }
 
-        for (BstEntry entry : entries) {
-            f.execute(entry);
+        Set<BstFunction> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<BstFunction> remaining = new ArrayDeque<>();
+        if (!functions.containsKey(name)) {
+            return false;
+        }
+        remaining.push(functions.get(name));
+        while (!remaining.isEmpty()) {
+            BstFunction function = remaining.pop();
+            if (!visited.add(function)) {
+                continue;
+            }
+            if (globalFunctions.contains(function)) {
+                return false;
+            }
+            if (!(function instanceof StackFunction)) {
+                continue;
+            }
+
+            for (BstFunction instruction : ((StackFunction) function).instructions) {
+                String called = null;
+                if (instruction instanceof Call) {
+                    called = ((Call) instruction).name;
+                } else if (((Push) instruction).value instanceof StackFunction) {
+                    remaining.push((StackFunction) ((Push) instruction).value);
+                } else if (((Push) instruction).value instanceof Identifier) {
+                    // a quoted function may be executed by if$ or while$
+                    called = ((Identifier) ((Push) instruction).value).getName();
+                }
+
+                if ((called != null) && !isVariable(called)) {
+                    if (!functions.containsKey(called)) {
+                        return false;
+                    }
+                    remaining.push(functions.get(called));
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isVariable(String name) {
+        if (!entries.isEmpty()) {
+            BstEntry entry = entries.get(0);
+            if (entry.getFields().containsKey(name) || entry.localStrings.containsKey(name)
+                    || entry.localIntegers.containsKey(name)) {
+                return true;
+            }
+        }
+        return strings.containsKey(name) || integers.containsKey(name);
+    }
+
+    /**
+     * Executes the given function for the given entries in parallel.
+     *
+     * @return whether the entries could be executed independently, otherwise the entries are reset to their state
+     * before
+     */
+    private boolean executeInParallel(String name, List<BstEntry> order) {
+        List<Map<String, String>> savedStrings = new ArrayList<>(order.size());
+        List<Map<String, Integer>> savedIntegers = new ArrayList<>(order.size());
+        for (BstEntry entry : order) {
+            savedStrings.add(new HashMap<>(entry.localStrings));
+            savedIntegers.add(new HashMap<>(entry.localIntegers));
+        }
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int chunkSize = Math.max(1, order.size() / (CHUNKS_PER_THREAD * pool.getParallelism()));
+        List<ForkJoinTask<VM>> tasks = new ArrayList<>();
+        for (int start = 0; start < order.size(); start += chunkSize) {
+            VM copy = new VM(this);
+            int first = start;
+            int end = Math.min(order.size(), start + chunkSize);
+            tasks.add(pool.submit(() -> {
+                copy.executeChunk(name, order, first, end);
+                return copy;
+            }));
+        }
+
+        // all chunks have to be finished before the entries may be reset
+        for (ForkJoinTask<VM> task : tasks) {
+            task.quietlyJoin();
+        }
+
+        List<VM> copies = new ArrayList<>(tasks.size());
+        Set<String> written = new HashSet<>();
+        Set<String> readBeforeWritten = new HashSet<>();
+        for (ForkJoinTask<VM> task : tasks) {
+            if (task.isCompletedAbnormally()) {
+                LOGGER.debug("Could not execute " + name + " in parallel, executing it in order", task.getException());
+                resetEntries(order, savedStrings, savedIntegers);
+                return false;
+            }
+            VM copy = task.join();
+            copies.add(copy);
+            written.addAll(copy.iterationLog.lastWritingIteration.keySet());
+            readBeforeWritten.addAll(copy.iterationLog.readBeforeWritten);
+        }
+
+        readBeforeWritten.retainAll(written);
+        if (!readBeforeWritten.isEmpty()) {
+            LOGGER.debug("Executions of " + name + " depend on each other through " + readBeforeWritten
+                    + ", executing it in order");
+            resetEntries(order, savedStrings, savedIntegers);
+            return false;
+        }
+
+        // take the global variables written by the last execution of each
+        for (String variable : written) {
+            VM lastWriter = null;
+            int lastIteration = -1;
+            for (VM copy : copies) {
+                Integer iteration = copy.iterationLog.lastWritingIteration.get(variable);
+                if ((iteration != null) && (iteration > lastIteration)) {
+                    lastWriter = copy;
+                    lastIteration = iteration;
+                }
+            }
+            if (strings.containsKey(variable)) {
+                strings.put(variable, lastWriter.strings.get(variable));
+            } else {
+                integers.put(variable, lastWriter.integers.get(variable));
+            }
+        }
+
+        // the chunks are in order of the entries
+        for (VM copy : copies) {
+            for (String warning : copy.iterationLog.warnings) {
+                warn(warning);
+            }
+        }
+        return true;
+    }
+
+    private void executeChunk(String name, List<BstEntry> order, int start, int end) {
+        BstFunction f = functions.get(name);
+        for (int i = start; i < end; i++) {
+            iterationLog.startIteration(i);
+            f.execute(order.get(i));
+            if (!stack.isEmpty()) {
+                throw new VMException(name + " left values on the stack");
+            }
+        }
+    }
+
+    private static void resetEntries(List<BstEntry> order, List<Map<String, String>> savedStrings,
+            List<Map<String, Integer>> savedIntegers) {
+        for (int i = 0; i < order.size(); i++) {
+            BstEntry entry = order.get(i);
+            entry.localStrings.clear();
+            entry.localStrings.putAll(savedStrings.get(i));
+            entry.localIntegers.clear();
+            entry.localIntegers.putAll(savedIntegers.get(i));
+        }
+    }
+
+    private void readGlobal(String name) {
+        if (iterationLog != null) {
+            iterationLog.read(name);
+        }
+    }
+
+    private void writeGlobal(String name) {
+        if (iterationLog != null) {
+            iterationLog.write(name);
+        }
+    }
+
+
+    /**
+     * The use of global variables and the warnings of the executions of a chunk of entries
+     */
+    private static class IterationLog {
+
+        private int iteration;
+        private final Set<String> writtenByIteration = new HashSet<>();
+        private final Set<String> readBeforeWritten = new HashSet<>();
+        private final Map<String, Integer> lastWritingIteration = new HashMap<>();
+        // printed in order of the entries once all chunks were executed successfully
+        private final List<String> warnings = new ArrayList<>();
+
+
+        void startIteration(int iteration) {
+            this.iteration = iteration;
+            writtenByIteration.clear();
+        }
+
+        void read(String name) {
+            if (!writtenByIteration.contains(name)) {
+                readBeforeWritten.add(name);
+            }
+        }
+
+        void write(String name) {
+            writtenByIteration.add(name);
+            lastWritingIteration.put(name, iteration);
+        }
+
+        void warn(String warning) {
+            warnings.add(warning);
         }
     }
 
@@ -1059,10 +1340,13 @@ public class VM implements Warn {
         });
     }
 
+    private static boolean isFunctionLiteral(Object o) {
+        return (o instanceof Identifier) || (o instanceof StackFunction);
+    }
+
     private void executeInContext(Object o, BstEntry context) {
-        if (o instanceof Tree) {
-            Tree t = (Tree) o;
-            new StackFunction(t).execute(context);
+        if (o instanceof StackFunction) {
+            ((StackFunction) o).execute(context);
         } else if (o instanceof Identifier) {
             execute(((Identifier) o).getName(), context);
         }
@@ -1073,13 +1357,49 @@ public class VM implements Warn {
     }
 
 
+    /**
+     * A function defined in the style file, or a function literal within a function.
+     * <p>
+     * The tree of the function is compiled once into a flat array of instructions: literals are parsed into the
+     * values to push, nested function literals are compiled themselves, and identifiers are resolved to the variable
+     * or function they name when they are first executed.
+     */
     public class StackFunction implements BstFunction {
 
         private final Tree localTree;
 
+        private final BstFunction[] instructions;
+
+        // the line of each instruction in the style file, for error messages
+        private final int[] lines;
+
 
         public StackFunction(Tree stack) {
             localTree = stack;
+
+            instructions = new BstFunction[stack.getChildCount()];
+            lines = new int[stack.getChildCount()];
+            for (int i = 0; i < stack.getChildCount(); i++) {
+                Tree c = stack.getChild(i);
+                instructions[i] = compile(c);
+                lines[i] = c.getLine();
+            }
+        }
+
+        private BstFunction compile(Tree c) {
+            switch (c.getType()) {
+            case BstParser.STRING:
+                String s = c.getText();
+                return new Push(s.substring(1, s.length() - 1));
+            case BstParser.INTEGER:
+                return new Push(Integer.parseInt(c.getText().substring(1)));
+            case BstParser.QUOTED:
+                return new Push(new Identifier(c.getText().substring(1)));
+            case BstParser.STACK:
+                return new Push(new StackFunction(c));
+            default:
+                return new Call(c.getText());
+            }
         }
 
         public Tree getTree() {
@@ -1089,35 +1409,17 @@ public class VM implements Warn {
         @Override
         public void execute(BstEntry context) {
 
-            for (int i = 0; i < localTree.getChildCount(); i++) {
-
-                Tree c = localTree.getChild(i);
+            for (int i = 0; i < instructions.length; i++) {
                 try {
-
-                    switch (c.getType()) {
-                    case BstParser.STRING:
-                        String s = c.getText();
-                        push(s.substring(1, s.length() - 1));
-                        break;
-                    case BstParser.INTEGER:
-                        push(Integer.parseInt(c.getText().substring(1)));
-                        break;
-                    case BstParser.QUOTED:
-                        push(new Identifier(c.getText().substring(1)));
-                        break;
-                    case BstParser.STACK:
-                        push(c);
-                        break;
-                    default:
-                        VM.this.execute(c.getText(), context);
-                        break;
-                    }
+                    instructions[i].execute(context);
                 } catch (VMException e) {
-                    if (file == null) {
-                        LOGGER.error("ERROR " + e.getMessage() + " (" + c.getLine() + ")");
-                    } else {
-                        LOGGER.error("ERROR " + e.getMessage() + " (" + file.getPath() + ":"
-                                + c.getLine() + ")");
+                    // errors of parallel executions are reported when the entries are executed in order again
+                    if (iterationLog == null) {
+                        if (file == null) {
+                            LOGGER.error("ERROR " + e.getMessage() + " (" + lines[i] + ")");
+                        } else {
+                            LOGGER.error("ERROR " + e.getMessage() + " (" + file.getPath() + ":" + lines[i] + ")");
+                        }
                     }
                     throw e;
                 }
@@ -1126,9 +1428,127 @@ public class VM implements Warn {
         }
     }
 
+    /**
+     * Pushes a literal
+     */
+    private class Push implements BstFunction {
+
+        private final Object value;
+
+
+        Push(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public void execute(BstEntry context) {
+            stack.push(value);
+        }
+    }
 
-    private void push(Tree t) {
-        stack.push(t);
+    private enum Kind {
+        FIELD,
+        ENTRY_STRING,
+        ENTRY_INTEGER,
+        STRING,
+        INTEGER,
+        FUNCTION
+    }
+
+    /**
+     * Executes an identifier like {@link VM#execute(String, BstEntry)}.
+     * <p>
+     * Which variable or function the identifier names is looked up once, separately for executions with and without
+     * an entry, and only again after new variables or functions have been declared. All entries have the same
+     * variables, so the kind of variable found for one entry holds for all of them.
+     */
+    private class Call implements BstFunction {
+
+        private final String name;
+
+        private Kind kindWithEntry;
+        private BstFunction functionWithEntry;
+        private int declarationsWithEntry = -1;
+
+        private Kind kindWithoutEntry;
+        private BstFunction functionWithoutEntry;
+        private int declarationsWithoutEntry = -1;
+
+
+        Call(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void execute(BstEntry context) {
+            Kind kind;
+            BstFunction function;
+            if (context == null) {
+                if (declarationsWithoutEntry != declarations) {
+                    kindWithoutEntry = resolve(null);
+                    functionWithoutEntry = functions.get(name);
+                    declarationsWithoutEntry = declarations;
+                }
+                kind = kindWithoutEntry;
+                function = functionWithoutEntry;
+            } else {
+                if (declarationsWithEntry != declarations) {
+                    kindWithEntry = resolve(context);
+                    functionWithEntry = functions.get(name);
+                    declarationsWithEntry = declarations;
+                }
+                kind = kindWithEntry;
+                function = functionWithEntry;
+            }
+
+            switch (kind) {
+            case FIELD:
+                stack.push(context.getFields().get(name));
+                break;
+            case ENTRY_STRING:
+                stack.push(context.localStrings.get(name));
+                break;
+            case ENTRY_INTEGER:
+                stack.push(context.localIntegers.get(name));
+                break;
+            case STRING:
+                readGlobal(name);
+                stack.push(strings.get(name));
+                break;
+            case INTEGER:
+                readGlobal(name);
+                stack.push(integers.get(name));
+                break;
+            default:
+                // OK to have a null context
+                function.execute(context);
+                break;
+            }
+        }
+
+        private Kind resolve(BstEntry context) {
+            if (context != null) {
+                if (context.getFields().containsKey(name)) {
+                    return Kind.FIELD;
+                }
+                if (context.localStrings.containsKey(name)) {
+                    return Kind.ENTRY_STRING;
+                }
+                if (context.localIntegers.containsKey(name)) {
+                    return Kind.ENTRY_INTEGER;
+                }
+            }
+            if (strings.containsKey(name)) {
+                return Kind.STRING;
+            }
+            if (integers.containsKey(name)) {
+                return Kind.INTEGER;
+            }
+            if (functions.containsKey(name)) {
+                return Kind.FUNCTION;
+            }
+            throw new VMException("No matching identifier found: " + name);
+        }
     }
 
     private void execute(String name, BstEntry context) {
@@ -1149,10 +1569,12 @@ public class VM implements Warn {
             }
         }
         if (strings.containsKey(name)) {
+            readGlobal(name);
             stack.push(strings.get(name));
             return;
         }
         if (integers.containsKey(name)) {
+            readGlobal(name);
             stack.push(integers.get(name));
             return;
         }
@@ -1170,7 +1592,7 @@ public class VM implements Warn {
         String name = child.getChild(0).getText();
         Tree localStack = child.getChild(1);
         functions.put(name, new StackFunction(localStack));
-
+        declarations++;
     }
 
     /**
@@ -1189,6 +1611,7 @@ public class VM implements Warn {
             String name = t.getChild(i).getText();
             integers.put(name, 0);
         }
+        declarations++;
     }
 
     /**
@@ -1205,6 +1628,7 @@ public class VM implements Warn {
             String name = t.getChild(i).getText();
             strings.put(name, null);
         }
+        declarations++;
     }
 
 
@@ -1261,13 +1685,25 @@ public class VM implements Warn {
         return functions;
     }
 
-    public Stack<Object> getStack() {
+    public BstStack getStack() {
         return stack;
     }
 
+    /**
+     * Sets the number of entries from which ITERATE and REVERSE may execute their function in parallel.
+     */
+    void setMinimumEntriesForParallelIteration(int minimumEntriesForParallelIteration) {
+        this.minimumEntriesForParallelIteration = minimumEntriesForParallelIteration;
+    }
+
     @Override
     public void warn(String string) {
-        LOGGER.warn(string);
+        // warnings of parallel executions are printed when it is known that the entries are not executed again
+        if (iterationLog == null) {
+            LOGGER.warn(string);
+        } else {
+            iterationLog.warn(string);
+        }
     }
 
 }
@@ -1,6 +1,7 @@
 package net.sf.jabref.cli;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -24,15 +25,18 @@ import net.sf.jabref.exporter.SaveException;
 import net.sf.jabref.exporter.SavePreferences;
 import net.sf.jabref.exporter.SaveSession;
 import net.sf.jabref.external.AutoSetLinks;
+import net.sf.jabref.importer.EntryFromFileCreatorManager;
 import net.sf.jabref.importer.ImportFormatReader;
 import net.sf.jabref.importer.ImportInspectionCommandLine;
 import net.sf.jabref.importer.OpenDatabaseAction;
 import net.sf.jabref.importer.ParserResult;
+import net.sf.jabref.importer.UnlinkedFilesCrawler;
+import net.sf.jabref.importer.UnlinkedPDFFileFilter;
 import net.sf.jabref.importer.fetcher.EntryFetcher;
 import net.sf.jabref.importer.fetcher.EntryFetchers;
 import net.sf.jabref.logic.CustomEntryTypesManager;
 import net.sf.jabref.logic.l10n.Localization;
-import net.sf.jabref.logic.labelpattern.LabelPatternUtil;
+import net.sf.jabref.logic.labelpattern.BibtexKeyGenerator;
 import net.sf.jabref.logic.logging.JabRefLogger;
 import net.sf.jabref.logic.search.DatabaseSearcher;
 import net.sf.jabref.logic.search.SearchQuery;
@@ -128,6 +132,10 @@ public class ArgumentProcessor {
             automaticallySetFileLinks(loaded);
         }
 
+        if (cli.isFindUnlinkedFiles()) {
+            findUnlinkedFiles(loaded);
+        }
+
         if (cli.isFileExport()) {
             if (!loaded.isEmpty()) {
                 exportFile(loaded, cli.getFileExport().split(","));
@@ -421,6 +429,25 @@ public class ArgumentProcessor {
         }
     }
 
+    private void findUnlinkedFiles(List<ParserResult> loaded) {
+        File directory = new File(cli.getFindUnlinkedFiles());
+        if (!directory.isDirectory()) {
+            System.err.println(Localization.lang("Directory not found") + ": " + directory.getPath());
+            return;
+        }
+
+        FileFilter fileFilter = new EntryFromFileCreatorManager().getFileFilter();
+        for (ParserResult parserResult : loaded) {
+            BibDatabase database = parserResult.getDatabase();
+            LOGGER.info(Localization.lang("Searching file system..."));
+            UnlinkedPDFFileFilter unlinkedFileFilter = new UnlinkedPDFFileFilter(fileFilter, database,
+                    parserResult.getDatabaseContext().getFileDirectory());
+            for (File file : new UnlinkedFilesCrawler(database).findFiles(directory, unlinkedFileFilter)) {
+                System.out.println(file.getPath());
+            }
+        }
+    }
+
     private void regenerateBibtexKeys(List<ParserResult> loaded) {
         for (ParserResult parserResult : loaded) {
             BibDatabase database = parserResult.getDatabase();
@@ -428,10 +455,7 @@ public class ArgumentProcessor {
             MetaData metaData = parserResult.getMetaData();
             if (metaData != null) {
                 LOGGER.info(Localization.lang("Regenerating BibTeX keys according to metadata"));
-                for (BibEntry entry : database.getEntries()) {
-                    // try to make a new label
-                    LabelPatternUtil.makeLabel(metaData, database, entry);
-                }
+                new BibtexKeyGenerator(metaData, database).generateKeys(database.getEntries());
             } else {
                 LOGGER.info(Localization.lang("No meta data present in bibfile. Cannot regenerate BibTeX keys"));
             }
@@ -136,6 +136,14 @@ public class JabRefCLI {
 
     public boolean isAutomaticallySetFileLinks() { return cl.hasOption("automaticallySetFileLinks");}
 
+    public boolean isFindUnlinkedFiles() {
+        return cl.hasOption("findUnlinkedFiles");
+    }
+
+    public String getFindUnlinkedFiles() {
+        return cl.getOptionValue("findUnlinkedFiles");
+    }
+
     private Options getOptions() {
         Options options = new Options();
 
@@ -221,6 +229,13 @@ public class JabRefCLI {
                 desc(Localization.lang("Automatically set file links")).
                 build());
 
+        options.addOption(Option.builder().
+                longOpt("findUnlinkedFiles").
+                desc(Localization.lang("Find unlinked files")).
+                hasArg().
+                argName("DIR").
+                build());
+
         return options;
     }
 
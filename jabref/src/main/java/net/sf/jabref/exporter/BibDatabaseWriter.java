@@ -16,6 +16,7 @@
 package net.sf.jabref.exporter;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
@@ -46,6 +47,7 @@ import net.sf.jabref.logic.id.IdComparator;
 import net.sf.jabref.logic.util.strings.StringUtil;
 import net.sf.jabref.model.EntryTypes;
 import net.sf.jabref.model.database.BibDatabase;
+import net.sf.jabref.model.database.BibDatabaseMode;
 import net.sf.jabref.model.entry.BibEntry;
 import net.sf.jabref.model.entry.BibtexString;
 import net.sf.jabref.model.entry.CustomEntryType;
@@ -61,6 +63,8 @@ public class BibDatabaseWriter {
     private static final String STRING_PREFIX = "@String";
     private static final String COMMENT_PREFIX = "@Comment";
     private static final String PREAMBLE_PREFIX = "@Preamble";
+    // number of entries formatted in parallel before they are written
+    private static final int FORMATTING_BATCH_SIZE = 1024;
     private BibEntry exceptionCause;
     private boolean isFirstStringInType;
 
@@ -160,7 +164,8 @@ public class BibDatabaseWriter {
         exceptionCause = null;
         // Get our data stream. This stream writes only to a temporary file until committed.
         try (VerifyingWriter writer = session.getWriter()) {
-            List<FieldChange> saveActionChanges = writePartOfDatabase(writer, bibDatabaseContext, entries, preferences);
+            List<FieldChange> saveActionChanges = writePartOfDatabase(writer, bibDatabaseContext, entries, preferences,
+                    session);
             session.addFieldChanges(saveActionChanges);
         } catch (IOException ex) {
             LOGGER.error("Could not write file", ex);
@@ -174,6 +179,15 @@ public class BibDatabaseWriter {
 
     public List<FieldChange> writePartOfDatabase(Writer writer, BibDatabaseContext bibDatabaseContext,
             List<BibEntry> entries, SavePreferences preferences) throws IOException {
+        return writePartOfDatabase(writer, bibDatabaseContext, entries, preferences, null);
+    }
+
+    /**
+     * @param session if not null, the changed entries are added to it as they were written, so they can be stored as
+     *                their serialization once the session is committed to the file of the database
+     */
+    private List<FieldChange> writePartOfDatabase(Writer writer, BibDatabaseContext bibDatabaseContext,
+            List<BibEntry> entries, SavePreferences preferences, SaveSession session) throws IOException {
         Objects.requireNonNull(writer);
 
         // Map to collect entry type definitions that we must save along with entries using them.
@@ -194,21 +208,42 @@ public class BibDatabaseWriter {
         List<BibEntry> sortedEntries = BibDatabaseWriter.getSortedEntries(bibDatabaseContext, entries, preferences);
         List<FieldChange> saveActionChanges = BibDatabaseWriter.applySaveActions(sortedEntries, bibDatabaseContext.getMetaData());
         BibEntryWriter bibtexEntryWriter = new BibEntryWriter(new LatexFieldFormatter(), true);
-        for (BibEntry entry : sortedEntries) {
-            exceptionCause = entry;
-
-            // Check if we must write the type definition for this
-            // entry, as well. Our criterion is that all non-standard
-            // types (*not* all customized standard types) must be written.
-            if (!EntryTypes.getStandardType(entry.getType(), bibDatabaseContext.getMode()).isPresent()) {
-                // If user-defined entry type, then add it
-                // Otherwise (getType returns empty optional) it is a completely unknown entry type, so ignore it
-                EntryTypes.getType(entry.getType(), bibDatabaseContext.getMode()).ifPresent(
-                        entryType -> typesToWrite.put(entryType.getName(), entryType));
-            }
-
-            bibtexEntryWriter.write(entry, writer, bibDatabaseContext.getMode(), preferences.isReformatFile());
+        // the formatters keep state, so each worker needs its own
+        ThreadLocal<BibEntryWriter> workerEntryWriter = ThreadLocal
+                .withInitial(() -> new BibEntryWriter(new LatexFieldFormatter(), true));
+        for (int start = 0; start < sortedEntries.size(); start += FORMATTING_BATCH_SIZE) {
+            List<BibEntry> batch = sortedEntries.subList(start,
+                    Math.min(start + FORMATTING_BATCH_SIZE, sortedEntries.size()));
+            // format the entries of the batch in parallel, then write them in their order
+            List<FormattedEntry> formattedEntries = batch.parallelStream()
+                    .map(entry -> format(entry, workerEntryWriter.get(), bibDatabaseContext.getMode(),
+                            preferences.isReformatFile()))
+                    .collect(Collectors.toList());
+
+            for (int i = 0; i < batch.size(); i++) {
+                BibEntry entry = batch.get(i);
+                exceptionCause = entry;
+
+                // Check if we must write the type definition for this
+                // entry, as well. Our criterion is that all non-standard
+                // types (*not* all customized standard types) must be written.
+                if (!EntryTypes.getStandardType(entry.getType(), bibDatabaseContext.getMode()).isPresent()) {
+                    // If user-defined entry type, then add it
+                    // Otherwise (getType returns empty optional) it is a completely unknown entry type, so ignore it
+                    EntryTypes.getType(entry.getType(), bibDatabaseContext.getMode()).ifPresent(
+                            entryType -> typesToWrite.put(entryType.getName(), entryType));
+                }
 
+                FormattedEntry formattedEntry = formattedEntries.get(i);
+                if (formattedEntry == null) {
+                    bibtexEntryWriter.write(entry, writer, bibDatabaseContext.getMode(), false);
+                } else {
+                    writer.write(formattedEntry.getSerialization());
+                    if ((session != null) && entry.hasChanged()) {
+                        session.addWrittenEntry(entry, formattedEntry.getSerialization(), formattedEntry.changeCount);
+                    }
+                }
+            }
         }
 
         if (preferences.getSaveType() != SavePreferences.DatabaseSaveType.PLAIN_BIBTEX) {
@@ -225,6 +260,26 @@ public class BibDatabaseWriter {
         return saveActionChanges;
     }
 
+    /**
+     * Formats the given entry, unless it can be written as it was read.
+     *
+     * @return the formatted entry, or null if the parsed serialization of the entry can be written
+     */
+    private static FormattedEntry format(BibEntry entry, BibEntryWriter entryWriter, BibDatabaseMode mode,
+            boolean reformat) {
+        if (!reformat && !entry.hasChanged()) {
+            return null;
+        }
+        int changeCount = entry.getChangeCount();
+        StringWriter serialization = new StringWriter();
+        try {
+            entryWriter.write(entry, serialization, mode, reformat);
+        } catch (IOException | RuntimeException ex) {
+            return new FormattedEntry(ex, changeCount);
+        }
+        return new FormattedEntry(serialization.toString(), changeCount);
+    }
+
     /**
      * Saves the database to file, including only the entries included in the
      * supplied input array bes.
@@ -403,4 +458,41 @@ public class BibDatabaseWriter {
         }
     }
 
+
+    /**
+     * An entry formatted by a worker, or the exception the formatting failed with
+     */
+    private static class FormattedEntry {
+
+        private final String serialization;
+        private final Exception failure;
+        // the change count of the entry when formatting started
+        private final int changeCount;
+
+
+        FormattedEntry(String serialization, int changeCount) {
+            this.serialization = serialization;
+            this.failure = null;
+            this.changeCount = changeCount;
+        }
+
+        FormattedEntry(Exception failure, int changeCount) {
+            this.serialization = null;
+            this.failure = failure;
+            this.changeCount = changeCount;
+        }
+
+        /**
+         * Returns the formatted entry, or rethrows the exception formatting failed with in the calling thread.
+         */
+        String getSerialization() throws IOException {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            return serialization;
+        }
+    }
+
 }
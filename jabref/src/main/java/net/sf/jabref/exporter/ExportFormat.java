@@ -24,6 +24,7 @@ import java.io.Reader;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,8 +34,10 @@ import javax.swing.filechooser.FileFilter;
 
 import net.sf.jabref.BibDatabaseContext;
 import net.sf.jabref.Globals;
+import net.sf.jabref.logic.journals.JournalAbbreviationRepository;
 import net.sf.jabref.logic.layout.Layout;
 import net.sf.jabref.logic.layout.LayoutHelper;
+import net.sf.jabref.logic.layout.format.NameFormatter;
 import net.sf.jabref.model.entry.BibEntry;
 
 import org.apache.commons.logging.Log;
@@ -134,18 +137,10 @@ public class ExportFormat implements IExportFormat {
      * @throws IOException if the reader could not be created
      */
     private Reader getReader(String filename) throws IOException {
-        // If this is a custom export, just use the given filename:
-        String dir;
-        if (customExport) {
-            dir = "";
-        } else {
-            dir = LAYOUT_PREFIX + (directory == null ? "" : directory + '/');
-        }
-
         // Attempt to get a Reader for the file path given, either by
         // loading it as a resource (from within jar), or as a normal file. If
         // unsuccessful (e.g. file not found), an IOException is thrown.
-        String name = dir + filename;
+        String name = getLayoutPath(filename);
         Reader reader;
         // Try loading as a resource first. This works for files inside the jar:
         URL reso = Globals.class.getResource(name);
@@ -165,6 +160,48 @@ public class ExportFormat implements IExportFormat {
         return reader;
     }
 
+    private String getLayoutPath(String filename) {
+        // If this is a custom export, just use the given filename:
+        String dir;
+        if (customExport) {
+            dir = "";
+        } else {
+            dir = LAYOUT_PREFIX + (directory == null ? "" : directory + '/');
+        }
+        return dir + filename;
+    }
+
+    /**
+     * Returns the parsed layout of the given layout file. Layouts are cached for the whole application and only parsed
+     * again if the layout file, the name formatters or the journal abbreviations changed.
+     *
+     * @throws IOException if the layout file does not exist or could not be read
+     */
+    private Layout getLayout(String filename) throws IOException {
+        String name = getLayoutPath(filename);
+
+        // layout files within the jar do not change
+        long lastModified = 0;
+        long length = 0;
+        if (Globals.class.getResource(name) == null) {
+            File file = new File(name);
+            if (!file.isFile()) {
+                throw new IOException("Cannot find layout file: '" + name + "'.");
+            }
+            lastModified = file.lastModified();
+            length = file.length();
+        }
+
+        JournalAbbreviationRepository repository = Globals.journalAbbreviationLoader.getRepository();
+        List<Object> version = Arrays.asList(lastModified, length, Globals.prefs.customExportNameFormatters,
+                NameFormatter.getNameFormatters(), repository);
+        return LayoutCache.getLayout(name, version, () -> {
+            try (Reader reader = getReader(filename)) {
+                return new LayoutHelper(reader, repository).getLayoutFromText();
+            }
+        });
+    }
+
     /**
      * Perform the export of {@code database}.
      *
@@ -211,9 +248,8 @@ public class ExportFormat implements IExportFormat {
             List<String> missingFormatters = new ArrayList<>(1);
 
             // Print header
-            try (Reader reader = getReader(lfFileName + ".begin.layout")) {
-                LayoutHelper layoutHelper = new LayoutHelper(reader, Globals.journalAbbreviationLoader.getRepository());
-                beginLayout = layoutHelper.getLayoutFromText();
+            try {
+                beginLayout = getLayout(lfFileName + ".begin.layout");
             } catch (IOException ex) {
                 // If an exception was cast, export filter doesn't have a begin
                 // file.
@@ -235,12 +271,7 @@ public class ExportFormat implements IExportFormat {
             List<BibEntry> sorted = BibDatabaseWriter.getSortedEntries(databaseContext, entries, savePrefs);
 
             // Load default layout
-            Layout defLayout;
-            LayoutHelper layoutHelper;
-            try (Reader reader = getReader(lfFileName + ".layout")) {
-                layoutHelper = new LayoutHelper(reader, Globals.journalAbbreviationLoader.getRepository());
-                defLayout = layoutHelper.getLayoutFromText();
-            }
+            Layout defLayout = getLayout(lfFileName + ".layout");
             if (defLayout != null) {
                 missingFormatters.addAll(defLayout.getMissingFormatters());
                 if (!missingFormatters.isEmpty()) {
@@ -258,10 +289,9 @@ public class ExportFormat implements IExportFormat {
                 if (layouts.containsKey(type)) {
                     layout = layouts.get(type);
                 } else {
-                    try (Reader reader = getReader(lfFileName + '.' + type + ".layout")) {
+                    try {
                         // We try to get a type-specific layout for this entry.
-                        layoutHelper = new LayoutHelper(reader, Globals.journalAbbreviationLoader.getRepository());
-                        layout = layoutHelper.getLayoutFromText();
+                        layout = getLayout(lfFileName + '.' + type + ".layout");
                         layouts.put(type, layout);
                         if (layout != null) {
                             missingFormatters.addAll(layout.getMissingFormatters());
@@ -272,20 +302,20 @@ public class ExportFormat implements IExportFormat {
                         // exists, so we
                         // go with the default one.
                         layout = defLayout;
+                        layouts.put(type, layout);
                     }
                 }
 
                 // Write the entry
-                ps.write(layout.doLayout(entry, databaseContext.getDatabase()));
+                layout.doLayout(entry, databaseContext.getDatabase(), ps);
             }
 
             // Print footer
 
             // changed section - begin (arudert)
             Layout endLayout = null;
-            try (Reader reader = getReader(lfFileName + ".end.layout")) {
-                layoutHelper = new LayoutHelper(reader, Globals.journalAbbreviationLoader.getRepository());
-                endLayout = layoutHelper.getLayoutFromText();
+            try {
+                endLayout = getLayout(lfFileName + ".end.layout");
             } catch (IOException ex) {
                 // If an exception was thrown, export filter doesn't have an end
                 // file.
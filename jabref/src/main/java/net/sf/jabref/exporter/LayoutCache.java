@@ -0,0 +1,64 @@
+package net.sf.jabref.exporter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.sf.jabref.logic.layout.Layout;
+
+/**
+ * Keeps the parsed layouts of export formats for the whole application, so layout files are only read and parsed,
+ * and their formatters only looked up, once.
+ * <p>
+ * A layout is stored with everything it was built from, like the modification time of its file and the name
+ * formatters. It is parsed again when any of these changed.
+ */
+class LayoutCache {
+
+    private static final Map<String, CachedLayout> LAYOUTS = new ConcurrentHashMap<>();
+
+
+    private LayoutCache() {
+    }
+
+    /**
+     * Returns the layout stored for the given name, or loads it if it was not stored or built from another version.
+     *
+     * @param version everything the layout depends on, compared using equals
+     */
+    static Layout getLayout(String name, List<Object> version, LayoutLoader loader) throws IOException {
+        CachedLayout cached = LAYOUTS.get(name);
+        if ((cached != null) && cached.version.equals(version)) {
+            return cached.layout;
+        }
+
+        Layout layout = Objects.requireNonNull(loader.load());
+        LAYOUTS.put(name, new CachedLayout(version, layout));
+        return layout;
+    }
+
+    static void clear() {
+        LAYOUTS.clear();
+    }
+
+
+    @FunctionalInterface
+    interface LayoutLoader {
+
+        Layout load() throws IOException;
+    }
+
+    private static class CachedLayout {
+
+        private final List<Object> version;
+        private final Layout layout;
+
+
+        CachedLayout(List<Object> version, Layout layout) {
+            this.version = version;
+            this.layout = layout;
+        }
+    }
+}
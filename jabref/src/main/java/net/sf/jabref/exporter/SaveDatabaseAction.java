@@ -244,6 +244,9 @@ public class SaveDatabaseAction extends AbstractWorker {
         try {
             if (commit) {
                 session.commit(file);
+                if (!selectedOnly) {
+                    session.updateEntrySerializations();
+                }
                 panel.setEncoding(encoding); // Make sure to remember which encoding we used.
             } else {
                 session.cancel();
@@ -256,6 +259,9 @@ public class SaveDatabaseAction extends AbstractWorker {
             if (ans == JOptionPane.YES_OPTION) {
                 session.setUseBackup(false);
                 session.commit(file);
+                if (!selectedOnly) {
+                    session.updateEntrySerializations();
+                }
                 panel.setEncoding(encoding);
             } else {
                 commit = false;
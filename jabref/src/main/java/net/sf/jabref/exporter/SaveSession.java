@@ -25,10 +25,12 @@ import java.util.List;
 import net.sf.jabref.Globals;
 import net.sf.jabref.JabRefPreferences;
 import net.sf.jabref.gui.GUIGlobals;
+import net.sf.jabref.importer.fileformat.MappedBibtexFile;
 import net.sf.jabref.logic.FieldChange;
 import net.sf.jabref.logic.l10n.Localization;
 import net.sf.jabref.logic.util.io.FileBasedLock;
 import net.sf.jabref.logic.util.io.FileUtil;
+import net.sf.jabref.model.entry.BibEntry;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -66,6 +68,9 @@ public class SaveSession {
 
     private final List<FieldChange> undoableFieldChanges = new ArrayList<>();
 
+    // the changed entries as they were written
+    private final List<WrittenEntry> writtenEntries = new ArrayList<>();
+
 
     public SaveSession(Charset encoding, boolean backup) throws IOException {
         tmp = File.createTempFile(SaveSession.TEMP_PREFIX, SaveSession.TEMP_SUFFIX);
@@ -124,6 +129,8 @@ public class SaveSession {
                 }
             }
 
+            // entries which are still read lazily from the file would see the new content
+            MappedBibtexFile.release(file);
             FileUtil.copyFile(tmp, file, true);
         } catch (IOException ex2) {
             // If something happens here, what can we do to correct the problem? The file is corrupted, but we still
@@ -197,4 +204,36 @@ public class SaveSession {
     public void addFieldChanges(List<FieldChange> newUndoableFieldChanges) {
         this.undoableFieldChanges.addAll(newUndoableFieldChanges);
     }
+
+    void addWrittenEntry(BibEntry entry, String serialization, int changeCount) {
+        writtenEntries.add(new WrittenEntry(entry, serialization, changeCount));
+    }
+
+    /**
+     * Stores the changed entries as they were written as their serialization, so they are written as they are on the
+     * next save unless they change again. This must only be done after the session was committed to the file of the
+     * database, as the serialization has to match that file, and not for autosaves, exports or the selected entries.
+     */
+    public void updateEntrySerializations() {
+        for (WrittenEntry written : writtenEntries) {
+            written.entry.updateSerialization(written.serialization, written.changeCount);
+        }
+        writtenEntries.clear();
+    }
+
+
+    private static class WrittenEntry {
+
+        private final BibEntry entry;
+        private final String serialization;
+        // the change count of the entry when formatting started
+        private final int changeCount;
+
+
+        WrittenEntry(BibEntry entry, String serialization, int changeCount) {
+            this.entry = entry;
+            this.serialization = serialization;
+            this.changeCount = changeCount;
+        }
+    }
 }
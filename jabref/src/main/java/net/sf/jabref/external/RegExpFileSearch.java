@@ -18,15 +18,16 @@ package net.sf.jabref.external;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import net.sf.jabref.logic.labelpattern.LabelPatternUtil;
 import net.sf.jabref.logic.util.strings.StringUtil;
@@ -66,30 +67,23 @@ public class RegExpFileSearch {
     public static Map<BibEntry, List<File>> findFilesForSet(Collection<BibEntry> entries,
             Collection<String> extensions, List<File> directories, String regExp) {
 
+        String extensionRegExp = '(' + String.join("|", extensions) + ')';
+
+        // The entries are searched in parallel, and share the listings of the directories,
+        // so each directory is only read once:
+        DirectoryCache directoryCache = new DirectoryCache();
+        List<BibEntry> entryList = new ArrayList<>(entries);
+        List<List<File>> files = entryList.parallelStream()
+                .map(entry -> findFile(entry, directories, regExp, extensionRegExp, directoryCache))
+                .collect(Collectors.toList());
+
         Map<BibEntry, List<File>> res = new HashMap<>();
-        for (BibEntry entry : entries) {
-            res.put(entry, findFiles(entry, extensions, directories, regExp));
+        for (int i = 0; i < entryList.size(); i++) {
+            res.put(entryList.get(i), files.get(i));
         }
         return res;
     }
 
-    /**
-     * Method for searching for files using regexp. A list of extensions and directories can be
-     * given.
-     * @param entry The entry to search for.
-     * @param extensions The extensions that are acceptable.
-     * @param directories The root directories to search.
-     * @param regularExpression The expression deciding which names are acceptable.
-     * @return A list of files paths matching the given criteria.
-     */
-    private static List<File> findFiles(BibEntry entry, Collection<String> extensions,
-            Collection<File> directories, String regularExpression) {
-
-        String extensionRegExp = '(' + String.join("|", extensions) + ')';
-
-        return findFile(entry, directories, regularExpression, extensionRegExp);
-    }
-
     /**
      * Searches the given directory and filename pattern for a file for the
      * BibTeX entry.
@@ -129,10 +123,12 @@ public class RegExpFileSearch {
      *         null if none was found.
      */
     private static List<File> findFile(BibEntry entry, Collection<File> dirs, String file,
-            String extensionRegExp) {
+            String extensionRegExp, DirectoryCache directoryCache) {
+        // The name patterns only depend on the entry, not on the directory
+        Map<String, Pattern> namePatterns = new HashMap<>();
         List<File> res = new ArrayList<>();
         for (File directory : dirs) {
-            res.addAll(findFile(entry, directory.getPath(), file, extensionRegExp));
+            res.addAll(findFile(entry, directory.getPath(), file, extensionRegExp, directoryCache, namePatterns));
         }
         return res;
     }
@@ -142,7 +138,8 @@ public class RegExpFileSearch {
      * base the search on.
      *
      */
-    private static List<File> findFile(BibEntry entry, String directory, String file, String extensionRegExp) {
+    private static List<File> findFile(BibEntry entry, String directory, String file, String extensionRegExp,
+            DirectoryCache directoryCache, Map<String, Pattern> namePatterns) {
 
         File root;
         if (directory == null) {
@@ -153,7 +150,8 @@ public class RegExpFileSearch {
         if (!root.exists()) {
             return Collections.emptyList();
         }
-        List<File> fileList = RegExpFileSearch.findFile(entry, root, file, extensionRegExp);
+        List<File> fileList = RegExpFileSearch.findFile(entry, root, file, extensionRegExp, directoryCache,
+                namePatterns);
 
         List<File> result = new ArrayList<>();
         for (File tmpFile : fileList) {
@@ -182,7 +180,8 @@ public class RegExpFileSearch {
      * The actual work-horse. Will find absolute filepaths starting from the
      * given directory using the given regular expression string for search.
      */
-    private static List<File> findFile(BibEntry entry, File directory, String file, String extensionRegExp) {
+    private static List<File> findFile(BibEntry entry, File directory, String file, String extensionRegExp,
+            DirectoryCache directoryCache, Map<String, Pattern> namePatterns) {
 
         List<File> res = new ArrayList<>();
 
@@ -226,14 +225,10 @@ public class RegExpFileSearch {
             }
             if ("*".equals(dirToProcess)) { // Do for all direct subdirs
 
-                File[] subDirs = actualDirectory.listFiles();
-                if (subDirs != null) {
-                    String restOfFileString = StringUtil.join(fileParts, "/", i + 1, fileParts.length);
-                    for (File subDir : subDirs) {
-                        if (subDir.isDirectory()) {
-                            res.addAll(findFile(entry, subDir, restOfFileString, extensionRegExp));
-                        }
-                    }
+                String restOfFileString = StringUtil.join(fileParts, "/", i + 1, fileParts.length);
+                for (File subDir : directoryCache.listDirectories(actualDirectory)) {
+                    res.addAll(findFile(entry, subDir, restOfFileString, extensionRegExp, directoryCache,
+                            namePatterns));
                 }
             }
             // Do for all direct and indirect subdirs
@@ -246,18 +241,13 @@ public class RegExpFileSearch {
                 while (!toDo.isEmpty()) {
 
                     // Get all subdirs of each of the elements found in toDo
-                    File[] subDirs = toDo.remove(0).listFiles();
-                    if (subDirs == null) {
-                        continue;
-                    }
+                    List<File> subDirs = directoryCache.listDirectories(toDo.remove(0));
 
-                    toDo.addAll(Arrays.asList(subDirs));
+                    toDo.addAll(subDirs);
 
                     for (File subDir : subDirs) {
-                        if (!subDir.isDirectory()) {
-                            continue;
-                        }
-                        res.addAll(findFile(entry, subDir, restOfFileString, extensionRegExp));
+                        res.addAll(findFile(entry, subDir, restOfFileString, extensionRegExp, directoryCache,
+                                namePatterns));
                     }
                 }
 
@@ -265,16 +255,17 @@ public class RegExpFileSearch {
         }
 
         // Last step: check if the given file can be found in this directory
-        String filePart = fileParts[fileParts.length - 1].replace("[extension]", EXT_MARKER);
-        String filenameToLookFor = expandBrackets(filePart, entry, null).replaceAll(EXT_MARKER, extensionRegExp);
-        final Pattern toMatch = Pattern.compile('^' + filenameToLookFor.replaceAll("\\\\\\\\", "\\\\") + '$',
-                Pattern.CASE_INSENSITIVE);
-
-        File[] matches = actualDirectory.listFiles((arg0, arg1) -> {
-            return toMatch.matcher(arg1).matches();
+        Pattern toMatch = namePatterns.computeIfAbsent(fileParts[fileParts.length - 1], lastPart -> {
+            String filePart = lastPart.replace("[extension]", EXT_MARKER);
+            String filenameToLookFor = expandBrackets(filePart, entry, null).replaceAll(EXT_MARKER, extensionRegExp);
+            return Pattern.compile('^' + filenameToLookFor.replaceAll("\\\\\\\\", "\\\\") + '$',
+                    Pattern.CASE_INSENSITIVE);
         });
-        if ((matches != null) && (matches.length > 0)) {
-            Collections.addAll(res, matches);
+
+        for (File candidate : directoryCache.listFiles(actualDirectory)) {
+            if (toMatch.matcher(candidate.getName()).matches()) {
+                res.add(candidate);
+            }
         }
         return res;
     }
@@ -335,7 +326,7 @@ public class RegExpFileSearch {
 
         // If no field value was found, try to interpret it as a key generator field marker:
         if (fieldValue == null) {
-            fieldValue = LabelPatternUtil.makeLabel(entry, beforeColon);
+            fieldValue = LabelPatternUtil.makeLabel(entry, beforeColon, database);
         }
 
         if (fieldValue == null) {
@@ -352,4 +343,36 @@ public class RegExpFileSearch {
         return fieldValue;
     }
 
+
+    /**
+     * Keeps the contents of the directories read during one search, for all entries.
+     */
+    private static class DirectoryCache {
+
+        private final Map<File, File[]> files = new ConcurrentHashMap<>();
+        private final Map<File, List<File>> directories = new ConcurrentHashMap<>();
+
+
+        /**
+         * Returns the files and directories in the given directory, or nothing if it cannot be read.
+         */
+        File[] listFiles(File directory) {
+            return files.computeIfAbsent(directory, dir -> {
+                File[] children = dir.listFiles();
+                return children == null ? new File[0] : children;
+            });
+        }
+
+        List<File> listDirectories(File directory) {
+            return directories.computeIfAbsent(directory, dir -> {
+                List<File> subDirs = new ArrayList<>();
+                for (File child : listFiles(dir)) {
+                    if (child.isDirectory()) {
+                        subDirs.add(child);
+                    }
+                }
+                return subDirs;
+            });
+        }
+    }
 }
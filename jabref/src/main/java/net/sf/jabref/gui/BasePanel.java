@@ -57,6 +57,7 @@ import net.sf.jabref.Globals;
 import net.sf.jabref.HighlightMatchingGroupPreferences;
 import net.sf.jabref.JabRefExecutorService;
 import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.MetaData;
 import net.sf.jabref.collab.ChangeScanner;
 import net.sf.jabref.collab.FileUpdateListener;
 import net.sf.jabref.collab.FileUpdatePanel;
@@ -114,11 +115,15 @@ import net.sf.jabref.logic.autocompleter.AutoCompletePreferences;
 import net.sf.jabref.logic.autocompleter.AutoCompleter;
 import net.sf.jabref.logic.autocompleter.AutoCompleterFactory;
 import net.sf.jabref.logic.autocompleter.ContentAutoCompleters;
+import net.sf.jabref.logic.groups.GroupMembershipIndex;
+import net.sf.jabref.logic.integrity.IntegrityCheck;
 import net.sf.jabref.logic.l10n.Encodings;
 import net.sf.jabref.logic.l10n.Localization;
-import net.sf.jabref.logic.labelpattern.LabelPatternUtil;
+import net.sf.jabref.logic.labelpattern.BibtexKeyGenerator;
 import net.sf.jabref.logic.layout.Layout;
 import net.sf.jabref.logic.layout.LayoutHelper;
+import net.sf.jabref.logic.search.SearchExecutor;
+import net.sf.jabref.logic.search.SearchIndex;
 import net.sf.jabref.logic.util.UpdateField;
 import net.sf.jabref.logic.util.io.FileBasedLock;
 import net.sf.jabref.logic.util.io.FileUtil;
@@ -181,6 +186,13 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
 
     // AutoCompleter used in the search bar
     private AutoCompleter<String> searchAutoCompleter;
+    // Index used by the search bar, created on the first search
+    private SearchIndex searchIndex;
+    private GroupMembershipIndex groupMembershipIndex;
+    // Keeps the results of the integrity check of unchanged entries
+    private IntegrityCheck integrityCheck;
+    // Runs the searches of the search bar, abandoning outdated ones
+    private final SearchExecutor searchExecutor = new SearchExecutor();
     // The undo manager.
     public final CountingUndoManager undoManager = new CountingUndoManager(this);
     private final UndoAction undoAction = new UndoAction();
@@ -672,9 +684,9 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
                 final NamedCompound ce = new NamedCompound(Localization.lang("Autogenerate BibTeX keys"));
 
                 // Finally, set the new keys:
+                new BibtexKeyGenerator(bibDatabaseContext.getMetaData(), database).generateKeys(entries);
                 for (BibEntry entry : entries) {
                     bes = entry;
-                    LabelPatternUtil.makeLabel(bibDatabaseContext.getMetaData(), database, bes);
                     ce.addEdit(new UndoableKeyChange(database, bes, (String) oldvals.get(bes),
                             bes.getCiteKey()));
                 }
@@ -1285,6 +1297,8 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
         public void databaseChanged(DatabaseChangeEvent e) {
             if ((e.getType() == ChangeType.CHANGED_ENTRY) || (e.getType() == ChangeType.ADDED_ENTRY)) {
                 searchAutoCompleter.addBibtexEntry(e.getEntry());
+            } else if (e.getType() == ChangeType.REMOVED_ENTRY) {
+                searchAutoCompleter.removeBibtexEntry(e.getEntry());
             }
         }
     }
@@ -1299,6 +1313,8 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
         public void databaseChanged(DatabaseChangeEvent e) {
             if ((e.getType() == ChangeType.CHANGED_ENTRY) || (e.getType() == ChangeType.ADDED_ENTRY)) {
                 BasePanel.this.autoCompleters.addEntry(e.getEntry());
+            } else if (e.getType() == ChangeType.REMOVED_ENTRY) {
+                BasePanel.this.autoCompleters.removeEntry(e.getEntry());
             }
         }
     }
@@ -1351,6 +1367,9 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
         database.addDatabaseChangeListener(tableModel.getEventList());
         database.addDatabaseChangeListener(SpecialFieldDatabaseChangeListener.getInstance());
 
+        if (tableFormat != null) {
+            tableFormat.close();
+        }
         tableFormat = new MainTableFormat(database);
         tableFormat.updateTableFormat();
         mainTable = new MainTable(tableFormat, tableModel, frame, this);
@@ -1517,10 +1536,14 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
         AutoCompletePreferences autoCompletePreferences = new AutoCompletePreferences(Globals.prefs);
         // Set up AutoCompleters for this panel:
         if (Globals.prefs.getBoolean(JabRefPreferences.AUTO_COMPLETE)) {
-            autoCompleters = new ContentAutoCompleters(getDatabase(), bibDatabaseContext.getMetaData(),
-                    autoCompletePreferences, Globals.journalAbbreviationLoader);
+            autoCompleters = new ContentAutoCompleters(autoCompletePreferences, Globals.journalAbbreviationLoader);
             // ensure that the autocompleters are in sync with entries
             this.getDatabase().addDatabaseChangeListener(new AutoCompletersUpdater());
+            // fill them in the background, the words of large databases take a while to index
+            ContentAutoCompleters newAutoCompleters = autoCompleters;
+            List<BibEntry> entries = new ArrayList<>(getDatabase().getEntries());
+            MetaData metaData = bibDatabaseContext.getMetaData();
+            JabRefExecutorService.INSTANCE.execute(() -> newAutoCompleters.addAll(entries, metaData));
         } else {
             // create empty ContentAutoCompleters() if autoCompletion is deactivated
             autoCompleters = new ContentAutoCompleters(Globals.journalAbbreviationLoader);
@@ -1855,6 +1878,41 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
         return database;
     }
 
+    /**
+     * Returns the search index of this database. The index is built on the first call, which is done by the search
+     * workers outside the event dispatch thread.
+     */
+    public synchronized SearchIndex getSearchIndex() {
+        if (searchIndex == null) {
+            searchIndex = new SearchIndex(database);
+        }
+        return searchIndex;
+    }
+
+    /**
+     * Returns the index of the entries contained in each group. The index is built on the first call.
+     */
+    public synchronized GroupMembershipIndex getGroupMembershipIndex() {
+        if (groupMembershipIndex == null) {
+            groupMembershipIndex = new GroupMembershipIndex(database);
+        }
+        return groupMembershipIndex;
+    }
+
+    /**
+     * Returns the integrity check of this database, which only checks entries again after they were changed.
+     */
+    public synchronized IntegrityCheck getIntegrityCheck() {
+        if (integrityCheck == null) {
+            integrityCheck = new IntegrityCheck(bibDatabaseContext);
+        }
+        return integrityCheck;
+    }
+
+    public SearchExecutor getSearchExecutor() {
+        return searchExecutor;
+    }
+
     public void preambleEditorClosing() {
         preambleEditor = null;
     }
@@ -1929,14 +1987,18 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
             NamedCompound ce = new NamedCompound(Localization.lang("Autogenerate BibTeX keys"));
             boolean any = false;
 
+            List<BibEntry> entriesWithoutKey = new ArrayList<>();
             for (BibEntry bes : database.getEntries()) {
                 String oldKey = bes.getCiteKey();
                 if ((oldKey == null) || oldKey.isEmpty()) {
-                    LabelPatternUtil.makeLabel(bibDatabaseContext.getMetaData(), database, bes);
-                    ce.addEdit(new UndoableKeyChange(database, bes, null, bes.getCiteKey()));
-                    any = true;
+                    entriesWithoutKey.add(bes);
                 }
             }
+            new BibtexKeyGenerator(bibDatabaseContext.getMetaData(), database).generateKeys(entriesWithoutKey);
+            for (BibEntry bes : entriesWithoutKey) {
+                ce.addEdit(new UndoableKeyChange(database, bes, null, bes.getCiteKey()));
+                any = true;
+            }
             // Store undo information, if any:
             if (any) {
                 ce.end();
@@ -2162,6 +2224,23 @@ public class BasePanel extends JPanel implements ClipboardOwner, FileUpdateListe
         if (fileMonitorHandle != null) {
             Globals.fileUpdateMonitor.removeUpdateListener(fileMonitorHandle);
         }
+        synchronized (this) {
+            if (searchIndex != null) {
+                searchIndex.close();
+                searchIndex = null;
+            }
+            if (groupMembershipIndex != null) {
+                groupMembershipIndex.close();
+                groupMembershipIndex = null;
+            }
+            if (integrityCheck != null) {
+                integrityCheck.close();
+                integrityCheck = null;
+            }
+        }
+        if (tableFormat != null) {
+            tableFormat.close();
+        }
         // Check if there is a FileUpdatePanel for this BasePanel being shown. If so,
         // remove it:
         if (sidePaneManager.hasComponent("fileUpdate")) {
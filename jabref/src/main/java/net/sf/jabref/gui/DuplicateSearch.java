@@ -35,6 +35,7 @@ import net.sf.jabref.gui.undo.UndoableInsertEntry;
 import net.sf.jabref.gui.undo.UndoableRemoveEntry;
 import net.sf.jabref.gui.worker.CallBack;
 import net.sf.jabref.logic.l10n.Localization;
+import net.sf.jabref.model.DuplicateBlockingIndex;
 import net.sf.jabref.model.DuplicateCheck;
 import net.sf.jabref.model.entry.BibEntry;
 
@@ -171,10 +172,17 @@ public class DuplicateSearch implements Runnable {
 
         @Override
         public void run() {
+            // only compare entries which share a block, in the same order as comparing all pairs would do
+            DuplicateBlockingIndex index = new DuplicateBlockingIndex(bes);
             for (int i = 0; (i < (bes.size() - 1)) && !finished; i++) {
-                for (int j = i + 1; (j < bes.size()) && !finished; j++) {
-                    BibEntry first = bes.get(i);
-                    BibEntry second = bes.get(j);
+                BibEntry first = bes.get(i);
+                for (BibEntry second : index.getCandidates(first)) {
+                    if (finished) {
+                        break;
+                    }
+                    if (index.getPosition(second) <= i) {
+                        continue;
+                    }
                     boolean eq = DuplicateCheck.isDuplicate(first, second, panel.getBibDatabaseContext().getMode());
 
                     // If (suspected) duplicates, add them to the duplicates vector.
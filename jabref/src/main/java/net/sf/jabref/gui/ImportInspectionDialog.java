@@ -94,8 +94,10 @@ import net.sf.jabref.logic.groups.AllEntriesGroup;
 import net.sf.jabref.logic.groups.EntriesGroupChange;
 import net.sf.jabref.logic.groups.GroupTreeNode;
 import net.sf.jabref.logic.l10n.Localization;
+import net.sf.jabref.logic.labelpattern.BibtexKeyGenerator;
 import net.sf.jabref.logic.labelpattern.LabelPatternUtil;
 import net.sf.jabref.logic.util.UpdateField;
+import net.sf.jabref.model.DuplicateBlockingIndex;
 import net.sf.jabref.model.DuplicateCheck;
 import net.sf.jabref.model.database.BibDatabase;
 import net.sf.jabref.model.database.BibDatabaseMode;
@@ -145,6 +147,9 @@ public class ImportInspectionDialog extends JDialog implements ImportInspector,
     private static final Log LOGGER = LogFactory.getLog(ImportInspectionDialog.class);
 
     private BasePanel panel;
+    // Blocking index of the entries of the panel's database, built when the first entry is added and updated
+    // whenever further entries are checked, as the database may be changed while the dialog is open
+    private DuplicateBlockingIndex databaseDuplicateIndex;
 
     public final JabRefFrame frame;
 
@@ -407,8 +412,8 @@ public class ImportInspectionDialog extends JDialog implements ImportInspector,
             // database (if
             // applicable) and against entries already in the table.
             if ((panel != null) && (DuplicateCheck
-                    .containsDuplicate(panel.getDatabase(), entry, panel.getBibDatabaseContext().getMode()).isPresent()
-                    || (internalDuplicate(this.entries, entry).isPresent()))) {
+                    .containsDuplicate(getDatabaseDuplicateIndex(), entry, panel.getBibDatabaseContext().getMode())
+                    .isPresent() || (internalDuplicate(this.entries, entry).isPresent()))) {
                 entry.setGroupHit(true);
                 deselectAllDuplicates.setEnabled(true);
             }
@@ -418,6 +423,15 @@ public class ImportInspectionDialog extends JDialog implements ImportInspector,
         }
     }
 
+    private DuplicateBlockingIndex getDatabaseDuplicateIndex() {
+        if (databaseDuplicateIndex == null) {
+            databaseDuplicateIndex = new DuplicateBlockingIndex(panel.getDatabase().getEntries());
+        } else {
+            databaseDuplicateIndex.update(panel.getDatabase().getEntries());
+        }
+        return databaseDuplicateIndex;
+    }
+
     /**
      * Checks if there are duplicates to the given entry in the Collection. Does
      * not report the entry as duplicate of itself if it is in the Collection.
@@ -517,6 +531,7 @@ public class ImportInspectionDialog extends JDialog implements ImportInspector,
         }
 
         List<String> keys = new ArrayList<>(entries.size());
+        BibtexKeyGenerator keyGenerator = new BibtexKeyGenerator(localMetaData, database);
         // Iterate over the entries, add them to the database we are working
         // with,
         // and generate unique keys:
@@ -525,7 +540,7 @@ public class ImportInspectionDialog extends JDialog implements ImportInspector,
             entry.setId(IdGenerator.next());
             database.insertEntry(entry);
 
-            LabelPatternUtil.makeLabel(localMetaData, database, entry);
+            keyGenerator.generateKey(entry);
             // Add the generated key to our list:
             keys.add(entry.getCiteKey());
         }
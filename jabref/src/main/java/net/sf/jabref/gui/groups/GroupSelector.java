@@ -1310,7 +1310,8 @@ public class GroupSelector extends SidePaneComponent implements TreeSelectionLis
             groupsTree.revalidate();
             return;
         }
-        List<GroupTreeNode> nodeList = groupsRoot.getNode().getContainingGroups(list, requireAll);
+        List<GroupTreeNode> nodeList = panel.getGroupMembershipIndex().getContainingGroups(groupsRoot.getNode(),
+                list, requireAll);
         groupsTree.setHighlight3Cells(nodeList.toArray());
         // ensure that all highlighted nodes are visible
         for (GroupTreeNode node : nodeList) {
@@ -1324,7 +1325,7 @@ public class GroupSelector extends SidePaneComponent implements TreeSelectionLis
      * Show groups that, if selected, would show at least one of the entries found in the specified search.
      */
     private void showOverlappingGroups(List<BibEntry> matches) { //DatabaseSearch search) {
-        List<GroupTreeNode> nodes = groupsRoot.getNode().getMatchingGroups(matches);
+        List<GroupTreeNode> nodes = panel.getGroupMembershipIndex().getMatchingGroups(groupsRoot.getNode(), matches);
         groupsTree.setHighlight2Cells(nodes.toArray());
     }
 
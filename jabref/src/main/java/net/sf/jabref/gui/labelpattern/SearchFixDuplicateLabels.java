@@ -27,7 +27,7 @@ import net.sf.jabref.gui.undo.NamedCompound;
 import net.sf.jabref.gui.undo.UndoableKeyChange;
 import net.sf.jabref.gui.worker.AbstractWorker;
 import net.sf.jabref.logic.l10n.Localization;
-import net.sf.jabref.logic.labelpattern.LabelPatternUtil;
+import net.sf.jabref.logic.labelpattern.BibtexKeyGenerator;
 import net.sf.jabref.model.database.BibDatabase;
 import net.sf.jabref.model.entry.BibEntry;
 
@@ -105,10 +105,15 @@ public class SearchFixDuplicateLabels extends AbstractWorker {
         // Do the actual generation:
         if (!toGenerateFor.isEmpty()) {
             NamedCompound ce = new NamedCompound(Localization.lang("Resolve duplicate BibTeX keys"));
+            List<String> oldKeys = new ArrayList<>(toGenerateFor.size());
             for (BibEntry entry : toGenerateFor) {
-                String oldKey = entry.getCiteKey();
-                LabelPatternUtil.makeLabel(panel.getBibDatabaseContext().getMetaData(), panel.getDatabase(), entry);
-                ce.addEdit(new UndoableKeyChange(panel.getDatabase(), entry, oldKey, entry.getCiteKey()));
+                oldKeys.add(entry.getCiteKey());
+            }
+            new BibtexKeyGenerator(panel.getBibDatabaseContext().getMetaData(), panel.getDatabase())
+                    .generateKeys(toGenerateFor);
+            for (int i = 0; i < toGenerateFor.size(); i++) {
+                BibEntry entry = toGenerateFor.get(i);
+                ce.addEdit(new UndoableKeyChange(panel.getDatabase(), entry, oldKeys.get(i), entry.getCiteKey()));
             }
             ce.end();
             panel.undoManager.addEdit(ce);
@@ -41,7 +41,6 @@ import javax.swing.table.TableColumnModel;
 import net.sf.jabref.Globals;
 import net.sf.jabref.JabRefPreferences;
 import net.sf.jabref.bibtex.BibtexSingleField;
-import net.sf.jabref.bibtex.comparator.FieldComparator;
 import net.sf.jabref.gui.BasePanel;
 import net.sf.jabref.gui.EntryMarker;
 import net.sf.jabref.gui.GUIGlobals;
@@ -375,7 +374,7 @@ public class MainTable extends JTable {
             } else {
                 comparators = comparatorChooser.getComparatorsForColumn(i);
                 comparators.clear();
-                comparators.add(new FieldComparator(tableFormat.getColumnName(i).toLowerCase()));
+                comparators.add(tableFormat.getColumnComparator(i));
             }
         }
 
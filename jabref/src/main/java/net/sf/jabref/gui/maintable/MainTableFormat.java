@@ -17,12 +17,16 @@ package net.sf.jabref.gui.maintable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.JLabel;
 
 import net.sf.jabref.Globals;
 import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.bibtex.comparator.FieldComparator;
 import net.sf.jabref.gui.IconTheme;
 import net.sf.jabref.model.database.BibDatabase;
 import net.sf.jabref.model.entry.BibEntry;
@@ -49,8 +53,15 @@ public class MainTableFormat implements TableFormat<BibEntry> {
 
     private final List<MainTableColumn> tableColumns = new ArrayList<>();
 
+    // Values of the field columns and sort keys, kept until their entry changes
+    private final MainTableValueCache valueCache = new MainTableValueCache();
+
+    // one comparator per column name, as the comparators are keys of the sort keys in the value cache
+    private final Map<String, FieldComparator> comparators = new HashMap<>();
+
     public MainTableFormat(BibDatabase database) {
         this.database = database;
+        database.addDatabaseChangeListener(valueCache);
     }
 
     @Override
@@ -90,12 +101,37 @@ public class MainTableFormat implements TableFormat<BibEntry> {
 
     @Override
     public Object getColumnValue(BibEntry be, int col) {
-        return tableColumns.get(col).getColumnValue(be);
+        MainTableColumn column = tableColumns.get(col);
+        if (column.isIconColumn() || column.getBibtexFields().isEmpty()) {
+            return column.getColumnValue(be);
+        }
+        return valueCache.get(be, column, column::getColumnValue);
+    }
+
+    /**
+     * Returns a comparator by the fields of the given column. It keeps the keys it compares the entries by until the
+     * entries change, so sorting does not format their fields for every comparison.
+     */
+    public Comparator<BibEntry> getColumnComparator(int col) {
+        FieldComparator comparator = comparators.computeIfAbsent(getColumnName(col).toLowerCase(),
+                FieldComparator::new);
+        return (e1, e2) -> comparator.compareSortKeys(valueCache.get(e1, comparator, comparator::getSortKey),
+                valueCache.get(e2, comparator, comparator::getSortKey));
+    }
+
+    /**
+     * Stops listening to the database and its entries.
+     */
+    public void close() {
+        database.removeDatabaseChangeListener(valueCache);
+        valueCache.clear();
     }
 
     public void updateTableFormat() {
         // clear existing column configuration
         tableColumns.clear();
+        comparators.clear();
+        valueCache.clear();
 
         // Add numbering column to tableColumns
         tableColumns.add(SpecialMainTableColumns.NUMBER_COL);
@@ -0,0 +1,81 @@
+package net.sf.jabref.gui.maintable;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.VetoableChangeListener;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import net.sf.jabref.model.database.DatabaseChangeEvent;
+import net.sf.jabref.model.database.DatabaseChangeListener;
+import net.sf.jabref.model.entry.BibEntry;
+
+/**
+ * Keeps the values shown in the cells of the main table, and the keys the table is sorted by, until a field of their
+ * entry changes.
+ * <p>
+ * Computing a value means converting LaTeX to Unicode and formatting names, which would otherwise be done whenever a
+ * cell is painted or two entries are compared while sorting. The values are stored per entry and per key, like a
+ * column or a comparator. The cache listens to every entry it holds values for, and should listen to the database to
+ * drop removed entries and all values when a string changes.
+ */
+class MainTableValueCache implements DatabaseChangeListener, VetoableChangeListener {
+
+    // stands for a computed null value
+    private static final Object NULL_VALUE = new Object();
+
+    private final Map<BibEntry, Map<Object, Object>> values = new IdentityHashMap<>();
+
+
+    /**
+     * Returns the value stored for the given entry and key, or computes and stores it.
+     */
+    synchronized Object get(BibEntry entry, Object key, Function<BibEntry, Object> computation) {
+        Map<Object, Object> entryValues = values.get(entry);
+        if (entryValues == null) {
+            entryValues = new HashMap<>(4);
+            values.put(entry, entryValues);
+            entry.addPropertyChangeListener(this);
+        }
+
+        Object value = entryValues.get(key);
+        if (value == null) {
+            value = computation.apply(entry);
+            entryValues.put(key, value == null ? NULL_VALUE : value);
+            return value;
+        }
+        return value == NULL_VALUE ? null : value;
+    }
+
+    /**
+     * Forgets all values and stops listening to the entries.
+     */
+    synchronized void clear() {
+        for (BibEntry entry : values.keySet()) {
+            entry.removePropertyChangeListener(this);
+        }
+        values.clear();
+    }
+
+    private synchronized void remove(BibEntry entry) {
+        if (values.remove(entry) != null) {
+            entry.removePropertyChangeListener(this);
+        }
+    }
+
+    @Override
+    public void databaseChanged(DatabaseChangeEvent e) {
+        if (e.getType() == DatabaseChangeEvent.ChangeType.REMOVED_ENTRY) {
+            remove(e.getEntry());
+        } else if (e.getType() == DatabaseChangeEvent.ChangeType.CHANGED_STRING) {
+            // values of any entry may refer to the string
+            clear();
+        }
+    }
+
+    @Override
+    public void vetoableChange(PropertyChangeEvent evt) {
+        remove((BibEntry) evt.getSource());
+    }
+}
@@ -2,17 +2,20 @@ package net.sf.jabref.gui.search;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import net.sf.jabref.gui.BasePanel;
 import net.sf.jabref.gui.JabRefFrame;
 import net.sf.jabref.gui.worker.AbstractWorker;
 import net.sf.jabref.logic.l10n.Localization;
+import net.sf.jabref.logic.search.SearchExecutor;
 import net.sf.jabref.logic.search.SearchQuery;
 import net.sf.jabref.model.entry.BibEntry;
 
 class GlobalSearchWorker extends AbstractWorker {
 
+    // shared by all global searches, so a new one abandons the one running
+    private static final SearchExecutor SEARCH_EXECUTOR = new SearchExecutor();
+
     private final JabRefFrame frame;
     private final SearchQuery searchQuery;
     private final SearchResultsDialog dialog;
@@ -34,7 +37,8 @@ class GlobalSearchWorker extends AbstractWorker {
         // Search all databases
         for (int i = 0; i < frame.getTabbedPane().getTabCount(); i++) {
             BasePanel basePanel = frame.getBasePanelAt(i);
-            List<BibEntry> matches = basePanel.getDatabase().getEntries().stream().filter(searchQuery::isMatch).collect(Collectors.toList());
+            List<BibEntry> matches = SEARCH_EXECUTOR.search(searchQuery,
+                    basePanel.getSearchIndex().getCandidates(searchQuery));
             dialog.addEntries(matches, basePanel);
         }
     }
@@ -295,6 +295,7 @@ public class SearchBar extends JPanel {
     private void performSearch() {
         if (searchWorker != null) {
             searchWorker.cancel(true);
+            basePanel.getSearchExecutor().cancel();
         }
 
         // An empty search field should cause the search to be cleared.
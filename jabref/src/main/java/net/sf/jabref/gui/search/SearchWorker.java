@@ -3,15 +3,14 @@ package net.sf.jabref.gui.search;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
 
 import javax.swing.SwingWorker;
 
 import net.sf.jabref.gui.BasePanel;
 import net.sf.jabref.gui.maintable.MainTableDataModel;
 import net.sf.jabref.logic.search.SearchQuery;
-import net.sf.jabref.model.database.BibDatabase;
 import net.sf.jabref.model.entry.BibEntry;
 
 import org.apache.commons.logging.Log;
@@ -25,14 +24,12 @@ class SearchWorker extends SwingWorker<List<BibEntry>, Void> {
     private static final Log LOGGER = LogFactory.getLog(SearchWorker.class);
 
     private final BasePanel basePanel;
-    private final BibDatabase database;
 
     private final SearchQuery searchQuery;
     private final SearchMode mode;
 
     SearchWorker(BasePanel basePanel, SearchQuery searchQuery, SearchMode mode) {
         this.basePanel = Objects.requireNonNull(basePanel);
-        this.database = Objects.requireNonNull(basePanel.getDatabase());
         this.searchQuery = Objects.requireNonNull(searchQuery);
         this.mode = Objects.requireNonNull(mode);
         LOGGER.debug("Search (" + this.mode.getDisplayName() + "): " + this.searchQuery);
@@ -42,7 +39,13 @@ class SearchWorker extends SwingWorker<List<BibEntry>, Void> {
     protected List<BibEntry> doInBackground() throws Exception {
         // Search the current database
         List<BibEntry> matchedEntries = new LinkedList<>();
-        matchedEntries.addAll(database.getEntries().stream().filter(searchQuery::isMatch).collect(Collectors.toList()));
+        try {
+            matchedEntries.addAll(basePanel.getSearchExecutor().search(searchQuery,
+                    basePanel.getSearchIndex().getCandidates(searchQuery)));
+        } catch (CancellationException e) {
+            // a newer search has been started, the result will not be shown anyway
+            LOGGER.debug("Search (" + mode.getDisplayName() + ") abandoned: " + searchQuery);
+        }
         return matchedEntries;
     }
 
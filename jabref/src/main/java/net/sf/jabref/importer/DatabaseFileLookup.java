@@ -16,12 +16,14 @@
 package net.sf.jabref.importer;
 
 import java.io.File;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
 
 import net.sf.jabref.Globals;
 import net.sf.jabref.JabRefGUI;
@@ -41,21 +43,35 @@ import net.sf.jabref.model.entry.ParsedFileField;
  */
 class DatabaseFileLookup {
 
-    private final Set<File> fileCache = new HashSet<>();
+    // linked file -> for each link it may be linked by, the files the link is expanded to instead if they exist
+    private final Map<Path, List<List<File>>> fileCache = new HashMap<>();
 
     private final List<String> possibleFilePaths;
 
     /**
-     * Creates an instance by passing a {@link BibDatabase} which will be used for the searches.
+     * Creates an instance by passing a {@link BibDatabase} which will be used for the searches. The links are expanded
+     * with the file directories of the database open in the main window.
      *
      * @param database A {@link BibDatabase}.
      */
     public DatabaseFileLookup(BibDatabase database) {
+        this(database, Optional.ofNullable(JabRefGUI.getMainFrame().getCurrentBasePanel().getBibDatabaseContext()
+                .getFileDirectory()).orElse(new ArrayList<>()));
+    }
+
+    /**
+     * Creates an instance by passing a {@link BibDatabase} which will be used for the searches, and the directories
+     * the links in its entries are relative to.
+     * <p>
+     * The links are only expanded to the files they may stand for, which are checked for existence when they are
+     * looked up. So creating the lookup does not access the file system.
+     */
+    public DatabaseFileLookup(BibDatabase database, List<String> fileDirectories) {
         Objects.requireNonNull(database);
-        possibleFilePaths = Optional.ofNullable(JabRefGUI.getMainFrame().getCurrentBasePanel().getBibDatabaseContext().getFileDirectory()).orElse(new ArrayList<>());
+        possibleFilePaths = Objects.requireNonNull(fileDirectories);
 
         for (BibEntry entry : database.getEntries()) {
-            fileCache.addAll(parseFileField(entry));
+            addFileLinks(entry);
         }
     }
 
@@ -74,16 +90,29 @@ class DatabaseFileLookup {
      *         entry in the database, otherwise <code>false</code>.
      */
     public boolean lookupDatabase(File file) {
-        return fileCache.contains(file);
+        Optional<Path> path = normalize(file);
+        if (!path.isPresent()) {
+            return false;
+        }
+
+        List<List<File>> linksToFile = fileCache.get(path.get());
+        if (linksToFile == null) {
+            return false;
+        }
+        for (List<File> preferredFiles : linksToFile) {
+            if (preferredFiles.stream().noneMatch(File::exists)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private List<File> parseFileField(BibEntry entry) {
+    private void addFileLinks(BibEntry entry) {
         Objects.requireNonNull(entry);
 
         String fileField = entry.getField(Globals.FILE_FIELD);
         List<ParsedFileField> entries = FileField.parse(fileField);
 
-        List<File> fileLinks = new ArrayList<>();
         for (ParsedFileField field : entries) {
             String link = field.getLink();
 
@@ -92,9 +121,21 @@ class DatabaseFileLookup {
                 continue;
             }
 
-            FileUtil.expandFilename(link, possibleFilePaths).ifPresent(fileLinks::add);
+            // the link stands for the first of its candidates which exists
+            List<File> candidates = FileUtil.getExpansionCandidates(link, possibleFilePaths);
+            for (int i = 0; i < candidates.size(); i++) {
+                List<File> preferredFiles = candidates.subList(0, i);
+                normalize(candidates.get(i)).ifPresent(
+                        path -> fileCache.computeIfAbsent(path, key -> new ArrayList<>(1)).add(preferredFiles));
+            }
         }
+    }
 
-        return fileLinks;
+    private static Optional<Path> normalize(File file) {
+        try {
+            return Optional.of(file.toPath().toAbsolutePath().normalize());
+        } catch (InvalidPathException e) {
+            return Optional.empty();
+        }
     }
 }
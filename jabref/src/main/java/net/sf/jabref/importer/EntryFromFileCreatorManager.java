@@ -196,7 +196,7 @@ public final class EntryFromFileCreatorManager {
      * @return A {@link FileFilter} that accepts all files for which creators
      *         exist.
      */
-    private FileFilter getFileFilter() {
+    public FileFilter getFileFilter() {
         return new FileFilter() {
 
             /**
@@ -16,6 +16,7 @@
 package net.sf.jabref.importer;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -24,11 +25,15 @@ import java.io.InputStreamReader;
 import java.io.Reader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import net.sf.jabref.Globals;
 import net.sf.jabref.importer.fileformat.BibTeXMLImporter;
@@ -68,6 +73,11 @@ public class ImportFormatReader {
 
     private static final Log LOGGER = LogFactory.getLog(ImportFormatReader.class);
 
+    // bytes at the beginning of a file the import formats check before importing it with the most likely ones
+    private static final int RECOGNITION_PREFIX_LENGTH = 64 * 1024;
+
+    private static final Pattern BIBTEX_ENTRY_START = Pattern.compile("@\\w+\\s*[{(]");
+
 
     public void resetImportFormats() {
         formats.clear();
@@ -232,23 +242,34 @@ public class ImportFormatReader {
      * Tries to import a file by iterating through the available import filters,
      * and keeping the import that seems most promising.
      * <p/>
-     * If all fails this method attempts to read this file as bibtex.
-     *
-     * @throws IOException
+     * The import formats first check whether they recognize the beginning of the file, all at the same time. The file
+     * is then only imported with the formats most likely to fit: formats recognizing a signature in it come before
+     * formats whose signature may come later in the file, and formats accepting any file come last. All formats of a
+     * rank are tried, and the import stops after the first rank in which formats have found entries. Of these, the
+     * import with the most entries is kept.
+     * <p/>
+     * If the beginning of the file looks like BibTeX, it is read as BibTeX first. Otherwise, this method attempts to
+     * read this file as bibtex if all fails.
      */
     public UnknownFormatImport importUnknownFormat(String filename) {
         Objects.requireNonNull(filename);
+        File file = new File(filename);
 
-        // First, see if it is a BibTeX file:
+        byte[] prefix;
         try {
-            ParserResult pr = OpenDatabaseAction.loadDatabase(new File(filename),
-                    Globals.prefs.getDefaultEncoding());
-            if (pr.getDatabase().hasEntries() || !pr.getDatabase().hasNoStrings()) {
-                pr.setFile(new File(filename));
-                return new UnknownFormatImport(ImportFormatReader.BIBTEX_FORMAT, pr);
+            prefix = readPrefix(file);
+        } catch (IOException e) {
+            return null;
+        }
+        boolean truncated = file.length() > prefix.length;
+
+        // First, see if it is a BibTeX file:
+        boolean bibtexLike = BIBTEX_ENTRY_START.matcher(new String(prefix, Globals.prefs.getDefaultEncoding())).find();
+        if (bibtexLike) {
+            Optional<UnknownFormatImport> bibtexImport = importBibtex(file);
+            if (bibtexImport.isPresent()) {
+                return bibtexImport.get();
             }
-        } catch (IOException ignore) {
-            // Ignored
         }
 
         // we don't use a provided OutputPrinter (such as the JabRef frame),
@@ -260,13 +281,17 @@ public class ImportFormatReader {
         List<BibEntry> bestResult = null;
         int bestResultCount = 0;
         String bestFormatName = null;
+        Recognition bestRecognition = null;
 
-        // Cycle through all importers:
-        for (ImportFormat imFo : getImportFormats()) {
+        // Cycle through the recognizing importers, most likely first:
+        for (RecognizedFormat candidate : recognizeFormats(prefix, truncated)) {
+            if ((bestResult != null) && (candidate.recognition.compareTo(bestRecognition) > 0)) {
+                break;
+            }
 
             try {
 
-                List<BibEntry> entries = importFromFile(imFo, filename, nullOutput);
+                List<BibEntry> entries = importFromFile(candidate.format, filename, nullOutput);
 
                 int entryCount;
                 BibDatabases.purgeEmptyEntries(entries);
@@ -275,7 +300,8 @@ public class ImportFormatReader {
                 if (entryCount > bestResultCount) {
                     bestResult = entries;
                     bestResultCount = bestResult.size();
-                    bestFormatName = imFo.getFormatName();
+                    bestFormatName = candidate.format.getFormatName();
+                    bestRecognition = candidate.recognition;
                 }
             } catch (IOException ex) {
                 // The import didn't succeed. Go on.
@@ -288,6 +314,89 @@ public class ImportFormatReader {
             return new UnknownFormatImport(bestFormatName, parserResult);
         }
 
+        if (!bibtexLike) {
+            return importBibtex(file).orElse(null);
+        }
         return null;
     }
+
+    private static Optional<UnknownFormatImport> importBibtex(File file) {
+        try {
+            ParserResult pr = OpenDatabaseAction.loadDatabase(file, Globals.prefs.getDefaultEncoding());
+            if (pr.getDatabase().hasEntries() || !pr.getDatabase().hasNoStrings()) {
+                pr.setFile(file);
+                return Optional.of(new UnknownFormatImport(ImportFormatReader.BIBTEX_FORMAT, pr));
+            }
+        } catch (IOException ignore) {
+            // Ignored
+        }
+        return Optional.empty();
+    }
+
+    private static byte[] readPrefix(File file) throws IOException {
+        byte[] prefix = new byte[RECOGNITION_PREFIX_LENGTH];
+        int length = 0;
+        try (InputStream stream = new FileInputStream(file)) {
+            int read;
+            while ((length < prefix.length) && ((read = stream.read(prefix, length, prefix.length - length)) >= 0)) {
+                length += read;
+            }
+        }
+        return Arrays.copyOf(prefix, length);
+    }
+
+    /**
+     * Lets all import formats, except BibTeX, check the given beginning of a file in parallel.
+     *
+     * @param truncated whether the file continues after the given beginning
+     * @return the formats which may recognize the file, most likely first, otherwise in the default order
+     */
+    private List<RecognizedFormat> recognizeFormats(byte[] prefix, boolean truncated) {
+        return formats.parallelStream()
+                .filter(format -> !BIBTEX_FORMAT.equals(format.getFormatName()))
+                .map(format -> new RecognizedFormat(format, recognize(format, prefix, truncated)))
+                .filter(candidate -> candidate.recognition != Recognition.NONE)
+                .sorted(Comparator.comparing(candidate -> candidate.recognition))
+                .collect(Collectors.toList());
+    }
+
+    private static Recognition recognize(ImportFormat format, byte[] prefix, boolean truncated) {
+        if (!isRecognizedFormat(format, prefix)) {
+            // the signature may come later in the file
+            return truncated ? Recognition.UNDECIDED : Recognition.NONE;
+        }
+        // formats recognizing an empty file do not look for any signature
+        return isRecognizedFormat(format, new byte[0]) ? Recognition.ANY_FILE : Recognition.SIGNATURE;
+    }
+
+    private static boolean isRecognizedFormat(ImportFormat format, byte[] content) {
+        try (InputStream stream = new ByteArrayInputStream(content)) {
+            return format.isRecognizedFormat(stream);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+
+    /**
+     * How an import format recognizes a file, from the most to the least likely fit.
+     */
+    private enum Recognition {
+        SIGNATURE,
+        UNDECIDED,
+        ANY_FILE,
+        NONE
+    }
+
+    private static class RecognizedFormat {
+
+        private final ImportFormat format;
+        private final Recognition recognition;
+
+
+        RecognizedFormat(ImportFormat format, Recognition recognition) {
+            this.format = format;
+            this.recognition = recognition;
+        }
+    }
 }
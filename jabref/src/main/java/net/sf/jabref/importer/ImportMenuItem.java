@@ -47,6 +47,7 @@ import net.sf.jabref.model.entry.BibEntry;
 import net.sf.jabref.model.entry.BibtexString;
 
 import net.sf.jabref.gui.util.component.CheckBoxMessage;
+import net.sf.jabref.model.DuplicateBlockingIndex;
 import net.sf.jabref.model.DuplicateCheck;
 /*
  * TODO: could separate the "menu item" functionality from the importing functionality
@@ -176,9 +177,13 @@ public class ImportMenuItem extends JMenuItem implements ActionListener {
 
             final BasePanel panel = (BasePanel) frame.getTabbedPane().getSelectedComponent();
             boolean flag = false;
+            DuplicateBlockingIndex duplicateIndex = null;
+            if (panel != null) {
+                duplicateIndex = new DuplicateBlockingIndex(panel.getDatabase().getEntries());
+            }
             for (BibEntry entry : entradas) {
                 if ((panel != null)
-                        && (DuplicateCheck.containsDuplicate(panel.getDatabase(), entry, panel.getBibDatabaseContext()
+                        && (DuplicateCheck.containsDuplicate(duplicateIndex, entry, panel.getBibDatabaseContext()
                                 .getMode()).isPresent())) {
                     entry.setGroupHit(true);
                     if (entry.isGroupHit()) {
@@ -272,9 +277,11 @@ public class ImportMenuItem extends JMenuItem implements ActionListener {
                     directParserResult = pr;
                 }
 
-                // Merge entries:
-                for (BibEntry entry : pr.getDatabase().getEntries()) {
-                    database.insertEntry(entry);
+                // Merge entries, unless the result is returned as it is below:
+                if (imports.size() > 1) {
+                    for (BibEntry entry : removeAllEntries(pr.getDatabase())) {
+                        database.insertEntry(entry);
+                    }
                 }
 
                 // Merge strings:
@@ -289,7 +296,8 @@ public class ImportMenuItem extends JMenuItem implements ActionListener {
             } else {
 
                 ParserResult pr = importResult.parserResult;
-                Collection<BibEntry> entries = pr.getDatabase().getEntries();
+                // the entries are moved to the merged database
+                Collection<BibEntry> entries = removeAllEntries(pr.getDatabase());
 
                 anythingUseful = anythingUseful | !entries.isEmpty();
 
@@ -320,4 +328,15 @@ public class ImportMenuItem extends JMenuItem implements ActionListener {
         }
     }
 
+    /**
+     * Removes all entries from the given database and returns them, so they can be inserted into another one.
+     */
+    private static List<BibEntry> removeAllEntries(BibDatabase database) {
+        List<BibEntry> entries = new ArrayList<>(database.getEntries());
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            database.removeEntry(entries.get(i));
+        }
+        return entries;
+    }
+
 }
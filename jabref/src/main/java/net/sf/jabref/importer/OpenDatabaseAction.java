@@ -48,7 +48,8 @@ import net.sf.jabref.gui.ParserResultWarningDialog;
 import net.sf.jabref.gui.actions.MnemonicAwareAction;
 import net.sf.jabref.gui.keyboard.KeyBinding;
 import net.sf.jabref.gui.undo.NamedCompound;
-import net.sf.jabref.importer.fileformat.BibtexParser;
+import net.sf.jabref.importer.fileformat.MappedBibtexFile;
+import net.sf.jabref.importer.fileformat.ParallelBibtexParser;
 import net.sf.jabref.logic.l10n.Localization;
 import net.sf.jabref.logic.util.io.FileBasedLock;
 import net.sf.jabref.logic.util.strings.StringUtil;
@@ -378,9 +379,13 @@ public class OpenDatabaseAction extends MnemonicAwareAction {
 
         // Open and parse file
         try (InputStreamReader reader = openFile(fileToOpen, suppliedEncoding, defaultEncoding)) {
-            BibtexParser parser = new BibtexParser(reader);
-
-            ParserResult result = parser.parse();
+            ParserResult result;
+            if (Globals.prefs.getBoolean(JabRefPreferences.LAZY_LOAD_LARGE_DATABASES)
+                    && (fileToOpen.length() >= MappedBibtexFile.MINIMUM_FILE_SIZE)) {
+                result = MappedBibtexFile.load(fileToOpen, Charset.forName(reader.getEncoding()));
+            } else {
+                result = ParallelBibtexParser.parse(reader);
+            }
             result.setEncoding(Charset.forName(reader.getEncoding()));
             result.setFile(fileToOpen);
 
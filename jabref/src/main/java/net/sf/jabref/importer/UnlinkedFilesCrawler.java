@@ -2,7 +2,8 @@ package net.sf.jabref.importer;
 
 import java.io.File;
 import java.io.FileFilter;
-import java.util.Arrays;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -12,16 +13,17 @@ import javax.swing.event.ChangeListener;
 
 import net.sf.jabref.gui.FindUnlinkedFilesDialog.CheckableTreeNode;
 import net.sf.jabref.gui.FindUnlinkedFilesDialog.FileNodeWrapper;
+import net.sf.jabref.logic.util.io.FileSystemIndex;
+import net.sf.jabref.logic.util.io.FileSystemIndex.IndexedFile;
 import net.sf.jabref.model.database.BibDatabase;
 
 /**
  * Util class for searching files on the file system which are not linked to a provided {@link BibDatabase}.
+ * <p>
+ * The files are taken from the {@link FileSystemIndex} of the searched directory, which is refreshed before each
+ * search, so searching the same directory again only reads the directories which changed since.
  */
 public class UnlinkedFilesCrawler {
-    /**
-     * File filter, that accepts directories only.
-     */
-    private static final FileFilter DIRECTORY_FILTER = pathname -> (pathname != null) && pathname.isDirectory();
 
     private final BibDatabase database;
 
@@ -49,7 +51,8 @@ public class UnlinkedFilesCrawler {
      * For ensuring the capability to cancel the work of this recursive method,
      * the first position in the integer array 'state' must be set to 1, to keep
      * the recursion running. When the states value changes, the method will
-     * resolve its recursion and return what it has saved so far.
+     * resolve its recursion and return what it has saved so far. If the index of
+     * the directory is not refreshed completely, the files it held before are searched.
      */
     public CheckableTreeNode searchDirectory(File directory, UnlinkedPDFFileFilter ff, AtomicBoolean state, ChangeListener changeListener) {
         /* Cancelation of the search from outside! */
@@ -61,33 +64,36 @@ public class UnlinkedFilesCrawler {
             return null;
         }
 
-        File[] filesArray = directory.listFiles(ff);
-        List<File> files;
-        if (filesArray == null) {
-            files = Collections.emptyList();
-        } else {
-            files = Arrays.asList(filesArray);
+        FileSystemIndex index = FileSystemIndex.forDirectory(directory.toPath());
+        index.refresh(state);
+        return searchDirectory(index, index.getRoot(), ff, state, changeListener);
+    }
+
+    private CheckableTreeNode searchDirectory(FileSystemIndex index, Path directory, UnlinkedPDFFileFilter ff,
+            AtomicBoolean state, ChangeListener changeListener) {
+        List<File> files = new ArrayList<>();
+        for (IndexedFile indexedFile : index.getFiles(directory)) {
+            File file = indexedFile.getPath().toFile();
+            if (ff.accept(file)) {
+                files.add(file);
+            }
         }
         CheckableTreeNode root = new CheckableTreeNode(null);
 
         int filesCount = 0;
 
-        filesArray = directory.listFiles(DIRECTORY_FILTER);
-        List<File> subDirectories;
-        if (filesArray == null) {
-            subDirectories = Collections.emptyList();
-        } else {
-            subDirectories = Arrays.asList(filesArray);
-        }
-        for (File subDirectory : subDirectories) {
-            CheckableTreeNode subRoot = searchDirectory(subDirectory, ff, state, changeListener);
-            if ((subRoot != null) && (subRoot.getChildCount() > 0)) {
+        for (Path subDirectory : index.getSubdirectories(directory)) {
+            if (!state.get()) {
+                break;
+            }
+            CheckableTreeNode subRoot = searchDirectory(index, subDirectory, ff, state, changeListener);
+            if (subRoot.getChildCount() > 0) {
                 filesCount += ((FileNodeWrapper) subRoot.getUserObject()).fileCount;
                 root.add(subRoot);
             }
         }
 
-        root.setUserObject(new FileNodeWrapper(directory, files.size() + filesCount));
+        root.setUserObject(new FileNodeWrapper(directory.toFile(), files.size() + filesCount));
 
         for (File file : files) {
             root.add(new CheckableTreeNode(new FileNodeWrapper(file)));
@@ -99,4 +105,25 @@ public class UnlinkedFilesCrawler {
         return root;
     }
 
+    /**
+     * Returns all files in the specified directory and its subdirectories which are accepted by the given filter,
+     * sorted by their path.
+     */
+    public List<File> findFiles(File directory, UnlinkedPDFFileFilter ff) {
+        if ((directory == null) || !directory.isDirectory()) {
+            return Collections.emptyList();
+        }
+
+        FileSystemIndex index = FileSystemIndex.forDirectory(directory.toPath());
+        index.refresh();
+
+        List<File> files = new ArrayList<>();
+        for (IndexedFile indexedFile : index.getAllFiles()) {
+            File file = indexedFile.getPath().toFile();
+            if (ff.accept(file)) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
 }
@@ -2,6 +2,7 @@ package net.sf.jabref.importer;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.util.List;
 
 import net.sf.jabref.model.database.BibDatabase;
 
@@ -28,6 +29,14 @@ public class UnlinkedPDFFileFilter implements FileFilter {
         this.lookup = new DatabaseFileLookup(database);
     }
 
+    /**
+     * Creates a filter for files not linked in the given database, whose links are relative to the given directories.
+     */
+    public UnlinkedPDFFileFilter(FileFilter fileFilter, BibDatabase database, List<String> fileDirectories) {
+        this.fileFilter = fileFilter;
+        this.lookup = new DatabaseFileLookup(database, fileDirectories);
+    }
+
     @Override
     public boolean accept(File pathname) {
         return fileFilter.accept(pathname) && !lookup.lookupDatabase(pathname);
@@ -0,0 +1,167 @@
+package net.sf.jabref.importer.fileformat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Character source of the {@link BibtexParser}.
+ * <p>
+ * The input is read in large blocks into a char buffer. Like a {@link java.io.PushbackReader}, any characters can be
+ * pushed back: pushing back the characters just read only moves back in the buffer, other characters are kept in a
+ * separate pushback stack which is read first. The buffer itself is never changed, so the text read since the last call
+ * of {@link #getTextSinceMark()} is always the original input. It is kept as an offset into the buffer instead of being
+ * recorded character by character, so only this text and the lookahead window have to stay in memory while the input
+ * is streamed.
+ * <p>
+ * Like a {@link java.io.PushbackReader}, pushing back the end of input ({@code -1}) makes the next read return
+ * {@code (char) -1}.
+ */
+class BibtexLexer {
+
+    static final int EOF = -1;
+
+    private static final char EOF_CHARACTER = '\uFFFF';
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final int lookahead;
+
+    private char[] buffer;
+    // index of the next character to read
+    private int position;
+    // number of valid characters in the buffer
+    private int limit;
+    // start of the text which is returned by the next call of getTextSinceMark()
+    private int mark;
+    private boolean endOfInput;
+    // characters which were pushed back but are not the ones before the position, the last one is read first
+    private char[] pushedBack = new char[16];
+    private int pushedBackCount;
+    private int line;
+
+
+    BibtexLexer(Reader reader, int lookahead) {
+        this(reader, lookahead, 1, BLOCK_SIZE);
+    }
+
+    /**
+     * @param firstLine the line number of the first character of the input
+     * @param blockSize the number of characters read at once
+     */
+    BibtexLexer(Reader reader, int lookahead, int firstLine, int blockSize) {
+        this.reader = Objects.requireNonNull(reader);
+        this.lookahead = lookahead;
+        this.line = firstLine;
+        this.buffer = new char[Math.max(1, blockSize)];
+    }
+
+    /**
+     * Returns the next character or {@link #EOF} if the end of the input is reached.
+     */
+    int read() throws IOException {
+        char character;
+        if (pushedBackCount > 0) {
+            character = pushedBack[--pushedBackCount];
+        } else if ((position == limit) && !fill()) {
+            return EOF;
+        } else {
+            character = buffer[position++];
+        }
+        if (character == '\n') {
+            line++;
+        }
+        return character;
+    }
+
+    /**
+     * Pushes back the given character, so it is returned by the next read. Only pushing back the characters just read
+     * makes them part of the text since the mark again.
+     */
+    void unread(int character) {
+        char pushed = (char) character;
+        if ((pushedBackCount == 0) && (position > mark) && (buffer[position - 1] == pushed)) {
+            position--;
+        } else {
+            if (pushedBackCount == pushedBack.length) {
+                pushedBack = Arrays.copyOf(pushedBack, pushedBack.length * 2);
+            }
+            pushedBack[pushedBackCount++] = pushed;
+        }
+        if (pushed == '\n') {
+            line--;
+        }
+    }
+
+    int peek() throws IOException {
+        int character = read();
+        unread(character);
+        return character;
+    }
+
+    /**
+     * Returns the line of the current position, starting with 1.
+     */
+    int getLine() {
+        return line;
+    }
+
+    /**
+     * Returns all text read since the last call of this method, excluding any end of input characters.
+     */
+    String getTextSinceMark() {
+        int start = mark;
+        mark = position;
+
+        StringBuilder text = null;
+        for (int i = start; i < position; i++) {
+            if (buffer[i] == EOF_CHARACTER) {
+                if (text == null) {
+                    text = new StringBuilder(position - start).append(buffer, start, i - start);
+                }
+            } else if (text != null) {
+                text.append(buffer[i]);
+            }
+        }
+        if (text == null) {
+            return new String(buffer, start, position - start);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Reads the next block of the input into the buffer. Everything before the mark and the lookahead window is
+     * dropped.
+     *
+     * @return false if there is no more input
+     */
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+
+        int keep = Math.max(0, Math.min(mark, position - lookahead));
+        if (keep > 0) {
+            System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+            limit -= keep;
+            position -= keep;
+            mark -= keep;
+        }
+        if (limit == buffer.length) {
+            // a single entry is larger than the buffer
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        int read;
+        do {
+            read = reader.read(buffer, limit, buffer.length - limit);
+        } while (read == 0);
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+}
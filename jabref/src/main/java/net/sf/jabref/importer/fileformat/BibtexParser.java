@@ -16,14 +16,11 @@
 package net.sf.jabref.importer.fileformat;
 
 import java.io.IOException;
-import java.io.PushbackReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -65,21 +62,28 @@ import org.apache.commons.logging.LogFactory;
 public class BibtexParser {
     private static final Log LOGGER = LogFactory.getLog(BibtexParser.class);
 
-    private final PushbackReader pushbackReader;
+    private final BibtexLexer lexer;
     private BibDatabase database;
     private Map<String, EntryType> entryTypes;
     private boolean eof;
-    private int line = 1;
     private final FieldContentParser fieldContentParser = new FieldContentParser();
     private ParserResult parserResult;
+    private final Map<String, String> meta = new HashMap<>();
     private static final Integer LOOKAHEAD = 64;
-    private final Deque<Character> pureTextFromFile = new LinkedList<>();
 
 
     public BibtexParser(Reader in) {
         Objects.requireNonNull(in);
 
-        pushbackReader = new PushbackReader(in, BibtexParser.LOOKAHEAD);
+        lexer = new BibtexLexer(in, BibtexParser.LOOKAHEAD);
+    }
+
+    /**
+     * Creates a parser for a part of a file, which starts at the given line. The line is used in warnings.
+     */
+    BibtexParser(String text, int firstLine) {
+        // the whole text fits into the buffer of the lexer
+        lexer = new BibtexLexer(new StringReader(text), BibtexParser.LOOKAHEAD, firstLine, text.length() + 1);
     }
 
     /**
@@ -156,6 +160,13 @@ public class BibtexParser {
         }
     }
 
+    /**
+     * Returns the content of all jabref-meta comments found by {@link #parse()}, by meta data type.
+     */
+    Map<String, String> getMetaDataEntries() {
+        return Collections.unmodifiableMap(meta);
+    }
+
 
     private void initializeParserResult() {
         database = new BibDatabase();
@@ -164,8 +175,6 @@ public class BibtexParser {
     }
 
     private ParserResult parseFileContent() throws IOException {
-        Map<String, String> meta = new HashMap<>();
-
         while (!eof) {
             boolean found = consumeUncritically('@');
             if (!found) {
@@ -319,7 +328,7 @@ public class BibtexParser {
 
         // if there is no entry found, simply return the content (necessary to parse text remaining after the last entry)
         if (indexOfAt == -1) {
-            return purgeEOFCharacters(result);
+            return result;
         } else {
 
             //skip all text except newlines and whitespaces before first @. This is necessary to remove the file header
@@ -347,29 +356,7 @@ public class BibtexParser {
     }
 
     private String getPureTextFromFile() {
-        StringBuilder entry = new StringBuilder();
-        while (!pureTextFromFile.isEmpty()) {
-            entry.append(pureTextFromFile.pollFirst());
-        }
-
-        return entry.toString();
-    }
-
-    /**
-     * Removes all eof characters from a StringBuilder and returns a new String with the resulting content
-     *
-     * @return a String without eof characters
-     */
-    private String purgeEOFCharacters(String input) {
-
-        StringBuilder remainingText = new StringBuilder();
-        for (Character character : input.toCharArray()) {
-            if (!(isEOFCharacter(character))) {
-                remainingText.append(character);
-            }
-        }
-
-        return remainingText.toString();
+        return lexer.getTextSinceMark();
     }
 
     private void skipWhitespace() throws IOException {
@@ -448,32 +435,15 @@ public class BibtexParser {
     }
 
     private int peek() throws IOException {
-        int character = read();
-        unread(character);
-
-        return character;
+        return lexer.peek();
     }
 
     private int read() throws IOException {
-        int character = pushbackReader.read();
-
-        if(! isEOFCharacter(character)) {
-            pureTextFromFile.offerLast((char) character);
-        }
-        if (character == '\n') {
-            line++;
-        }
-        return character;
+        return lexer.read();
     }
 
     private void unread(int character) throws IOException {
-        if (character == '\n') {
-            line--;
-        }
-        pushbackReader.unread(character);
-        if(pureTextFromFile.getLast() == character) {
-            pureTextFromFile.pollLast();
-        }
+        lexer.unread(character);
     }
 
     private BibtexString parseString() throws IOException {
@@ -586,7 +556,7 @@ public class BibtexParser {
         while (((character = peek()) != ',') && (character != '}') && (character != ')')) {
 
             if (eof) {
-                throw new IOException("Error in line " + line + ": EOF in mid-string");
+                throw new IOException("Error in line " + lexer.getLine() + ": EOF in mid-string");
             }
             if (character == '"') {
                 StringBuilder text = parseQuotedFieldExactly();
@@ -606,7 +576,7 @@ public class BibtexParser {
             } else {
                 String textToken = parseTextToken();
                 if (textToken.isEmpty()) {
-                    throw new IOException("Error in line " + line + " or above: "
+                    throw new IOException("Error in line " + lexer.getLine() + " or above: "
                             + "Empty text token.\nThis could be caused "
                             + "by a missing comma between two fields.");
                 }
@@ -699,7 +669,7 @@ public class BibtexParser {
 
                         // Finished, now reverse newKey and remove whitespaces:
                         parserResult.addWarning(Localization.lang("Line %0: Found corrupted BibTeX-key.",
-                                String.valueOf(line)));
+                                String.valueOf(lexer.getLine())));
                         key = newKey.reverse();
                     }
                 }
@@ -707,12 +677,12 @@ public class BibtexParser {
 
             case ',':
                 parserResult.addWarning(Localization.lang("Line %0: Found corrupted BibTeX-key (contains whitespaces).",
-                        String.valueOf(line)));
+                        String.valueOf(lexer.getLine())));
                 break;
 
             case '\n':
                 parserResult.addWarning(Localization.lang("Line %0: Found corrupted BibTeX-key (comma missing).",
-                        String.valueOf(line)));
+                        String.valueOf(lexer.getLine())));
                 break;
 
             default:
@@ -790,7 +760,7 @@ public class BibtexParser {
                     // the entry lacked a comma signifying the end of the key.
                     return token.toString();
                 } else {
-                    throw new IOException("Error in line " + line + ":" + "Character '" + (char) character
+                    throw new IOException("Error in line " + lexer.getLine() + ":" + "Character '" + (char) character
                             + "' is not " + "allowed in bibtex keys.");
                 }
 
@@ -810,7 +780,7 @@ public class BibtexParser {
 
             int character = read();
             if (isEOFCharacter(character)) {
-                throw new IOException("Error in line " + line + ": EOF in mid-string");
+                throw new IOException("Error in line " + lexer.getLine() + ": EOF in mid-string");
             } else if ((character == '{') || (character == '(')) {
                 brackets++;
             } else if ((character == '}') || (character == ')')) {
@@ -870,7 +840,7 @@ public class BibtexParser {
             if (isClosingBracket && (brackets == 0)) {
                 return value;
             } else if (isEOFCharacter(character)) {
-                throw new IOException("Error in line " + line + ": EOF in mid-string");
+                throw new IOException("Error in line " + lexer.getLine() + ": EOF in mid-string");
             } else if ((character == '{') && (!isEscapeSymbol(lastCharacter))) {
                 brackets++;
             } else if (isClosingBracket) {
@@ -897,7 +867,7 @@ public class BibtexParser {
         while (!((peek() == '"') && (brackets == 0))) {
             int j = read();
             if (isEOFCharacter(j)) {
-                throw new IOException("Error in line " + line + ": EOF in mid-string");
+                throw new IOException("Error in line " + lexer.getLine() + ": EOF in mid-string");
             } else if (j == '{') {
                 brackets++;
             } else if (j == '}') {
@@ -915,7 +885,7 @@ public class BibtexParser {
         int character = read();
 
         if (character != expected) {
-            throw new IOException("Error in line " + line + ": Expected " + expected
+            throw new IOException("Error in line " + lexer.getLine() + ": Expected " + expected
                     + " but received " + (char) character);
         }
     }
@@ -940,7 +910,7 @@ public class BibtexParser {
         int character = read();
 
         if ((character != firstOption) && (character != secondOption)) {
-            throw new IOException("Error in line " + line + ": Expected " + firstOption + " or "
+            throw new IOException("Error in line " + lexer.getLine() + ": Expected " + firstOption + " or "
                     + secondOption + " but received " + (char) character);
         }
     }
@@ -0,0 +1,381 @@
+package net.sf.jabref.importer.fileformat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import net.sf.jabref.importer.ImportFormatReader;
+import net.sf.jabref.importer.ParserResult;
+import net.sf.jabref.model.entry.BibEntry;
+import net.sf.jabref.model.entry.EntryContentSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * A BibTeX file which is memory-mapped, so the fields of its entries can be loaded lazily.
+ * <p>
+ * The file is parsed once like by the {@link ParallelBibtexParser}. Afterwards, each entry only keeps its key, its
+ * type and the byte range of its serialization in the file. The fields are parsed again from the mapped file when
+ * they are first accessed. At most {@link #DEFAULT_CACHE_SIZE} entries are kept loaded at the same time; the entries
+ * loaded first are unloaded first. Changed entries are never unloaded.
+ * <p>
+ * Entries which cannot be located in the file are kept in memory completely. Files that cannot be decoded without
+ * errors or that are larger than 2 GB are parsed completely into memory as well.
+ * <p>
+ * As long as any entry of the database is in use, the file stays mapped, so it must not be modified in place. Before a
+ * file is overwritten, {@link #release(File)} loads all entries which still refer to it and unmaps it. Entries are not
+ * read from a file which was changed outside of JabRef, as their byte ranges are not valid anymore.
+ */
+public class MappedBibtexFile {
+
+    private static final Log LOGGER = LogFactory.getLog(MappedBibtexFile.class);
+
+    // files smaller than this are not worth being mapped
+    public static final long MINIMUM_FILE_SIZE = 32L * 1024 * 1024;
+    public static final int DEFAULT_CACHE_SIZE = 10000;
+
+    // all files with entries referring to them, which are dropped when none of their entries is in use anymore
+    private static final Set<MappedBibtexFile> MAPPED_FILES = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    // size and modification time of the file when it was mapped, to detect changes from outside
+    private final long fileSize;
+    private final long lastModified;
+    // the buffer must not be read after it is unmapped
+    private final ReadWriteLock unmapLock = new ReentrantReadWriteLock();
+    private boolean unmapped;
+    private final Charset encoding;
+    private final int cacheSize;
+    private final Deque<BibEntry> loadedEntries = new ArrayDeque<>();
+    // entries whose fields are loaded from this file
+    private final List<BibEntry> mappedEntries = Collections.synchronizedList(new ArrayList<>());
+
+
+    private MappedBibtexFile(Path path, MappedByteBuffer buffer, BasicFileAttributes attributes, Charset encoding,
+            int cacheSize) {
+        this.path = path;
+        this.buffer = buffer;
+        this.fileSize = attributes.size();
+        this.lastModified = attributes.lastModifiedTime().toMillis();
+        this.encoding = encoding;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Parses the given file. The fields of the entries are loaded lazily.
+     */
+    public static ParserResult load(File file, Charset encoding) throws IOException {
+        return load(file, encoding, DEFAULT_CACHE_SIZE, ForkJoinPool.commonPool());
+    }
+
+    public static ParserResult load(File file, Charset encoding, int cacheSize, ForkJoinPool pool)
+            throws IOException {
+        if (cacheSize <= 0) {
+            throw new IllegalArgumentException("cache size must be positive");
+        }
+
+        MappedByteBuffer buffer;
+        BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                LOGGER.info("File " + file + " is too large to be mapped, parsing it completely");
+                try (Reader reader = ImportFormatReader.getReader(file, encoding)) {
+                    return ParallelBibtexParser.parse(reader, pool);
+                }
+            }
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        // the text is only needed while parsing, afterwards the entries refer to the mapped bytes
+        String content;
+        try {
+            content = encoding.newDecoder().decode(buffer.duplicate()).toString();
+        } catch (CharacterCodingException e) {
+            LOGGER.info("File " + file + " cannot be decoded exactly, parsing it completely", e);
+            content = encoding.decode(buffer.duplicate()).toString();
+            unmap(buffer);
+            return ParallelBibtexParser.parse(content, pool, ParallelBibtexParser.getChunkSize(content.length(), pool));
+        }
+
+        MappedBibtexFile mappedFile = new MappedBibtexFile(getRealPath(file), buffer, attributes, encoding, cacheSize);
+        ParserResult result = mappedFile.parse(content, pool);
+        if (mappedFile.mappedEntries.isEmpty()) {
+            mappedFile.unmap();
+        } else {
+            synchronized (MAPPED_FILES) {
+                MAPPED_FILES.add(mappedFile);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads all entries which were read lazily from the given file into memory, lets them forget the file and unmaps
+     * it, so it can be overwritten.
+     */
+    public static void release(File file) {
+        Path path = getRealPath(file);
+        List<MappedBibtexFile> filesToRelease = new ArrayList<>();
+        synchronized (MAPPED_FILES) {
+            for (MappedBibtexFile mappedFile : MAPPED_FILES) {
+                if (mappedFile.path.equals(path)) {
+                    filesToRelease.add(mappedFile);
+                }
+            }
+            MAPPED_FILES.removeAll(filesToRelease);
+        }
+
+        for (MappedBibtexFile mappedFile : filesToRelease) {
+            List<BibEntry> entries;
+            synchronized (mappedFile.mappedEntries) {
+                entries = new ArrayList<>(mappedFile.mappedEntries);
+                mappedFile.mappedEntries.clear();
+            }
+            for (BibEntry entry : entries) {
+                entry.detachContentSource();
+            }
+            synchronized (mappedFile.loadedEntries) {
+                mappedFile.loadedEntries.clear();
+            }
+            mappedFile.unmap();
+        }
+    }
+
+    private void unmap() {
+        unmapLock.writeLock().lock();
+        try {
+            if (!unmapped) {
+                unmapped = true;
+                unmap(buffer);
+            }
+        } finally {
+            unmapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Unmaps the given buffer, which must not be accessed afterwards. Otherwise the file stays mapped until the buffer
+     * is garbage collected, and cannot be replaced on Windows meanwhile.
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        // there is no public API for this in Java 8
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Cannot unmap file, it stays mapped until it is garbage collected", e);
+        }
+    }
+
+    private static Path getRealPath(File file) {
+        try {
+            return file.toPath().toRealPath();
+        } catch (IOException e) {
+            return file.toPath().toAbsolutePath().normalize();
+        }
+    }
+
+    private ParserResult parse(String content, ForkJoinPool pool) throws IOException {
+        List<Integer> splitPoints = ParallelBibtexParser.findSplitPoints(content,
+                ParallelBibtexParser.getChunkSize(content.length(), pool));
+
+        // byte offset of each chunk in the file
+        Map<Integer, Long> chunkOffsets = new HashMap<>();
+        long offset = 0;
+        int start = 0;
+        for (int end : splitPoints) {
+            chunkOffsets.put(start, offset);
+            offset += getEncodedLength(content, start, end);
+            start = end;
+        }
+        chunkOffsets.put(start, offset);
+
+        Optional<List<ParallelBibtexParser.Chunk>> chunks = ParallelBibtexParser.parseChunks(content, splitPoints,
+                pool, chunk -> unloadEntries(content, chunk, chunkOffsets.get(chunk.start)));
+        if (!chunks.isPresent()) {
+            // the entries of the chunks are dropped
+            mappedEntries.clear();
+            return ParallelBibtexParser.parseSequentially(content);
+        }
+        return ParallelBibtexParser.merge(chunks.get());
+    }
+
+    /**
+     * Replaces the fields of the entries of the given chunk by references into the file.
+     */
+    private void unloadEntries(String content, ParallelBibtexParser.Chunk chunk, long chunkOffset) {
+        int searchStart = chunk.start;
+        long offset = chunkOffset;
+        for (BibEntry entry : chunk.result.getDatabase().getEntries()) {
+            String serialization = entry.getParsedSerialization();
+            if ((serialization == null) || serialization.isEmpty()) {
+                continue;
+            }
+            int position = content.indexOf(serialization, searchStart);
+            if ((position < 0) || ((position + serialization.length()) > chunk.end)) {
+                // keep the entry in memory
+                continue;
+            }
+
+            offset += getEncodedLength(content, searchStart, position);
+            int length = getEncodedLength(content, position, position + serialization.length());
+            entry.setContentSource(new MappedEntryContent(offset, length, entry.getCiteKey()));
+            mappedEntries.add(entry);
+
+            offset += length;
+            searchStart = position + serialization.length();
+        }
+    }
+
+    private int getEncodedLength(String content, int start, int end) {
+        if (StandardCharsets.UTF_8.equals(encoding)) {
+            int length = 0;
+            for (int i = start; i < end; i++) {
+                char character = content.charAt(i);
+                if (character < 0x80) {
+                    length++;
+                } else if (character < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(character)) {
+                    // together with the low surrogate
+                    length += 4;
+                    i++;
+                } else {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+        if (encoding.newEncoder().maxBytesPerChar() == 1) {
+            return end - start;
+        }
+        return encoding.encode(CharBuffer.wrap(content, start, end)).remaining();
+    }
+
+    /**
+     * Returns the text in the given byte range of the file, or null if the file was unmapped or changed since it was
+     * mapped.
+     */
+    private String decode(long offset, int length) {
+        unmapLock.readLock().lock();
+        try {
+            if (unmapped || isChanged()) {
+                return null;
+            }
+            ByteBuffer bytes = buffer.duplicate();
+            bytes.position((int) offset);
+            bytes.limit((int) offset + length);
+            return encoding.decode(bytes).toString();
+        } finally {
+            unmapLock.readLock().unlock();
+        }
+    }
+
+    private boolean isChanged() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return (attributes.size() != fileSize) || (attributes.lastModifiedTime().toMillis() != lastModified);
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private void entryLoaded(BibEntry entry) {
+        List<BibEntry> entriesToUnload = new ArrayList<>();
+        synchronized (loadedEntries) {
+            loadedEntries.addLast(entry);
+            while (loadedEntries.size() > cacheSize) {
+                entriesToUnload.add(loadedEntries.removeFirst());
+            }
+        }
+        // outside of the lock, as the entries lock themselves
+        for (BibEntry entryToUnload : entriesToUnload) {
+            entryToUnload.unloadFields();
+        }
+    }
+
+    /**
+     * The content of an entry, given by its byte range in the file
+     */
+    private class MappedEntryContent implements EntryContentSource {
+
+        private final long offset;
+        private final int length;
+        private final String citeKey;
+
+
+        MappedEntryContent(long offset, int length, String citeKey) {
+            this.offset = offset;
+            this.length = length;
+            this.citeKey = citeKey;
+        }
+
+        @Override
+        public String getCiteKey() {
+            return citeKey;
+        }
+
+        @Override
+        public Map<String, String> loadFields() {
+            String serialization = decode(offset, length);
+            if (serialization == null) {
+                LOGGER.error("Could not load entry " + citeKey + ", as " + path + " was changed since it was opened");
+                return Collections.emptyMap();
+            }
+            List<BibEntry> entries = BibtexParser.fromString(serialization);
+            if (entries.size() != 1) {
+                LOGGER.warn("Could not load entry " + citeKey + " from " + serialization);
+                return Collections.emptyMap();
+            }
+            return entries.get(0).getFieldMap();
+        }
+
+        @Override
+        public String loadParsedSerialization() {
+            String serialization = decode(offset, length);
+            if (serialization == null) {
+                // writing the entry without it would lose its fields
+                throw new IllegalStateException(
+                        "Cannot write entry " + citeKey + ", as " + path + " was changed since it was opened");
+            }
+            return serialization;
+        }
+
+        @Override
+        public void fieldsLoaded(BibEntry entry) {
+            entryLoaded(entry);
+        }
+    }
+}
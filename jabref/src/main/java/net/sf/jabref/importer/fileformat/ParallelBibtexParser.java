@@ -0,0 +1,333 @@
+package net.sf.jabref.importer.fileformat;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+import net.sf.jabref.MetaData;
+import net.sf.jabref.importer.ParserResult;
+import net.sf.jabref.logic.l10n.Localization;
+import net.sf.jabref.model.database.BibDatabase;
+import net.sf.jabref.model.database.KeyCollisionException;
+import net.sf.jabref.model.entry.BibEntry;
+import net.sf.jabref.model.entry.BibtexString;
+import net.sf.jabref.model.entry.EntryType;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Parses BibTeX files on several cores.
+ * <p>
+ * The input is read completely and split into chunks at top-level entries (first pass). The chunks are parsed by
+ * independent {@link BibtexParser}s on a fork/join pool and merged in source order into one {@link ParserResult}
+ * (second pass). As the parser keeps references to strings as {@code #name#}, entries do not depend on the
+ * {@code @string} definitions before them.
+ * <p>
+ * The input is only split where the sequential parser ends the serialization of an entry or a string, so the parsed
+ * serialization, line numbers and warnings are the same as for {@link BibtexParser#parse()}. Warnings about string
+ * names defined in several chunks are reported before the other warnings of the chunk. If a chunk does not end at its
+ * split point, e.g., because of unbalanced braces, the input is parsed sequentially instead.
+ */
+public class ParallelBibtexParser {
+
+    private static final Log LOGGER = LogFactory.getLog(ParallelBibtexParser.class);
+
+    // inputs smaller than this are parsed sequentially
+    private static final int MINIMUM_CHUNK_SIZE = 1 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+
+    private ParallelBibtexParser() {
+    }
+
+    /**
+     * Parses the given input on the common fork/join pool.
+     */
+    public static ParserResult parse(Reader in) throws IOException {
+        return parse(in, ForkJoinPool.commonPool());
+    }
+
+    public static ParserResult parse(Reader in, ForkJoinPool pool) throws IOException {
+        String content = readAll(in);
+        return parse(content, pool, getChunkSize(content.length(), pool));
+    }
+
+    static int getChunkSize(int length, ForkJoinPool pool) {
+        return Math.max(MINIMUM_CHUNK_SIZE, length / (CHUNKS_PER_THREAD * pool.getParallelism()));
+    }
+
+    static ParserResult parse(String content, ForkJoinPool pool, int chunkSize) throws IOException {
+        List<Integer> splitPoints = findSplitPoints(content, chunkSize);
+        if (splitPoints.isEmpty()) {
+            return parseSequentially(content);
+        }
+
+        Optional<List<Chunk>> chunks = parseChunks(content, splitPoints, pool, chunk -> {
+            // nothing to do
+        });
+        if (!chunks.isPresent()) {
+            return parseSequentially(content);
+        }
+        return merge(chunks.get());
+    }
+
+    static ParserResult parseSequentially(String content) throws IOException {
+        return new BibtexParser(new StringReader(content)).parse();
+    }
+
+    /**
+     * Parses the chunks between the given split points on the given pool.
+     *
+     * @param processor is called by the worker threads for each chunk after it was parsed
+     * @return the parsed chunks in source order, or an empty Optional if a chunk could not be parsed or does not end
+     * at its split point
+     */
+    static Optional<List<Chunk>> parseChunks(String content, List<Integer> splitPoints, ForkJoinPool pool,
+            Consumer<Chunk> processor) throws IOException {
+        List<Chunk> chunks = new ArrayList<>(splitPoints.size() + 1);
+        List<ForkJoinTask<Chunk>> tasks = new ArrayList<>(splitPoints.size() + 1);
+        int start = 0;
+        int line = 1;
+        for (int i = 0; i <= splitPoints.size(); i++) {
+            int end = i < splitPoints.size() ? splitPoints.get(i) : content.length();
+            Chunk chunk = new Chunk(start, end);
+            int firstLine = line;
+            tasks.add(pool.submit(() -> {
+                BibtexParser parser = new BibtexParser(content.substring(chunk.start, chunk.end), firstLine);
+                chunk.result = parser.parse();
+                chunk.metaDataEntries = parser.getMetaDataEntries();
+                processor.accept(chunk);
+                return chunk;
+            }));
+            line += countLines(content, start, end);
+            start = end;
+        }
+
+        try {
+            for (ForkJoinTask<Chunk> task : tasks) {
+                chunks.add(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Parsing was interrupted", e);
+        } catch (ExecutionException e) {
+            LOGGER.info("Could not parse chunk, parsing sequentially", e.getCause());
+            return Optional.empty();
+        }
+
+        // everything of a chunk has to belong to its entries, otherwise the split point was wrong
+        for (int i = 0; i < (chunks.size() - 1); i++) {
+            if (!chunks.get(i).result.getDatabase().getEpilog().isEmpty()) {
+                LOGGER.info("Chunk " + i + " does not end at its split point, parsing sequentially");
+                return Optional.empty();
+            }
+        }
+        return Optional.of(chunks);
+    }
+
+    /**
+     * Merges the results of the given chunks in their order into one result.
+     */
+    static ParserResult merge(List<Chunk> chunks) {
+        BibDatabase database = new BibDatabase();
+        Map<String, EntryType> entryTypes = new HashMap<>();
+        Map<String, String> meta = new HashMap<>();
+        ParserResult result = new ParserResult(database, null, entryTypes);
+
+        for (Chunk chunk : chunks) {
+            ParserResult part = chunk.result;
+            BibDatabase partDatabase = part.getDatabase();
+
+            // like the entries, the strings are moved out of the chunk database
+            List<BibtexString> partStrings = new ArrayList<>(partDatabase.getStringValues());
+            for (BibtexString string : partStrings) {
+                partDatabase.removeString(string.getId());
+            }
+            for (BibtexString string : partStrings) {
+                try {
+                    database.addString(string);
+                } catch (KeyCollisionException ex) {
+                    result.addWarning(Localization.lang("Duplicate string name") + ": " + string.getName());
+                }
+            }
+            for (String warning : part.warnings()) {
+                result.addWarning(warning);
+            }
+            // the entries are moved, so the chunk database does not keep listening to them
+            List<BibEntry> partEntries = new ArrayList<>(partDatabase.getEntries());
+            for (int i = partEntries.size() - 1; i >= 0; i--) {
+                partDatabase.removeEntry(partEntries.get(i));
+            }
+            for (BibEntry entry : partEntries) {
+                boolean duplicateKey = database.insertEntry(entry);
+                if (duplicateKey) {
+                    result.addDuplicateKey(entry.getCiteKey());
+                }
+            }
+            if (partDatabase.getPreamble() != null) {
+                database.setPreamble(partDatabase.getPreamble());
+            }
+            entryTypes.putAll(part.getEntryTypes());
+            meta.putAll(chunk.metaDataEntries);
+            database.setEpilog(partDatabase.getEpilog());
+        }
+
+        result.setMetaData(new MetaData(meta, database));
+        return result;
+    }
+
+    /**
+     * Returns the offsets at which the given content can be split into chunks of at least the given size. These are
+     * the offsets at which the sequential parser finishes the serialization of an entry or a string: after the
+     * closing bracket, following spaces and one newline.
+     */
+    static List<Integer> findSplitPoints(String content, int chunkSize) {
+        List<Integer> splitPoints = new ArrayList<>();
+        int lastSplitPoint = 0;
+
+        int position = content.indexOf('@');
+        while (position >= 0) {
+            int typeStart = skipWhitespace(content, position + 1);
+            int typeEnd = skipTextToken(content, typeStart);
+            String type = content.substring(typeStart, typeEnd).toLowerCase(Locale.ENGLISH);
+            int opening = skipWhitespace(content, typeEnd);
+            if ((opening == content.length())
+                    || ((content.charAt(opening) != '{') && (content.charAt(opening) != '('))) {
+                position = content.indexOf('@', typeEnd);
+                continue;
+            }
+
+            boolean comment = "comment".equals(type);
+            int closing = findClosingBracket(content, opening, !comment);
+            if (closing < 0) {
+                break;
+            }
+
+            int end = closing + 1;
+            // comments and preambles are not followed by a serialization of their own
+            if (!comment && !"preamble".equals(type)) {
+                end = skipOneNewline(content, end);
+                if (((end - lastSplitPoint) >= chunkSize) && (end < content.length())) {
+                    splitPoints.add(end);
+                    lastSplitPoint = end;
+                }
+            }
+            position = content.indexOf('@', end);
+        }
+        return splitPoints;
+    }
+
+    private static int skipWhitespace(String content, int start) {
+        int position = start;
+        while ((position < content.length()) && Character.isWhitespace(content.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Skips the characters the parser accepts in entry types (see BibtexParser.parseTextToken())
+     */
+    private static int skipTextToken(String content, int start) {
+        int position = start;
+        while ((position < content.length()) && (Character.isLetterOrDigit(content.charAt(position))
+                || (":-_*+./'".indexOf(content.charAt(position)) >= 0))) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Skips spaces and one newline, like BibtexParser.skipOneNewline()
+     */
+    private static int skipOneNewline(String content, int start) {
+        int position = start;
+        while ((position < content.length()) && (content.charAt(position) == ' ')) {
+            position++;
+        }
+        if ((position < content.length()) && (content.charAt(position) == '\r')) {
+            position++;
+        }
+        if ((position < content.length()) && (content.charAt(position) == '\n')) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the offset of the bracket closing the one at the given offset, or -1 if there is none. Braces preceded
+     * by a backslash are ignored.
+     */
+    private static int findClosingBracket(String content, int opening, boolean quotes) {
+        char closingBracket = content.charAt(opening) == '(' ? ')' : '}';
+        int depth = 0;
+        boolean inQuotes = false;
+        for (int i = opening + 1; i < content.length(); i++) {
+            char character = content.charAt(i);
+            boolean escaped = content.charAt(i - 1) == '\\';
+            if ((character == '{') && !escaped) {
+                depth++;
+            } else if ((character == '}') && !escaped) {
+                if ((depth == 0) && !inQuotes && (closingBracket == '}')) {
+                    return i;
+                }
+                depth--;
+            } else if ((character == ')') && (depth == 0) && !inQuotes && (closingBracket == ')')) {
+                return i;
+            } else if ((character == '"') && (depth == 0) && quotes) {
+                inQuotes = !inQuotes;
+            }
+        }
+        return -1;
+    }
+
+    private static int countLines(String text, int start, int end) {
+        int lines = 0;
+        for (int i = start; i < end; i++) {
+            if (text.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static String readAll(Reader in) throws IOException {
+        StringBuilder content = new StringBuilder();
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            content.append(buffer, 0, read);
+        }
+        return content.toString();
+    }
+
+    /**
+     * A part of the input, which is parsed on its own.
+     */
+    static class Chunk {
+
+        // offsets of the chunk in the input
+        final int start;
+        final int end;
+        ParserResult result;
+        Map<String, String> metaDataEntries;
+
+
+        Chunk(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
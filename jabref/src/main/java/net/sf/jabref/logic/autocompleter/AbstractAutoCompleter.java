@@ -14,13 +14,16 @@
 package net.sf.jabref.logic.autocompleter;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
+
+import net.sf.jabref.model.entry.BibEntry;
 
 /**
  * Delivers possible completions for a given string.
@@ -34,19 +37,19 @@ public abstract class AbstractAutoCompleter implements AutoCompleter<String> {
     private final AutoCompletePreferences preferences;
 
     /**
-     * Stores the strings as is.
+     * Stores the strings with the number of entries containing them. Items added directly are counted once.
      */
-    private final TreeSet<String> indexCaseSensitive = new TreeSet<>();
+    private final CompletionTrie index = new CompletionTrie();
 
     /**
-     * Stores strings in lowercase.
+     * Stores for each entry the strings it added to the index, which are replaced when the entry is added again.
      */
-    private final TreeSet<String> indexCaseInsensitive = new TreeSet<>();
+    private final Map<BibEntry, String[]> wordsOfEntry = new IdentityHashMap<>();
 
     /**
-     * Stores for a lowercase string the possible expanded strings.
+     * Stores the strings added directly, e.g., the journal list.
      */
-    private final Map<String, Set<String>> possibleStringsForSearchString = new HashMap<>();
+    private final Set<String> items = new HashSet<>();
 
 
     public AbstractAutoCompleter(AutoCompletePreferences preferences) {
@@ -57,52 +60,64 @@ public abstract class AbstractAutoCompleter implements AutoCompleter<String> {
      * {@inheritDoc}
      * The completion is case sensitive if the string contains upper case letters.
      * Otherwise the completion is case insensitive.
+     * Words which were added more often are returned first, words which were added equally often in alphabetical order.
      */
     @Override
     public List<String> complete(String toComplete) {
-        if(toComplete == null) {
+        if ((toComplete == null) || toComplete.isEmpty()) {
             return new ArrayList<>();
         }
         if (isTooShortToComplete(toComplete)) {
             return new ArrayList<>();
         }
-        String lowerCase = toComplete.toLowerCase();
-
-        if (lowerCase.equals(toComplete)) {
-            // user typed in lower case word -> we do an case-insensitive search
-            String ender = AbstractAutoCompleter.incrementLastCharacter(lowerCase);
-            SortedSet<String> subset = indexCaseInsensitive.subSet(lowerCase, ender);
-
-            // As subset only contains lower case strings,
-            // we have to to determine possible strings for each hit
-            List<String> result = new ArrayList<>();
-            for (String s : subset) {
-                result.addAll(possibleStringsForSearchString.get(s));
-            }
-            return result;
-        } else {
-            // user typed in a mix of upper case and lower case,
-            // we assume user wants to have exact search
-            String ender = AbstractAutoCompleter.incrementLastCharacter(toComplete);
-            SortedSet<String> subset = indexCaseSensitive.subSet(toComplete, ender);
-            return new ArrayList<>(subset);
-        }
+        // if the user typed in a mix of upper case and lower case, we assume the user wants to have exact search
+        boolean caseSensitive = !toComplete.toLowerCase().equals(toComplete);
+        return index.complete(toComplete, caseSensitive, Integer.MAX_VALUE);
     }
 
     /**
-     * Increments the last character of a string.
-     *
-     * Example: incrementLastCharacter("abc") returns "abd".
+     * {@inheritDoc}
+     * Each word is counted at most once per entry. If the entry was added before, the words it added then are
+     * replaced by its current words.
      */
-    private static String incrementLastCharacter(String toIncrement) {
-        if (toIncrement.isEmpty()) {
-            return "";
+    @Override
+    public void addBibtexEntry(BibEntry entry) {
+        if (entry == null) {
+            return;
         }
 
-        char lastChar = toIncrement.charAt(toIncrement.length() - 1);
-        return toIncrement.substring(0, toIncrement.length() - 1) + Character.toString((char) (lastChar + 1));
+        Set<String> words = new LinkedHashSet<>();
+        collectWords(entry, words);
+        words.removeIf(word -> word.length() < getLengthOfShortestWordToAdd());
+
+        synchronized (this) {
+            removeWordsOf(entry);
+            wordsOfEntry.put(entry, words.toArray(new String[words.size()]));
+            words.forEach(index::add);
+        }
+    }
+
+    @Override
+    public synchronized void removeBibtexEntry(BibEntry entry) {
+        if (entry != null) {
+            removeWordsOf(entry);
+        }
+    }
+
+    private void removeWordsOf(BibEntry entry) {
+        String[] oldWords = wordsOfEntry.remove(entry);
+        if (oldWords != null) {
+            for (String word : oldWords) {
+                index.remove(word);
+            }
+        }
     }
 
+    /**
+     * Adds the words of the given entry which are to be stored for completion to the given collection.
+     */
+    protected abstract void collectWords(BibEntry entry, Collection<String> words);
+
     /**
      * Returns whether the string is to short to be completed.
      */
@@ -110,25 +125,19 @@ public abstract class AbstractAutoCompleter implements AutoCompleter<String> {
         return toCheck.length() < preferences.getShortestLengthToComplete();
     }
 
+    /**
+     * {@inheritDoc}
+     * Adding the same item again does not change its frequency.
+     */
     @Override
-    public void addItemToIndex(String word) {
+    public synchronized void addItemToIndex(String word) {
         if (word.length() < getLengthOfShortestWordToAdd()) {
             return;
         }
 
-        indexCaseSensitive.add(word);
-
-        // insensitive treatment
-        // first, add the lower cased word to search index
-        // second, add a mapping from the lower cased word to the real word
-        String lowerCase = word.toLowerCase();
-        indexCaseInsensitive.add(lowerCase);
-        Set<String> set = possibleStringsForSearchString.get(lowerCase);
-        if (set == null) {
-            set = new TreeSet<>();
+        if (items.add(word)) {
+            index.add(word);
         }
-        set.add(word);
-        possibleStringsForSearchString.put(lowerCase, set);
     }
 
     @Override
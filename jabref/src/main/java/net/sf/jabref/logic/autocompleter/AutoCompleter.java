@@ -24,6 +24,11 @@ public interface AutoCompleter<E> {
      */
     void addBibtexEntry(BibEntry entry);
 
+    /**
+     * Removes the information stored for the given BibEntry, e.g., when it was removed from the database.
+     */
+    void removeBibtexEntry(BibEntry entry);
+
     /**
      * States whether the field consists of multiple values (false) or of a single value (true)
      *
@@ -0,0 +1,299 @@
+package net.sf.jabref.logic.autocompleter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * A radix trie of words for autocompletion, keyed by the lower case form of the words.
+ * <p>
+ * Each word is stored with the number of times it was added and not removed again. Completions are returned most frequent first, and in
+ * alphabetical order for the same frequency. Every node knows the highest frequency below it, so the most frequent
+ * completions are found without visiting all words starting with the prefix.
+ * <p>
+ * All methods are synchronized, so the trie can be filled in the background while it is used for completion.
+ */
+class CompletionTrie {
+
+    private static final char[] NO_CHARACTERS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final String[] NO_WORDS = new String[0];
+    private static final int[] NO_COUNTS = new int[0];
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingInt((Candidate candidate) -> -candidate.count)
+            .thenComparing(candidate -> candidate.key)
+            .thenComparing(candidate -> candidate.word == null ? "" : candidate.word);
+
+    private final Node root = new Node("");
+
+
+    /**
+     * Adds the given word, or increases its frequency if it was added before.
+     */
+    public synchronized void add(String word) {
+        Objects.requireNonNull(word);
+        String key = word.toLowerCase();
+
+        Node node = root;
+        int position = 0;
+        List<Node> path = new ArrayList<>();
+        path.add(node);
+        while (position < key.length()) {
+            Node child = node.getChild(key.charAt(position));
+            if (child == null) {
+                child = new Node(key.substring(position));
+                node.addChild(child);
+                position = key.length();
+            } else {
+                int common = commonPrefixLength(child.label, key, position);
+                if (common < child.label.length()) {
+                    child = node.split(child, common);
+                }
+                position += common;
+            }
+            node = child;
+            path.add(node);
+        }
+
+        int count = node.addWord(word);
+        for (Node onPath : path) {
+            onPath.maximumCount = Math.max(onPath.maximumCount, count);
+        }
+    }
+
+    /**
+     * Decreases the frequency of the given word, which is dropped when it was removed as often as it was added.
+     */
+    public synchronized void remove(String word) {
+        Objects.requireNonNull(word);
+        String key = word.toLowerCase();
+
+        Node node = root;
+        int position = 0;
+        List<Node> path = new ArrayList<>();
+        path.add(node);
+        while (position < key.length()) {
+            Node child = node.getChild(key.charAt(position));
+            if ((child == null) || !key.startsWith(child.label, position)) {
+                return;
+            }
+            position += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        if (!node.removeWord(word)) {
+            return;
+        }
+
+        // recompute the highest frequencies on the path and drop nodes without any words below them
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node onPath = path.get(i);
+            onPath.updateMaximumCount();
+            if ((i > 0) && (onPath.maximumCount == 0)) {
+                path.get(i - 1).removeChild(onPath);
+            }
+        }
+    }
+
+    /**
+     * Returns the words starting with the given prefix, most frequent first.
+     *
+     * @param caseSensitive whether the words have to start with the prefix exactly, otherwise the case is ignored
+     * @param limit the maximum number of words to return
+     */
+    public synchronized List<String> complete(String prefix, boolean caseSensitive, int limit) {
+        String key = prefix.toLowerCase();
+        List<String> result = new ArrayList<>();
+
+        // find the node containing all words with the prefix
+        Node node = root;
+        int position = 0;
+        StringBuilder path = new StringBuilder();
+        while (position < key.length()) {
+            Node child = node.getChild(key.charAt(position));
+            if (child == null) {
+                return result;
+            }
+            int common = commonPrefixLength(child.label, key, position);
+            if ((common < child.label.length()) && ((position + common) < key.length())) {
+                // the prefix leaves the trie in the middle of the edge
+                return result;
+            }
+            path.append(child.label);
+            position += common;
+            node = child;
+        }
+
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(BEST_FIRST);
+        candidates.add(new Candidate(node, path.toString()));
+        while (!candidates.isEmpty() && (result.size() < limit)) {
+            Candidate candidate = candidates.poll();
+            if (candidate.word != null) {
+                result.add(candidate.word);
+                continue;
+            }
+
+            Node current = candidate.node;
+            for (int i = 0; i < current.words.length; i++) {
+                if (!caseSensitive || current.words[i].startsWith(prefix)) {
+                    candidates.add(new Candidate(current.words[i], candidate.key, current.counts[i]));
+                }
+            }
+            for (Node child : current.children) {
+                candidates.add(new Candidate(child, candidate.key + child.label));
+            }
+        }
+        return result;
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while ((i < length) && (label.charAt(i) == key.charAt(offset + i))) {
+            i++;
+        }
+        return i;
+    }
+
+
+    private static class Node {
+
+        // the characters on the edge from the parent to this node
+        private String label;
+        private char[] firstCharacters = NO_CHARACTERS;
+        private Node[] children = NO_NODES;
+        // the spellings of the word ending at this node and how often they were added
+        private String[] words = NO_WORDS;
+        private int[] counts = NO_COUNTS;
+        private int maximumCount;
+
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node getChild(char first) {
+            int index = Arrays.binarySearch(firstCharacters, first);
+            return index < 0 ? null : children[index];
+        }
+
+        void addChild(Node child) {
+            int index = -Arrays.binarySearch(firstCharacters, child.label.charAt(0)) - 1;
+            char[] newFirstCharacters = new char[firstCharacters.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(firstCharacters, 0, newFirstCharacters, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newFirstCharacters[index] = child.label.charAt(0);
+            newChildren[index] = child;
+            System.arraycopy(firstCharacters, index, newFirstCharacters, index + 1, firstCharacters.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            firstCharacters = newFirstCharacters;
+            children = newChildren;
+        }
+
+        void removeChild(Node child) {
+            int index = Arrays.binarySearch(firstCharacters, child.label.charAt(0));
+            char[] newFirstCharacters = new char[firstCharacters.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(firstCharacters, 0, newFirstCharacters, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            System.arraycopy(firstCharacters, index + 1, newFirstCharacters, index, newFirstCharacters.length - index);
+            System.arraycopy(children, index + 1, newChildren, index, newChildren.length - index);
+            firstCharacters = newFirstCharacters;
+            children = newChildren;
+        }
+
+        /**
+         * Splits the edge to the given child after the given number of characters and returns the new middle node.
+         */
+        Node split(Node child, int length) {
+            Node middle = new Node(child.label.substring(0, length));
+            middle.maximumCount = child.maximumCount;
+            children[Arrays.binarySearch(firstCharacters, child.label.charAt(0))] = middle;
+            child.label = child.label.substring(length);
+            middle.addChild(child);
+            return middle;
+        }
+
+        /**
+         * Adds the given spelling of the word ending at this node and returns its new count.
+         */
+        int addWord(String word) {
+            for (int i = 0; i < words.length; i++) {
+                if (words[i].equals(word)) {
+                    counts[i]++;
+                    return counts[i];
+                }
+            }
+            words = Arrays.copyOf(words, words.length + 1);
+            counts = Arrays.copyOf(counts, counts.length + 1);
+            words[words.length - 1] = word;
+            counts[counts.length - 1] = 1;
+            return 1;
+        }
+
+        /**
+         * Decreases the count of the given spelling of the word ending at this node and drops it at zero. Returns
+         * whether the spelling was found.
+         */
+        boolean removeWord(String word) {
+            for (int i = 0; i < words.length; i++) {
+                if (words[i].equals(word)) {
+                    counts[i]--;
+                    if (counts[i] == 0) {
+                        String[] newWords = new String[words.length - 1];
+                        int[] newCounts = new int[counts.length - 1];
+                        System.arraycopy(words, 0, newWords, 0, i);
+                        System.arraycopy(counts, 0, newCounts, 0, i);
+                        System.arraycopy(words, i + 1, newWords, i, newWords.length - i);
+                        System.arraycopy(counts, i + 1, newCounts, i, newCounts.length - i);
+                        words = newWords;
+                        counts = newCounts;
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void updateMaximumCount() {
+            maximumCount = 0;
+            for (int count : counts) {
+                maximumCount = Math.max(maximumCount, count);
+            }
+            for (Node child : children) {
+                maximumCount = Math.max(maximumCount, child.maximumCount);
+            }
+        }
+    }
+
+    /**
+     * A node to be expanded or a word to be returned, ordered by the highest frequency they stand for
+     */
+    private static class Candidate {
+
+        private final Node node;
+        private final String word;
+        // the lower case word, or the path to the node
+        private final String key;
+        private final int count;
+
+
+        Candidate(Node node, String key) {
+            this.node = node;
+            this.word = null;
+            this.key = key;
+            this.count = node.maximumCount;
+        }
+
+        Candidate(String word, String key, int count) {
+            this.node = null;
+            this.word = word;
+            this.key = key;
+            this.count = count;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import net.sf.jabref.MetaData;
 import net.sf.jabref.logic.journals.Abbreviation;
 import net.sf.jabref.logic.journals.JournalAbbreviationLoader;
 import net.sf.jabref.model.database.BibDatabase;
+import net.sf.jabref.model.entry.BibEntry;
 
 public class ContentAutoCompleters extends AutoCompleters {
 
@@ -18,8 +19,10 @@ public class ContentAutoCompleters extends AutoCompleters {
         this.abbreviationLoader = Objects.requireNonNull(abbreviationLoader);
     }
 
-    public ContentAutoCompleters(BibDatabase database, MetaData metaData, AutoCompletePreferences preferences,
-            JournalAbbreviationLoader abbreviationLoader) {
+    /**
+     * Creates empty autocompleters for the fields to complete, which are filled by {@link #addAll(List, MetaData)}.
+     */
+    public ContentAutoCompleters(AutoCompletePreferences preferences, JournalAbbreviationLoader abbreviationLoader) {
         this(abbreviationLoader);
         Objects.requireNonNull(preferences);
 
@@ -29,8 +32,22 @@ public class ContentAutoCompleters extends AutoCompleters {
             AutoCompleter<String> autoCompleter = autoCompleterFactory.getFor(field);
             put(field, autoCompleter);
         }
+    }
+
+    public ContentAutoCompleters(BibDatabase database, MetaData metaData, AutoCompletePreferences preferences,
+            JournalAbbreviationLoader abbreviationLoader) {
+        this(preferences, abbreviationLoader);
+        addAll(database.getEntries(), metaData);
+    }
 
-        addDatabase(database);
+    /**
+     * Adds the words of the given entries, the journal list and the content selector values. As the autocompleters
+     * can be used meanwhile, this may run in the background.
+     */
+    public void addAll(List<BibEntry> entries, MetaData metaData) {
+        for (BibEntry entry : entries) {
+            addEntry(entry);
+        }
 
         addJournalListToAutoCompleter();
         addContentSelectorValuesToAutoCompleters(metaData);
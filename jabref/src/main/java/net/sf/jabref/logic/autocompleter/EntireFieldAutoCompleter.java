@@ -15,6 +15,7 @@
 */
 package net.sf.jabref.logic.autocompleter;
 
+import java.util.Collection;
 import java.util.Objects;
 
 import net.sf.jabref.model.entry.BibEntry;
@@ -48,11 +49,7 @@ class EntireFieldAutoCompleter extends AbstractAutoCompleter {
      * Stores the full original value of the given field.
      */
     @Override
-    public void addBibtexEntry(BibEntry entry) {
-        if (entry == null) {
-            return;
-        }
-
-        entry.getFieldOptional(fieldName).ifPresent(fieldValue -> addItemToIndex(fieldValue.trim()));
+    protected void collectWords(BibEntry entry, Collection<String> words) {
+        entry.getFieldOptional(fieldName).ifPresent(fieldValue -> words.add(fieldValue.trim()));
     }
 }
@@ -0,0 +1,314 @@
+package net.sf.jabref.logic.groups;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.VetoableChangeListener;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import net.sf.jabref.model.database.BibDatabase;
+import net.sf.jabref.model.database.DatabaseChangeEvent;
+import net.sf.jabref.model.database.DatabaseChangeListener;
+import net.sf.jabref.model.entry.BibEntry;
+
+/**
+ * Keeps the entries of a {@link BibDatabase} contained in each group as a bit set.
+ * <p>
+ * Every entry of the database gets a position. For keyword and search groups, the positions of the contained entries
+ * are computed once per group definition and updated whenever a field of an entry changes, so only the changed entry
+ * is checked again. Explicit groups know their entries already, so their bit sets are built from these. The bit sets
+ * of hierarchical groups are combined like in {@link GroupTreeNode#getSearchRule()}: including groups are the union
+ * with their subgroups, refining groups the intersection with their parent group.
+ * <p>
+ * The index is kept up to date by listening to the database and to every entry. Call {@link #close()} to detach it
+ * again.
+ */
+public class GroupMembershipIndex implements DatabaseChangeListener, VetoableChangeListener {
+
+    private static final String ID_PROPERTY = "id";
+
+    // number of group definitions kept, groups removed from the tree are dropped eventually
+    private static final int MAXIMUM_CACHED_GROUPS = 4096;
+
+    private final BibDatabase database;
+
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final List<BibEntry> entriesByPosition = new ArrayList<>();
+    private final Deque<Integer> freePositions = new ArrayDeque<>();
+
+    /**
+     * definition of a dynamic group -> the group and the positions of the entries it contains
+     */
+    private final Map<List<Object>, Membership> memberships = new LinkedHashMap<List<Object>, Membership>(16, 0.75f,
+            true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Membership> eldest) {
+            return size() > MAXIMUM_CACHED_GROUPS;
+        }
+    };
+
+
+    public GroupMembershipIndex(BibDatabase database) {
+        this.database = Objects.requireNonNull(database);
+
+        for (BibEntry entry : database.getEntries()) {
+            addEntry(entry);
+        }
+        database.addDatabaseChangeListener(this);
+    }
+
+    /**
+     * Stops listening to the database and its entries. The index must not be used afterwards.
+     */
+    public synchronized void close() {
+        database.removeDatabaseChangeListener(this);
+        for (BibEntry entry : database.getEntries()) {
+            entry.removePropertyChangeListener(this);
+        }
+        memberships.clear();
+    }
+
+    /**
+     * Returns the number of entries of the database contained in the given group, without its subgroups.
+     */
+    public synchronized int getNumberOfEntries(AbstractGroup group) {
+        if (group instanceof ExplicitGroup) {
+            return ((ExplicitGroup) group).getNumEntries();
+        }
+        return getMembers(group).cardinality();
+    }
+
+    /**
+     * Returns the groups of the given tree which contain any or all of the given entries, in pre-order. Like
+     * {@link GroupTreeNode#getContainingGroups(List, boolean)}, only the group of each node itself is considered.
+     */
+    public synchronized List<GroupTreeNode> getContainingGroups(GroupTreeNode root, List<BibEntry> entries,
+            boolean requireAll) {
+        Optional<BitSet> entryPositions = getPositions(entries);
+        if (!entryPositions.isPresent()) {
+            return root.getContainingGroups(entries, requireAll);
+        }
+
+        List<GroupTreeNode> groups = new ArrayList<>();
+        for (GroupTreeNode node : getNodesInPreOrder(root)) {
+            BitSet members = getMembers(node.getGroup());
+            if (requireAll) {
+                BitSet missing = (BitSet) entryPositions.get().clone();
+                missing.andNot(members);
+                if (missing.isEmpty()) {
+                    groups.add(node);
+                }
+            } else if (members.intersects(entryPositions.get())) {
+                groups.add(node);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Returns the groups of the given tree which, if selected, show any of the given entries, in pre-order. Like
+     * {@link GroupTreeNode#getMatchingGroups(List)}, the hierarchical context of the groups is considered.
+     */
+    public synchronized List<GroupTreeNode> getMatchingGroups(GroupTreeNode root, List<BibEntry> entries) {
+        Optional<BitSet> entryPositions = getPositions(entries);
+        if (!entryPositions.isPresent()) {
+            return root.getMatchingGroups(entries);
+        }
+
+        // the matches of a node only depend on the context of the node the search rule is built for
+        Map<GroupHierarchyType, Map<GroupTreeNode, BitSet>> caches = new EnumMap<>(GroupHierarchyType.class);
+        List<GroupTreeNode> groups = new ArrayList<>();
+        for (GroupTreeNode node : getNodesInPreOrder(root)) {
+            GroupHierarchyType context = node.getGroup().getHierarchicalContext();
+            if (getMatches(node, context, caches.computeIfAbsent(context, key -> new IdentityHashMap<>()))
+                    .intersects(entryPositions.get())) {
+                groups.add(node);
+            }
+        }
+        return groups;
+    }
+
+    private BitSet getMatches(GroupTreeNode node, GroupHierarchyType originalContext,
+            Map<GroupTreeNode, BitSet> cache) {
+        BitSet cached = cache.get(node);
+        if (cached != null) {
+            return cached;
+        }
+
+        BitSet matches = (BitSet) getMembers(node.getGroup()).clone();
+        GroupHierarchyType context = node.getGroup().getHierarchicalContext();
+        if ((context == GroupHierarchyType.INCLUDING) && (originalContext != GroupHierarchyType.REFINING)) {
+            for (GroupTreeNode child : node.getChildren()) {
+                matches.or(getMatches(child, originalContext, cache));
+            }
+        } else if ((context == GroupHierarchyType.REFINING) && !node.isRoot()
+                && (originalContext != GroupHierarchyType.INCLUDING)) {
+            matches.and(getMatches(node.getParent().get(), originalContext, cache));
+        }
+        cache.put(node, matches);
+        return matches;
+    }
+
+    /**
+     * Returns the positions of the entries contained in the given group. The result must not be modified.
+     */
+    private BitSet getMembers(AbstractGroup group) {
+        if (group instanceof ExplicitGroup) {
+            BitSet members = new BitSet(entriesByPosition.size());
+            for (BibEntry entry : ((ExplicitGroup) group).getEntries()) {
+                Integer position = positions.get(entry.getId());
+                if (position != null) {
+                    members.set(position);
+                }
+            }
+            return members;
+        }
+
+        Optional<List<Object>> definition = getDefinition(group);
+        if (definition.isPresent()) {
+            return memberships.computeIfAbsent(definition.get(), key -> new Membership(group, computeMembers(group)))
+                    .members;
+        }
+        return computeMembers(group);
+    }
+
+    private BitSet computeMembers(AbstractGroup group) {
+        BitSet members = new BitSet(entriesByPosition.size());
+        for (int position = 0; position < entriesByPosition.size(); position++) {
+            BibEntry entry = entriesByPosition.get(position);
+            if ((entry != null) && group.contains(entry)) {
+                members.set(position);
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Returns what determines the entries contained in the given group, if these only depend on the fields of the
+     * entries. The name and the hierarchical context of the group do not matter.
+     */
+    private static Optional<List<Object>> getDefinition(AbstractGroup group) {
+        if (group instanceof KeywordGroup) {
+            KeywordGroup keywordGroup = (KeywordGroup) group;
+            return Optional.of(Arrays.asList(KeywordGroup.ID, keywordGroup.getSearchField(),
+                    keywordGroup.getSearchExpression(), keywordGroup.isCaseSensitive(), keywordGroup.isRegExp()));
+        } else if (group instanceof SearchGroup) {
+            SearchGroup searchGroup = (SearchGroup) group;
+            return Optional.of(Arrays.asList(SearchGroup.ID, searchGroup.getSearchExpression(),
+                    searchGroup.isCaseSensitive(), searchGroup.isRegExp()));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the positions of the given entries, or an empty Optional if any of them is not in the database.
+     */
+    private Optional<BitSet> getPositions(List<BibEntry> entries) {
+        BitSet result = new BitSet(entriesByPosition.size());
+        for (BibEntry entry : entries) {
+            Integer position = positions.get(entry.getId());
+            if ((position == null) || (entriesByPosition.get(position) != entry)) {
+                return Optional.empty();
+            }
+            result.set(position);
+        }
+        return Optional.of(result);
+    }
+
+    private static List<GroupTreeNode> getNodesInPreOrder(GroupTreeNode root) {
+        List<GroupTreeNode> nodes = new ArrayList<>();
+        Deque<GroupTreeNode> remaining = new ArrayDeque<>();
+        remaining.push(root);
+        while (!remaining.isEmpty()) {
+            GroupTreeNode node = remaining.pop();
+            nodes.add(node);
+            List<GroupTreeNode> children = node.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                remaining.push(children.get(i));
+            }
+        }
+        return nodes;
+    }
+
+    @Override
+    public synchronized void databaseChanged(DatabaseChangeEvent e) {
+        if (e.getType() == DatabaseChangeEvent.ChangeType.ADDED_ENTRY) {
+            addEntry(e.getEntry());
+        } else if (e.getType() == DatabaseChangeEvent.ChangeType.REMOVED_ENTRY) {
+            e.getEntry().removePropertyChangeListener(this);
+            Integer position = positions.remove(e.getEntry().getId());
+            if (position != null) {
+                entriesByPosition.set(position, null);
+                for (Membership membership : memberships.values()) {
+                    membership.members.clear(position);
+                }
+                freePositions.push(position);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void vetoableChange(PropertyChangeEvent evt) {
+        BibEntry entry = (BibEntry) evt.getSource();
+
+        if (ID_PROPERTY.equals(evt.getPropertyName())) {
+            // the id has not been changed yet, so move the position manually
+            Integer position = positions.remove(evt.getOldValue());
+            if (position != null) {
+                positions.put((String) evt.getNewValue(), position);
+            }
+            return;
+        }
+
+        // the field has already been changed
+        Integer position = positions.get(entry.getId());
+        if (position != null) {
+            for (Membership membership : memberships.values()) {
+                membership.members.set(position, membership.group.contains(entry));
+            }
+        }
+    }
+
+    private synchronized void addEntry(BibEntry entry) {
+        int position;
+        if (freePositions.isEmpty()) {
+            position = entriesByPosition.size();
+            entriesByPosition.add(entry);
+        } else {
+            position = freePositions.pop();
+            entriesByPosition.set(position, entry);
+        }
+        positions.put(entry.getId(), position);
+        for (Membership membership : memberships.values()) {
+            membership.members.set(position, membership.group.contains(entry));
+        }
+        entry.addPropertyChangeListener(this);
+    }
+
+
+    /**
+     * The entries contained in a group, together with the group to check changed entries against
+     */
+    private static class Membership {
+
+        private final AbstractGroup group;
+        private final BitSet members;
+
+
+        Membership(AbstractGroup group, BitSet members) {
+            this.group = group;
+            this.members = members;
+        }
+    }
+}
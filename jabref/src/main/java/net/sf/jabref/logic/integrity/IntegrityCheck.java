@@ -1,12 +1,22 @@
 package net.sf.jabref.logic.integrity;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.VetoableChangeListener;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -22,51 +32,202 @@ import net.sf.jabref.model.entry.BibEntry;
 import net.sf.jabref.model.entry.FileField;
 import net.sf.jabref.model.entry.ParsedFileField;
 
-public class IntegrityCheck {
+/**
+ * Checks the entries of a database for common problems.
+ * <p>
+ * The checkers do not keep any state, so the entries are checked in parallel when there are many of them. The
+ * messages for the fields of each entry are kept until a field of the entry changes, so checking the database again
+ * only checks the changed entries. Linked files are looked up again on every check, as they may have been changed
+ * outside of JabRef, but every link is looked up once per check only.
+ * <p>
+ * To notice changed entries, the check listens to the checked entries. Call {@link #close()} to detach it again.
+ */
+public class IntegrityCheck implements VetoableChangeListener {
+
+    private static final String ID_PROPERTY = "id";
+
+    private static final int MINIMUM_ENTRIES_FOR_PARALLEL_CHECK = 1000;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static final List<Checker> BIBLATEX_FIELD_CHECKERS = Collections.unmodifiableList(Arrays.asList(
+            new AuthorNameChecker(),
+            new BracketChecker("title"),
+            new YearChecker(),
+            new PagesChecker(),
+            new UrlChecker(),
+            new TypeChecker(),
+            new AbbreviationChecker("journal"),
+            new AbbreviationChecker("booktitle"),
+            new BibStringChecker(),
+            new HTMLCharacterChecker()));
+    private static final List<Checker> BIBTEX_FIELD_CHECKERS = createBibtexFieldCheckers();
 
     private final BibDatabaseContext bibDatabaseContext;
+    private final ForkJoinPool pool;
+
+    /**
+     * id of an entry -> the messages of the field checkers for it, removed when the entry changes
+     */
+    private final Map<String, CheckedEntry> checkedEntries = new ConcurrentHashMap<>();
+    private boolean checkedInBiblatexMode;
+
 
     public IntegrityCheck(BibDatabaseContext bibDatabaseContext) {
+        this(bibDatabaseContext, ForkJoinPool.commonPool());
+    }
+
+    IntegrityCheck(BibDatabaseContext bibDatabaseContext, ForkJoinPool pool) {
         this.bibDatabaseContext = Objects.requireNonNull(bibDatabaseContext);
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    private static List<Checker> createBibtexFieldCheckers() {
+        List<Checker> checkers = new ArrayList<>(BIBLATEX_FIELD_CHECKERS);
+        checkers.add(1, new TitleChecker());
+        return Collections.unmodifiableList(checkers);
     }
 
-    public List<IntegrityMessage> checkBibtexDatabase() {
+    public synchronized List<IntegrityMessage> checkBibtexDatabase() {
+        boolean biblatexMode = bibDatabaseContext.isBiblatexMode();
+        if (biblatexMode != checkedInBiblatexMode) {
+            close();
+            checkedInBiblatexMode = biblatexMode;
+        }
+
+        List<BibEntry> entries = new ArrayList<>(bibDatabaseContext.getDatabase().getEntries());
+        List<EntryResult> entryResults = checkEntries(entries,
+                biblatexMode ? BIBLATEX_FIELD_CHECKERS : BIBTEX_FIELD_CHECKERS, new FileChecker(bibDatabaseContext));
+
         List<IntegrityMessage> result = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+        for (EntryResult entryResult : entryResults) {
+            BibEntry entry = entryResult.checkedEntry.entry;
+            result.addAll(entryResult.checkedEntry.messages);
+            result.addAll(entryResult.fileMessages);
+            ids.add(entry.getId());
+            if (!entryResult.fromCache) {
+                checkedEntries.put(entry.getId(), entryResult.checkedEntry);
+                entry.addPropertyChangeListener(this);
+            }
+        }
 
-        for (BibEntry entry : bibDatabaseContext.getDatabase().getEntries()) {
-            result.addAll(checkBibtexEntry(entry));
+        // forget the entries which were removed from the database
+        Iterator<CheckedEntry> iterator = checkedEntries.values().iterator();
+        while (iterator.hasNext()) {
+            CheckedEntry checkedEntry = iterator.next();
+            if (!ids.contains(checkedEntry.entry.getId())) {
+                checkedEntry.entry.removePropertyChangeListener(this);
+                iterator.remove();
+            }
         }
 
         return result;
     }
 
-    private List<IntegrityMessage> checkBibtexEntry(BibEntry entry) {
-        List<IntegrityMessage> result = new ArrayList<>();
+    /**
+     * Stops listening to the checked entries and forgets their messages.
+     */
+    public synchronized void close() {
+        for (CheckedEntry checkedEntry : checkedEntries.values()) {
+            checkedEntry.entry.removePropertyChangeListener(this);
+        }
+        checkedEntries.clear();
+    }
 
-        if (entry == null) {
-            return result;
+    @Override
+    public void vetoableChange(PropertyChangeEvent evt) {
+        BibEntry entry = (BibEntry) evt.getSource();
+        // the id may not have been changed yet
+        String id = ID_PROPERTY.equals(evt.getPropertyName()) ? (String) evt.getOldValue() : entry.getId();
+        CheckedEntry checkedEntry = checkedEntries.get(id);
+        if ((checkedEntry != null) && (checkedEntry.entry == entry)) {
+            checkedEntries.remove(id);
+        }
+        entry.removePropertyChangeListener(this);
+    }
+
+    /**
+     * Checks the given entries, in parallel if there are many of them.
+     *
+     * @return the results for the given entries in the same order
+     */
+    private List<EntryResult> checkEntries(List<BibEntry> entries, List<Checker> fieldCheckers,
+            FileChecker fileChecker) {
+        if (entries.size() < MINIMUM_ENTRIES_FOR_PARALLEL_CHECK) {
+            return checkPartition(entries, fieldCheckers, fileChecker);
         }
 
-        result.addAll(new AuthorNameChecker().check(entry));
+        int partitionSize = Math.max(1, entries.size() / (CHUNKS_PER_THREAD * pool.getParallelism()));
+        List<ForkJoinTask<List<EntryResult>>> tasks = new ArrayList<>();
+        for (int start = 0; start < entries.size(); start += partitionSize) {
+            List<BibEntry> partition = entries.subList(start, Math.min(start + partitionSize, entries.size()));
+            tasks.add(pool.submit(() -> checkPartition(partition, fieldCheckers, fileChecker)));
+        }
+
+        List<EntryResult> results = new ArrayList<>(entries.size());
+        try {
+            for (ForkJoinTask<List<EntryResult>> task : tasks) {
+                results.addAll(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return checkPartition(entries, fieldCheckers, fileChecker);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return results;
+    }
 
-        if (!bibDatabaseContext.isBiblatexMode()) {
-            result.addAll(new TitleChecker().check(entry));
+    private List<EntryResult> checkPartition(List<BibEntry> entries, List<Checker> fieldCheckers,
+            FileChecker fileChecker) {
+        List<EntryResult> results = new ArrayList<>(entries.size());
+        for (BibEntry entry : entries) {
+            CheckedEntry checkedEntry = checkedEntries.get(entry.getId());
+            boolean fromCache = (checkedEntry != null) && (checkedEntry.entry == entry);
+            if (!fromCache) {
+                List<IntegrityMessage> messages = new ArrayList<>();
+                for (Checker checker : fieldCheckers) {
+                    messages.addAll(checker.check(entry));
+                }
+                checkedEntry = new CheckedEntry(entry, messages);
+            }
+            results.add(new EntryResult(checkedEntry, fileChecker.check(entry), fromCache));
         }
+        return results;
+    }
 
-        result.addAll(new BracketChecker("title").check(entry));
-        result.addAll(new YearChecker().check(entry));
-        result.addAll(new PagesChecker().check(entry));
-        result.addAll(new UrlChecker().check(entry));
-        result.addAll(new FileChecker(bibDatabaseContext).check(entry));
-        result.addAll(new TypeChecker().check(entry));
-        result.addAll(new AbbreviationChecker("journal").check(entry));
-        result.addAll(new AbbreviationChecker("booktitle").check(entry));
-        result.addAll(new BibStringChecker().check(entry));
-        result.addAll(new HTMLCharacterChecker().check(entry));
 
-        return result;
+    /**
+     * The messages of the field checkers for an entry
+     */
+    private static class CheckedEntry {
+
+        private final BibEntry entry;
+        private final List<IntegrityMessage> messages;
+
+
+        CheckedEntry(BibEntry entry, List<IntegrityMessage> messages) {
+            this.entry = entry;
+            this.messages = messages;
+        }
     }
 
+    private static class EntryResult {
+
+        private final CheckedEntry checkedEntry;
+        private final List<IntegrityMessage> fileMessages;
+        private final boolean fromCache;
+
+
+        EntryResult(CheckedEntry checkedEntry, List<IntegrityMessage> fileMessages, boolean fromCache) {
+            this.checkedEntry = checkedEntry;
+            this.fileMessages = fileMessages;
+            this.fromCache = fromCache;
+        }
+    }
 
     @FunctionalInterface
     public interface Checker {
@@ -113,10 +274,24 @@ public class IntegrityCheck {
         }
     }
 
+    /**
+     * Checks the linked files of entries. Every link is only looked up once, so a new checker has to be used to notice
+     * changes of the files.
+     */
     private static class FileChecker implements Checker {
 
         private final BibDatabaseContext context;
 
+        /**
+         * extension -> the directories files with the extension are looked up in
+         */
+        private final Map<Optional<String>, List<String>> directories = new ConcurrentHashMap<>();
+        /**
+         * link -> whether it refers to an existing file
+         */
+        private final Map<String, Boolean> existingFiles = new ConcurrentHashMap<>();
+
+
         private FileChecker(BibDatabaseContext context) {
             this.context = context;
         }
@@ -133,8 +308,7 @@ public class IntegrityCheck {
                     .collect(Collectors.toList());
 
             for (ParsedFileField p : parsedFileFields) {
-                Optional<File> file = FileUtil.expandFilename(context, p.getLink());
-                if ((!file.isPresent()) || !file.get().exists()) {
+                if (!existingFiles.computeIfAbsent(p.getLink(), this::exists)) {
                     return Collections.singletonList(
                             new IntegrityMessage(Localization.lang("link should refer to a correct file path"), entry,
                                     Globals.FILE_FIELD));
@@ -143,6 +317,14 @@ public class IntegrityCheck {
 
             return Collections.emptyList();
         }
+
+        private boolean exists(String link) {
+            Optional<String> extension = FileUtil.getFileExtension(link);
+            List<String> fileDirectories = directories.computeIfAbsent(extension,
+                    key -> FileUtil.getFileDirectories(context, key));
+            Optional<File> file = FileUtil.expandFilename(link, fileDirectories);
+            return file.isPresent() && file.get().exists();
+        }
     }
 
     private static class UrlChecker implements Checker {
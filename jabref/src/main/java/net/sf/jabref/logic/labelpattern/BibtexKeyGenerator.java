@@ -0,0 +1,263 @@
+package net.sf.jabref.logic.labelpattern;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.regex.Pattern;
+
+import net.sf.jabref.Globals;
+import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.MetaData;
+import net.sf.jabref.model.database.BibDatabase;
+import net.sf.jabref.model.entry.BibEntry;
+
+/**
+ * Generates unique BibTeX keys for entries of one database, following the key patterns of its meta data.
+ * <p>
+ * When a key is already used, a letter is added to it. For each such key, the generator remembers the first letter
+ * that may still be free, so generating keys for many entries with the same key, like "Smith2010", does not try all
+ * letters used before again. The keys of many entries are built in parallel, and then made unique one after the other
+ * in the given order, so the result is the same as when generating the keys one by one.
+ * <p>
+ * The generator reads the preferences when it is created and holds no global state. It should be used for one
+ * operation only, and only by one thread at a time.
+ */
+public class BibtexKeyGenerator {
+
+    private static final int MINIMUM_ENTRIES_FOR_PARALLEL_GENERATION = 1000;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    // longest addition that is mapped back to its number, "zzzzzz" is still an int
+    private static final int MAXIMUM_ADDITION_LENGTH = 6;
+
+    private final AbstractLabelPattern labelPattern;
+    private final BibDatabase database;
+    private final ForkJoinPool pool;
+
+    private final Pattern regex;
+    private final String replacement;
+    private final boolean alwaysAddLetter;
+    private final int firstAddition;
+
+    // entry type -> pattern without the unsplit pattern in front
+    private final Map<String, List<String>> patterns = new ConcurrentHashMap<>();
+
+    // key -> number of the first addition that may be free, all additions from the first one up to it are used
+    private final Map<String, Integer> nextFreeAdditions = new HashMap<>();
+
+
+    public BibtexKeyGenerator(MetaData metaData, BibDatabase database) {
+        this(metaData, database, ForkJoinPool.commonPool());
+    }
+
+    BibtexKeyGenerator(MetaData metaData, BibDatabase database, ForkJoinPool pool) {
+        this.labelPattern = metaData.getLabelPattern();
+        this.database = database;
+        this.pool = pool;
+
+        String regexText = Globals.prefs.get(JabRefPreferences.KEY_PATTERN_REGEX);
+        if ((regexText == null) || regexText.trim().isEmpty()) {
+            regex = null;
+            replacement = null;
+        } else {
+            regex = Pattern.compile(regexText);
+            replacement = Globals.prefs.get(JabRefPreferences.KEY_PATTERN_REPLACEMENT);
+        }
+        alwaysAddLetter = Globals.prefs.getBoolean(JabRefPreferences.KEY_GEN_ALWAYS_ADD_LETTER);
+        boolean firstLetterA = Globals.prefs.getBoolean(JabRefPreferences.KEY_GEN_FIRST_LETTER_A);
+        firstAddition = (alwaysAddLetter || firstLetterA) ? 0 : 1;
+    }
+
+    /**
+     * Generates a unique key for the given entry and sets it.
+     */
+    public void generateKey(BibEntry entry) {
+        makeUnique(entry, makeKey(entry));
+    }
+
+    /**
+     * Generates unique keys for the given entries and sets them. The keys are made unique in the order of the list.
+     */
+    public void generateKeys(List<BibEntry> entries) {
+        List<String> keys = makeKeys(entries);
+        for (int i = 0; i < entries.size(); i++) {
+            makeUnique(entries.get(i), keys.get(i));
+        }
+    }
+
+    /**
+     * Builds the keys of the given entries, in parallel if there are many of them.
+     *
+     * @return the keys in the same order, which may still be used by other entries
+     */
+    private List<String> makeKeys(List<BibEntry> entries) {
+        if (entries.size() < MINIMUM_ENTRIES_FOR_PARALLEL_GENERATION) {
+            return makeKeysOfPartition(entries);
+        }
+
+        int partitionSize = Math.max(1, entries.size() / (CHUNKS_PER_THREAD * pool.getParallelism()));
+        List<ForkJoinTask<List<String>>> tasks = new ArrayList<>();
+        for (int start = 0; start < entries.size(); start += partitionSize) {
+            List<BibEntry> partition = entries.subList(start, Math.min(start + partitionSize, entries.size()));
+            tasks.add(pool.submit(() -> makeKeysOfPartition(partition)));
+        }
+
+        List<String> keys = new ArrayList<>(entries.size());
+        try {
+            for (ForkJoinTask<List<String>> task : tasks) {
+                keys.addAll(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return makeKeysOfPartition(entries);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        return keys;
+    }
+
+    private List<String> makeKeysOfPartition(List<BibEntry> entries) {
+        List<String> keys = new ArrayList<>(entries.size());
+        for (BibEntry entry : entries) {
+            keys.add(makeKey(entry));
+        }
+        return keys;
+    }
+
+    private String makeKey(BibEntry entry) {
+        String key = LabelPatternUtil.makeBaseLabel(getPattern(entry.getType()), database, entry);
+
+        // Remove Regular Expressions while generating Keys
+        if (regex != null) {
+            key = regex.matcher(key).replaceAll(replacement);
+        }
+        return key;
+    }
+
+    private List<String> getPattern(String entryType) {
+        return patterns.computeIfAbsent(entryType, type -> {
+            List<String> pattern = labelPattern.getValue(type);
+            if (pattern.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return new ArrayList<>(pattern.subList(1, pattern.size()));
+        });
+    }
+
+    private void makeUnique(BibEntry entry, String key) {
+        String oldKey = entry.getCiteKey();
+        if (!alwaysAddLetter && !isUsedByOthers(key, oldKey)) {
+            // No dupes found, so we can just go ahead.
+            setKey(entry, key);
+            return;
+        }
+
+        // The key is already in use, so we must modify it.
+        int number = findFreeAddition(key, oldKey);
+        String moddedKey = key + LabelPatternUtil.getAddition(number);
+
+        // all additions up to the found one are used now, unless the entry is not in the database
+        if (number >= nextFreeAdditions.getOrDefault(key, firstAddition)) {
+            nextFreeAdditions.put(key, database.containsEntryWithId(entry.getId()) ? number + 1 : number);
+        }
+        setKey(entry, moddedKey);
+    }
+
+    private int findFreeAddition(String key, String oldKey) {
+        int number = nextFreeAdditions.getOrDefault(key, firstAddition);
+
+        // the entry may keep its key if it is the only one using it, as all additions before are used
+        int oldNumber = getAdditionNumber(key, oldKey);
+        if ((oldNumber >= firstAddition) && (oldNumber < number)
+                && (database.getNumberOfKeyOccurrences(oldKey) == 1)) {
+            return oldNumber;
+        }
+
+        while (isUsedByOthers(key + LabelPatternUtil.getAddition(number), oldKey)) {
+            number++;
+        }
+        return number;
+    }
+
+    private boolean isUsedByOthers(String key, String oldKey) {
+        int occurrences = database.getNumberOfKeyOccurrences(key);
+        if (key.equals(oldKey)) {
+            occurrences--; // No change, so we can accept one dupe.
+        }
+        return occurrences > 0;
+    }
+
+    private void setKey(BibEntry entry, String key) {
+        String oldKey = entry.getCiteKey();
+        if (key.equals(oldKey)) {
+            return;
+        }
+
+        if (database.containsEntryWithId(entry.getId())) {
+            database.setCiteKeyForEntry(entry, key);
+            release(oldKey);
+        } else {
+            // entry does not (yet) exist in the database, just update the entry
+            entry.setCiteKey(key);
+        }
+    }
+
+    /**
+     * Makes the given key available again to the keys it could be built from, if no entry uses it anymore.
+     */
+    private void release(String oldKey) {
+        if ((oldKey == null) || (database.getNumberOfKeyOccurrences(oldKey) > 0)) {
+            return;
+        }
+
+        int maximumLength = Math.min(MAXIMUM_ADDITION_LENGTH, oldKey.length());
+        for (int length = 1; length <= maximumLength; length++) {
+            int split = oldKey.length() - length;
+            int number = getAdditionNumber(oldKey.substring(split));
+            if (number < 0) {
+                return;
+            }
+
+            String key = oldKey.substring(0, split);
+            Integer nextFree = nextFreeAdditions.get(key);
+            if ((nextFree != null) && (number >= firstAddition) && (number < nextFree)) {
+                nextFreeAdditions.put(key, number);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of the addition the given old key was made unique with, or -1 if it is not the given key
+     * with an addition.
+     */
+    private static int getAdditionNumber(String key, String oldKey) {
+        if ((oldKey == null) || (oldKey.length() <= key.length())
+                || ((oldKey.length() - key.length()) > MAXIMUM_ADDITION_LENGTH) || !oldKey.startsWith(key)) {
+            return -1;
+        }
+        return getAdditionNumber(oldKey.substring(key.length()));
+    }
+
+    /**
+     * Reverses {@link LabelPatternUtil#getAddition(int)}, returning -1 if the text is no addition.
+     */
+    private static int getAdditionNumber(String addition) {
+        int number = 0;
+        for (char c : addition.toCharArray()) {
+            if ((c < 'a') || (c > 'z')) {
+                return -1;
+            }
+            number = (number * 26) + ((c - 'a') + 1);
+        }
+        return number - 1;
+    }
+}
@@ -61,22 +61,11 @@ public class LabelPatternUtil {
         updateDefaultPattern();
     }
 
-    private static BibDatabase database;
-
     public static void updateDefaultPattern() {
         defaultLabelPattern = LabelPatternUtil
                 .split(JabRefPreferences.getInstance().get(JabRefPreferences.DEFAULT_LABEL_PATTERN));
     }
 
-    /**
-     * Required for LabelPatternUtilTest
-     *
-     * @param db the DB to use as global database
-     */
-    public static void setDataBase(BibDatabase db) {
-        database = db;
-    }
-
     private static String normalize(String content) {
         List<String> tokens = new ArrayList<>();
         int b = 0;
@@ -419,29 +408,29 @@ public class LabelPatternUtil {
      * Generates a BibTeX label according to the pattern for a given entry type, and saves the unique label in the
      * <code>Bibtexentry</code>.
      *
-     * The given database is used to avoid duplicate keys.
+     * The given database is used to avoid duplicate keys. Use a {@link BibtexKeyGenerator} to generate labels for
+     * several entries.
      *
      * @param dBase a <code>BibDatabase</code>
      * @param entry a <code>BibEntry</code>
      * @return modified BibEntry
      */
     public static void makeLabel(MetaData metaData, BibDatabase dBase, BibEntry entry) {
-        database = dBase;
-        String key;
-        StringBuilder stringBuilder = new StringBuilder();
-        boolean forceUpper = false;
-        boolean forceLower = false;
+        new BibtexKeyGenerator(metaData, dBase).generateKey(entry);
+    }
 
+    /**
+     * Generates a BibTeX label according to the given pattern, without making it unique or applying the regular
+     * expression of the preferences.
+     *
+     * @param pattern the pattern for the type of the entry, split into field markers and text
+     * @param dBase the database to resolve strings in
+     */
+    static String makeBaseLabel(List<String> pattern, BibDatabase dBase, BibEntry entry) {
+        StringBuilder stringBuilder = new StringBuilder();
         try {
-            // get the type of entry
-            String entryType = entry.getType();
-            // Get the arrayList corresponding to the type
-            List<String> typeList = new ArrayList<>(metaData.getLabelPattern().getValue(entryType));
-            if (!typeList.isEmpty()) {
-                typeList.remove(0);
-            }
             boolean field = false;
-            for (String typeListEntry : typeList) {
+            for (String typeListEntry : pattern) {
                 if ("[".equals(typeListEntry)) {
                     field = true;
                 } else if ("]".equals(typeListEntry)) {
@@ -451,7 +440,7 @@ public class LabelPatternUtil {
                     // ":lower"
                     String[] parts = parseFieldMarker(typeListEntry);
 
-                    String label = makeLabel(entry, parts[0]);
+                    String label = makeLabel(entry, parts[0], dBase);
 
                     // apply modifier if present
                     if (parts.length > 1) {
@@ -469,76 +458,7 @@ public class LabelPatternUtil {
         }
 
         // Remove all illegal characters from the key.
-        key = checkLegalKey(stringBuilder.toString());
-
-        // Remove Regular Expressions while generating Keys
-        String regex = Globals.prefs.get(JabRefPreferences.KEY_PATTERN_REGEX);
-        if ((regex != null) && !regex.trim().isEmpty()) {
-            String replacement = Globals.prefs.get(JabRefPreferences.KEY_PATTERN_REPLACEMENT);
-            key = key.replaceAll(regex, replacement);
-        }
-
-        if (forceUpper) {
-            key = key.toUpperCase();
-        }
-        if (forceLower) {
-            key = key.toLowerCase();
-        }
-
-        String oldKey = entry.getCiteKey();
-        int occurrences = database.getNumberOfKeyOccurrences(key);
-
-        if ((oldKey != null) && oldKey.equals(key)) {
-            occurrences--; // No change, so we can accept one dupe.
-        }
-
-        boolean alwaysAddLetter = Globals.prefs.getBoolean(JabRefPreferences.KEY_GEN_ALWAYS_ADD_LETTER);
-        boolean firstLetterA = Globals.prefs.getBoolean(JabRefPreferences.KEY_GEN_FIRST_LETTER_A);
-
-        if (!alwaysAddLetter && (occurrences == 0)) {
-            // No dupes found, so we can just go ahead.
-            if (!key.equals(oldKey)) {
-                if (!database.containsEntryWithId(entry.getId())) {
-                    // entry does not (yet) exist in the database, just update the entry
-                    entry.setCiteKey(key);
-                } else {
-                    database.setCiteKeyForEntry(entry, key);
-                }
-            }
-
-        } else {
-            // The key is already in use, so we must modify it.
-            int number = 0;
-            if (!alwaysAddLetter && !firstLetterA) {
-                number = 1;
-            }
-
-            String moddedKey = key + getAddition(number);
-            occurrences = database.getNumberOfKeyOccurrences(moddedKey);
-
-            if ((oldKey != null) && oldKey.equals(moddedKey)) {
-                occurrences--;
-            }
-
-            while (occurrences > 0) {
-                number++;
-                moddedKey = key + getAddition(number);
-
-                occurrences = database.getNumberOfKeyOccurrences(moddedKey);
-                if ((oldKey != null) && oldKey.equals(moddedKey)) {
-                    occurrences--;
-                }
-            }
-
-            if (!moddedKey.equals(oldKey)) {
-                if (!database.containsEntryWithId(entry.getId())) {
-                    // entry does not (yet) exist in the database, just update the entry
-                    entry.setCiteKey(moddedKey);
-                } else {
-                    database.setCiteKeyForEntry(entry, moddedKey);
-                }
-            }
-        }
+        return checkLegalKey(stringBuilder.toString());
     }
 
     /**
@@ -586,7 +506,12 @@ public class LabelPatternUtil {
         return resultingLabel;
     }
 
-    public static String makeLabel(BibEntry entry, String value) {
+    /**
+     * Generates the label for one field marker, like "auth" or "year".
+     *
+     * @param dBase the database to resolve strings in, or null to not resolve them
+     */
+    public static String makeLabel(BibEntry entry, String value, BibDatabase dBase) {
         String val = value;
         try {
             if (val.startsWith("auth") || val.startsWith("pureauth")) {
@@ -603,7 +528,7 @@ public class LabelPatternUtil {
                  */
                 String authString = entry.getField("author");
                 if (authString != null) {
-                    authString = normalize(database.resolveForStrings(authString));
+                    authString = normalize(BibDatabase.getText(authString, dBase));
                 }
 
                 if (val.startsWith("pure")) {
@@ -617,7 +542,7 @@ public class LabelPatternUtil {
                     if (authString == null) {
                         authString = "";
                     } else {
-                        authString = normalize(database.resolveForStrings(authString));
+                        authString = normalize(BibDatabase.getText(authString, dBase));
                     }
                 }
 
@@ -811,7 +736,7 @@ public class LabelPatternUtil {
      *            The appendix number.
      * @return The String to append.
      */
-    private static String getAddition(int number) {
+    static String getAddition(int number) {
         if (number >= CHARS.length()) {
             int lastChar = number % CHARS.length();
             return getAddition((number / CHARS.length()) - 1) + CHARS.substring(lastChar, lastChar + 1);
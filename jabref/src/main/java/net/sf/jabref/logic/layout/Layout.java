@@ -15,6 +15,8 @@
 */
 package net.sf.jabref.logic.layout;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
@@ -131,6 +133,21 @@ public class Layout {
         return sb.toString();
     }
 
+    /**
+     * Writes the processed bibtex entry to the given writer, like {@link #doLayout(BibEntry, BibDatabase)} but
+     * without building the whole text of the entry first.
+     */
+    public void doLayout(BibEntry bibtex, BibDatabase database, Writer out) throws IOException {
+        for (LayoutEntry layoutEntry : layoutEntries) {
+            String fieldText = layoutEntry.doLayout(bibtex, database, Optional.empty());
+
+            // null fields are treated as "", see above
+            if (fieldText != null) {
+                out.write(fieldText);
+            }
+        }
+    }
+
     /**
      * Returns the processed text. If the database argument is
      * null, no string references will be resolved. Otherwise all valid
@@ -18,7 +18,6 @@ package net.sf.jabref.logic.search;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 import net.sf.jabref.model.database.BibDatabase;
 import net.sf.jabref.model.database.BibDatabases;
@@ -34,17 +33,40 @@ public class DatabaseSearcher {
 
     private final SearchQuery query;
     private final BibDatabase database;
+    private final SearchIndex index;
+    private final SearchExecutor executor;
 
     private static final Log LOGGER = LogFactory.getLog(DatabaseSearcher.class);
 
     public DatabaseSearcher(SearchQuery query, BibDatabase database) {
         this.query = Objects.requireNonNull(query);
         this.database = Objects.requireNonNull(database);
+        this.index = null;
+        this.executor = new SearchExecutor();
+    }
+
+    /**
+     * Uses the given index of the database to answer the query instead of checking every entry.
+     */
+    public DatabaseSearcher(SearchQuery query, SearchIndex index) {
+        this(query, index, new SearchExecutor());
+    }
+
+    /**
+     * Uses the given index of the database to answer the query, and runs the search on the given executor. Another
+     * search started on the executor abandons this one.
+     */
+    public DatabaseSearcher(SearchQuery query, SearchIndex index, SearchExecutor executor) {
+        this.query = Objects.requireNonNull(query);
+        this.index = Objects.requireNonNull(index);
+        this.database = index.getDatabase();
+        this.executor = Objects.requireNonNull(executor);
     }
 
     /**
      *
      * @return BibDatabase, never null
+     * @throws java.util.concurrent.CancellationException if another search was started on the executor meanwhile
      */
     public BibDatabase getDatabaseFromMatches() {
         LOGGER.debug("Search term: " + query);
@@ -54,7 +76,13 @@ public class DatabaseSearcher {
             return BibDatabases.createDatabase(Collections.emptyList());
         }
 
-        List<BibEntry> matchEntries = database.getEntries().stream().filter(query::isMatch).collect(Collectors.toList());
+        List<BibEntry> candidates;
+        if (index == null) {
+            candidates = database.getEntries();
+        } else {
+            candidates = index.getCandidates(query);
+        }
+        List<BibEntry> matchEntries = executor.search(query, candidates);
 
         return BibDatabases.createDatabase(BibDatabases.purgeEmptyEntries(matchEntries));
     }
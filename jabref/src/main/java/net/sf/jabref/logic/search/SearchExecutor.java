@@ -0,0 +1,136 @@
+package net.sf.jabref.logic.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.sf.jabref.model.entry.BibEntry;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Runs searches over a list of entries in parallel on a fork/join pool.
+ * <p>
+ * The entries are split into chunks which are checked independently, the result is returned in the order of the given
+ * entries.
+ * <p>
+ * Only the latest search of an executor is relevant: starting a new search (or calling {@link #cancel()}) abandons
+ * the running one, which then stops after its current chunks and throws a {@link CancellationException}. So searches
+ * which replace each other, like the ones of a search bar, should share an executor.
+ */
+public class SearchExecutor {
+
+    private static final Log LOGGER = LogFactory.getLog(SearchExecutor.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    private final AtomicLong currentSearch = new AtomicLong();
+
+
+    public SearchExecutor() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public SearchExecutor(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunk size must be positive");
+        }
+        this.pool = Objects.requireNonNull(pool);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Returns all entries matching the given query, in the order of the given entries. The calling thread blocks
+     * until the search is finished.
+     *
+     * @throws CancellationException if another search was started or {@link #cancel()} was called in the meantime
+     */
+    public List<BibEntry> search(SearchQuery query, List<BibEntry> entries) throws CancellationException {
+        Objects.requireNonNull(query);
+        Objects.requireNonNull(entries);
+
+        long searchId = currentSearch.incrementAndGet();
+        long start = System.nanoTime();
+
+        // work on a snapshot, as the database may change during the search
+        List<BibEntry> snapshot = new ArrayList<>(entries);
+        List<BibEntry> matches;
+        try {
+            matches = pool.invoke(new SearchTask(query, snapshot, 0, snapshot.size(), searchId));
+            if (isStale(searchId)) {
+                throw new CancellationException();
+            }
+        } catch (CancellationException e) {
+            LOGGER.debug("Search " + query + " was abandoned");
+            throw e;
+        }
+
+        LOGGER.debug("Search " + query + ": " + matches.size() + " hits in " + snapshot.size() + " entries, "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        return matches;
+    }
+
+    /**
+     * Abandons the running search, if any.
+     */
+    public void cancel() {
+        currentSearch.incrementAndGet();
+    }
+
+    private boolean isStale(long searchId) {
+        return currentSearch.get() != searchId;
+    }
+
+    private class SearchTask extends RecursiveTask<List<BibEntry>> {
+
+        private final SearchQuery query;
+        private final List<BibEntry> entries;
+        private final int from;
+        private final int to;
+        private final long searchId;
+
+
+        SearchTask(SearchQuery query, List<BibEntry> entries, int from, int to, long searchId) {
+            this.query = query;
+            this.entries = entries;
+            this.from = from;
+            this.to = to;
+            this.searchId = searchId;
+        }
+
+        @Override
+        protected List<BibEntry> compute() {
+            if (isStale(searchId)) {
+                throw new CancellationException();
+            }
+
+            if ((to - from) <= chunkSize) {
+                List<BibEntry> matches = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    BibEntry entry = entries.get(i);
+                    if (query.isMatch(entry)) {
+                        matches.add(entry);
+                    }
+                }
+                return matches;
+            }
+
+            int middle = (from + to) >>> 1;
+            SearchTask left = new SearchTask(query, entries, from, middle, searchId);
+            SearchTask right = new SearchTask(query, entries, middle, to, searchId);
+            left.fork();
+            List<BibEntry> matches = new ArrayList<>(right.compute());
+            matches.addAll(0, left.join());
+            return matches;
+        }
+    }
+}
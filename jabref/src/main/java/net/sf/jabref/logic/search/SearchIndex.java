@@ -0,0 +1,296 @@
+package net.sf.jabref.logic.search;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.VetoableChangeListener;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import net.sf.jabref.logic.layout.format.RemoveLatexCommands;
+import net.sf.jabref.logic.search.rules.SentenceAnalyzer;
+import net.sf.jabref.model.database.BibDatabase;
+import net.sf.jabref.model.database.DatabaseChangeEvent;
+import net.sf.jabref.model.database.DatabaseChangeListener;
+import net.sf.jabref.model.entry.BibEntry;
+
+/**
+ * An incremental inverted index over the field contents of a {@link BibDatabase}.
+ * <p>
+ * Every field value is normalized the same way as in the
+ * {@link net.sf.jabref.logic.search.rules.ContainBasedSearchRule} (LaTeX commands removed, lower case) and split at
+ * whitespace into tokens. For each token, the ids of the entries containing it are kept per field.
+ * <p>
+ * The index is kept up to date by listening to the database (added and removed entries) and to every indexed entry
+ * (field changes). Call {@link #close()} to detach it again.
+ * <p>
+ * For contains based queries, the index narrows the database down to the entries which can possibly match. The
+ * remaining candidates are checked with the query itself, so the result is always identical to a full scan. A query
+ * word which is a whole token is looked up directly. Otherwise, the tokens containing it are found through the
+ * trigrams of the tokens: only the tokens with the rarest trigram of the word have to be checked. Words shorter than a
+ * trigram do not narrow down the candidates.
+ */
+public class SearchIndex implements DatabaseChangeListener, VetoableChangeListener {
+
+    private static final RemoveLatexCommands REMOVE_LATEX_COMMANDS = new RemoveLatexCommands();
+
+    private static final String ID_PROPERTY = "id";
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final BibDatabase database;
+
+    /**
+     * token -> field -> ids of the entries containing the token in that field
+     */
+    private final Map<String, Map<String, Set<String>>> postings = new HashMap<>();
+
+    /**
+     * trigram -> tokens of the postings containing the trigram
+     */
+    private final Map<String, Set<String>> grams = new HashMap<>();
+
+
+    public SearchIndex(BibDatabase database) {
+        this.database = Objects.requireNonNull(database);
+
+        for (BibEntry entry : database.getEntries()) {
+            addEntry(entry);
+        }
+        database.addDatabaseChangeListener(this);
+    }
+
+    public BibDatabase getDatabase() {
+        return database;
+    }
+
+    /**
+     * Stops listening to the database and its entries. The index must not be used afterwards.
+     */
+    public synchronized void close() {
+        database.removeDatabaseChangeListener(this);
+        for (BibEntry entry : database.getEntries()) {
+            entry.removePropertyChangeListener(this);
+        }
+        postings.clear();
+        grams.clear();
+    }
+
+    /**
+     * Returns all entries of the database matching the given query, in database order.
+     * <p>
+     * Contains based queries are answered by intersecting the postings of the query words, all other queries fall back
+     * to checking every entry.
+     */
+    public List<BibEntry> getMatches(SearchQuery query) {
+        List<BibEntry> matches = new ArrayList<>();
+        for (BibEntry entry : getCandidates(query)) {
+            if (query.isMatch(entry)) {
+                matches.add(entry);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the entries of the database which possibly match the given query, in database order. Each of them still
+     * has to be checked with {@link SearchQuery#isMatch(BibEntry)}.
+     * <p>
+     * For queries which cannot be answered by the index, all entries are returned.
+     */
+    public List<BibEntry> getCandidates(SearchQuery query) {
+        Objects.requireNonNull(query);
+
+        List<String> words = new SentenceAnalyzer(query.getQuery().toLowerCase()).getWords();
+        if (!query.isContainsBasedSearch() || words.isEmpty()) {
+            return new ArrayList<>(database.getEntries());
+        }
+
+        Set<String> candidateIds = getCandidateIds(words);
+        if (candidateIds == null) {
+            return new ArrayList<>(database.getEntries());
+        }
+        List<BibEntry> candidates = new ArrayList<>();
+        if (candidateIds.isEmpty()) {
+            return candidates;
+        }
+        for (BibEntry entry : database.getEntries()) {
+            if (candidateIds.contains(entry.getId())) {
+                candidates.add(entry);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Returns the ids of all entries which contain all of the given (lower case) words in any of their fields, or null
+     * if none of the words narrows down the entries. The result is a superset of the actual matches, as a word may be
+     * spread over several fields or whitespace may differ.
+     */
+    synchronized Set<String> getCandidateIds(List<String> words) {
+        Set<String> result = null;
+        for (String word : words) {
+            for (String part : word.split("\\s+")) {
+                Set<String> partIds = getIdsContaining(part);
+                if (partIds == null) {
+                    continue;
+                }
+                if (result == null) {
+                    result = partIds;
+                } else {
+                    result.retainAll(partIds);
+                }
+                if (result.isEmpty()) {
+                    return result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ids of the entries having a token which contains the given part, or null if the part is too short to
+     * be looked up.
+     */
+    private Set<String> getIdsContaining(String part) {
+        if (part.length() < GRAM_LENGTH) {
+            return null;
+        }
+
+        Set<String> ids = new HashSet<>();
+        Map<String, Set<String>> exactPostings = postings.get(part);
+        if (exactPostings != null) {
+            addIds(exactPostings, ids);
+        }
+
+        // every token containing the part contains all of its trigrams, so the tokens of the rarest one are checked
+        Set<String> tokens = null;
+        for (int i = 0; i <= (part.length() - GRAM_LENGTH); i++) {
+            Set<String> gramTokens = grams.get(part.substring(i, i + GRAM_LENGTH));
+            if (gramTokens == null) {
+                return ids;
+            }
+            if ((tokens == null) || (gramTokens.size() < tokens.size())) {
+                tokens = gramTokens;
+            }
+        }
+        for (String token : tokens) {
+            if ((token.length() > part.length()) && token.contains(part)) {
+                addIds(postings.get(token), ids);
+            }
+        }
+        return ids;
+    }
+
+    private static void addIds(Map<String, Set<String>> fieldPostings, Set<String> ids) {
+        for (Set<String> fieldIds : fieldPostings.values()) {
+            ids.addAll(fieldIds);
+        }
+    }
+
+    @Override
+    public synchronized void databaseChanged(DatabaseChangeEvent e) {
+        if (e.getType() == DatabaseChangeEvent.ChangeType.ADDED_ENTRY) {
+            addEntry(e.getEntry());
+        } else if (e.getType() == DatabaseChangeEvent.ChangeType.REMOVED_ENTRY) {
+            e.getEntry().removePropertyChangeListener(this);
+            removeTokens(e.getEntry().getId(), e.getEntry().getFieldMap());
+        }
+    }
+
+    @Override
+    public synchronized void vetoableChange(PropertyChangeEvent evt) {
+        BibEntry entry = (BibEntry) evt.getSource();
+        String field = evt.getPropertyName();
+
+        if (ID_PROPERTY.equals(field)) {
+            // the id has not been changed yet, so move the postings manually
+            removeTokens((String) evt.getOldValue(), entry.getFieldMap());
+            addTokens((String) evt.getNewValue(), entry.getFieldMap());
+        } else if (!BibEntry.TYPE_HEADER.equals(field)) {
+            if (evt.getOldValue() instanceof String) {
+                removeTokens(entry.getId(), field, (String) evt.getOldValue());
+            }
+            if (evt.getNewValue() instanceof String) {
+                addTokens(entry.getId(), field, (String) evt.getNewValue());
+            }
+        }
+    }
+
+    private synchronized void addEntry(BibEntry entry) {
+        addTokens(entry.getId(), entry.getFieldMap());
+        entry.addPropertyChangeListener(this);
+    }
+
+    private void addTokens(String id, Map<String, String> fields) {
+        fields.forEach((field, value) -> addTokens(id, field, value));
+    }
+
+    private void addTokens(String id, String field, String value) {
+        for (String token : tokenize(value)) {
+            Map<String, Set<String>> fieldPostings = postings.get(token);
+            if (fieldPostings == null) {
+                fieldPostings = new HashMap<>();
+                postings.put(token, fieldPostings);
+                for (int i = 0; i <= (token.length() - GRAM_LENGTH); i++) {
+                    grams.computeIfAbsent(token.substring(i, i + GRAM_LENGTH), k -> new HashSet<>()).add(token);
+                }
+            }
+            fieldPostings.computeIfAbsent(field, k -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void removeTokens(String id, Map<String, String> fields) {
+        fields.forEach((field, value) -> removeTokens(id, field, value));
+    }
+
+    private void removeTokens(String id, String field, String value) {
+        for (String token : tokenize(value)) {
+            Map<String, Set<String>> fieldPostings = postings.get(token);
+            if (fieldPostings == null) {
+                continue;
+            }
+            Set<String> ids = fieldPostings.get(field);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    fieldPostings.remove(field);
+                }
+            }
+            if (fieldPostings.isEmpty()) {
+                postings.remove(token);
+                removeGrams(token);
+            }
+        }
+    }
+
+    private void removeGrams(String token) {
+        for (int i = 0; i <= (token.length() - GRAM_LENGTH); i++) {
+            String gram = token.substring(i, i + GRAM_LENGTH);
+            Set<String> tokens = grams.get(gram);
+            if (tokens != null) {
+                tokens.remove(token);
+                if (tokens.isEmpty()) {
+                    grams.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> tokenize(String value) {
+        Set<String> tokens = new HashSet<>();
+        if (value == null) {
+            return tokens;
+        }
+        String normalized = REMOVE_LATEX_COMMANDS.format(value).toLowerCase();
+        for (String token : normalized.split("\\s+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -15,13 +15,15 @@
 */
 package net.sf.jabref.logic.search.rules;
 
-import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.regex.PatternSyntaxException;
 
 import net.sf.jabref.model.entry.BibEntry;
 import net.sf.jabref.search.SearchBaseVisitor;
@@ -51,6 +53,7 @@ public class GrammarBasedSearchRule implements SearchRule {
 
     private ParseTree tree;
     private String query;
+    private Predicate<BibEntry> expression;
 
 
     public static class ThrowingErrorListener extends BaseErrorListener {
@@ -103,13 +106,27 @@ public class GrammarBasedSearchRule implements SearchRule {
         parser.addErrorListener(ThrowingErrorListener.INSTANCE);
         parser.setErrorHandler(new BailErrorStrategy()); // ParseCancelationException on parse errors
         tree = parser.start();
+        expression = compile(tree);
         this.query = query;
     }
 
+    /**
+     * Turns the parse tree into a predicate which can be evaluated for each entry without parsing or compiling
+     * anything again. If the tree cannot be compiled (e.g., due to an invalid regular expression), no entry matches.
+     */
+    private Predicate<BibEntry> compile(ParseTree parseTree) {
+        try {
+            return new BibtexSearchCompiler(caseSensitiveSearch, regExpSearch).visit(parseTree);
+        } catch (PatternSyntaxException e) {
+            LOGGER.debug("Search expression could not be compiled", e);
+            return entry -> false;
+        }
+    }
+
     @Override
     public boolean applyRule(String query, BibEntry bibEntry) {
         try {
-            return new BibtexSearchVisitor(caseSensitiveSearch, regExpSearch, bibEntry).visit(tree);
+            return expression.test(bibEntry);
         } catch (Exception e) {
             LOGGER.debug("Search failed", e);
             return false;
@@ -140,52 +157,86 @@ public class GrammarBasedSearchRule implements SearchRule {
         }
     }
 
-    public static class Comparator {
+    public static class Comparator implements Predicate<BibEntry> {
 
         private final ComparisonOperator operator;
         private final Pattern fieldPattern;
         private final Pattern valuePattern;
 
+        /**
+         * The field name to look up directly, if the field is given literally. Otherwise, field names have to be
+         * matched against the field pattern.
+         */
+        private final String literalField;
+        private final boolean matchesEntryType;
+        private final Map<String, Boolean> fieldMatches = new ConcurrentHashMap<>();
+        private final ThreadLocal<Matcher> valueMatcher;
+        // kept, so comparing an entry does not create any objects
+        private final BiPredicate<String, String> fieldMatcher = (name, value) -> matchFieldKey(name)
+                && matchFieldValue(value);
+        private final BiPredicate<String, String> fieldKeyMatcher = (name, value) -> matchFieldKey(name);
+
         public Comparator(String field, String value, ComparisonOperator operator, boolean caseSensitive, boolean regex) {
             this.operator = operator;
 
             int option = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE;
             this.fieldPattern = Pattern.compile(regex ? field : "\\Q" + field + "\\E", option);
             this.valuePattern = Pattern.compile(regex ? value : "\\Q" + value + "\\E", option);
+            this.valueMatcher = ThreadLocal.withInitial(() -> valuePattern.matcher(""));
+
+            // field names are always stored in lower case
+            String lowerCaseField = field.toLowerCase(Locale.ENGLISH);
+            if (regex) {
+                this.literalField = null;
+            } else if (caseSensitive && !field.equals(lowerCaseField)) {
+                this.literalField = "";
+            } else {
+                this.literalField = lowerCaseField;
+            }
+            this.matchesEntryType = fieldPattern.matcher(BibEntry.TYPE_HEADER).matches();
+        }
+
+        @Override
+        public boolean test(BibEntry entry) {
+            return compare(entry);
         }
 
         public boolean compare(BibEntry entry) {
             // special case for searching for entrytype=phdthesis
-            if (fieldPattern.matcher("entrytype").matches()) {
+            if (matchesEntryType) {
                 return matchFieldValue(entry.getType());
             }
 
             // specification of fieldsKeys to search is done in the search expression itself
-            Set<String> fieldsKeys = entry.getFieldNames();
-
-            List<String> matchedFieldKeys = fieldsKeys.stream().filter(matchFieldKey()).collect(Collectors.toList());
-
-            for (String field : matchedFieldKeys) {
-                String fieldValue = entry.getField(field);
+            if (literalField != null) {
+                String fieldValue = entry.getField(literalField);
                 if (fieldValue == null) {
-                    continue; // paranoia
+                    // special case of asdf!=whatever and entry does not contain asdf
+                    return operator == ComparisonOperator.DOES_NOT_CONTAIN;
                 }
+                return matchFieldValue(fieldValue);
+            }
 
-                if (matchFieldValue(fieldValue)) {
-                    return true;
-                }
+            if (entry.anyFieldMatches(fieldMatcher)) {
+                return true;
             }
 
             // special case of asdf!=whatever and entry does not contain asdf
-            return matchedFieldKeys.isEmpty() && (operator == ComparisonOperator.DOES_NOT_CONTAIN);
+            return (operator == ComparisonOperator.DOES_NOT_CONTAIN) && !entry.anyFieldMatches(fieldKeyMatcher);
         }
 
-        private Predicate<String> matchFieldKey() {
-            return s -> fieldPattern.matcher(s).matches();
+        private boolean matchFieldKey(String fieldName) {
+            // the set of field names is small, so the result for each of them is remembered
+            Boolean matches = fieldMatches.get(fieldName);
+            if (matches == null) {
+                matches = fieldPattern.matcher(fieldName).matches();
+                fieldMatches.put(fieldName, matches);
+            }
+            return matches;
         }
 
         public boolean matchFieldValue(String content) {
-            Matcher matcher = valuePattern.matcher(content);
+            Matcher matcher = valueMatcher.get().reset(content);
             if (operator == ComparisonOperator.CONTAINS) {
                 return matcher.find();
             } else if (operator == ComparisonOperator.EXACT) {
@@ -200,58 +251,57 @@ public class GrammarBasedSearchRule implements SearchRule {
     }
 
     /**
-     * Search results in boolean. It may be later on converted to an int.
+     * Compiles the parse tree of a search expression into a tree of predicates. The patterns of all comparisons are
+     * compiled once, so the resulting predicate can be evaluated for many entries.
      */
-    static class BibtexSearchVisitor extends SearchBaseVisitor<Boolean> {
+    static class BibtexSearchCompiler extends SearchBaseVisitor<Predicate<BibEntry>> {
 
         private final boolean caseSensitive;
         private final boolean regex;
 
-        private final BibEntry entry;
-
-        public BibtexSearchVisitor(boolean caseSensitive, boolean regex, BibEntry bibEntry) {
+        public BibtexSearchCompiler(boolean caseSensitive, boolean regex) {
             this.caseSensitive = caseSensitive;
             this.regex = regex;
-            this.entry = bibEntry;
         }
 
-        public boolean comparison(String field, ComparisonOperator operator, String value) {
-            return new Comparator(field, value, operator, caseSensitive, regex).compare(entry);
+        @Override
+        public Predicate<BibEntry> visitStart(SearchParser.StartContext ctx) {
+            return visit(ctx.expression());
         }
 
         @Override
-        public Boolean visitStart(SearchParser.StartContext ctx) {
-            return visit(ctx.expression());
+        public Predicate<BibEntry> visitAtomExpression(SearchParser.AtomExpressionContext ctx) {
+            return visit(ctx.comparison());
         }
 
         @Override
-        public Boolean visitComparison(SearchParser.ComparisonContext ctx) {
+        public Predicate<BibEntry> visitComparison(SearchParser.ComparisonContext ctx) {
             // remove possible enclosing " symbols
             String right = ctx.right.getText();
             if(right.startsWith("\"") && right.endsWith("\"")) {
                 right = right.substring(1, right.length() - 2);
             }
 
-            return comparison(ctx.left.getText(), ComparisonOperator.build(ctx.operator.getText()), right);
-
+            return new Comparator(ctx.left.getText(), right, ComparisonOperator.build(ctx.operator.getText()),
+                    caseSensitive, regex);
         }
 
         @Override
-        public Boolean visitUnaryExpression(SearchParser.UnaryExpressionContext ctx) {
-            return !visit(ctx.expression()); // negate
+        public Predicate<BibEntry> visitUnaryExpression(SearchParser.UnaryExpressionContext ctx) {
+            return visit(ctx.expression()).negate(); // negate
         }
 
         @Override
-        public Boolean visitParenExpression(SearchParser.ParenExpressionContext ctx) {
+        public Predicate<BibEntry> visitParenExpression(SearchParser.ParenExpressionContext ctx) {
             return visit(ctx.expression()); // ignore parenthesis
         }
 
         @Override
-        public Boolean visitBinaryExpression(SearchParser.BinaryExpressionContext ctx) {
+        public Predicate<BibEntry> visitBinaryExpression(SearchParser.BinaryExpressionContext ctx) {
             if ("AND".equalsIgnoreCase(ctx.operator.getText())) {
-                return visit(ctx.left) && visit(ctx.right); // and
+                return visit(ctx.left).and(visit(ctx.right)); // and
             } else {
-                return visit(ctx.left) || visit(ctx.right); // or
+                return visit(ctx.left).or(visit(ctx.right)); // or
             }
         }
     }
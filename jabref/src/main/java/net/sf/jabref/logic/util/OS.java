@@ -15,6 +15,9 @@
  */
 package net.sf.jabref.logic.util;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 /***
  * Operating system (OS) detection
  */
@@ -25,4 +28,25 @@ public class OS {
     public static final boolean LINUX = OS_NAME.startsWith("linux");
     public static final boolean WINDOWS = OS_NAME.startsWith("win");
     public static final boolean OS_X = OS_NAME.startsWith("mac");
+
+
+    /**
+     * Returns the directory JabRef keeps its data for the current user in, which only this user can write to. The
+     * directory may not exist yet.
+     */
+    public static Path getUserDataDirectory() {
+        String userHome = System.getProperty("user.home");
+        if (WINDOWS) {
+            String appData = System.getenv("APPDATA");
+            return Paths.get((appData == null) || appData.isEmpty() ? userHome : appData, "JabRef");
+        } else if (OS_X) {
+            return Paths.get(userHome, "Library", "Application Support", "JabRef");
+        } else {
+            String dataHome = System.getenv("XDG_DATA_HOME");
+            if ((dataHome == null) || dataHome.isEmpty()) {
+                return Paths.get(userHome, ".local", "share", "jabref");
+            }
+            return Paths.get(dataHome, "jabref");
+        }
+    }
 }
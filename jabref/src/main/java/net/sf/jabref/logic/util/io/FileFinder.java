@@ -1,43 +1,95 @@
 package net.sf.jabref.logic.util.io;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Finds the files with given extensions in directory trees.
+ * <p>
+ * The trees are walked once, in parallel: each directory is read by its own task on the common fork/join pool.
+ * Every directory is only read once, even if it is reached through several links or given directories, so links
+ * pointing back up the tree do not cause endless walks.
+ */
 public class FileFinder {
 
+    private static final Log LOGGER = LogFactory.getLog(FileFinder.class);
+
+
     public static Set<File> findFiles(Collection<String> extensions, Collection<File> directories) {
-        Set<File> result = new HashSet<>();
+        Set<File> result = ConcurrentHashMap.newKeySet();
+        Set<Path> visitedDirectories = ConcurrentHashMap.newKeySet();
 
+        List<ForkJoinTask<Void>> tasks = new ArrayList<>(directories.size());
         for (File directory : directories) {
-            result.addAll(FileFinder.findFiles(extensions, directory));
+            tasks.add(ForkJoinPool.commonPool()
+                    .submit(new DirectoryTask(directory.toPath(), extensions, result, visitedDirectories)));
+        }
+        for (ForkJoinTask<Void> task : tasks) {
+            task.join();
         }
 
-        return result;
+        return new HashSet<>(result);
     }
 
-    private static Collection<? extends File> findFiles(Collection<String> extensions, File directory) {
-        Set<File> result = new HashSet<>();
 
-        File[] children = directory.listFiles();
-        if (children == null) {
-            return result; // No permission?
+    private static class DirectoryTask extends RecursiveAction {
+
+        private final Path directory;
+        private final Collection<String> extensions;
+        private final Set<File> result;
+        private final Set<Path> visitedDirectories;
+
+
+        DirectoryTask(Path directory, Collection<String> extensions, Set<File> result, Set<Path> visitedDirectories) {
+            this.directory = directory;
+            this.extensions = extensions;
+            this.result = result;
+            this.visitedDirectories = visitedDirectories;
         }
 
-        for (File child : children) {
-            if (child.isDirectory()) {
-                result.addAll(FileFinder.findFiles(extensions, child));
-            } else {
-                FileUtil.getFileExtension(child).ifPresent(extension -> {
-                    if (extensions.contains(extension)) {
-                        result.add(child);
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+            try {
+                if (!visitedDirectories.add(directory.toRealPath())) {
+                    return;
+                }
+
+                try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                    for (Path child : children) {
+                        if (Files.isDirectory(child)) {
+                            subdirectories.add(new DirectoryTask(child, extensions, result, visitedDirectories));
+                        } else {
+                            FileUtil.getFileExtension(child.getFileName().toString()).ifPresent(extension -> {
+                                if (extensions.contains(extension)) {
+                                    result.add(child.toFile());
+                                }
+                            });
+                        }
                     }
-                });
+                }
+            } catch (IOException | DirectoryIteratorException e) {
+                // No permission?
+                LOGGER.debug("Cannot read directory " + directory, e);
             }
-        }
 
-        return result;
+            invokeAll(subdirectories);
+        }
     }
-
 }
@@ -0,0 +1,432 @@
+package net.sf.jabref.logic.util.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.sf.jabref.logic.util.OS;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Index of all files below a directory, with their size and modification time, which is kept on disk between runs.
+ * <p>
+ * Refreshing the index only lists the directories which were modified since they were listed last, which is seen from
+ * their modification time. All other directories are only checked for their modification time, so finding the files in
+ * a large tree which seldom changes does not read all of it again. As the modification time of a directory only
+ * changes when files are added, removed or renamed in it, the size and modification time of a file are the ones it had
+ * when its directory was listed last.
+ * <p>
+ * There is one index per directory, see {@link #forDirectory(Path)}. It is stored in the data directory of the user, see
+ * {@link OS#getUserDataDirectory()}. If it is lost, the next refresh reads the whole tree again. Only the most recently
+ * used indexes are kept in memory and on disk.
+ */
+public class FileSystemIndex {
+
+    private static final Log LOGGER = LogFactory.getLog(FileSystemIndex.class);
+
+    private static final int FORMAT_VERSION = 1;
+
+    // directories modified less than this before a refresh are listed again by the next one, as later changes in the
+    // same time may not change their modification time (FAT stores it in steps of two seconds)
+    private static final long MODIFICATION_TIME_RESOLUTION = 2000;
+
+    // directory was not listed yet, or has to be listed again
+    private static final long UNKNOWN = -1;
+
+    // the indexes kept in memory, the least recently used ones are loaded from disk again when they are needed
+    private static final int MAXIMUM_INDEXES_IN_MEMORY = 4;
+    // the indexes kept on disk, the least recently used ones are deleted when an index is stored
+    static final int MAXIMUM_STORED_INDEXES = 32;
+
+    private static final String INDEX_FILE_SUFFIX = ".idx";
+
+    private static final Map<Path, FileSystemIndex> INDEXES = new LinkedHashMap<Path, FileSystemIndex>(16, 0.75f,
+            true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, FileSystemIndex> eldest) {
+            return size() > MAXIMUM_INDEXES_IN_MEMORY;
+        }
+    };
+
+    private final Path root;
+    private final Path indexFile;
+
+    private boolean loaded;
+
+    // directory -> its files and subdirectories when it was listed last
+    private volatile Map<Path, DirectoryRecord> directories = Collections.emptyMap();
+
+
+    /**
+     * Returns the index of the given directory, which is shared by all users of this directory.
+     */
+    public static FileSystemIndex forDirectory(Path directory) {
+        Path root = directory.toAbsolutePath().normalize();
+        synchronized (INDEXES) {
+            return INDEXES.computeIfAbsent(root, path -> new FileSystemIndex(path, getIndexFile(path)));
+        }
+    }
+
+    FileSystemIndex(Path root, Path indexFile) {
+        this.root = root;
+        this.indexFile = indexFile;
+    }
+
+    private static Path getIndexFile(Path root) {
+        // the root is stored in the index, so an index of another directory with the same hash is not used
+        String name = String.format("%08x", root.toString().hashCode()) + INDEX_FILE_SUFFIX;
+        return OS.getUserDataDirectory().resolve("file-indexes").resolve(name);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Brings the index up to date with the file system and stores it.
+     */
+    public void refresh() {
+        refresh(new AtomicBoolean(true));
+    }
+
+    /**
+     * Brings the index up to date with the file system and stores it. The directories are read in parallel.
+     *
+     * @param running is set to false from outside to cancel the refresh, which then keeps the index as it was
+     * @return whether the refresh was completed
+     */
+    public synchronized boolean refresh(AtomicBoolean running) {
+        if (!loaded) {
+            load();
+            loaded = true;
+        }
+
+        Map<Path, DirectoryRecord> refreshed = new ConcurrentHashMap<>();
+        AtomicBoolean changed = new AtomicBoolean();
+        long newestModificationTime = System.currentTimeMillis() - MODIFICATION_TIME_RESOLUTION;
+        ForkJoinPool.commonPool().invoke(new RefreshTask(root, directories, refreshed, ConcurrentHashMap.newKeySet(),
+                newestModificationTime, running, changed));
+        if (!running.get()) {
+            return false;
+        }
+
+        if (changed.get() || (refreshed.size() != directories.size())) {
+            directories = new HashMap<>(refreshed);
+            save();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the files directly in the given directory, sorted by name, or an empty list if it is not indexed.
+     */
+    public List<IndexedFile> getFiles(Path directory) {
+        DirectoryRecord record = directories.get(directory);
+        return record == null ? Collections.emptyList() : record.files;
+    }
+
+    /**
+     * Returns the directories directly in the given directory, sorted by name, or an empty list if it is not indexed.
+     */
+    public List<Path> getSubdirectories(Path directory) {
+        DirectoryRecord record = directories.get(directory);
+        if (record == null) {
+            return Collections.emptyList();
+        }
+
+        List<Path> subdirectories = new ArrayList<>(record.subdirectories.size());
+        for (String name : record.subdirectories) {
+            subdirectories.add(directory.resolve(name));
+        }
+        return subdirectories;
+    }
+
+    /**
+     * Returns all files below the root, sorted by their path.
+     */
+    public List<IndexedFile> getAllFiles() {
+        List<IndexedFile> files = new ArrayList<>();
+        for (DirectoryRecord record : directories.values()) {
+            files.addAll(record.files);
+        }
+        files.sort(Comparator.comparing(IndexedFile::getPath));
+        return files;
+    }
+
+    private void load() {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if ((in.readInt() != FORMAT_VERSION) || !root.toString().equals(in.readUTF())) {
+                return;
+            }
+
+            int directoryCount = in.readInt();
+            Map<Path, DirectoryRecord> loadedDirectories = new HashMap<>(directoryCount);
+            for (int i = 0; i < directoryCount; i++) {
+                Path directory = root.resolve(in.readUTF());
+                long lastModified = in.readLong();
+
+                int fileCount = in.readInt();
+                List<IndexedFile> files = new ArrayList<>(fileCount);
+                for (int j = 0; j < fileCount; j++) {
+                    files.add(new IndexedFile(directory.resolve(in.readUTF()), in.readLong(), in.readLong()));
+                }
+
+                int subdirectoryCount = in.readInt();
+                List<String> subdirectories = new ArrayList<>(subdirectoryCount);
+                for (int j = 0; j < subdirectoryCount; j++) {
+                    subdirectories.add(in.readUTF());
+                }
+
+                loadedDirectories.put(directory, new DirectoryRecord(lastModified, files, subdirectories));
+            }
+            directories = loadedDirectories;
+        } catch (IOException e) {
+            LOGGER.info("Cannot read file index " + indexFile + ", reading all files again", e);
+            return;
+        }
+
+        // the modification time of a stored index tells when it was used last
+        try {
+            Files.setLastModifiedTime(indexFile, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            LOGGER.debug("Cannot mark file index " + indexFile + " as used", e);
+        }
+    }
+
+    private void save() {
+        Path temporaryFile = null;
+        try {
+            Files.createDirectories(indexFile.getParent());
+            // another instance for the same directory may be saving at the same time, after it left the memory
+            temporaryFile = Files.createTempFile(indexFile.getParent(), indexFile.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(root.toString());
+                out.writeInt(directories.size());
+                for (Map.Entry<Path, DirectoryRecord> directory : directories.entrySet()) {
+                    DirectoryRecord record = directory.getValue();
+                    out.writeUTF(root.relativize(directory.getKey()).toString());
+                    out.writeLong(record.lastModified);
+
+                    out.writeInt(record.files.size());
+                    for (IndexedFile file : record.files) {
+                        out.writeUTF(file.getPath().getFileName().toString());
+                        out.writeLong(file.getSize());
+                        out.writeLong(file.getLastModified());
+                    }
+
+                    out.writeInt(record.subdirectories.size());
+                    for (String subdirectory : record.subdirectories) {
+                        out.writeUTF(subdirectory);
+                    }
+                }
+            }
+            Files.move(temporaryFile, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot store file index " + indexFile, e);
+            deleteQuietly(temporaryFile);
+            return;
+        }
+
+        pruneStoredIndexes(indexFile.getParent());
+    }
+
+    /**
+     * Deletes the least recently used indexes in the given directory, except for the most recently used ones.
+     */
+    static void pruneStoredIndexes(Path indexDirectory) {
+        Map<Path, Long> lastUsed = new HashMap<>();
+        try (DirectoryStream<Path> indexFiles = Files.newDirectoryStream(indexDirectory, "*" + INDEX_FILE_SUFFIX)) {
+            for (Path indexFile : indexFiles) {
+                lastUsed.put(indexFile, Files.getLastModifiedTime(indexFile).toMillis());
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            LOGGER.debug("Cannot list file indexes in " + indexDirectory, e);
+            return;
+        }
+        if (lastUsed.size() <= MAXIMUM_STORED_INDEXES) {
+            return;
+        }
+
+        List<Path> indexFiles = new ArrayList<>(lastUsed.keySet());
+        indexFiles.sort(Comparator.comparing((Path indexFile) -> lastUsed.get(indexFile)).reversed());
+        for (Path indexFile : indexFiles.subList(MAXIMUM_STORED_INDEXES, indexFiles.size())) {
+            deleteQuietly(indexFile);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.debug("Cannot delete " + file, e);
+        }
+    }
+
+
+    /**
+     * A file found in the index.
+     */
+    public static class IndexedFile {
+
+        private final Path path;
+        private final long size;
+        private final long lastModified;
+
+
+        IndexedFile(Path path, long size, long lastModified) {
+            this.path = path;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * @return the modification time in milliseconds since the epoch
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+
+    private static class DirectoryRecord {
+
+        private final long lastModified;
+        private final List<IndexedFile> files;
+        private final List<String> subdirectories;
+
+
+        DirectoryRecord(long lastModified, List<IndexedFile> files, List<String> subdirectories) {
+            this.lastModified = lastModified;
+            this.files = files;
+            this.subdirectories = subdirectories;
+        }
+    }
+
+    private static class RefreshTask extends RecursiveAction {
+
+        private final Path directory;
+        private final Map<Path, DirectoryRecord> previous;
+        private final Map<Path, DirectoryRecord> refreshed;
+        private final Set<Path> visitedDirectories;
+        private final long newestModificationTime;
+        private final AtomicBoolean running;
+        private final AtomicBoolean changed;
+
+
+        RefreshTask(Path directory, Map<Path, DirectoryRecord> previous, Map<Path, DirectoryRecord> refreshed,
+                Set<Path> visitedDirectories, long newestModificationTime, AtomicBoolean running,
+                AtomicBoolean changed) {
+            this.directory = directory;
+            this.previous = previous;
+            this.refreshed = refreshed;
+            this.visitedDirectories = visitedDirectories;
+            this.newestModificationTime = newestModificationTime;
+            this.running = running;
+            this.changed = changed;
+        }
+
+        @Override
+        protected void compute() {
+            if (!running.get()) {
+                return;
+            }
+
+            DirectoryRecord record;
+            try {
+                // links pointing back up the tree are followed only once
+                if (!visitedDirectories.add(directory.toRealPath())) {
+                    return;
+                }
+
+                long lastModified = Files.getLastModifiedTime(directory).toMillis();
+                record = previous.get(directory);
+                // an UNKNOWN modification time never matches
+                if ((record == null) || (record.lastModified != lastModified)) {
+                    record = list(lastModified < newestModificationTime ? lastModified : UNKNOWN);
+                    changed.set(true);
+                }
+            } catch (NoSuchFileException e) {
+                return;
+            } catch (IOException | DirectoryIteratorException e) {
+                // No permission?
+                LOGGER.debug("Cannot read directory " + directory, e);
+                return;
+            }
+            refreshed.put(directory, record);
+
+            List<RefreshTask> subdirectories = new ArrayList<>(record.subdirectories.size());
+            for (String name : record.subdirectories) {
+                subdirectories.add(new RefreshTask(directory.resolve(name), previous, refreshed, visitedDirectories,
+                        newestModificationTime, running, changed));
+            }
+            invokeAll(subdirectories);
+        }
+
+        private DirectoryRecord list(long lastModified) throws IOException {
+            List<IndexedFile> files = new ArrayList<>();
+            List<String> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+                for (Path child : children) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(child, BasicFileAttributes.class);
+                    } catch (IOException e) {
+                        // removed in the meantime, or a broken link
+                        continue;
+                    }
+
+                    if (attributes.isDirectory()) {
+                        subdirectories.add(child.getFileName().toString());
+                    } else {
+                        files.add(new IndexedFile(child, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                    }
+                }
+            }
+
+            files.sort(Comparator.comparing(IndexedFile::getPath));
+            Collections.sort(subdirectories);
+            return new DirectoryRecord(lastModified, files, subdirectories);
+        }
+    }
+}
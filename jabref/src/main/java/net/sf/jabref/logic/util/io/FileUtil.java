@@ -32,7 +32,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.Stack;
+import java.util.TreeSet;
 import java.util.Vector;
 import java.util.regex.Pattern;
 
@@ -184,7 +186,15 @@ public class FileUtil {
      * @param name     The filename, may also be a relative path to the file
      */
     public static Optional<File> expandFilename(final BibDatabaseContext databaseContext, String name) {
-        Optional<String> extension = getFileExtension(name);
+        return expandFilename(name, getFileDirectories(databaseContext, getFileExtension(name)));
+    }
+
+    /**
+     * Returns the directories {@link #expandFilename(BibDatabaseContext, String)} looks in for files with the given
+     * extension.
+     */
+    public static List<String> getFileDirectories(final BibDatabaseContext databaseContext,
+            Optional<String> extension) {
         // Find the default directory for this field type, if any:
         List<String> directories = databaseContext.getFileDirectory(extension.orElse(null));
         // Include the standard "file" directory:
@@ -201,8 +211,7 @@ public class FileUtil {
                 al.add(aFileDir);
             }
         }
-
-        return expandFilename(name, al);
+        return al;
     }
 
     /**
@@ -242,10 +251,39 @@ public class FileUtil {
             return Optional.of(file);
         }
 
+        File fileInDir = getFileInDirectory(name, dir);
+        if (fileInDir.exists()) {
+            return Optional.of(fileInDir);
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the files {@link #expandFilename(String, List)} looks for, in the order it looks for them, without
+     * checking whether they exist. The given name is expanded to the first of them that exists.
+     */
+    public static List<File> getExpansionCandidates(String name, List<String> directories) {
+        List<File> candidates = new ArrayList<>();
+        if ((name == null) || name.isEmpty() || directories.stream().allMatch(Objects::isNull)) {
+            return candidates;
+        }
+
+        candidates.add(new File(name));
+        for (String dir : directories) {
+            if (dir != null) {
+                candidates.add(getFileInDirectory(name, dir));
+            }
+        }
+        return candidates;
+    }
+
+    private static File getFileInDirectory(String filename, String dir) {
+        String name;
         if (dir.endsWith(FILE_SEPARATOR)) {
-            name = dir + name;
+            name = dir + filename;
         } else {
-            name = dir + FILE_SEPARATOR + name;
+            name = dir + FILE_SEPARATOR + filename;
         }
 
         // fix / and \ problems:
@@ -254,13 +292,7 @@ public class FileUtil {
         } else {
             name = BACKSLASH.matcher(name).replaceAll("/");
         }
-
-        File fileInDir = new File(name);
-        if (fileInDir.exists()) {
-            return Optional.of(fileInDir);
-        } else {
-            return Optional.empty();
-        }
+        return new File(name);
     }
 
     /**
@@ -317,42 +349,56 @@ public class FileUtil {
         }
     }
 
+    /**
+     * Finds the files whose names start with the keys of the given entries.
+     * <p>
+     * A file belongs to the entry whose key is its name without extension. Otherwise, unless only exact matches are
+     * allowed, it belongs to the first of the given entries whose key starts its name. The keys are looked up by the
+     * prefixes of the file name, so each file is only compared to keys of the lengths that occur.
+     */
     public static Map<BibEntry, List<File>> findAssociatedFiles(Collection<BibEntry> entries, Collection<String> extensions, Collection<File> directories) {
         Map<BibEntry, List<File>> result = new HashMap<>();
 
         // First scan directories
         Set<File> filesWithExtension = FileFinder.findFiles(extensions, directories);
 
-        // Initialize Result-Set
-        for (BibEntry entry : entries) {
+        // Initialize Result-Set, and index the position of the first entry for each key
+        List<BibEntry> entryList = new ArrayList<>(entries);
+        Map<String, Integer> keyPositions = new HashMap<>();
+        SortedSet<Integer> keyLengths = new TreeSet<>();
+        for (int i = 0; i < entryList.size(); i++) {
+            BibEntry entry = entryList.get(i);
             result.put(entry, new ArrayList<>());
+            String citeKey = entry.getCiteKey();
+            if ((citeKey != null) && !citeKey.isEmpty() && (keyPositions.putIfAbsent(citeKey, i) == null)) {
+                keyLengths.add(citeKey.length());
+            }
         }
 
         boolean exactOnly = Globals.prefs.getBoolean(JabRefPreferences.AUTOLINK_EXACT_KEY_ONLY);
         // Now look for keys
-        nextFile: for (File file : filesWithExtension) {
-
+        for (File file : filesWithExtension) {
             String name = file.getName();
             int dot = name.lastIndexOf('.');
             // First, look for exact matches:
-            for (BibEntry entry : entries) {
-                String citeKey = entry.getCiteKey();
-                if ((citeKey != null) && !citeKey.isEmpty() && (dot > 0) && name.substring(0, dot).equals(citeKey)) {
-                    result.get(entry).add(file);
-                    continue nextFile;
-                }
-            }
-            // If we get here, we didn't find any exact matches. If non-exact
-            // matches are allowed, try to find one:
-            if (!exactOnly) {
-                for (BibEntry entry : entries) {
-                    String citeKey = entry.getCiteKey();
-                    if ((citeKey != null) && !citeKey.isEmpty() && name.startsWith(citeKey)) {
-                        result.get(entry).add(file);
-                        continue nextFile;
+            Integer position = dot > 0 ? keyPositions.get(name.substring(0, dot)) : null;
+            // Without an exact match, take the first entry whose key starts
+            // the name, if non-exact matches are allowed:
+            if ((position == null) && !exactOnly) {
+                for (int length : keyLengths) {
+                    if (length > name.length()) {
+                        break;
+                    }
+                    Integer prefixPosition = keyPositions.get(name.substring(0, length));
+                    if ((prefixPosition != null) && ((position == null) || (prefixPosition < position))) {
+                        position = prefixPosition;
                     }
                 }
             }
+
+            if (position != null) {
+                result.get(entryList.get(position)).add(file);
+            }
         }
 
         return result;
@@ -0,0 +1,279 @@
+package net.sf.jabref.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import net.sf.jabref.model.entry.AuthorList;
+import net.sf.jabref.model.entry.BibEntry;
+
+/**
+ * A blocking index for duplicate detection.
+ * <p>
+ * Each entry is put into a number of blocks: its normalized DOI, the last name of its first author (or editor)
+ * together with the year, and several MinHash bands of the character trigrams of its title. Only entries sharing at
+ * least one block are candidates for the (expensive) comparison in {@link DuplicateCheck#isDuplicate}. As entries of
+ * different types are never duplicates, the type is part of every block.
+ * <p>
+ * Entries which do not have any of these fields cannot be blocked and are candidates for every entry of their type.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class DuplicateBlockingIndex {
+
+    private static final Pattern DOI_PREFIX = Pattern.compile("^(https?://)?(dx\\.)?(doi\\.org/)?(doi:)?\\s*");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int SHINGLE_LENGTH = 3;
+    // 8 bands of 2 rows: titles with a trigram similarity of 0.7 share a band with a probability above 99%
+    private static final int BANDS = 8;
+    private static final int ROWS = 2;
+    private static final int[] SEEDS = new int[BANDS * ROWS];
+
+    static {
+        // fixed seeds, so the blocks of an entry are always the same
+        int seed = 0x2545F491;
+        for (int i = 0; i < SEEDS.length; i++) {
+            seed = mix(seed + i);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private final Map<String, List<BibEntry>> blocks = new HashMap<>();
+    private final Map<String, List<BibEntry>> unblockedByType = new HashMap<>();
+    private final Map<BibEntry, Set<String>> keysOfEntry = new IdentityHashMap<>();
+    private final Map<BibEntry, Integer> positions = new IdentityHashMap<>();
+    // change count of each entry when it was added, to notice changed entries in update()
+    private final Map<BibEntry, Integer> changeCounts = new IdentityHashMap<>();
+    private int nextPosition;
+
+
+    public DuplicateBlockingIndex() {
+        // empty index
+    }
+
+    public DuplicateBlockingIndex(Collection<BibEntry> entries) {
+        for (BibEntry entry : entries) {
+            add(entry);
+        }
+    }
+
+    /**
+     * Adds the given entry to the index. Adding an entry twice has no effect.
+     */
+    public void add(BibEntry entry) {
+        if (positions.containsKey(entry)) {
+            return;
+        }
+        positions.put(entry, nextPosition++);
+        changeCounts.put(entry, entry.getChangeCount());
+
+        Set<String> keys = getBlockingKeys(entry);
+        keysOfEntry.put(entry, keys);
+        if (keys.isEmpty()) {
+            unblockedByType.computeIfAbsent(entry.getType(), k -> new ArrayList<>()).add(entry);
+        }
+        for (String key : keys) {
+            blocks.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+        }
+    }
+
+    /**
+     * Removes the given entry from the index.
+     */
+    public void remove(BibEntry entry) {
+        Set<String> keys = keysOfEntry.remove(entry);
+        if (keys == null) {
+            return;
+        }
+        positions.remove(entry);
+        changeCounts.remove(entry);
+        if (keys.isEmpty()) {
+            // the type may have changed since the entry was added
+            for (String type : new ArrayList<>(unblockedByType.keySet())) {
+                removeFrom(unblockedByType, type, entry);
+            }
+        }
+        for (String key : keys) {
+            removeFrom(blocks, key, entry);
+        }
+    }
+
+    /**
+     * Brings the index in line with the given entries, e.g., the current entries of a database: entries which are not
+     * given anymore are removed, new entries are added and entries which were changed since they were added are added
+     * again. Entries added again keep their position.
+     */
+    public void update(Collection<BibEntry> entries) {
+        Set<BibEntry> current = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (BibEntry entry : entries) {
+            current.add(entry);
+            Integer changeCount = changeCounts.get(entry);
+            if (changeCount == null) {
+                add(entry);
+            } else if (changeCount != entry.getChangeCount()) {
+                int position = positions.get(entry);
+                remove(entry);
+                add(entry);
+                positions.put(entry, position);
+            }
+        }
+
+        for (BibEntry entry : new ArrayList<>(positions.keySet())) {
+            if (!current.contains(entry)) {
+                remove(entry);
+            }
+        }
+    }
+
+    private static void removeFrom(Map<String, List<BibEntry>> map, String key, BibEntry entry) {
+        List<BibEntry> list = map.get(key);
+        if (list == null) {
+            return;
+        }
+        list.removeIf(other -> other == entry);
+        if (list.isEmpty()) {
+            map.remove(key);
+        }
+    }
+
+    /**
+     * Returns all indexed entries which share a block with the given entry, in the order they were added. The entry
+     * itself is not contained.
+     */
+    public List<BibEntry> getCandidates(BibEntry entry) {
+        Set<String> keys = keysOfEntry.get(entry);
+        if (keys == null) {
+            keys = getBlockingKeys(entry);
+        }
+
+        Set<BibEntry> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (keys.isEmpty()) {
+            // we cannot narrow the search down, so every entry of the same type is a candidate
+            for (BibEntry other : positions.keySet()) {
+                if (other.getType().equals(entry.getType())) {
+                    candidates.add(other);
+                }
+            }
+        } else {
+            for (String key : keys) {
+                List<BibEntry> block = blocks.get(key);
+                if (block != null) {
+                    candidates.addAll(block);
+                }
+            }
+            List<BibEntry> unblocked = unblockedByType.get(entry.getType());
+            if (unblocked != null) {
+                candidates.addAll(unblocked);
+            }
+        }
+        candidates.remove(entry);
+
+        List<BibEntry> result = new ArrayList<>(candidates);
+        result.sort((one, two) -> Integer.compare(positions.get(one), positions.get(two)));
+        return result;
+    }
+
+    /**
+     * Returns the position of the given entry in the order the entries were added, or -1 if it is not indexed.
+     */
+    public int getPosition(BibEntry entry) {
+        Integer position = positions.get(entry);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * Returns the blocks of the given entry.
+     */
+    static Set<String> getBlockingKeys(BibEntry entry) {
+        Set<String> keys = new HashSet<>();
+        String prefix = entry.getType() + ':';
+
+        String doi = entry.getField("doi");
+        if (doi != null) {
+            String normalizedDoi = DOI_PREFIX.matcher(doi.trim().toLowerCase(Locale.ENGLISH)).replaceFirst("");
+            if (!normalizedDoi.isEmpty()) {
+                keys.add(prefix + "doi:" + normalizedDoi);
+            }
+        }
+
+        String firstAuthor = getFirstAuthorLastName(entry);
+        if (!firstAuthor.isEmpty()) {
+            keys.add(prefix + "author:" + firstAuthor + ':' + entry.getFieldOptional("year").orElse("").trim());
+        }
+
+        String title = entry.getField("title");
+        if (title != null) {
+            String normalizedTitle = NON_ALPHANUMERIC.matcher(title.toLowerCase(Locale.ENGLISH)).replaceAll("");
+            if (!normalizedTitle.isEmpty()) {
+                int[] minHashes = getMinHashes(normalizedTitle);
+                for (int band = 0; band < BANDS; band++) {
+                    StringBuilder key = new StringBuilder(prefix).append("title:").append(band);
+                    for (int row = 0; row < ROWS; row++) {
+                        key.append(':').append(minHashes[(band * ROWS) + row]);
+                    }
+                    keys.add(key.toString());
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static String getFirstAuthorLastName(BibEntry entry) {
+        String persons = entry.getField("author");
+        if ((persons == null) || persons.trim().isEmpty()) {
+            persons = entry.getField("editor");
+        }
+        if ((persons == null) || persons.trim().isEmpty()) {
+            return "";
+        }
+        AuthorList authors = AuthorList.parse(persons);
+        if (authors.isEmpty()) {
+            return "";
+        }
+        String lastName = authors.getAuthor(0).getLast();
+        if (lastName == null) {
+            return "";
+        }
+        return NON_ALPHANUMERIC.matcher(lastName.toLowerCase(Locale.ENGLISH)).replaceAll("");
+    }
+
+    private static int[] getMinHashes(String text) {
+        int[] minHashes = new int[SEEDS.length];
+        Arrays.fill(minHashes, Integer.MAX_VALUE);
+
+        int shingles = Math.max(1, (text.length() - SHINGLE_LENGTH) + 1);
+        for (int start = 0; start < shingles; start++) {
+            int shingleHash = text.substring(start, Math.min(text.length(), start + SHINGLE_LENGTH)).hashCode();
+            for (int i = 0; i < SEEDS.length; i++) {
+                int hash = mix(shingleHash ^ SEEDS[i]);
+                if (hash < minHashes[i]) {
+                    minHashes[i] = hash;
+                }
+            }
+        }
+        return minHashes;
+    }
+
+    /**
+     * The finalization step of MurmurHash3, spreading the bits of the given value
+     */
+    private static int mix(int value) {
+        int hash = value;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -226,6 +226,27 @@ public class DuplicateCheck {
         return Optional.empty(); // No duplicate found.
     }
 
+    /**
+     * Checks the entries of the given index which share a block with the given entry, and returns the first of them
+     * which is a duplicate of the given entry, as per isDuplicate(BibEntry, BibEntry, BibDatabaseMode).
+     * <p>
+     * Use this instead of {@link #containsDuplicate(BibDatabase, BibEntry, BibDatabaseMode)} when checking many
+     * entries against the same database.
+     *
+     * @param index The index of the entries to search.
+     * @param entry The entry of which we are looking for duplicates.
+     * @return The first duplicate entry found. Empty if no duplicates are found.
+     */
+    public static Optional<BibEntry> containsDuplicate(DuplicateBlockingIndex index, BibEntry entry,
+            BibDatabaseMode bibDatabaseMode) {
+        for (BibEntry other : index.getCandidates(entry)) {
+            if (DuplicateCheck.isDuplicate(entry, other, bibDatabaseMode)) {
+                return Optional.of(other); // Duplicate found.
+            }
+        }
+        return Optional.empty(); // No duplicate found.
+    }
+
     /**
      * Compare two strings on the basis of word-by-word correlation analysis.
      *
@@ -29,12 +29,18 @@ Modified for use in JabRef
  */
 package net.sf.jabref.model.database;
 
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.VetoableChangeListener;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -57,6 +63,11 @@ public class BibDatabase {
 
     private static final Log LOGGER = LogFactory.getLog(BibDatabase.class);
 
+    private static final String ID_PROPERTY = "id";
+
+    // the positions of the entries are computed again after this number of removals
+    private static final int REINDEX_AFTER_REMOVALS = 256;
+
     /**
      * State attributes
      */
@@ -67,15 +78,55 @@ public class BibDatabase {
     private String epilog = "";
     private final Map<String, BibtexString> bibtexStrings = new ConcurrentHashMap<>();
 
+    /**
+     * Guards the index of the strings by name and the caches of resolved strings below. Strings are resolved by many
+     * threads, and changed by the user, so a value resolved from a changed string must not be stored after the
+     * change.
+     */
+    private final Object stringLock = new Object();
+
+    /**
+     * lower case name -> strings with this name ignoring case, in the order they were added
+     */
+    private final Map<String, List<BibtexString>> stringsByName = new HashMap<>();
+
+    /**
+     * lower case name -> content of the string with all references resolved, for strings without circular references
+     */
+    private final Map<String, String> resolvedStrings = new HashMap<>();
+
+    /**
+     * field content -> field content with all references resolved, read without the lock
+     */
+    private final Map<String, String> resolvedContents = new ConcurrentHashMap<>();
+
+    /**
+     * lower case name -> names of the resolved strings, and the resolved contents, referencing a string with this name
+     */
+    private final Map<String, Set<String>> dependentStrings = new HashMap<>();
+    private final Map<String, Set<String>> dependentContents = new HashMap<>();
+
+    private final PropertyChangeListener stringListener = this::stringChanged;
+
     /**
      * this is kept in sync with the database (upon adding/removing an entry, it is updated as well)
      */
     private final DuplicationChecker duplicationChecker = new DuplicationChecker();
 
     /**
-     * contains all entry.getID() of the current database
+     * entry.getID() -> position of the entry, for all entries of the current database
+     * <p>
+     * Removing an entry moves the following entries forward, so a position may be too high by up to the number of
+     * entries removed since the positions were computed.
+     */
+    private final Map<String, Integer> positions = new HashMap<>();
+    private int removalsSinceIndexing;
+
+    /**
+     * cite key -> entries with this key, kept in sync with the keys of the entries by listening to them
      */
-    private final Set<String> internalIDs = new HashSet<>();
+    private final Map<String, List<BibEntry>> entriesByKey = new HashMap<>();
+    private final VetoableChangeListener entryListener = new EntryListener(this);
 
 
     /**
@@ -115,8 +166,8 @@ public class BibDatabase {
     /**
      * Returns whether an entry with the given ID exists (-> entry_type + hashcode).
      */
-    public boolean containsEntryWithId(String id) {
-        return internalIDs.contains(id);
+    public synchronized boolean containsEntryWithId(String id) {
+        return positions.containsKey(id);
     }
 
     public List<BibEntry> getEntries() {
@@ -145,25 +196,26 @@ public class BibDatabase {
      * Returns the entry with the given bibtex key.
      */
     public synchronized BibEntry getEntryByKey(String key) {
-        BibEntry back = null;
-
-        int keyHash = key.hashCode(); // key hash for better performance
-
-        for (BibEntry entry : entries) {
-            if ((entry != null) && (entry.getCiteKey() != null) && (keyHash == entry.getCiteKey().hashCode())) {
-                back = entry;
-            }
+        List<BibEntry> entriesWithKey = getEntriesByKey(key);
+        if (entriesWithKey.isEmpty()) {
+            return null;
         }
-        return back;
+        // the last one, as before the entries were indexed
+        return entriesWithKey.get(entriesWithKey.size() - 1);
     }
 
+    /**
+     * Returns the entries with the given bibtex key, in the order of the database.
+     */
     public synchronized List<BibEntry> getEntriesByKey(String key) {
-        List<BibEntry> result = new ArrayList<>();
+        List<BibEntry> entriesWithKey = entriesByKey.get(key);
+        if (entriesWithKey == null) {
+            return new ArrayList<>();
+        }
 
-        for (BibEntry entry : entries) {
-            if (key.equals(entry.getCiteKey())) {
-                result.add(entry);
-            }
+        List<BibEntry> result = new ArrayList<>(entriesWithKey);
+        if (result.size() > 1) {
+            result.sort(Comparator.comparingInt(entry -> getPosition(entry.getId())));
         }
         return result;
     }
@@ -182,8 +234,10 @@ public class BibDatabase {
             throw new KeyCollisionException("ID is already in use, please choose another");
         }
 
-        internalIDs.add(id);
+        positions.put(id, entries.size());
         entries.add(entry);
+        addToKeyIndex(entry, entry.getCiteKey());
+        entry.addPropertyChangeListener(entryListener);
         fireDatabaseChanged(new DatabaseChangeEvent(this, DatabaseChangeEvent.ChangeType.ADDED_ENTRY, entry));
         return duplicationChecker.checkForDuplicateKeyAndAdd(null, entry.getCiteKey());
     }
@@ -195,14 +249,96 @@ public class BibDatabase {
     public synchronized void removeEntry(BibEntry toBeDeleted) {
         Objects.requireNonNull(toBeDeleted);
 
-        boolean anyRemoved =  entries.removeIf(entry -> entry.getId().equals(toBeDeleted.getId()));
-        if (anyRemoved) {
-            internalIDs.remove(toBeDeleted.getId());
+        int position = getPosition(toBeDeleted.getId());
+        if (position >= 0) {
+            BibEntry removed = entries.remove(position);
+            removed.removePropertyChangeListener(entryListener);
+            positions.remove(removed.getId());
+            removeFromKeyIndex(removed, removed.getCiteKey());
+            removalsSinceIndexing++;
+            if (removalsSinceIndexing >= REINDEX_AFTER_REMOVALS) {
+                reindex();
+            }
+
             duplicationChecker.removeKeyFromSet(toBeDeleted.getCiteKey());
             fireDatabaseChanged(new DatabaseChangeEvent(this, DatabaseChangeEvent.ChangeType.REMOVED_ENTRY, toBeDeleted));
         }
     }
 
+    /**
+     * Returns the current position of the entry with the given id, or -1 if there is no such entry.
+     */
+    private int getPosition(String id) {
+        Integer position = positions.get(id);
+        if (position == null) {
+            return -1;
+        }
+
+        int lowest = Math.max(0, position - removalsSinceIndexing);
+        for (int i = Math.min(position, entries.size() - 1); i >= lowest; i--) {
+            if (entries.get(i).getId().equals(id)) {
+                positions.put(id, i);
+                return i;
+            }
+        }
+
+        // not found where expected, like while the id of the entry is being changed
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void reindex() {
+        for (int i = 0; i < entries.size(); i++) {
+            positions.put(entries.get(i).getId(), i);
+        }
+        removalsSinceIndexing = 0;
+    }
+
+    private void addToKeyIndex(BibEntry entry, String key) {
+        if (key != null) {
+            entriesByKey.computeIfAbsent(key, k -> new ArrayList<>(1)).add(entry);
+        }
+    }
+
+    private void removeFromKeyIndex(BibEntry entry, String key) {
+        List<BibEntry> entriesWithKey = key == null ? null : entriesByKey.get(key);
+        if (entriesWithKey == null) {
+            return;
+        }
+
+        // by identity, as entries with the same fields are equal
+        for (int i = 0; i < entriesWithKey.size(); i++) {
+            if (entriesWithKey.get(i) == entry) {
+                entriesWithKey.remove(i);
+                break;
+            }
+        }
+        if (entriesWithKey.isEmpty()) {
+            entriesByKey.remove(key);
+        }
+    }
+
+    /**
+     * Keeps the indexes in sync when the key or the id of an entry is changed directly.
+     */
+    private synchronized void entryChanged(PropertyChangeEvent event) {
+        BibEntry entry = (BibEntry) event.getSource();
+        if (BibEntry.KEY_FIELD.equals(event.getPropertyName())) {
+            removeFromKeyIndex(entry, (String) event.getOldValue());
+            addToKeyIndex(entry, (String) event.getNewValue());
+        } else if (ID_PROPERTY.equals(event.getPropertyName())) {
+            // the id is changed after this event
+            Integer position = positions.remove(event.getOldValue());
+            if (position != null) {
+                positions.put((String) event.getNewValue(), position);
+            }
+        }
+    }
+
     public int getNumberOfKeyOccurrences(String key) {
         return duplicationChecker.getNumberOfKeyOccurrences(key);
     }
@@ -244,14 +380,30 @@ public class BibDatabase {
             throw new KeyCollisionException("Duplicate BibTeXString id.");
         }
 
-        bibtexStrings.put(string.getId(), string);
+        synchronized (stringLock) {
+            bibtexStrings.put(string.getId(), string);
+            addToNameIndex(string, string.getName());
+            invalidateString(string.getName());
+        }
+        string.addPropertyChangeListener(stringListener);
+        fireDatabaseChanged(new DatabaseChangeEvent(this, DatabaseChangeEvent.ChangeType.CHANGED_STRING, null));
     }
 
     /**
      * Removes the string with the given id.
      */
     public void removeString(String id) {
-        bibtexStrings.remove(id);
+        BibtexString string;
+        synchronized (stringLock) {
+            string = bibtexStrings.remove(id);
+            if (string == null) {
+                return;
+            }
+            removeFromNameIndex(string, string.getName());
+            invalidateString(string.getName());
+        }
+        string.removePropertyChangeListener(stringListener);
+        fireDatabaseChanged(new DatabaseChangeEvent(this, DatabaseChangeEvent.ChangeType.CHANGED_STRING, null));
     }
 
     /**
@@ -316,23 +468,53 @@ public class BibDatabase {
      * Returns true if a string with the given label already exists.
      */
     public synchronized boolean hasStringLabel(String label) {
-        for (BibtexString value : bibtexStrings.values()) {
-            if (value.getName().equals(label)) {
-                return true;
+        synchronized (stringLock) {
+            List<BibtexString> strings = stringsByName.get(toLowerCase(label));
+            if (strings != null) {
+                for (BibtexString value : strings) {
+                    if (value.getName().equals(label)) {
+                        return true;
+                    }
+                }
             }
+            return false;
         }
-        return false;
     }
 
     /**
      * Resolves any references to strings contained in this field content,
      * if possible.
+     * <p>
+     * The resolved content is stored until one of the referenced strings is changed, so resolving the same content
+     * again, like when displaying or exporting a field, only looks it up. Contents which are not changed by resolving
+     * them, like URLs with a fragment, are not stored.
      */
     public String resolveForStrings(String content) {
         if (content == null) {
             throw new IllegalArgumentException("Content for resolveForStrings must not be null.");
         }
-        return resolveContent(content, new HashSet<>());
+        if (content.indexOf('#') < 0) {
+            return content;
+        }
+
+        String resolved = resolvedContents.get(content);
+        if (resolved != null) {
+            return resolved;
+        }
+
+        synchronized (stringLock) {
+            StringResolution resolution = new StringResolution();
+            Set<String> references = new HashSet<>();
+            resolved = resolveContent(content, resolution, references);
+            // contents without any resolved reference are left as they are and not stored, so they do not pile up
+            if (!resolution.circular && !resolved.equals(content)) {
+                resolvedContents.put(content, resolved);
+                for (String name : references) {
+                    dependentContents.computeIfAbsent(name, k -> new HashSet<>()).add(content);
+                }
+            }
+            return resolved;
+        }
     }
 
     /**
@@ -392,31 +574,48 @@ public class BibDatabase {
      * care not to follow a circular reference pattern.
      * If the string is undefined, returns null.
      */
-    private String resolveString(String label, Set<String> usedIds) {
-        for (BibtexString string : bibtexStrings.values()) {
-            if (string.getName().equalsIgnoreCase(label)) {
-                // First check if this string label has been resolved
-                // earlier in this recursion. If so, we have a
-                // circular reference, and have to stop to avoid
-                // infinite recursion.
-                if (usedIds.contains(string.getId())) {
-                    LOGGER.info("Stopped due to circular reference in strings: " + label);
-                    return label;
-                }
-                // If not, log this string's ID now.
-                usedIds.add(string.getId());
-
-                // Ok, we found the string. Now we must make sure we
-                // resolve any references to other strings in this one.
-                String result = string.getContent();
-                result = resolveContent(result, usedIds);
-
-                // Finished with recursing this branch, so we remove our
-                // ID again:
-                usedIds.remove(string.getId());
+    private String resolveString(String label, StringResolution resolution) {
+        String name = toLowerCase(label);
+        String resolved = resolvedStrings.get(name);
+        if (resolved != null) {
+            return resolved;
+        }
 
-                return result;
+        List<BibtexString> strings = stringsByName.get(name);
+        if (strings != null) {
+            BibtexString string = strings.get(0);
+            // First check if this string label has been resolved
+            // earlier in this recursion. If so, we have a
+            // circular reference, and have to stop to avoid
+            // infinite recursion.
+            if (resolution.usedIds.contains(string.getId())) {
+                LOGGER.info("Stopped due to circular reference in strings: " + label);
+                resolution.circular = true;
+                return label;
+            }
+            // If not, log this string's ID now.
+            resolution.usedIds.add(string.getId());
+
+            // Ok, we found the string. Now we must make sure we
+            // resolve any references to other strings in this one.
+            boolean circularBefore = resolution.circular;
+            resolution.circular = false;
+            Set<String> references = new HashSet<>();
+            String result = resolveContent(string.getContent(), resolution, references);
+
+            // Finished with recursing this branch, so we remove our
+            // ID again:
+            resolution.usedIds.remove(string.getId());
+
+            // Without a circular reference, the result does not depend on the strings resolved before
+            if (!resolution.circular) {
+                resolvedStrings.put(name, result);
+                for (String reference : references) {
+                    dependentStrings.computeIfAbsent(reference, k -> new HashSet<>()).add(name);
+                }
             }
+            resolution.circular |= circularBefore;
+            return result;
         }
 
         // If we get to this point, the string has obviously not been defined locally.
@@ -431,7 +630,7 @@ public class BibDatabase {
 
     private static final Pattern RESOLVE_CONTENT_PATTERN = Pattern.compile(".*#[^#]+#.*");
 
-    private String resolveContent(String result, Set<String> usedIds) {
+    private String resolveContent(String result, StringResolution resolution, Set<String> references) {
         String res = result;
         if (RESOLVE_CONTENT_PATTERN.matcher(res).matches()) {
             StringBuilder newRes = new StringBuilder();
@@ -449,7 +648,8 @@ public class BibDatabase {
                     // We found the boundaries of the string ref,
                     // now resolve that one.
                     String refLabel = res.substring(next + 1, stringEnd);
-                    String resolved = resolveString(refLabel, usedIds);
+                    references.add(toLowerCase(refLabel));
+                    String resolved = resolveString(refLabel, resolution);
 
                     if (resolved == null) {
                         // Could not resolve string. Display the #
@@ -479,6 +679,65 @@ public class BibDatabase {
         return res;
     }
 
+    private static String toLowerCase(String name) {
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+
+    private void addToNameIndex(BibtexString string, String name) {
+        if (name != null) {
+            stringsByName.computeIfAbsent(toLowerCase(name), k -> new ArrayList<>(1)).add(string);
+        }
+    }
+
+    private void removeFromNameIndex(BibtexString string, String name) {
+        List<BibtexString> strings = name == null ? null : stringsByName.get(toLowerCase(name));
+        if (strings == null) {
+            return;
+        }
+
+        strings.removeIf(value -> value == string);
+        if (strings.isEmpty()) {
+            stringsByName.remove(toLowerCase(name));
+        }
+    }
+
+    /**
+     * Forgets the resolved strings and contents referencing a string with the given name, directly or through other
+     * strings.
+     */
+    private void invalidateString(String name) {
+        if (name == null) {
+            return;
+        }
+
+        String lowerCaseName = toLowerCase(name);
+        resolvedStrings.remove(lowerCaseName);
+        Set<String> contents = dependentContents.remove(lowerCaseName);
+        if (contents != null) {
+            contents.forEach(resolvedContents::remove);
+        }
+        Set<String> strings = dependentStrings.remove(lowerCaseName);
+        if (strings != null) {
+            strings.forEach(this::invalidateString);
+        }
+    }
+
+    private void stringChanged(PropertyChangeEvent event) {
+        BibtexString string = (BibtexString) event.getSource();
+        synchronized (stringLock) {
+            if (BibtexString.NAME_PROPERTY.equals(event.getPropertyName())) {
+                removeFromNameIndex(string, (String) event.getOldValue());
+                addToNameIndex(string, (String) event.getNewValue());
+                invalidateString((String) event.getOldValue());
+                invalidateString((String) event.getNewValue());
+            } else if (BibtexString.CONTENT_PROPERTY.equals(event.getPropertyName())) {
+                invalidateString(string.getName());
+            } else {
+                return;
+            }
+        }
+        fireDatabaseChanged(new DatabaseChangeEvent(this, DatabaseChangeEvent.ChangeType.CHANGED_STRING, null));
+    }
 
 
     private void fireDatabaseChanged(DatabaseChangeEvent e) {
@@ -562,4 +821,38 @@ public class BibDatabase {
     public String getEpilog() {
         return epilog;
     }
+
+
+    /**
+     * Forwards changes of the entries to the database. The entries only refer weakly to the database, so they do not
+     * keep it alive when they are inserted into another database without being removed from this one.
+     */
+    private static class EntryListener implements VetoableChangeListener {
+
+        private final WeakReference<BibDatabase> database;
+
+
+        EntryListener(BibDatabase database) {
+            this.database = new WeakReference<>(database);
+        }
+
+        @Override
+        public void vetoableChange(PropertyChangeEvent event) {
+            BibDatabase bibDatabase = database.get();
+            if (bibDatabase != null) {
+                bibDatabase.entryChanged(event);
+            }
+        }
+    }
+
+    /**
+     * The state of resolving one field content
+     */
+    private static class StringResolution {
+
+        // ids of the strings being resolved, to stop at circular references
+        private final Set<String> usedIds = new HashSet<>();
+        // whether a circular reference was found, so the results depend on where the resolution started
+        private boolean circular;
+    }
 }
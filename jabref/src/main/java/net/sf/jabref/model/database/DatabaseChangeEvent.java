@@ -20,7 +20,9 @@ import net.sf.jabref.model.entry.BibEntry;
 public class DatabaseChangeEvent {
 
     public enum ChangeType {
-        ADDED_ENTRY, REMOVED_ENTRY, CHANGED_ENTRY, CHANGING_ENTRY
+        ADDED_ENTRY, REMOVED_ENTRY, CHANGED_ENTRY, CHANGING_ENTRY,
+        /** A string was added, removed, renamed or changed. There is no entry for this change. */
+        CHANGED_STRING
     }
 
 
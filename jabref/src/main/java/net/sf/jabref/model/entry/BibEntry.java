@@ -26,8 +26,8 @@ import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -35,6 +35,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.BiPredicate;
 
 import net.sf.jabref.model.database.BibDatabase;
 
@@ -54,7 +55,12 @@ public class BibEntry {
 
     private String id;
     private String type;
-    private Map<String, String> fields = new HashMap<>();
+    // null if the fields are not loaded from the content source yet
+    private volatile CompactFieldMap fields = new CompactFieldMap();
+    // only accessed while holding the lock of the entry; never null while the fields are not loaded
+    private EntryContentSource contentSource;
+    // set as soon as a field is changed, independent of the serialization, to never unload changed fields
+    private volatile boolean fieldsModified;
 
     private final VetoableChangeSupport changeSupport = new VetoableChangeSupport(this);
 
@@ -69,6 +75,8 @@ public class BibEntry {
     * Is set to false, if parts of the entry change
      */
     private boolean changed;
+    // incremented on every change, to detect changes while the entry is being written
+    private int changeCount;
 
     public BibEntry() {
         this(IdGenerator.next());
@@ -93,7 +101,7 @@ public class BibEntry {
      * @return a set of existing field names
      */
     public Set<String> getFieldNames() {
-        return new TreeSet<>(fields.keySet());
+        return new TreeSet<>(getFields().keySet());
     }
 
     /**
@@ -120,8 +128,9 @@ public class BibEntry {
             // We set the type before throwing the changeEvent, to enable
             // the change listener to access the new value if the change
             // sets off a change in database sorting etc.
-            this.type = newType.toLowerCase(Locale.ENGLISH);
-            changed = true;
+            // types repeat across entries
+            this.type = newType.toLowerCase(Locale.ENGLISH).intern();
+            markChanged();
             firePropertyChangedEvent(TYPE_HEADER, oldType, newType);
         } catch (PropertyVetoException pve) {
             LOGGER.warn(pve);
@@ -149,7 +158,7 @@ public class BibEntry {
         }
 
         this.id = id;
-        changed = true;
+        markChanged();
     }
 
     /**
@@ -163,21 +172,92 @@ public class BibEntry {
      * Returns the contents of the given field, or null if it is not set.
      */
     public String getField(String name) {
-        return fields.get(toLowerCase(name));
+        return getFields().get(toLowerCase(name));
     }
 
     /**
      * Returns the contents of the given field as an Optional.
      */
     public Optional<String> getFieldOptional(String name) {
-        return Optional.ofNullable(fields.get(toLowerCase(name)));
+        return Optional.ofNullable(getFields().get(toLowerCase(name)));
     }
 
     /**
      * Returns true if the entry has the given field, or false if it is not set.
      */
     public boolean hasField(String name) {
-        return fields.containsKey(toLowerCase(name));
+        return getFields().containsKey(toLowerCase(name));
+    }
+
+    private CompactFieldMap getFields() {
+        CompactFieldMap loadedFields = fields;
+        if (loadedFields != null) {
+            return loadedFields;
+        }
+
+        EntryContentSource source;
+        synchronized (this) {
+            if (fields != null) {
+                return fields;
+            }
+            source = contentSource;
+            loadedFields = new CompactFieldMap(source.loadFields());
+            fields = loadedFields;
+        }
+        // only the thread which loaded the fields reports it, outside of the lock, as the source may unload other
+        // entries, which lock themselves
+        source.fieldsLoaded(this);
+        return loadedFields;
+    }
+
+    /**
+     * Lets the fields of this entry be loaded from the given source when they are first accessed. The fields and the
+     * parsed serialization kept so far are dropped, and the entry is marked as unchanged.
+     */
+    public synchronized void setContentSource(EntryContentSource contentSource) {
+        this.contentSource = Objects.requireNonNull(contentSource);
+        fields = null;
+        fieldsModified = false;
+        parsedSerialization = null;
+        changed = false;
+    }
+
+    /**
+     * Drops the fields of this entry, which are loaded again from its content source on the next access. This is
+     * only possible for entries with a content source whose fields were not changed.
+     *
+     * @return true if the fields were dropped
+     */
+    public synchronized boolean unloadFields() {
+        if ((contentSource == null) || fieldsModified) {
+            return false;
+        }
+        fields = null;
+        return true;
+    }
+
+    /**
+     * Loads the fields and the parsed serialization of this entry from its content source and drops the source, so
+     * the entry is kept in memory completely from now on.
+     */
+    public synchronized void detachContentSource() {
+        if (contentSource == null) {
+            return;
+        }
+        if (fields == null) {
+            fields = new CompactFieldMap(contentSource.loadFields());
+        }
+        if (parsedSerialization == null) {
+            parsedSerialization = contentSource.loadParsedSerialization();
+        }
+        contentSource = null;
+    }
+
+    /**
+     * Returns whether the fields of this entry are in memory.
+     */
+    public boolean isLoaded() {
+        return fields != null;
     }
 
     private String toLowerCase(String fieldName) {
@@ -297,7 +377,17 @@ public class BibEntry {
      * Returns the bibtex key, or null if it is not set.
      */
     public String getCiteKey() {
-        return fields.get(KEY_FIELD);
+        Map<String, String> loadedFields = fields;
+        if (loadedFields == null) {
+            synchronized (this) {
+                if (fields == null) {
+                    // the key is known without loading the entry
+                    return contentSource.getCiteKey();
+                }
+                loadedFields = fields;
+            }
+        }
+        return loadedFields.get(KEY_FIELD);
     }
 
     public void setCiteKey(String newCiteKey) {
@@ -477,19 +567,21 @@ public class BibEntry {
 
         //FIM
 
-        changed = true;
+        fieldsModified = true;
 
-        String oldValue = fields.get(fieldName);
+        Map<String, String> currentFields = getFields();
+        String oldValue = currentFields.get(fieldName);
         try {
             // We set the field before throwing the changeEvent, to enable
             // the change listener to access the new value if the change
             // sets off a change in database sorting etc.
-            fields.put(fieldName, value);
+            currentFields.put(fieldName, value);
+            markChanged();
             firePropertyChangedEvent(fieldName, oldValue, value);
         } catch (PropertyVetoException pve) {
             // Since we have already made the change, we must undo it since
             // the change was rejected:
-            fields.put(fieldName, oldValue);
+            currentFields.put(fieldName, oldValue);
             throw new IllegalArgumentException("Change rejected: " + pve);
         }
     }
@@ -503,13 +595,14 @@ public class BibEntry {
     public void clearField(String name) {
         String fieldName = toLowerCase(name);
 
-        changed = true;
-
         if (BibEntry.ID_FIELD.equals(fieldName)) {
             throw new IllegalArgumentException("The field name '" + name + "' is reserved");
         }
-        Object oldValue = fields.get(fieldName);
-        fields.remove(fieldName);
+        fieldsModified = true;
+        Map<String, String> currentFields = getFields();
+        Object oldValue = currentFields.get(fieldName);
+        currentFields.remove(fieldName);
+        markChanged();
         try {
             firePropertyChangedEvent(fieldName, oldValue, null);
         } catch (PropertyVetoException pve) {
@@ -588,7 +681,7 @@ public class BibEntry {
     @Override
     public Object clone() {
         BibEntry clone = new BibEntry(id, type);
-        clone.fields = new HashMap<>(fields);
+        clone.fields = new CompactFieldMap(getFields());
         return clone;
     }
 
@@ -663,7 +756,35 @@ public class BibEntry {
         this.parsedSerialization = parsedSerialization;
     }
 
-    public String getParsedSerialization() {
+    /**
+     * Replaces the parsed serialization by the given one, which was written for this entry, so the entry does not
+     * need to be formatted again on the next save. This is only done if the entry was not changed after the given
+     * change count was read, otherwise the serialization may be outdated.
+     *
+     * @return true if the serialization was replaced
+     */
+    public synchronized boolean updateSerialization(String serialization, int changeCountWhenWritten) {
+        if (changeCount != changeCountWhenWritten) {
+            return false;
+        }
+        setParsedSerialization(serialization);
+        return true;
+    }
+
+    public synchronized int getChangeCount() {
+        return changeCount;
+    }
+
+    private synchronized void markChanged() {
+        changed = true;
+        changeCount++;
+    }
+
+    public synchronized String getParsedSerialization() {
+        if ((parsedSerialization == null) && (contentSource != null)) {
+            // not kept in memory, as it is only needed for saving
+            return contentSource.loadParsedSerialization();
+        }
         return parsedSerialization;
     }
 
@@ -672,7 +793,11 @@ public class BibEntry {
     }
 
     public void setChanged(boolean changed) {
-        this.changed = changed;
+        if (changed) {
+            markChanged();
+        } else {
+            this.changed = false;
+        }
     }
 
     public void putKeywords(List<String> keywords) {
@@ -742,12 +867,22 @@ public class BibEntry {
     }
 
     public Collection<String> getFieldValues() {
-        return fields.values();
+        return getFields().values();
     }
 
+    /**
+     * Returns a read-only view of the fields of this entry.
+     */
     public Map<String, String> getFieldMap() {
-        // TODO Auto-generated method stub
-        return fields;
+        return Collections.unmodifiableMap(getFields());
+    }
+
+    /**
+     * Returns whether the given predicate holds for the name and the value of any field of this entry. Unlike
+     * iterating over {@link #getFieldMap()}, this does not create any objects.
+     */
+    public boolean anyFieldMatches(BiPredicate<String, String> predicate) {
+        return getFields().anyMatch(predicate);
     }
 
     @Override
@@ -759,11 +894,11 @@ public class BibEntry {
             return false;
         }
         BibEntry entry = (BibEntry) o;
-        return Objects.equals(type, entry.type) && Objects.equals(fields, entry.fields);
+        return Objects.equals(type, entry.type) && Objects.equals(getFields(), entry.getFields());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(type, fields);
+        return Objects.hash(type, getFields());
     }
 }
@@ -15,11 +15,17 @@
 */
 package net.sf.jabref.model.entry;
 
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+
 /**
  * This class models a BibTex String ("@String")
  */
 public class BibtexString {
 
+    public static final String NAME_PROPERTY = "name";
+    public static final String CONTENT_PROPERTY = "content";
+
     /**
      * Type of a \@String.
      * <p>
@@ -94,6 +100,8 @@ public class BibtexString {
     private String parsedSerialization;
     private boolean hasChanged;
 
+    private final PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
+
 
     public BibtexString(String id, String name, String content) {
         this.id = id;
@@ -117,9 +125,11 @@ public class BibtexString {
     }
 
     public void setName(String name) {
+        String oldName = this.name;
         this.name = name;
         hasChanged = true;
         type = Type.get(name);
+        changeSupport.firePropertyChange(NAME_PROPERTY, oldName, name);
     }
 
     public String getContent() {
@@ -127,8 +137,10 @@ public class BibtexString {
     }
 
     public void setContent(String content) {
+        String oldContent = this.content;
         this.content = content;
         hasChanged = true;
+        changeSupport.firePropertyChange(CONTENT_PROPERTY, oldContent, content);
     }
 
     @Override
@@ -152,4 +164,15 @@ public class BibtexString {
     public boolean hasChanged(){
         return hasChanged;
     }
+
+    /**
+     * Adds a listener which is notified after the name or the content of this string changed.
+     */
+    public void addPropertyChangeListener(PropertyChangeListener listener) {
+        changeSupport.addPropertyChangeListener(listener);
+    }
+
+    public void removePropertyChangeListener(PropertyChangeListener listener) {
+        changeSupport.removePropertyChangeListener(listener);
+    }
 }
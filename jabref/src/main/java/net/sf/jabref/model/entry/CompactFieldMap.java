@@ -0,0 +1,254 @@
+package net.sf.jabref.model.entry;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+/**
+ * The fields of an entry, stored as parallel arrays of field name ids and values instead of a hash table.
+ * <p>
+ * Entries have few fields, so a linear search over the ids is as fast as hashing, while the map needs a fraction of
+ * the memory of a {@link java.util.HashMap}. Field names are shared through the {@link FieldNameRegistry}, and the
+ * values of fields which repeat across entries, like journal or publisher, are interned. Like a HashMap, this map is
+ * not synchronized and does not allow null keys. Fields are iterated in the order they were added.
+ */
+class CompactFieldMap extends AbstractMap<String, String> {
+
+    private static final int[] NO_IDS = new int[0];
+    private static final String[] NO_VALUES = new String[0];
+
+    private int[] ids = NO_IDS;
+    private String[] values = NO_VALUES;
+    private int size;
+    private int modificationCount;
+
+
+    CompactFieldMap() {
+    }
+
+    CompactFieldMap(Map<String, String> fields) {
+        ids = new int[fields.size()];
+        values = new String[fields.size()];
+        putAll(fields);
+    }
+
+    private int indexOf(Object name) {
+        if (!(name instanceof String)) {
+            return -1;
+        }
+        return indexOf(FieldNameRegistry.getId((String) name));
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        return indexOf(name) >= 0;
+    }
+
+    @Override
+    public String get(Object name) {
+        int index = indexOf(name);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public String put(String name, String value) {
+        Objects.requireNonNull(name);
+        int id = FieldNameRegistry.register(name);
+        String storedValue = (value != null) && FieldNameRegistry.isInterned(id) ? value.intern() : value;
+
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                String oldValue = values[i];
+                values[i] = storedValue;
+                return oldValue;
+            }
+        }
+
+        if (size == ids.length) {
+            int capacity = size + (size >> 1) + 1;
+            ids = Arrays.copyOf(ids, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        ids[size] = id;
+        values[size] = storedValue;
+        size++;
+        modificationCount++;
+        return null;
+    }
+
+    @Override
+    public String remove(Object name) {
+        int index = indexOf(name);
+        if (index < 0) {
+            return null;
+        }
+        String oldValue = values[index];
+        removeAt(index);
+        return oldValue;
+    }
+
+    private void removeAt(int index) {
+        int moved = size - index - 1;
+        System.arraycopy(ids, index + 1, ids, index, moved);
+        System.arraycopy(values, index + 1, values, index, moved);
+        size--;
+        values[size] = null;
+        modificationCount++;
+    }
+
+    @Override
+    public void clear() {
+        ids = NO_IDS;
+        values = NO_VALUES;
+        size = 0;
+        modificationCount++;
+    }
+
+    /**
+     * Returns whether the given predicate holds for the name and the value of any field, without creating an entry for
+     * each field.
+     */
+    boolean anyMatch(BiPredicate<String, String> predicate) {
+        for (int i = 0; i < size; i++) {
+            if (predicate.test(FieldNameRegistry.getName(ids[i]), values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super String> action) {
+        // without creating an entry for each field
+        for (int i = 0; i < size; i++) {
+            action.accept(FieldNameRegistry.getName(ids[i]), values[i]);
+        }
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new FieldIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+
+    private class FieldIterator implements Iterator<Entry<String, String>> {
+
+        private int next;
+        private int last = -1;
+        private int expectedModificationCount = modificationCount;
+
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (modificationCount != expectedModificationCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            next++;
+            return new Field(ids[last]);
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (modificationCount != expectedModificationCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedModificationCount = modificationCount;
+        }
+    }
+
+    /**
+     * A field of this map, which reads and writes through to the map
+     */
+    private class Field implements Entry<String, String> {
+
+        private final int id;
+
+
+        Field(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getKey() {
+            return FieldNameRegistry.getName(id);
+        }
+
+        @Override
+        public String getValue() {
+            int index = indexOf(id);
+            return index < 0 ? null : values[index];
+        }
+
+        @Override
+        public String setValue(String value) {
+            return put(getKey(), value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> other = (Entry<?, ?>) o;
+            return getKey().equals(other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package net.sf.jabref.model.entry;
+
+import java.util.Map;
+
+/**
+ * Source of the fields of a {@link BibEntry} which are not kept in memory, but loaded when they are first accessed.
+ *
+ * @see BibEntry#setContentSource(EntryContentSource)
+ */
+public interface EntryContentSource {
+
+    /**
+     * Returns the BibTeX key of the entry, which is available without loading the entry.
+     */
+    String getCiteKey();
+
+    /**
+     * Loads all fields of the entry, including the BibTeX key.
+     */
+    Map<String, String> loadFields();
+
+    /**
+     * Loads the serialization of the entry as it was read from the file.
+     */
+    String loadParsedSerialization();
+
+    /**
+     * Is called after the fields of the given entry were loaded, e.g., to unload other entries.
+     */
+    void fieldsLoaded(BibEntry entry);
+}
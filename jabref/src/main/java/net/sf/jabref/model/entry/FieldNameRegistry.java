@@ -0,0 +1,70 @@
+package net.sf.jabref.model.entry;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Assigns small ids to field names, which are shared by all entries. Ids are never reused, as the number of distinct
+ * field names is small.
+ */
+final class FieldNameRegistry {
+
+    static final int UNKNOWN = -1;
+
+    // values of these fields repeat across many entries, so they are interned
+    private static final Set<String> INTERNED_FIELDS = new HashSet<>(Arrays.asList("journal", "journaltitle",
+            "booktitle", "publisher", "organization", "institution", "school", "address", "series", "month", "year",
+            "language", "owner"));
+
+    private static final ConcurrentMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    // indexed by id, replaced by a larger copy when a name is registered, so they can be read without locking
+    private static volatile String[] names = new String[0];
+    private static volatile boolean[] interned = new boolean[0];
+
+
+    private FieldNameRegistry() {
+    }
+
+    /**
+     * Returns the id of the given field name, registering it if necessary.
+     */
+    static int register(String name) {
+        Integer id = IDS.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (IDS) {
+            id = IDS.get(name);
+            if (id == null) {
+                id = names.length;
+                boolean[] newInterned = Arrays.copyOf(interned, id + 1);
+                newInterned[id] = INTERNED_FIELDS.contains(name);
+                interned = newInterned;
+                String[] newNames = Arrays.copyOf(names, id + 1);
+                newNames[id] = name;
+                names = newNames;
+                IDS.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Returns the id of the given field name, or {@link #UNKNOWN} if no entry ever had this field.
+     */
+    static int getId(String name) {
+        Integer id = IDS.get(name);
+        return id == null ? UNKNOWN : id;
+    }
+
+    static String getName(int id) {
+        return names[id];
+    }
+
+    static boolean isInterned(int id) {
+        return interned[id];
+    }
+}
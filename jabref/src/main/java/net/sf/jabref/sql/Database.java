@@ -20,4 +20,12 @@ public interface Database {
 
     DatabaseType getType();
 
+    /**
+     * Returns the fetch size for statements whose rows are read through a cursor holding about the given number of
+     * rows at once.
+     */
+    default int getCursorFetchSize(int rows) {
+        return rows;
+    }
+
 }
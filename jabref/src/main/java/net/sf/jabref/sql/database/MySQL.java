@@ -133,5 +133,13 @@ public class MySQL implements Database {
     public DatabaseType getType() {
         return DatabaseType.MYSQL;
     }
-}
 
+    /**
+     * Connector/J only streams the rows of a result set one by one, unless cursors are enabled in the connection URL.
+     */
+    @Override
+    public int getCursorFetchSize(int rows) {
+        return Integer.MIN_VALUE;
+    }
+
+}
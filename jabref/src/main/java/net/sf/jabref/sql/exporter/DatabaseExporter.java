@@ -15,14 +15,19 @@
  */
 package net.sf.jabref.sql.exporter;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 import java.util.stream.Collectors;
 
@@ -51,11 +56,12 @@ import net.sf.jabref.model.entry.EntryType;
 import net.sf.jabref.sql.DBImportExportDialog;
 import net.sf.jabref.sql.DBStrings;
 import net.sf.jabref.sql.Database;
+import net.sf.jabref.sql.DatabaseType;
 import net.sf.jabref.sql.DatabaseUtil;
 import net.sf.jabref.sql.SQLUtil;
 
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 
 /**
  * @author igorsteinmacher.
@@ -68,19 +74,35 @@ import org.apache.commons.logging.LogFactory;
 
 public class DatabaseExporter {
 
-    private static final Log LOGGER = LogFactory.getLog(DatabaseExporter.class);
+    /**
+     * The number of rows that are sent to the database at once by default
+     */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
 
     private final List<String> dbNames = new ArrayList<>();
     private final Database database;
 
     private DBStrings dbStrings;
 
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
     public DatabaseExporter(Database database) {
         this.database = database;
     }
 
     /**
-     * Method for the exportDatabase methods.
+     * Sets the number of rows that are sent to the database at once. Defaults to {@link #DEFAULT_BATCH_SIZE}.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Method for the exportDatabase methods. All rows are written in one transaction, which is rolled back if the
+     * export fails.
      *
      * @param databaseContext the database to export
      * @param entriesToExport The list of the entries to export.
@@ -93,33 +115,56 @@ public class DatabaseExporter {
         List<BibEntry> entries = BibDatabaseWriter.getSortedEntries(databaseContext, entriesToExport, savePrefs);
         GroupTreeNode gtn = databaseContext.getMetaData().getGroups();
 
-        final int databaseID = DatabaseUtil.getDatabaseIDByName(databaseContext, out, dbName);
-        DatabaseUtil.removeAllRecordsForAGivenDB(out, databaseID);
-        populateEntryTypesTable(out, databaseContext.getMode());
-        populateEntriesTable(databaseID, entries, out);
-        populateStringTable(databaseContext.getDatabase(), out, databaseID);
-        populateGroupTypesTable(out);
-        populateGroupsTable(gtn, 0, 1, out, databaseID);
-        populateEntryGroupsTable(gtn, 0, 1, out, databaseID);
+        boolean autoCommit = out.getAutoCommit();
+        out.setAutoCommit(false);
+        try {
+            final int databaseID = DatabaseUtil.getDatabaseIDByName(databaseContext, out, dbName);
+            DatabaseUtil.removeAllRecordsForAGivenDB(out, databaseID);
+            populateEntryTypesTable(out, databaseContext.getMode());
+            populateEntriesTable(databaseID, entries, out);
+            populateStringTable(databaseContext.getDatabase(), out, databaseID);
+            populateGroupTypesTable(out);
+            populateGroupsTable(gtn, out, databaseID);
+            out.commit();
+        } catch (Exception e) {
+            out.rollback();
+            throw e;
+        } finally {
+            out.setAutoCommit(autoCommit);
+        }
     }
 
     /**
      * Generates the DML required to populate the entries table with jabref data and writes it to the output
-     * PrintStream.
+     * PrintStream. The rows are sent in batches using a single statement, or using COPY on PostgreSQL.
      *
      * @param database_id ID of Jabref database related to the entries to be exported This information can be gathered
      *                    using getDatabaseIDByPath(metaData, connection)
      * @param entries     The BibtexEntries to export
      * @param connection  The output (PrintStream or Connection) object to which the DML should be written.
      */
-    private void populateEntriesTable(final int database_id, List<BibEntry> entries, Connection connection)
+    void populateEntriesTable(final int database_id, List<BibEntry> entries, Connection connection)
             throws SQLException {
-        for (BibEntry entry : entries) {
-            try (PreparedStatement statement = connection.prepareStatement(
-                    "INSERT INTO entries (jabref_eid, entry_types_id, cite_key, " + SQLUtil.getFieldStr() + ", database_id) "
-                            + "VALUES (?, (SELECT entry_types_id FROM entry_types WHERE label= ? ), ?, " + SQLUtil.getAllFields().stream().map(s -> "?").collect(Collectors.joining(", ")) + ", ?);")) {
+        Map<String, Integer> entryTypeIDs = getEntryTypeIDs(connection);
+        String columns = "jabref_eid, entry_types_id, cite_key, " + SQLUtil.getFieldStr() + ", database_id";
+
+        if ((database.getType() == DatabaseType.POSTGRESQL) && connection.isWrapperFor(PGConnection.class)) {
+            copyEntriesTable(database_id, entries, entryTypeIDs,
+                    connection.unwrap(PGConnection.class).getCopyAPI(), columns);
+            return;
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO entries (" + columns + ") VALUES (?, ?, ?, "
+                + SQLUtil.getAllFields().stream().map(s -> "?").collect(Collectors.joining(", ")) + ", ?);")) {
+            int batchedRows = 0;
+            for (BibEntry entry : entries) {
                 statement.setString(1, entry.getId());
-                statement.setString(2, entry.getType());
+                Integer entryTypeID = entryTypeIDs.get(entry.getType().toLowerCase());
+                if (entryTypeID == null) {
+                    statement.setNull(2, Types.INTEGER);
+                } else {
+                    statement.setInt(2, entryTypeID);
+                }
                 statement.setString(3, entry.getCiteKey());
                 int value = 4;
                 for (String field : SQLUtil.getAllFields()) {
@@ -127,68 +172,96 @@ public class DatabaseExporter {
                     value++;
                 }
                 statement.setInt(value, database_id);
-
-                statement.execute();
+                batchedRows = addBatch(statement, batchedRows);
             }
+            executeBatch(statement, batchedRows);
         }
     }
 
     /**
-     * Recursive method to include a tree of groups.
-     *
-     * @param cursor      The current GroupTreeNode in the GroupsTree
-     * @param parentID    The integer ID associated with the cursors's parent node
-     * @param currentID   The integer value to associate with the cursor
-     * @param connection  The Connection
-     * @param database_id Id of jabref database to which the group is part of
+     * Writes the entries using the COPY command of PostgreSQL, which is much faster than inserting them row by row.
      */
+    private void copyEntriesTable(final int database_id, List<BibEntry> entries, Map<String, Integer> entryTypeIDs,
+            CopyManager copyManager, String columns) throws SQLException {
+        String sql = "COPY entries (" + columns + ") FROM STDIN WITH CSV";
+        StringBuilder rows = new StringBuilder();
+        int copiedRows = 0;
+        for (BibEntry entry : entries) {
+            appendCSVValue(rows, entry.getId());
+            rows.append(',');
+            Integer entryTypeID = entryTypeIDs.get(entry.getType().toLowerCase());
+            if (entryTypeID != null) {
+                rows.append(entryTypeID);
+            }
+            rows.append(',');
+            appendCSVValue(rows, entry.getCiteKey());
+            for (String field : SQLUtil.getAllFields()) {
+                rows.append(',');
+                appendCSVValue(rows, entry.getField(field));
+            }
+            rows.append(',').append(database_id).append('\n');
 
-    private int populateEntryGroupsTable(GroupTreeNode cursor, int parentID, int currentID, Connection connection,
-            final int database_id) throws SQLException {
+            copiedRows++;
+            if (copiedRows == batchSize) {
+                copyIn(copyManager, sql, rows);
+                copiedRows = 0;
+            }
+        }
+        if (copiedRows > 0) {
+            copyIn(copyManager, sql, rows);
+        }
+    }
 
-        if (cursor == null) {
-            // no groups passed
-            return -1;
+    private static void copyIn(CopyManager copyManager, String sql, StringBuilder rows) throws SQLException {
+        try {
+            copyManager.copyIn(sql, new StringReader(rows.toString()));
+        } catch (IOException e) {
+            throw new SQLException(e);
         }
+        rows.setLength(0);
+    }
 
-        // if this group contains entries...
-        if (cursor.getGroup() instanceof ExplicitGroup) {
-            ExplicitGroup grp = (ExplicitGroup) cursor.getGroup();
-            for (BibEntry be : grp.getEntries()) {
-                SQLUtil.processQuery(connection, "INSERT INTO entry_group (entries_id, groups_id) " + "VALUES ("
-                        + "(SELECT entries_id FROM entries WHERE jabref_eid=" + '\'' + be.getId()
-                        + "' AND database_id = " + database_id + "), "
-                        + "(SELECT groups_id FROM groups WHERE database_id=" + '\'' + database_id + "' AND parent_id="
-                        + '\'' + parentID + "' AND label=" + '\'' + grp.getName() + "')" + ");");
+    /**
+     * Appends a value in the CSV format of COPY, in which an unquoted empty value stands for NULL.
+     */
+    private static void appendCSVValue(StringBuilder rows, String value) {
+        if (value != null) {
+            rows.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    /**
+     * Returns the IDs of the entry types stored in the entry_types table by their labels.
+     */
+    private static Map<String, Integer> getEntryTypeIDs(Connection connection) throws SQLException {
+        Map<String, Integer> entryTypeIDs = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT entry_types_id, label FROM entry_types")) {
+            while (rs.next()) {
+                entryTypeIDs.put(rs.getString("label"), rs.getInt("entry_types_id"));
             }
         }
+        return entryTypeIDs;
+    }
 
-        // recurse on child nodes (depth-first traversal)
-        String sql = "SELECT groups_id FROM groups WHERE label = ? AND database_id= ? AND parent_id = ? ;";
-        try (PreparedStatement statement = connection.prepareStatement(sql)) {
-
-            statement.setString(1, cursor.getGroup().getName());
-            statement.setInt(2, database_id);
-            statement.setInt(3, parentID);
-            try (ResultSet resultSet = statement.executeQuery()) {
-
-                // setting values to ID and myID to be used in case of textual SQL
-                // export
-                currentID++;
-                int myID = currentID;
-                resultSet.next();
-                myID = resultSet.getInt("groups_id");
-
-                for (GroupTreeNode child : cursor.getChildren()) {
-                    currentID = populateEntryGroupsTable(child, myID, currentID, connection, database_id);
-                }
+    /**
+     * Adds the current parameters of the statement to its batch, and executes the batch once it is full.
+     *
+     * @return the number of rows in the batch afterwards
+     */
+    private int addBatch(PreparedStatement statement, int batchedRows) throws SQLException {
+        statement.addBatch();
+        if ((batchedRows + 1) == batchSize) {
+            statement.executeBatch();
+            return 0;
+        }
+        return batchedRows + 1;
+    }
 
-            }
-            //Unfortunatley, AutoCloseable throws only Exception
-        } catch (SQLException e) {
-            LOGGER.warn("Cannot close resource", e);
+    private static void executeBatch(PreparedStatement statement, int batchedRows) throws SQLException {
+        if (batchedRows > 0) {
+            statement.executeBatch();
         }
-        return currentID;
     }
 
     /**
@@ -208,72 +281,105 @@ public class DatabaseExporter {
                 existentTypes.add(rs.getString(1));
             }
         }
-        for (EntryType val : EntryTypes.getAllValues(type)) {
-            StringBuilder querySB = new StringBuilder();
+        try (Statement statement = out.createStatement()) {
+            for (EntryType val : EntryTypes.getAllValues(type)) {
+                StringBuilder querySB = new StringBuilder();
 
-            fieldRequirement.clear();
-            for (int i = 0; i < SQLUtil.getAllFields().size(); i++) {
-                fieldRequirement.add(i, "gen");
-            }
-            List<String> reqFields = val.getRequiredFieldsFlat();
-            List<String> optFields = val.getOptionalFields();
-            List<String> utiFields = Collections.singletonList("search");
-            fieldRequirement = SQLUtil.setFieldRequirement(SQLUtil.getAllFields(), reqFields, optFields, utiFields,
-                    fieldRequirement);
-            if (existentTypes.contains(val.getName().toLowerCase())) {
-                String[] update = SQLUtil.getFieldStr().split(",");
-                querySB.append("UPDATE entry_types SET \n");
-                for (int i = 0; i < fieldRequirement.size(); i++) {
-                    querySB.append(update[i]).append("='").append(fieldRequirement.get(i)).append("',");
+                fieldRequirement.clear();
+                for (int i = 0; i < SQLUtil.getAllFields().size(); i++) {
+                    fieldRequirement.add(i, "gen");
                 }
-                querySB.delete(querySB.lastIndexOf(","), querySB.length());
-                querySB.append(" WHERE label='").append(val.getName().toLowerCase()).append("';");
-            } else {
-                querySB.append("INSERT INTO entry_types (label, ").append(SQLUtil.getFieldStr()).append(") VALUES ('")
-                        .append(val.getName().toLowerCase()).append('\'');
-                for (String aFieldRequirement : fieldRequirement) {
-                    querySB.append(", '").append(aFieldRequirement).append('\'');
+                List<String> reqFields = val.getRequiredFieldsFlat();
+                List<String> optFields = val.getOptionalFields();
+                List<String> utiFields = Collections.singletonList("search");
+                fieldRequirement = SQLUtil.setFieldRequirement(SQLUtil.getAllFields(), reqFields, optFields, utiFields,
+                        fieldRequirement);
+                if (existentTypes.contains(val.getName().toLowerCase())) {
+                    String[] update = SQLUtil.getFieldStr().split(",");
+                    querySB.append("UPDATE entry_types SET \n");
+                    for (int i = 0; i < fieldRequirement.size(); i++) {
+                        querySB.append(update[i]).append("='").append(fieldRequirement.get(i)).append("',");
+                    }
+                    querySB.delete(querySB.lastIndexOf(","), querySB.length());
+                    querySB.append(" WHERE label='").append(val.getName().toLowerCase()).append("'");
+                } else {
+                    querySB.append("INSERT INTO entry_types (label, ").append(SQLUtil.getFieldStr()).append(") VALUES ('")
+                            .append(val.getName().toLowerCase()).append('\'');
+                    for (String aFieldRequirement : fieldRequirement) {
+                        querySB.append(", '").append(aFieldRequirement).append('\'');
+                    }
+                    querySB.append(")");
                 }
-                querySB.append(");");
+                statement.addBatch(querySB.toString());
             }
-            SQLUtil.processQuery(out, querySB.toString());
+            statement.executeBatch();
         }
     }
 
     /**
-     * Recursive worker method for the populateGroupsTable methods.
+     * Writes a tree of groups to the groups table, and the entries of its explicit groups to the entry_group table.
      *
-     * @param cursor      The current GroupTreeNode in the GroupsTree
-     * @param parentID    The integer ID associated with the cursors's parent node
-     * @param currentID   The integer value to associate with the cursor
+     * @param root        The root of the groups tree
      * @param out         The output (PrintStream or Connection) object to which the DML should be written.
      * @param database_id Id of jabref database to which the groups/entries are part of
      */
-    private int populateGroupsTable(GroupTreeNode cursor, int parentID, int currentID, Connection out,
-            final int database_id) throws SQLException {
-
-        if (cursor == null) {
+    private void populateGroupsTable(GroupTreeNode root, Connection out, final int database_id)
+            throws SQLException {
+        if (root == null) {
             // no groups passed
-            return -1;
+            return;
         }
 
+        Map<String, Integer> entryIDs = new HashMap<>();
+        try (PreparedStatement statement = out
+                .prepareStatement("SELECT entries_id, jabref_eid FROM entries WHERE database_id = ?")) {
+            statement.setInt(1, database_id);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    entryIDs.put(rs.getString("jabref_eid"), rs.getInt("entries_id"));
+                }
+            }
+        }
+
+        try (PreparedStatement insertGroup = out.prepareStatement("INSERT INTO groups (label, parent_id, group_types_id, "
+                + "search_field, search_expression, case_sensitive, reg_exp, hierarchical_context, database_id) "
+                + "VALUES (?, ?, (SELECT group_types_id FROM group_types WHERE label = ?), ?, ?, ?, ?, ?, ?)");
+                PreparedStatement selectGroupID = out.prepareStatement(
+                        "SELECT groups_id FROM groups WHERE label = ? AND database_id = ? AND parent_id = ?");
+                PreparedStatement insertEntryGroup = out
+                        .prepareStatement("INSERT INTO entry_group (entries_id, groups_id) VALUES (?, ?)")) {
+            GroupStatements statements = new GroupStatements(insertGroup, selectGroupID, insertEntryGroup, entryIDs,
+                    database_id);
+            populateGroupsTable(root, 0, statements);
+            executeBatch(insertEntryGroup, statements.batchedEntryGroups);
+        }
+    }
+
+    /**
+     * Recursive worker method for the populateGroupsTable method.
+     *
+     * @param cursor   The current GroupTreeNode in the GroupsTree
+     * @param parentID The integer ID associated with the cursors's parent node
+     */
+    private void populateGroupsTable(GroupTreeNode cursor, int parentID, GroupStatements statements)
+            throws SQLException {
         AbstractGroup group = cursor.getGroup();
         String searchField = null;
         String searchExpr = null;
-        String caseSens = null;
-        String regExp = null;
+        Boolean caseSens = null;
+        Boolean regExp = null;
         GroupHierarchyType hierContext = group.getHierarchicalContext();
         if (group instanceof KeywordGroup) {
             searchField = ((KeywordGroup) group).getSearchField();
             searchExpr = ((KeywordGroup) group).getSearchExpression();
-            caseSens = ((KeywordGroup) group).isCaseSensitive() ? "1" : "0";
-            regExp = ((KeywordGroup) group).isRegExp() ? "1" : "0";
+            caseSens = ((KeywordGroup) group).isCaseSensitive();
+            regExp = ((KeywordGroup) group).isRegExp();
         } else if (group instanceof SearchGroup) {
             searchExpr = ((SearchGroup) group).getSearchExpression();
-            caseSens = ((SearchGroup) group).isCaseSensitive() ? "1" : "0";
-            regExp = ((SearchGroup) group).isRegExp() ? "1" : "0";
+            caseSens = ((SearchGroup) group).isCaseSensitive();
+            regExp = ((SearchGroup) group).isRegExp();
         }
-        // Protect all quotes in the group descriptions:
+        // The search field and expression are unquoted when they are imported
         if (searchField != null) {
             searchField = StringUtil.quote(searchField, "'", '\\');
         }
@@ -281,34 +387,53 @@ public class DatabaseExporter {
             searchExpr = StringUtil.quote(searchExpr, "'", '\\');
         }
 
-        SQLUtil.processQuery(out, "INSERT INTO groups (label, parent_id, group_types_id, search_field, "
-                + "search_expression, case_sensitive, reg_exp, hierarchical_context, database_id) " + "VALUES ('"
-                + group.getName() + "', " + parentID + ", (SELECT group_types_id FROM group_types where label='"
-                + group.getTypeId() + "')" + ", " + (searchField != null ? '\'' + searchField + '\'' : "NULL") + ", "
-                + (searchExpr != null ? '\'' + searchExpr + '\'' : "NULL") + ", "
-                + (caseSens != null ? '\'' + caseSens + '\'' : "NULL") + ", "
-                + (regExp != null ? '\'' + regExp + '\'' : "NULL") + ", " + hierContext.ordinal() + ", '" + database_id
-                + "');");
-
-        // recurse on child nodes (depth-first traversal)
-        try (Statement statement = ((Connection) out).createStatement();
-                ResultSet rs = statement.executeQuery(
-                        "SELECT groups_id FROM groups WHERE label='" + cursor.getGroup().getName() + "' AND database_id='"
-                                + database_id + "' AND parent_id='" + parentID + "';")) {
-            // setting values to ID and myID to be used in case of textual SQL
-            // export
-            int myID = currentID;
+        PreparedStatement insertGroup = statements.insertGroup;
+        insertGroup.setString(1, group.getName());
+        insertGroup.setInt(2, parentID);
+        insertGroup.setString(3, group.getTypeId());
+        insertGroup.setString(4, searchField);
+        insertGroup.setString(5, searchExpr);
+        setBoolean(insertGroup, 6, caseSens);
+        setBoolean(insertGroup, 7, regExp);
+        insertGroup.setInt(8, hierContext.ordinal());
+        insertGroup.setInt(9, statements.databaseID);
+        insertGroup.executeUpdate();
+
+        int myID;
+        PreparedStatement selectGroupID = statements.selectGroupID;
+        selectGroupID.setString(1, group.getName());
+        selectGroupID.setInt(2, statements.databaseID);
+        selectGroupID.setInt(3, parentID);
+        try (ResultSet rs = selectGroupID.executeQuery()) {
             rs.next();
             myID = rs.getInt("groups_id");
-            for (GroupTreeNode child : cursor.getChildren()) {
-                currentID++;
-                currentID = populateGroupsTable(child, myID, currentID, out, database_id);
+        }
+
+        // if this group contains entries...
+        if (group instanceof ExplicitGroup) {
+            for (BibEntry be : ((ExplicitGroup) group).getEntries()) {
+                Integer entryID = statements.entryIDs.get(be.getId());
+                if (entryID != null) {
+                    statements.insertEntryGroup.setInt(1, entryID);
+                    statements.insertEntryGroup.setInt(2, myID);
+                    statements.batchedEntryGroups = addBatch(statements.insertEntryGroup,
+                            statements.batchedEntryGroups);
+                }
             }
-        } catch (SQLException e) {
-            LOGGER.warn("Cannot close resource", e);
         }
 
-        return currentID;
+        // recurse on child nodes (depth-first traversal)
+        for (GroupTreeNode child : cursor.getChildren()) {
+            populateGroupsTable(child, myID, statements);
+        }
+    }
+
+    private static void setBoolean(PreparedStatement statement, int index, Boolean value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BOOLEAN);
+        } else {
+            statement.setBoolean(index, value);
+        }
     }
 
     /**
@@ -344,20 +469,25 @@ public class DatabaseExporter {
      *                    using getDatabaseIDByPath(metaData, out)
      * @throws SQLException
      */
-    private static void populateStringTable(BibDatabase database, Connection out, final int database_id)
+    private void populateStringTable(BibDatabase database, Connection out, final int database_id)
             throws SQLException {
-        String insert = "INSERT INTO strings (label, content, database_id) VALUES (";
-
-        if (database.getPreamble() != null) {
-            String dml = insert + "'@PREAMBLE', " + '\'' + StringUtil.quote(database.getPreamble(), "'", '\\') + "', "
-                    + '\'' + database_id + "');";
-            SQLUtil.processQuery(out, dml);
-        }
-        for (String key : database.getStringKeySet()) {
-            BibtexString string = database.getString(key);
-            String dml = insert + '\'' + StringUtil.quote(string.getName(), "'", '\\') + "', " + '\''
-                    + StringUtil.quote(string.getContent(), "'", '\\') + "', " + '\'' + database_id + '\'' + ");";
-            SQLUtil.processQuery(out, dml);
+        try (PreparedStatement statement = out
+                .prepareStatement("INSERT INTO strings (label, content, database_id) VALUES (?, ?, ?)")) {
+            int batchedRows = 0;
+            if (database.getPreamble() != null) {
+                statement.setString(1, "@PREAMBLE");
+                statement.setString(2, database.getPreamble());
+                statement.setInt(3, database_id);
+                batchedRows = addBatch(statement, batchedRows);
+            }
+            for (String key : database.getStringKeySet()) {
+                BibtexString string = database.getString(key);
+                statement.setString(1, string.getName());
+                statement.setString(2, string.getContent());
+                statement.setInt(3, database_id);
+                batchedRows = addBatch(statement, batchedRows);
+            }
+            executeBatch(statement, batchedRows);
         }
     }
 
@@ -486,4 +616,28 @@ public class DatabaseExporter {
         return (desiredName != null) && (desiredName.trim().length() > 1) && !databaseNames.contains(desiredName);
     }
 
+
+
+    /**
+     * The statements used while writing a tree of groups, along with the rows in the batch of entry_group rows.
+     */
+    private static class GroupStatements {
+
+        private final PreparedStatement insertGroup;
+        private final PreparedStatement selectGroupID;
+        private final PreparedStatement insertEntryGroup;
+        private final Map<String, Integer> entryIDs;
+        private final int databaseID;
+        private int batchedEntryGroups;
+
+
+        GroupStatements(PreparedStatement insertGroup, PreparedStatement selectGroupID,
+                PreparedStatement insertEntryGroup, Map<String, Integer> entryIDs, int databaseID) {
+            this.insertGroup = insertGroup;
+            this.selectGroupID = selectGroupID;
+            this.insertEntryGroup = insertEntryGroup;
+            this.entryIDs = entryIDs;
+            this.databaseID = databaseID;
+        }
+    }
 }
@@ -17,20 +17,29 @@
 package net.sf.jabref.sql.importer;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.StringJoiner;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import net.sf.jabref.Globals;
+import net.sf.jabref.JabRefPreferences;
 import net.sf.jabref.MetaData;
 import net.sf.jabref.logic.groups.AbstractGroup;
 import net.sf.jabref.logic.groups.AllEntriesGroup;
@@ -76,8 +85,15 @@ public class DatabaseImporter {
     );
 
 
+    /**
+     * The number of rows that are read from the database at once by default
+     */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
     private final Database database;
 
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+
     public DatabaseImporter(Database database) {
         this.database = database;
     }
@@ -99,6 +115,17 @@ public class DatabaseImporter {
         }
     }
 
+    /**
+     * Sets the number of rows that are read from the database at once, which is also the size of the pages of
+     * entries. Defaults to {@link #DEFAULT_FETCH_SIZE}.
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("The fetch size must be positive");
+        }
+        this.fetchSize = fetchSize;
+    }
+
     /**
      * Worker method to perform the import from a database
      *
@@ -117,108 +144,250 @@ public class DatabaseImporter {
     {
         List<DBImporterResult> result = new ArrayList<>();
         try (Connection conn = this.connectToDB(dbs)) {
+            for (String dbName : listOfDBs) {
+                importDatabase(conn, dbName, mode, Optional.empty()).ifPresent(result::add);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Imports a single database. The entries are read in pages of at most the fetch size, and each page is inserted
+     * into the imported database and then handed to the given consumer, like for reporting the progress. Apart from
+     * the imported database, no references to the entries are kept.
+     *
+     * @param dbName       The name of the database in the DBMS
+     * @param pageConsumer Receives the entries which were read, after they were added to the imported database
+     * @return The imported database, or an empty Optional if there is no database with the given name
+     */
+    public Optional<DBImporterResult> performImport(DBStrings dbs, String dbName, BibDatabaseMode mode,
+            Consumer<List<BibEntry>> pageConsumer)
+            throws IllegalAccessException, InstantiationException, ClassNotFoundException, SQLException {
+        try (Connection conn = this.connectToDB(dbs)) {
+            return importDatabase(conn, dbName, mode, Optional.of(pageConsumer));
+        }
+    }
 
-            Iterator<String> itLista = listOfDBs.iterator();
-            StringJoiner stringJoiner = new StringJoiner(",", "(", ")");
+    /**
+     * Reads the entries of a single database which were changed since the given time, that is, whose time stamp
+     * field is not before the given time stamp. Both time stamps are compared as dates in the time stamp format of
+     * the preferences. As changes cannot be told for entries without a time stamp, or with one in another format,
+     * these entries are always read. Strings and groups are not read. The entries are handed to the given consumer in
+     * pages of at most the fetch size.
+     * <p>
+     * The DBMS does not keep deleted entries, so the keys of all entries currently stored are returned. Entries of an
+     * earlier import whose key is not among them were deleted since.
+     *
+     * @param dbName       The name of the database in the DBMS
+     * @param changedSince A time stamp in the time stamp format of the preferences
+     * @return The keys of all entries stored in the database, or an empty Optional if there is no database with the
+     * given name
+     * @throws IllegalArgumentException if the given time stamp is not in the time stamp format
+     */
+    public Optional<Set<String>> importChangedEntries(DBStrings dbs, String dbName, BibDatabaseMode mode,
+            String changedSince, Consumer<List<BibEntry>> pageConsumer)
+            throws IllegalAccessException, InstantiationException, ClassNotFoundException, SQLException {
+        DateFormat timeStampFormat = new SimpleDateFormat(Globals.prefs.get(JabRefPreferences.TIME_STAMP_FORMAT));
+        Date since;
+        try {
+            since = timeStampFormat.parse(changedSince);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("The time stamp is not in the time stamp format: " + changedSince, e);
+        }
 
-            while (itLista.hasNext()) {
-                stringJoiner.add("'" + itLista.next() + "'");
+        try (Connection conn = this.connectToDB(dbs)) {
+            Optional<String> databaseID = findDatabaseID(conn, dbName);
+            if (!databaseID.isPresent()) {
+                return Optional.empty();
             }
 
-            String query = SQLUtil.queryAllFromTable(
-                    "jabref_database WHERE database_name IN " + stringJoiner.toString());
-            try (Statement statement = conn.createStatement();
-                 ResultSet rsDatabase = statement.executeQuery(query)) {
-                while (rsDatabase.next()) {
-                    BibDatabase database = new BibDatabase();
-                    // Find entry type IDs and their mappings to type names:
-                    HashMap<String, EntryType> types = new HashMap<>();
-                    try (Statement entryTypes = conn.createStatement();
-                            ResultSet rsEntryType = entryTypes.executeQuery(SQLUtil.queryAllFromTable("entry_types"))) {
-                        while (rsEntryType.next()) {
-                            Optional<EntryType> entryType = EntryTypes.getType(rsEntryType.getString("label"), mode);
-                            if (entryType.isPresent()) {
-                                types.put(rsEntryType.getString("entry_types_id"), entryType.get());
-                            }
-                        }
+            // First only the keys and time stamps are read, to find the changed entries
+            String timeStampColumn = SQLUtil.fieldsAsCols(
+                    Collections.singletonList(Globals.prefs.get(JabRefPreferences.TIME_STAMP_FIELD)), "");
+            Set<String> keys = new HashSet<>();
+            List<Integer> changedIds = new ArrayList<>();
+            boolean autoCommit = conn.getAutoCommit();
+            // PostgreSQL only uses a cursor within a transaction
+            conn.setAutoCommit(false);
+            try (PreparedStatement statement = prepareCursorStatement(conn,
+                    "SELECT entries_id, cite_key, " + timeStampColumn + " FROM entries WHERE database_id = ?",
+                    databaseID.get()); ResultSet rsEntries = statement.executeQuery()) {
+                while (rsEntries.next()) {
+                    String key = rsEntries.getString("cite_key");
+                    if (key != null) {
+                        keys.add(key);
                     }
+                    if (isChangedSince(rsEntries.getString(timeStampColumn), since, timeStampFormat)) {
+                        changedIds.add(rsEntries.getInt("entries_id"));
+                    }
+                }
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
 
-                    List<String> colNames = this.readColumnNames(conn).stream().filter(column -> !COLUMNS_NOT_CONSIDERED_FOR_ENTRIES.contains(column)).collect(Collectors.toList());
-
-                    final String database_id = rsDatabase.getString("database_id");
-                    // Read the entries and create BibEntry instances:
-                    HashMap<String, BibEntry> entries = new HashMap<>();
-                    try (Statement entryStatement = conn.createStatement();
-                            ResultSet rsEntries = entryStatement.executeQuery(SQLUtil.queryAllFromTable(
-                                    "entries WHERE database_id= '" + database_id + "';"))) {
-                        while (rsEntries.next()) {
-                            String id = rsEntries.getString("entries_id");
-                            BibEntry entry = new BibEntry(IdGenerator.next(), types.get(rsEntries.getString("entry_types_id")).getName());
-                            entry.setCiteKey(rsEntries.getString("cite_key"));
-                            for (String col : colNames) {
-                                String value = rsEntries.getString(col);
-                                if (value != null) {
-                                    col = col.charAt(col.length() - 1) == '_' ? col.substring(0,
-                                            col.length() - 1) : col;
-                                    entry.setField(col, value);
-                                }
-                            }
-                            entries.put(id, entry);
-                            database.insertEntry(entry);
-                        }
+            // Then the changed entries are read by their IDs, one page at a time
+            EntryReader reader = new EntryReader(conn, mode);
+            for (int start = 0; start < changedIds.size(); start += fetchSize) {
+                List<Integer> pageIds = changedIds.subList(start, Math.min(start + fetchSize, changedIds.size()));
+                String query = "SELECT * FROM entries WHERE database_id = ? AND entries_id IN ("
+                        + String.join(", ", Collections.nCopies(pageIds.size(), "?")) + ')';
+                try (PreparedStatement statement = prepareCursorStatement(conn, query, databaseID.get())) {
+                    for (int i = 0; i < pageIds.size(); i++) {
+                        statement.setInt(i + 2, pageIds.get(i));
                     }
-                    // Import strings and preamble:
-                    try (Statement stringStatement = conn.createStatement();
-                            ResultSet rsStrings = stringStatement.executeQuery(SQLUtil.queryAllFromTable(
-                                    "strings WHERE database_id='" + database_id + '\''))) {
-                        while (rsStrings.next()) {
-                            String label = rsStrings.getString("label");
-                            String content = rsStrings.getString("content");
-                            if ("@PREAMBLE".equals(label)) {
-                                database.setPreamble(content);
-                            } else {
-                                BibtexString string = new BibtexString(IdGenerator.next(), label, content);
-                                database.addString(string);
-                            }
+                    List<BibEntry> page = new ArrayList<>(pageIds.size());
+                    try (ResultSet rsEntries = statement.executeQuery()) {
+                        while (rsEntries.next()) {
+                            page.add(reader.createEntry(rsEntries));
                         }
                     }
-                    MetaData metaData = new MetaData();
-                    metaData.initializeNewDatabase();
-                    // Read the groups tree:
-                    importGroupsTree(metaData, entries, conn, database_id);
-                    result.add(new DBImporterResult(database, metaData, rsDatabase.getString("database_name")));
+                    pageConsumer.accept(page);
                 }
             }
+            return Optional.of(keys);
         }
+    }
 
-        return result;
+    private static boolean isChangedSince(String timeStamp, Date since, DateFormat timeStampFormat) {
+        if (timeStamp == null) {
+            return true;
+        }
+        try {
+            return !timeStampFormat.parse(timeStamp).before(since);
+        } catch (ParseException e) {
+            return true;
+        }
+    }
+
+    private Optional<DBImporterResult> importDatabase(Connection conn, String dbName, BibDatabaseMode mode,
+            Optional<Consumer<List<BibEntry>>> pageConsumer) throws SQLException {
+        Optional<String> databaseID = findDatabaseID(conn, dbName);
+        if (!databaseID.isPresent()) {
+            return Optional.empty();
+        }
+
+        MetaData metaData = new MetaData();
+        metaData.initializeNewDatabase();
+        // Read the groups tree first, so the entries can be added to their groups while they are read:
+        Map<String, List<ExplicitGroup>> groupsOfEntries = importGroupsTree(metaData, conn, databaseID.get());
+
+        BibDatabase database = new BibDatabase();
+        readEntries(conn, databaseID.get(), mode, page -> {
+            for (Map.Entry<String, BibEntry> idAndEntry : page.entrySet()) {
+                BibEntry entry = idAndEntry.getValue();
+                database.insertEntry(entry);
+                List<ExplicitGroup> groups = groupsOfEntries.remove(idAndEntry.getKey());
+                if (groups != null) {
+                    groups.forEach(group -> group.addEntry(entry));
+                }
+            }
+            pageConsumer.ifPresent(consumer -> consumer.accept(new ArrayList<>(page.values())));
+        });
+
+        // Import strings and preamble:
+        try (PreparedStatement stringStatement = prepareCursorStatement(conn,
+                "SELECT label, content FROM strings WHERE database_id = ?", databaseID.get());
+                ResultSet rsStrings = stringStatement.executeQuery()) {
+            while (rsStrings.next()) {
+                String label = rsStrings.getString("label");
+                String content = rsStrings.getString("content");
+                if ("@PREAMBLE".equals(label)) {
+                    database.setPreamble(content);
+                } else {
+                    BibtexString string = new BibtexString(IdGenerator.next(), label, content);
+                    database.addString(string);
+                }
+            }
+        }
+        return Optional.of(new DBImporterResult(database, metaData, dbName));
+    }
+
+    private static Optional<String> findDatabaseID(Connection conn, String dbName) throws SQLException {
+        try (PreparedStatement statement = conn
+                .prepareStatement("SELECT database_id FROM jabref_database WHERE database_name = ?")) {
+            statement.setString(1, dbName);
+            try (ResultSet rsDatabase = statement.executeQuery()) {
+                if (rsDatabase.next()) {
+                    return Optional.of(rsDatabase.getString("database_id"));
+                }
+                return Optional.empty();
+            }
+        }
     }
 
     /**
-     * Look up the group type name from the type ID in the database.
-     *
-     * @param groupId The database's groups id
-     * @param conn    The database connection
-     * @return The name (JabRef type id) of the group type.
-     * @throws SQLException
+     * Reads the entries of a database through a cursor, and hands them to the consumer in pages which map the IDs
+     * of the entries in the DBMS to the entries. The pages are not kept.
+     */
+    private void readEntries(Connection conn, String database_id, BibDatabaseMode mode,
+            Consumer<Map<String, BibEntry>> pageConsumer) throws SQLException {
+        EntryReader reader = new EntryReader(conn, mode);
+
+        // PostgreSQL only uses a cursor within a transaction
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement entryStatement = prepareCursorStatement(conn,
+                "SELECT * FROM entries WHERE database_id = ?", database_id);
+                ResultSet rsEntries = entryStatement.executeQuery()) {
+            Map<String, BibEntry> page = new LinkedHashMap<>();
+            while (rsEntries.next()) {
+                page.put(rsEntries.getString("entries_id"), reader.createEntry(rsEntries));
+                if (page.size() == fetchSize) {
+                    pageConsumer.accept(page);
+                    page = new LinkedHashMap<>();
+                }
+            }
+            if (!page.isEmpty()) {
+                pageConsumer.accept(page);
+            }
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Prepares a query with the ID of a database as its first parameter, whose rows are read through a cursor.
      */
-    private String findGroupTypeName(String groupId, Connection conn) throws SQLException {
-        return SQLUtil.processQueryWithSingleResult(conn,
-                "SELECT label FROM group_types WHERE group_types_id='" + groupId + "';");
+    private PreparedStatement prepareCursorStatement(Connection conn, String query, String database_id)
+            throws SQLException {
+        PreparedStatement statement = conn.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY,
+                ResultSet.CONCUR_READ_ONLY);
+        statement.setFetchSize(database.getCursorFetchSize(fetchSize));
+        statement.setInt(1, Integer.parseInt(database_id));
+        return statement;
     }
 
-    private void importGroupsTree(MetaData metaData, Map<String, BibEntry> entries, Connection conn,
+    /**
+     * Reads the group types and groups of a database into the groups tree of the given meta data.
+     *
+     * @return The explicit groups of each entry which belongs to any, by the ID of the entry in the DBMS
+     */
+    private Map<String, List<ExplicitGroup>> importGroupsTree(MetaData metaData, Connection conn,
             final String database_id) throws SQLException {
+        Map<String, String> groupTypeNames = new HashMap<>();
+        try (Statement statement = conn.createStatement();
+                ResultSet rsGroupTypes = statement.executeQuery("SELECT group_types_id, label FROM group_types")) {
+            while (rsGroupTypes.next()) {
+                groupTypeNames.put(rsGroupTypes.getString("group_types_id"), rsGroupTypes.getString("label"));
+            }
+        }
+
         Map<String, GroupTreeNode> groups = new HashMap<>();
         LinkedHashMap<GroupTreeNode, String> parentIds = new LinkedHashMap<>();
         GroupTreeNode rootNode = new GroupTreeNode(new AllEntriesGroup());
 
-        String query = SQLUtil.queryAllFromTable("groups WHERE database_id='" + database_id + "' ORDER BY groups_id");
-        try (Statement statement = conn.createStatement();
-             ResultSet rsGroups = statement.executeQuery(query)) {
+        try (PreparedStatement statement = prepareCursorStatement(conn,
+                "SELECT * FROM groups WHERE database_id = ? ORDER BY groups_id", database_id);
+             ResultSet rsGroups = statement.executeQuery()) {
             while (rsGroups.next()) {
                 AbstractGroup group = null;
-                String typeId = findGroupTypeName(rsGroups.getString("group_types_id"), conn);
+                String typeId = groupTypeNames.get(rsGroups.getString("group_types_id"));
+                if (typeId == null) {
+                    continue;
+                }
                 switch (typeId) {
                     case AllEntriesGroup.ID:
                         // register the id of the root node:
@@ -250,34 +419,79 @@ public class DatabaseImporter {
                     parentIds.put(node, rsGroups.getString("parent_id"));
                     groups.put(rsGroups.getString("groups_id"), node);
                 }
+            }
+        }
 
-                // Ok, we have collected a map of all groups and their parent IDs,
-                // and another map of all group IDs and their group nodes.
-                // Now we need to build the groups tree:
-                for (Map.Entry<GroupTreeNode, String> groupTreeNodeStringEntry : parentIds.entrySet()) {
-                    String parentId = groupTreeNodeStringEntry.getValue();
-                    GroupTreeNode parent = groups.get(parentId);
-                    if (parent == null) {
-                        // TODO: missing parent
-                    } else {
-                        groupTreeNodeStringEntry.getKey().moveTo(parent);
-                    }
+        // Ok, we have collected a map of all groups and their parent IDs,
+        // and another map of all group IDs and their group nodes.
+        // Now we need to build the groups tree:
+        for (Map.Entry<GroupTreeNode, String> groupTreeNodeStringEntry : parentIds.entrySet()) {
+            String parentId = groupTreeNodeStringEntry.getValue();
+            GroupTreeNode parent = groups.get(parentId);
+            if (parent == null) {
+                // TODO: missing parent
+            } else {
+                groupTreeNodeStringEntry.getKey().moveTo(parent);
+            }
+        }
+
+        Map<String, List<ExplicitGroup>> groupsOfEntries = new HashMap<>();
+        try (PreparedStatement entryGroup = prepareCursorStatement(conn,
+                "SELECT entry_group.entries_id, entry_group.groups_id FROM entry_group "
+                        + "JOIN groups ON entry_group.groups_id = groups.groups_id WHERE groups.database_id = ?",
+                database_id);
+                ResultSet rsEntryGroup = entryGroup.executeQuery()) {
+            while (rsEntryGroup.next()) {
+                String entryId = rsEntryGroup.getString("entries_id");
+                String groupId = rsEntryGroup.getString("groups_id");
+                GroupTreeNode node = groups.get(groupId);
+                if ((node != null) && (node.getGroup() instanceof ExplicitGroup)) {
+                    groupsOfEntries.computeIfAbsent(entryId, k -> new ArrayList<>(1))
+                            .add((ExplicitGroup) node.getGroup());
                 }
+            }
+        }
+        metaData.setGroups(rootNode);
+        return groupsOfEntries;
+    }
 
-                try (Statement entryGroup = conn.createStatement();
-                        ResultSet rsEntryGroup = entryGroup.executeQuery(SQLUtil.queryAllFromTable("entry_group"))) {
-                    while (rsEntryGroup.next()) {
-                        String entryId = rsEntryGroup.getString("entries_id");
-                        String groupId = rsEntryGroup.getString("groups_id");
-                        GroupTreeNode node = groups.get(groupId);
-                        if ((node != null) && (node.getGroup() instanceof ExplicitGroup)) {
-                            ExplicitGroup expGroup = (ExplicitGroup) node.getGroup();
-                            expGroup.addEntry(entries.get(entryId));
-                        }
+    /**
+     * Creates entries from the rows of the entries table
+     */
+    private class EntryReader {
+
+        private final Map<String, EntryType> types = new HashMap<>();
+        private final List<String> colNames;
+
+
+        EntryReader(Connection conn, BibDatabaseMode mode) throws SQLException {
+            // Find entry type IDs and their mappings to type names:
+            try (Statement entryTypes = conn.createStatement();
+                    ResultSet rsEntryType = entryTypes.executeQuery(SQLUtil.queryAllFromTable("entry_types"))) {
+                while (rsEntryType.next()) {
+                    Optional<EntryType> entryType = EntryTypes.getType(rsEntryType.getString("label"), mode);
+                    if (entryType.isPresent()) {
+                        types.put(rsEntryType.getString("entry_types_id"), entryType.get());
                     }
                 }
-                metaData.setGroups(rootNode);
             }
+
+            colNames = readColumnNames(conn).stream()
+                    .filter(column -> !COLUMNS_NOT_CONSIDERED_FOR_ENTRIES.contains(column))
+                    .collect(Collectors.toList());
+        }
+
+        BibEntry createEntry(ResultSet rsEntries) throws SQLException {
+            BibEntry entry = new BibEntry(IdGenerator.next(), types.get(rsEntries.getString("entry_types_id")).getName());
+            entry.setCiteKey(rsEntries.getString("cite_key"));
+            for (String col : colNames) {
+                String value = rsEntries.getString(col);
+                if (value != null) {
+                    col = col.charAt(col.length() - 1) == '_' ? col.substring(0, col.length() - 1) : col;
+                    entry.setField(col, value);
+                }
+            }
+            return entry;
         }
     }
 
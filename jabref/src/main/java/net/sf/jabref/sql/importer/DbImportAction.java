@@ -19,8 +19,11 @@ import java.awt.event.ActionEvent;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -33,6 +36,7 @@ import net.sf.jabref.gui.JabRefFrame;
 import net.sf.jabref.gui.actions.MnemonicAwareAction;
 import net.sf.jabref.gui.worker.AbstractWorker;
 import net.sf.jabref.logic.l10n.Localization;
+import net.sf.jabref.model.database.BibDatabaseMode;
 import net.sf.jabref.sql.DBConnectDialog;
 import net.sf.jabref.sql.DBExporterAndImporterFactory;
 import net.sf.jabref.sql.DBImportExportDialog;
@@ -159,10 +163,19 @@ public class DbImportAction extends AbstractWorker {
                         DatabaseUtil.removeDB(dialogo, dbName, conn, databaseContext);
                         performImport();
                     } else if (dialogo.moreThanOne) {
-                        databases = importer.performImport(dbs, dialogo.listOfDBs, frame.getCurrentBasePanel().getBibDatabaseContext().getMode());
-                        for (DBImporterResult res : databases) {
-                            databaseContext = res.getDatabaseContext();
-                            dbs.isConfigValid(true);
+                        BibDatabaseMode mode = frame.getCurrentBasePanel().getBibDatabaseContext().getMode();
+                        databases = new ArrayList<>();
+                        for (String dbName : dialogo.listOfDBs) {
+                            // the entries are read in pages, report the progress after each one
+                            AtomicInteger entryCount = new AtomicInteger();
+                            Optional<DBImporterResult> res = importer.performImport(dbs, dbName, mode,
+                                    page -> frame.output(dbName + " - " + Localization.lang("Imported entries") + ": "
+                                            + entryCount.addAndGet(page.size())));
+                            if (res.isPresent()) {
+                                databases.add(res.get());
+                                databaseContext = res.get().getDatabaseContext();
+                                dbs.isConfigValid(true);
+                            }
                         }
                         frame.output(Localization.lang("%0 databases will be imported",
                                 Integer.toString(databases.size())));
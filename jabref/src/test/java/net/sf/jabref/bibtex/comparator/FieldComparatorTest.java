@@ -0,0 +1,58 @@
+package net.sf.jabref.bibtex.comparator;
+
+import net.sf.jabref.Globals;
+import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.model.entry.BibEntry;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FieldComparatorTest {
+
+    @BeforeClass
+    public static void setUp() {
+        Globals.prefs = JabRefPreferences.getInstance();
+    }
+
+    private static BibEntry createEntry(String field, String value) {
+        BibEntry entry = new BibEntry();
+        entry.setField(field, value);
+        return entry;
+    }
+
+    @Test
+    public void testCompareAuthorsByLastName() {
+        FieldComparator comparator = new FieldComparator("author");
+        BibEntry einstein = createEntry("author", "Albert Einstein");
+        BibEntry bohr = createEntry("author", "Niels Bohr");
+        assertTrue(comparator.compare(einstein, bohr) > 0);
+        assertTrue(comparator.compareSortKeys(comparator.getSortKey(einstein), comparator.getSortKey(bohr)) > 0);
+    }
+
+    @Test
+    public void testCompareYears() {
+        FieldComparator comparator = new FieldComparator("year");
+        assertEquals(2016, comparator.getSortKey(createEntry("year", "2016")));
+        assertEquals(0, comparator.getSortKey(createEntry("year", "unknown")));
+        assertTrue(comparator.compare(createEntry("year", "2016"), createEntry("year", "987")) > 0);
+    }
+
+    @Test
+    public void testMissingFieldIsSortedLast() {
+        FieldComparator comparator = new FieldComparator("title");
+        BibEntry withoutTitle = new BibEntry();
+        assertEquals(null, comparator.getSortKey(withoutTitle));
+        assertTrue(comparator.compare(withoutTitle, createEntry("title", "A title")) > 0);
+        assertTrue(new FieldComparator("title", true).compare(withoutTitle, createEntry("title", "A title")) < 0);
+    }
+
+    @Test
+    public void testSortKeyIsLowerCase() {
+        FieldComparator comparator = new FieldComparator("title");
+        assertEquals("a title", comparator.getSortKey(createEntry("title", "A Title")));
+        assertEquals(0, comparator.compare(createEntry("title", "A Title"), createEntry("title", "a title")));
+    }
+}
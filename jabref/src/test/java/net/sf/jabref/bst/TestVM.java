@@ -406,7 +406,7 @@ public class TestVM {
         vm.run(v);
 
         Assert.assertEquals(Integer.MAX_VALUE, vm.getStack().pop());
-        Assert.assertTrue(vm.getStack().empty());
+        Assert.assertTrue(vm.getStack().isEmpty());
     }
 
     @Test
@@ -422,6 +422,21 @@ public class TestVM {
         Assert.assertEquals(VM.TRUE, vm.getStack().pop());
     }
 
+    @Test
+    public void testIdentifierIsResolvedAgainAfterDeclaration() throws RecognitionException {
+        VM vm = new VM("FUNCTION {a} { #1 } "
+                + "FUNCTION {test} { a } "
+                + "EXECUTE {test} "
+                + "INTEGERS { a } "
+                + "EXECUTE {test} ");
+
+        vm.run(new ArrayList<>());
+
+        Assert.assertEquals(0, vm.getStack().pop());
+        Assert.assertEquals(1, vm.getStack().pop());
+        Assert.assertTrue(vm.getStack().isEmpty());
+    }
+
     @Test
     public void testWhile() throws RecognitionException {
 
@@ -670,6 +685,47 @@ public class TestVM {
         Assert.assertTrue(vm.run(v).contains("J.-P. Sartre"));
     }
 
+    @Test
+    public void testParallelIterationEqualsSequentialIteration() throws RecognitionException, IOException {
+        List<BibEntry> v = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            v.add(TestVM.bibtexString2BibtexEntry("@article{key" + i + ", author = \"Jean-Paul Sartre and Author "
+                    + (i % 7) + "\", title = \"Title " + i + "\", journal = \"Journal\", year = \"" + (2000 + (i % 13))
+                    + "\" }"));
+        }
+
+        VM sequential = new VM(new File("src/test/resources/net/sf/jabref/bst/abbrv.bst"));
+        sequential.setMinimumEntriesForParallelIteration(Integer.MAX_VALUE);
+        VM parallel = new VM(new File("src/test/resources/net/sf/jabref/bst/abbrv.bst"));
+        parallel.setMinimumEntriesForParallelIteration(1);
+
+        Assert.assertEquals(sequential.run(v), parallel.run(v));
+        Assert.assertEquals(sequential.getIntegers(), parallel.getIntegers());
+        Assert.assertEquals(sequential.getStrings(), parallel.getStrings());
+    }
+
+    @Test
+    public void testParallelIterationKeepsOrderOfDependentExecutions() throws RecognitionException, IOException {
+        VM vm = new VM("ENTRY { } { number } { } "
+                + "INTEGERS { count } "
+                + "FUNCTION {count.entry} { count #1 + 'count := count 'number := } "
+                + "FUNCTION {show} { number int.to.str$ write$ newline$ } "
+                + "READ ITERATE {count.entry} ITERATE {show}");
+        vm.setMinimumEntriesForParallelIteration(1);
+
+        List<BibEntry> v = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            v.add(TestVM.bibtexString2BibtexEntry("@misc{key" + i + ", title = \"Title\" }"));
+        }
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 1; i <= 20; i++) {
+            expected.append(i).append('\n');
+        }
+        Assert.assertEquals(expected.toString(), vm.run(v));
+        Assert.assertEquals(Integer.valueOf(20), vm.getIntegers().get("count"));
+    }
+
     private BibEntry t1BibtexEntry() throws IOException {
         return TestVM.bibtexString2BibtexEntry(t1BibtexString());
     }
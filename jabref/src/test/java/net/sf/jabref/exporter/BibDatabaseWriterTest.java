@@ -16,6 +16,7 @@ import net.sf.jabref.Defaults;
 import net.sf.jabref.Globals;
 import net.sf.jabref.JabRefPreferences;
 import net.sf.jabref.MetaData;
+import net.sf.jabref.bibtex.BibEntryWriter;
 import net.sf.jabref.importer.ImportFormatReader;
 import net.sf.jabref.importer.ParserResult;
 import net.sf.jabref.importer.fileformat.BibtexParser;
@@ -40,9 +41,14 @@ import net.sf.jabref.model.entry.IdGenerator;
 import com.google.common.base.Charsets;
 import org.junit.Before;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
 public class BibDatabaseWriterTest {
@@ -53,6 +59,9 @@ public class BibDatabaseWriterTest {
     private MetaData metaData;
     private BibDatabaseContext bibtexContext;
 
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
     @BeforeClass
     public static void setUpClass() {
         Globals.prefs = JabRefPreferences.getInstance();
@@ -542,4 +551,69 @@ public class BibDatabaseWriterTest {
                         + Globals.NEWLINE
                 , stringWriter.toString());
     }
+
+    @Test
+    public void savedEntryIsWrittenAsItIsOnNextSave() throws Exception {
+        BibEntry entry = new BibEntry(IdGenerator.next());
+        entry.setType(BibtexEntryTypes.MISC);
+        entry.setField("title", "A title");
+        database.insertEntry(entry);
+
+        SavePreferences preferences = new SavePreferences().withEncoding(StandardCharsets.UTF_8);
+        SaveSession session = databaseWriter.saveDatabase(bibtexContext, preferences);
+        session.commit(testFolder.newFile());
+        assertTrue(entry.hasChanged());
+        session.updateEntrySerializations();
+        assertFalse(entry.hasChanged());
+        assertEquals(Globals.NEWLINE + "@Misc{," + Globals.NEWLINE + "  title = {A title}," + Globals.NEWLINE + "}"
+                + Globals.NEWLINE, entry.getParsedSerialization());
+
+        databaseWriter.writePartOfDatabase(stringWriter, bibtexContext, database.getEntries(), preferences);
+        StringWriter secondWriter = new StringWriter();
+        databaseWriter.writePartOfDatabase(secondWriter, bibtexContext, database.getEntries(), preferences);
+        assertEquals(stringWriter.toString(), secondWriter.toString());
+    }
+
+    @Test
+    public void writtenEntryStaysChanged() throws IOException {
+        BibEntry entry = new BibEntry(IdGenerator.next());
+        entry.setType(BibtexEntryTypes.MISC);
+        entry.setField("title", "A title");
+        database.insertEntry(entry);
+
+        databaseWriter.writePartOfDatabase(stringWriter, bibtexContext, database.getEntries(), new SavePreferences());
+        assertTrue(entry.hasChanged());
+        assertNull(entry.getParsedSerialization());
+    }
+
+    @Test
+    public void entryChangedWhileWritingIsFormattedAgain() throws IOException {
+        BibEntry entry = new BibEntry(IdGenerator.next());
+        entry.setType(BibtexEntryTypes.MISC);
+        entry.setField("title", "A title");
+
+        int changeCount = entry.getChangeCount();
+        entry.setField("title", "Another title");
+        assertFalse(entry.updateSerialization("@Misc{, title = {A title}}", changeCount));
+        assertTrue(entry.hasChanged());
+    }
+
+    @Test
+    public void writeManyEntriesFormattedInParallelInTheirOrder() throws IOException {
+        StringWriter expected = new StringWriter();
+        BibEntryWriter entryWriter = new BibEntryWriter(new LatexFieldFormatter(), true);
+        for (int i = 0; i < 2500; i++) {
+            BibEntry entry = new BibEntry(IdGenerator.next());
+            entry.setType(BibtexEntryTypes.MISC);
+            entry.setField("title", "Title " + i);
+            entry.setCiteKey("key" + i);
+            database.insertEntry(entry);
+            entryWriter.write(entry, expected, BibDatabaseMode.BIBTEX);
+        }
+        expected.write(Globals.NEWLINE + "@Comment{jabref-meta: databaseType:bibtex;}" + Globals.NEWLINE);
+
+        databaseWriter.writePartOfDatabase(stringWriter, bibtexContext, database.getEntries(), new SavePreferences());
+
+        assertEquals(expected.toString(), stringWriter.toString());
+    }
 }
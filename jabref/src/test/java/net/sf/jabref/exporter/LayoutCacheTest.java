@@ -0,0 +1,65 @@
+package net.sf.jabref.exporter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.jabref.logic.journals.JournalAbbreviationRepository;
+import net.sf.jabref.logic.layout.Layout;
+import net.sf.jabref.logic.layout.LayoutHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class LayoutCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+
+    @Before
+    public void setUp() {
+        LayoutCache.clear();
+    }
+
+    @After
+    public void tearDown() {
+        LayoutCache.clear();
+    }
+
+    private Layout load() throws IOException {
+        loads.incrementAndGet();
+        return new LayoutHelper(new StringReader("\\author"), mock(JournalAbbreviationRepository.class))
+                .getLayoutFromText();
+    }
+
+    @Test
+    public void testLayoutIsLoadedOnce() throws IOException {
+        Layout first = LayoutCache.getLayout("test.layout", Arrays.asList(1L, 10L), this::load);
+        Layout second = LayoutCache.getLayout("test.layout", Arrays.asList(1L, 10L), this::load);
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testLayoutIsLoadedAgainForOtherVersion() throws IOException {
+        Layout first = LayoutCache.getLayout("test.layout", Arrays.asList(1L, 10L), this::load);
+        Layout second = LayoutCache.getLayout("test.layout", Arrays.asList(2L, 10L), this::load);
+        assertNotSame(first, second);
+        assertSame(second, LayoutCache.getLayout("test.layout", Arrays.asList(2L, 10L), this::load));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testLayoutsAreStoredByName() throws IOException {
+        LayoutCache.getLayout("test.layout", Arrays.asList(1L, 10L), this::load);
+        LayoutCache.getLayout("test.article.layout", Arrays.asList(1L, 10L), this::load);
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,106 @@
+package net.sf.jabref.gui.maintable;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.jabref.model.database.BibDatabase;
+import net.sf.jabref.model.entry.BibEntry;
+import net.sf.jabref.model.entry.BibtexString;
+import net.sf.jabref.model.entry.IdGenerator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MainTableValueCacheTest {
+
+    private final AtomicInteger computations = new AtomicInteger();
+    private MainTableValueCache cache;
+    private BibDatabase database;
+    private BibEntry entry;
+
+
+    @Before
+    public void setUp() {
+        cache = new MainTableValueCache();
+        database = new BibDatabase();
+        database.addDatabaseChangeListener(cache);
+        entry = new BibEntry();
+        entry.setField("title", "A title");
+        database.insertEntry(entry);
+    }
+
+    private Object getTitle(BibEntry bibEntry) {
+        computations.incrementAndGet();
+        return bibEntry.getField("title");
+    }
+
+    private Object getResolvedTitle(BibEntry bibEntry) {
+        return database.resolveForStrings((String) getTitle(bibEntry));
+    }
+
+    @Test
+    public void testValueIsComputedOnce() {
+        assertEquals("A title", cache.get(entry, "title", this::getTitle));
+        assertEquals("A title", cache.get(entry, "title", this::getTitle));
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    public void testNullIsComputedOnce() {
+        entry.clearField("title");
+        assertNull(cache.get(entry, "title", this::getTitle));
+        assertNull(cache.get(entry, "title", this::getTitle));
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    public void testValueIsComputedAgainAfterFieldChange() {
+        cache.get(entry, "title", this::getTitle);
+        entry.setField("title", "Another title");
+        assertEquals("Another title", cache.get(entry, "title", this::getTitle));
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    public void testEqualEntriesAreStoredSeparately() {
+        BibEntry other = new BibEntry();
+        other.setField("title", "A title");
+        database.insertEntry(other);
+        cache.get(entry, "title", this::getTitle);
+        cache.get(other, "title", this::getTitle);
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    public void testValueIsComputedAgainAfterClear() {
+        cache.get(entry, "title", this::getTitle);
+        cache.clear();
+        cache.get(entry, "title", this::getTitle);
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    public void testValueIsComputedAgainAfterStringChange() {
+        BibtexString string = new BibtexString(IdGenerator.next(), "acm", "ACM");
+        database.addString(string);
+        entry.setField("title", "#acm#");
+        assertEquals("ACM", cache.get(entry, "title", this::getResolvedTitle));
+
+        string.setContent("Association for Computing Machinery");
+        assertEquals("Association for Computing Machinery",
+                cache.get(entry, "title", this::getResolvedTitle));
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    public void testValueIsComputedAgainAfterStringRemoval() {
+        BibtexString string = new BibtexString(IdGenerator.next(), "acm", "ACM");
+        database.addString(string);
+        cache.get(entry, "title", this::getTitle);
+        database.removeString(string.getId());
+        cache.get(entry, "title", this::getTitle);
+        assertEquals(2, computations.get());
+    }
+}
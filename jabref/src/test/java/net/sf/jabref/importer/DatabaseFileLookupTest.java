@@ -1,11 +1,14 @@
 package net.sf.jabref.importer;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 
 import net.sf.jabref.Globals;
 import net.sf.jabref.JabRefPreferences;
@@ -15,7 +18,9 @@ import net.sf.jabref.model.entry.BibEntry;
 
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * @author Nosh&Dan
@@ -23,6 +28,9 @@ import org.junit.Test;
  */
 public class DatabaseFileLookupTest {
 
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
     private BibDatabase database;
     private Collection<BibEntry> entries;
 
@@ -56,4 +64,37 @@ public class DatabaseFileLookupTest {
         Assert.assertNotNull(entry2);
     }
 
+    @Test
+    public void testLinkedFileIsFoundInFileDirectory() throws IOException {
+        File linked = testFolder.newFile("Smith2010.pdf");
+        File unlinked = testFolder.newFile("Jones2010.pdf");
+        BibEntry entry = new BibEntry();
+        entry.setField(Globals.FILE_FIELD, ":Smith2010.pdf:PDF");
+        BibDatabase linkingDatabase = new BibDatabase();
+        linkingDatabase.insertEntry(entry);
+
+        DatabaseFileLookup lookup = new DatabaseFileLookup(linkingDatabase,
+                Collections.singletonList(testFolder.getRoot().getPath()));
+
+        Assert.assertTrue(lookup.lookupDatabase(linked));
+        Assert.assertFalse(lookup.lookupDatabase(unlinked));
+    }
+
+    @Test
+    public void testLinkExpandedToFileInEarlierDirectoryDoesNotLinkLaterOne() throws IOException {
+        testFolder.newFolder("first");
+        testFolder.newFolder("second");
+        File first = testFolder.newFile("first/Smith2010.pdf");
+        File second = testFolder.newFile("second/Smith2010.pdf");
+        BibEntry entry = new BibEntry();
+        entry.setField(Globals.FILE_FIELD, ":Smith2010.pdf:PDF");
+        BibDatabase linkingDatabase = new BibDatabase();
+        linkingDatabase.insertEntry(entry);
+
+        DatabaseFileLookup lookup = new DatabaseFileLookup(linkingDatabase,
+                Arrays.asList(first.getParent(), second.getParent()));
+
+        Assert.assertTrue(lookup.lookupDatabase(first));
+        Assert.assertFalse(lookup.lookupDatabase(second));
+    }
 }
@@ -1,6 +1,9 @@
 package net.sf.jabref.importer;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.List;
 
 import net.sf.jabref.Globals;
@@ -8,13 +11,19 @@ import net.sf.jabref.JabRefPreferences;
 import net.sf.jabref.model.entry.BibEntry;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
 public class ImportFormatReaderTestParameterless {
 
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
     private ImportFormatReader reader;
     private ImportFormatReader.UnknownFormatImport unknownFormat;
     public List<BibEntry> result;
@@ -32,6 +41,20 @@ public class ImportFormatReaderTestParameterless {
         assertNull(unknownFormat);
     }
 
+    @Test
+    public void testImportUnknownFormatLargerThanRecognizedBeginning() throws IOException {
+        StringBuilder ris = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            ris.append("TY  - JOUR\nAU  - Smith, John\nTI  - Title ").append(i).append("\nER  - \n");
+        }
+        File file = testFolder.newFile("large.ris");
+        Files.write(file.toPath(), ris.toString().getBytes(StandardCharsets.UTF_8));
+
+        unknownFormat = reader.importUnknownFormat(file.getPath());
+        assertEquals("RIS", unknownFormat.format);
+        assertEquals(2000, unknownFormat.parserResult.getDatabase().getEntryCount());
+    }
+
     @Test(expected = NullPointerException.class)
     public void testNullImportUnknownFormat() {
         unknownFormat = reader.importUnknownFormat(null);
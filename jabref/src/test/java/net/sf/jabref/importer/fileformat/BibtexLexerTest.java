@@ -0,0 +1,108 @@
+package net.sf.jabref.importer.fileformat;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BibtexLexerTest {
+
+    @Test
+    public void testReadAndUnread() throws IOException {
+        BibtexLexer lexer = new BibtexLexer(new StringReader("ab\nc"), 64);
+        assertEquals('a', lexer.read());
+        assertEquals('b', lexer.peek());
+        assertEquals('b', lexer.read());
+        assertEquals('\n', lexer.read());
+        assertEquals(2, lexer.getLine());
+        lexer.unread('\n');
+        assertEquals(1, lexer.getLine());
+        assertEquals('\n', lexer.read());
+        assertEquals('c', lexer.read());
+        assertEquals(BibtexLexer.EOF, lexer.read());
+    }
+
+    @Test
+    public void testUnreadOtherCharacters() throws IOException {
+        BibtexLexer lexer = new BibtexLexer(new StringReader("ab c"), 64);
+        assertEquals('a', lexer.read());
+        assertEquals('b', lexer.read());
+        assertEquals(' ', lexer.read());
+        lexer.unread('x');
+        lexer.unread('y');
+        lexer.unread('z');
+        lexer.unread('\n');
+        assertEquals(0, lexer.getLine());
+        assertEquals('\n', lexer.read());
+        assertEquals('z', lexer.read());
+        assertEquals('y', lexer.read());
+        assertEquals('x', lexer.read());
+        assertEquals('c', lexer.read());
+        assertEquals(BibtexLexer.EOF, lexer.read());
+        assertEquals("ab c", lexer.getTextSinceMark());
+    }
+
+    @Test
+    public void testUnreadEofReturnsEofCharacter() throws IOException {
+        BibtexLexer lexer = new BibtexLexer(new StringReader("a"), 64);
+        assertEquals('a', lexer.read());
+        assertEquals(BibtexLexer.EOF, lexer.read());
+        lexer.unread(BibtexLexer.EOF);
+        assertEquals(65535, lexer.read());
+        assertEquals(BibtexLexer.EOF, lexer.read());
+        assertEquals("a", lexer.getTextSinceMark());
+    }
+
+    @Test
+    public void testTextSinceMark() throws IOException {
+        BibtexLexer lexer = new BibtexLexer(new StringReader("@misc{a}\n@misc{b}"), 64);
+        for (int i = 0; i < 9; i++) {
+            lexer.read();
+        }
+        assertEquals("@misc{a}\n", lexer.getTextSinceMark());
+        lexer.read();
+        lexer.unread('@');
+        assertEquals("", lexer.getTextSinceMark());
+        while (lexer.read() != BibtexLexer.EOF) {
+            // read remaining text
+        }
+        assertEquals("@misc{b}", lexer.getTextSinceMark());
+    }
+
+    @Test
+    public void testTextSinceMarkSpansSeveralBlocks() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            input.append((char) ('a' + (i % 26)));
+        }
+        BibtexLexer lexer = new BibtexLexer(new StringReader(input.toString()), 64);
+        while (lexer.read() != BibtexLexer.EOF) {
+            // read everything
+        }
+        assertEquals(input.toString(), lexer.getTextSinceMark());
+    }
+
+    @Test
+    public void testUnreadAcrossBlockBoundary() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 70000; i++) {
+            input.append((char) ('a' + (i % 26)));
+        }
+        BibtexLexer lexer = new BibtexLexer(new StringReader(input.toString()), 64);
+        for (int i = 0; i < 65530; i++) {
+            lexer.read();
+        }
+        lexer.getTextSinceMark();
+        // forces the next block to be read
+        for (int i = 0; i < 10; i++) {
+            lexer.read();
+        }
+        for (int i = 1; i <= 10; i++) {
+            lexer.unread(input.charAt(65540 - i));
+        }
+        assertEquals(input.charAt(65530), lexer.read());
+        assertEquals(input.substring(65530, 65531), lexer.getTextSinceMark());
+    }
+}
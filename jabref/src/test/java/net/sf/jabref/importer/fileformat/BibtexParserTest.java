@@ -807,6 +807,22 @@ public class BibtexParserTest {
         assertEquals(0, c.size());
     }
 
+    @Test
+    public void parseRecognizesEntryWithMissingCommaAfterKey() throws IOException {
+
+        ParserResult result = BibtexParser.parse(new StringReader("@article{test\n  author = {Ed von Test}}"));
+
+        assertTrue(result.hasWarnings());
+
+        Collection<BibEntry> c = result.getDatabase().getEntries();
+        assertEquals(1, c.size());
+
+        BibEntry e = c.iterator().next();
+        assertEquals("article", e.getType());
+        assertEquals("test", e.getCiteKey());
+        assertEquals("Ed von Test", e.getField("author"));
+    }
+
     @Test
     public void parseIgnoresAndWarnsAboutCorruptedEntryButRecognizeOthers() throws IOException {
 
@@ -1228,6 +1244,18 @@ public class BibtexParserTest {
         assertEquals(testEntry, e.getParsedSerialization());
     }
 
+    @Test
+    public void parseSavesEntryWithMissingCommaAfterKeyInParsedSerialization() throws IOException {
+        String testEntry = "@article{test\n  author = {Ed von Test}}";
+        ParserResult result = BibtexParser.parse(new StringReader(testEntry));
+        Collection<BibEntry> c = result.getDatabase().getEntries();
+        assertEquals(1, c.size());
+
+        BibEntry e = c.iterator().next();
+        assertEquals("Ed von Test", e.getField("author"));
+        assertEquals(testEntry, e.getParsedSerialization());
+    }
+
     @Test
     public void parseSavesOneNewlineAfterEntryInParsedSerialization() throws IOException {
         String testEntry = "@article{test,author={Ed von Test}}";
@@ -0,0 +1,146 @@
+package net.sf.jabref.importer.fileformat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.jabref.Globals;
+import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.exporter.SaveException;
+import net.sf.jabref.exporter.SaveSession;
+import net.sf.jabref.exporter.VerifyingWriter;
+import net.sf.jabref.importer.ParserResult;
+import net.sf.jabref.model.entry.BibEntry;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MappedBibtexFileTest {
+
+    private static final String CONTENT = "% Encoding: UTF-8\n"
+            + "@String{ieee = {IEEE}}\n"
+            + "\n"
+            + "@misc{first,\n  title = {Fürst},\n  publisher = ieee,\n  note = {Ünïcödé 𝄞}}\n"
+            + "\n"
+            + "@inproceedings(second,\n  title = \"Second\",\n  year = 2016)\n"
+            + "@misc{third, title = {Third}}\n"
+            + "@comment{jabref-meta: databaseType:bibtex;}\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+
+    @BeforeClass
+    public static void setUpPreferences() {
+        Globals.prefs = JabRefPreferences.getInstance();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.newFile("large.bib");
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ParserResult load(int cacheSize) throws IOException {
+        return MappedBibtexFile.load(file, StandardCharsets.UTF_8, cacheSize, ForkJoinPool.commonPool());
+    }
+
+    @Test
+    public void testEntriesAreNotLoadedAfterParsing() throws IOException {
+        List<BibEntry> entries = load(10).getDatabase().getEntries();
+        assertEquals(3, entries.size());
+        for (BibEntry entry : entries) {
+            assertFalse(entry.isLoaded());
+            assertFalse(entry.hasChanged());
+        }
+        assertEquals("second", entries.get(1).getCiteKey());
+        assertEquals("inproceedings", entries.get(1).getType());
+        assertFalse(entries.get(1).isLoaded());
+    }
+
+    @Test
+    public void testLoadedEntriesEqualParsedEntries() throws IOException {
+        ParserResult expected = BibtexParser.parse(new StringReader(CONTENT));
+        ParserResult actual = load(10);
+        assertEquals(1, actual.getDatabase().getStringCount());
+        assertEquals("bibtex", actual.getMetaData().getData("databaseType").get(0));
+
+        List<BibEntry> expectedEntries = expected.getDatabase().getEntries();
+        List<BibEntry> actualEntries = actual.getDatabase().getEntries();
+        for (int i = 0; i < expectedEntries.size(); i++) {
+            assertEquals(expectedEntries.get(i).getParsedSerialization(),
+                    actualEntries.get(i).getParsedSerialization());
+            assertEquals(expectedEntries.get(i).getFieldMap(), actualEntries.get(i).getFieldMap());
+            assertTrue(actualEntries.get(i).isLoaded());
+        }
+    }
+
+    @Test
+    public void testCacheUnloadsEntriesLoadedFirst() throws IOException {
+        List<BibEntry> entries = load(2).getDatabase().getEntries();
+        assertEquals("Fürst", entries.get(0).getField("title"));
+        assertEquals("2016", entries.get(1).getField("year"));
+        assertTrue(entries.get(0).isLoaded());
+
+        assertEquals("Third", entries.get(2).getField("title"));
+        assertFalse(entries.get(0).isLoaded());
+        assertTrue(entries.get(1).isLoaded());
+        assertTrue(entries.get(2).isLoaded());
+        assertEquals("Fürst", entries.get(0).getField("title"));
+    }
+
+    @Test
+    public void testChangedEntriesAreNotUnloaded() throws IOException {
+        List<BibEntry> entries = load(1).getDatabase().getEntries();
+        entries.get(0).setField("title", "Changed");
+        assertFalse(entries.get(0).unloadFields());
+
+        entries.get(1).getField("title");
+        entries.get(2).getField("title");
+        assertTrue(entries.get(0).isLoaded());
+        assertEquals("Changed", entries.get(0).getField("title"));
+        assertTrue(entries.get(0).hasChanged());
+    }
+
+    @Test
+    public void testEntriesAreReadFromOriginalContentAfterSave() throws IOException, SaveException {
+        List<BibEntry> entries = load(1).getDatabase().getEntries();
+        String serialization = entries.get(2).getParsedSerialization();
+
+        SaveSession session = new SaveSession(StandardCharsets.UTF_8, false);
+        try (VerifyingWriter writer = session.getWriter()) {
+            writer.write("@misc{other,\n  title = {Overwritten, with a different length}}\n");
+        }
+        session.commit(file);
+
+        assertEquals("Third", entries.get(2).getField("title"));
+        assertEquals("third", entries.get(2).getCiteKey());
+        assertEquals(serialization, entries.get(2).getParsedSerialization());
+        // the entries are not unloaded anymore, as the file cannot be read again
+        assertEquals("Fürst", entries.get(0).getField("title"));
+        assertTrue(entries.get(2).isLoaded());
+    }
+
+    @Test
+    public void testEntriesAreNotReadFromFileChangedOutside() throws IOException {
+        List<BibEntry> entries = load(10).getDatabase().getEntries();
+        Files.write(file.toPath(), "@misc{other}\n".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("third", entries.get(2).getCiteKey());
+        assertNull(entries.get(2).getField("title"));
+    }
+}
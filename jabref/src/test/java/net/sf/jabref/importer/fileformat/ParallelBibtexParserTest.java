@@ -0,0 +1,117 @@
+package net.sf.jabref.importer.fileformat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.jabref.Globals;
+import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.importer.ParserResult;
+import net.sf.jabref.model.entry.BibEntry;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelBibtexParserTest {
+
+    private static final String CONTENT = "% header\n"
+            + "@String{ieee = {IEEE}}\n"
+            + "\n"
+            + "@misc{first,\n  title = {First} # ieee,\n  note = {an @ sign and \\{ brace}}\n"
+            + "\n"
+            + "@misc(second,\n  title = \"Second )\")\n"
+            + "@preamble{{\\newcommand{\\x}{y}}}\n"
+            + "@misc{first,\n  title = {Duplicate}\n}\n"
+            + "\n\n"
+            + "@misc{third key, title = {Third}}\n"
+            + "@misc{,\n  title = {No key}}\n"
+            + "@String{ieee = {Other}}\n"
+            + "@comment{jabref-meta: databaseType:bibtex;}\n"
+            + "Epilog text\n";
+
+
+    @BeforeClass
+    public static void setUp() {
+        Globals.prefs = JabRefPreferences.getInstance();
+    }
+
+    private static ParserResult parseSequentially(String content) throws IOException {
+        return BibtexParser.parse(new StringReader(content));
+    }
+
+    private static void assertSameResult(ParserResult expected, ParserResult actual) {
+        List<BibEntry> expectedEntries = expected.getDatabase().getEntries();
+        List<BibEntry> actualEntries = actual.getDatabase().getEntries();
+        assertEquals(expectedEntries.size(), actualEntries.size());
+        for (int i = 0; i < expectedEntries.size(); i++) {
+            assertEquals(expectedEntries.get(i).getCiteKey(), actualEntries.get(i).getCiteKey());
+            assertEquals(expectedEntries.get(i).getFieldMap(), actualEntries.get(i).getFieldMap());
+            assertEquals(expectedEntries.get(i).getParsedSerialization(),
+                    actualEntries.get(i).getParsedSerialization());
+        }
+        assertEquals(expected.getDatabase().getStringCount(), actual.getDatabase().getStringCount());
+        assertEquals(expected.getDatabase().getPreamble(), actual.getDatabase().getPreamble());
+        assertEquals(expected.getDatabase().getEpilog(), actual.getDatabase().getEpilog());
+        assertEquals(expected.warnings(), actual.warnings());
+        assertArrayEquals(expected.getDuplicateKeys(), actual.getDuplicateKeys());
+        assertEquals(expected.getMetaData().getData("databaseType"), actual.getMetaData().getData("databaseType"));
+    }
+
+    @Test
+    public void testSplitPointsAreAfterEntriesAndStrings() {
+        String content = "@String{a = {A}}\n@misc{x, title={X}}  \r\n\n@comment{c}\n@misc{y}";
+        assertEquals(Arrays.asList(17, 40), ParallelBibtexParser.findSplitPoints(content, 1));
+    }
+
+    @Test
+    public void testSplitPointsRespectChunkSize() {
+        String content = "@misc{a}\n@misc{b}\n@misc{c}\n@misc{d}\n";
+        assertEquals(Collections.singletonList(18), ParallelBibtexParser.findSplitPoints(content, 15));
+    }
+
+    @Test
+    public void testParallelParseEqualsSequentialParse() throws IOException {
+        ParserResult result = ParallelBibtexParser.parse(CONTENT, ForkJoinPool.commonPool(), 1);
+        assertSameResult(parseSequentially(CONTENT), result);
+        assertEquals(5, result.getDatabase().getEntryCount());
+        assertTrue(result.hasDuplicateKeys());
+    }
+
+    @Test
+    public void testMergeMovesEntriesAndStringsOutOfChunks() throws IOException {
+        List<ParallelBibtexParser.Chunk> chunks = ParallelBibtexParser.parseChunks(CONTENT,
+                ParallelBibtexParser.findSplitPoints(CONTENT, 1), ForkJoinPool.commonPool(), chunk -> {
+                    // nothing to do
+                }).get();
+        ParserResult result = ParallelBibtexParser.merge(chunks);
+
+        assertEquals(5, result.getDatabase().getEntryCount());
+        assertEquals(1, result.getDatabase().getStringCount());
+        for (ParallelBibtexParser.Chunk chunk : chunks) {
+            assertFalse(chunk.result.getDatabase().hasEntries());
+            assertTrue(chunk.result.getDatabase().hasNoStrings());
+        }
+    }
+
+    @Test
+    public void testWrongSplitPointFallsBackToSequentialParse() throws IOException {
+        // the parser does not treat the escaped brace within quotes as escaped
+        String content = "@misc{a, title = \"x \\{ y\"}\n@misc{b, title = {B}}\n@misc{c, title = {C}}\n";
+        assertEquals(2, ParallelBibtexParser.findSplitPoints(content, 1).size());
+        ParserResult result = ParallelBibtexParser.parse(content, ForkJoinPool.commonPool(), 1);
+        assertSameResult(parseSequentially(content), result);
+    }
+
+    @Test
+    public void testSmallInputIsParsedSequentially() throws IOException {
+        assertSameResult(parseSequentially(CONTENT), ParallelBibtexParser.parse(new StringReader(CONTENT)));
+    }
+}
@@ -0,0 +1,76 @@
+package net.sf.jabref.logic.autocompleter;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CompletionTrieTest {
+
+    private CompletionTrie trie;
+
+
+    @Before
+    public void setUp() {
+        trie = new CompletionTrie();
+        trie.add("test");
+        trie.add("testing");
+        trie.add("tester");
+        trie.add("Testament");
+        trie.add("team");
+    }
+
+    @Test
+    public void testCompleteIsAlphabeticalForSameFrequency() {
+        assertEquals(Arrays.asList("test", "Testament", "tester", "testing"), trie.complete("tes", false, 10));
+        assertEquals(Arrays.asList("team", "test", "Testament", "tester", "testing"), trie.complete("te", false, 10));
+    }
+
+    @Test
+    public void testCompleteCaseSensitive() {
+        assertEquals(Collections.singletonList("Testament"), trie.complete("Tes", true, 10));
+        assertEquals(Arrays.asList("test", "tester", "testing"), trie.complete("tes", true, 10));
+    }
+
+    @Test
+    public void testCompleteRanksByFrequency() {
+        trie.add("testing");
+        trie.add("testing");
+        trie.add("tester");
+        assertEquals(Arrays.asList("testing", "tester", "test", "Testament"), trie.complete("test", false, 10));
+        assertEquals(Arrays.asList("testing", "tester"), trie.complete("test", false, 2));
+    }
+
+    @Test
+    public void testCompleteKeepsSpellingsOfSameWord() {
+        trie.add("TEST");
+        assertEquals(Arrays.asList("TEST", "test"), trie.complete("test", false, 2));
+    }
+
+    @Test
+    public void testCompleteInsideEdge() {
+        assertEquals(Arrays.asList("Testament"), trie.complete("testam", false, 10));
+        assertEquals(Collections.emptyList(), trie.complete("testx", false, 10));
+        assertEquals(Collections.emptyList(), trie.complete("testamentum", false, 10));
+    }
+
+    @Test
+    public void testRemoveDecreasesFrequency() {
+        trie.add("testing");
+        trie.add("testing");
+        trie.remove("testing");
+        trie.remove("tester");
+        assertEquals(Arrays.asList("testing", "test", "Testament"), trie.complete("test", false, 10));
+    }
+
+    @Test
+    public void testRemoveUnknownWordKeepsWords() {
+        trie.remove("tes");
+        trie.remove("TESTING");
+        trie.remove("testamentum");
+        assertEquals(Arrays.asList("test", "Testament", "tester", "testing"), trie.complete("tes", false, 10));
+    }
+}
@@ -204,4 +204,42 @@ public class DefaultAutoCompleterTest {
         List<String> result = autoCompleter.complete("lue");
         Assert.assertEquals(Collections.emptyList(), result);
     }
+
+    @Test
+    public void completeCountsEntryAddedAgainOnce() {
+        AutoCompletePreferences preferences = mock(AutoCompletePreferences.class);
+        DefaultAutoCompleter autoCompleter = new DefaultAutoCompleter("field", preferences);
+
+        BibEntry entryOne = new BibEntry();
+        entryOne.setField("field", "testValueOne");
+        autoCompleter.addBibtexEntry(entryOne);
+        BibEntry entryTwo = new BibEntry();
+        entryTwo.setField("field", "testValueOne");
+        autoCompleter.addBibtexEntry(entryTwo);
+        BibEntry entryThree = new BibEntry();
+        entryThree.setField("field", "testValueTwo testValueTwo");
+        autoCompleter.addBibtexEntry(entryThree);
+        autoCompleter.addBibtexEntry(entryThree);
+        autoCompleter.addItemToIndex("testValueTwo");
+        autoCompleter.addItemToIndex("testValueTwo");
+
+        List<String> result = autoCompleter.complete("testValue");
+        Assert.assertEquals(Arrays.asList("testValueOne", "testValueTwo"), result);
+    }
+
+    @Test
+    public void completeReturnsCurrentWordsOfChangedEntry() {
+        AutoCompletePreferences preferences = mock(AutoCompletePreferences.class);
+        DefaultAutoCompleter autoCompleter = new DefaultAutoCompleter("field", preferences);
+
+        BibEntry entry = new BibEntry();
+        entry.setField("field", "testValueOne");
+        autoCompleter.addBibtexEntry(entry);
+        entry.setField("field", "testValueTwo");
+        autoCompleter.addBibtexEntry(entry);
+
+        Assert.assertEquals(Arrays.asList("testValueTwo"), autoCompleter.complete("testValue"));
+        autoCompleter.removeBibtexEntry(entry);
+        Assert.assertEquals(Collections.emptyList(), autoCompleter.complete("testValue"));
+    }
 }
@@ -0,0 +1,122 @@
+package net.sf.jabref.logic.groups;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import net.sf.jabref.model.database.BibDatabase;
+import net.sf.jabref.model.entry.BibEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class GroupMembershipIndexTest {
+
+    private BibDatabase database;
+    private BibEntry first;
+    private BibEntry second;
+    private GroupMembershipIndex index;
+
+    private GroupTreeNode root;
+    private GroupTreeNode physics;
+    private GroupTreeNode quantum;
+    private GroupTreeNode explicit;
+
+
+    @Before
+    public void setUp() {
+        database = new BibDatabase();
+        first = new BibEntry();
+        first.setField("keywords", "physics, quantum");
+        second = new BibEntry();
+        second.setField("keywords", "physics");
+        database.insertEntry(first);
+        database.insertEntry(second);
+        index = new GroupMembershipIndex(database);
+
+        /*
+         * Root
+         *      A Physics (keyword), Including
+         *          B Quantum (keyword), Independent
+         *      A Explicit, Refining
+         */
+        root = new GroupTreeNode(new AllEntriesGroup());
+        physics = root.addSubgroup(
+                new KeywordGroup("Physics", "keywords", "physics", false, false, GroupHierarchyType.INCLUDING));
+        quantum = physics.addSubgroup(
+                new KeywordGroup("Quantum", "keywords", "quantum", false, false, GroupHierarchyType.INDEPENDENT));
+        ExplicitGroup explicitGroup = new ExplicitGroup("Explicit", GroupHierarchyType.REFINING);
+        explicitGroup.addEntry(second);
+        explicit = root.addSubgroup(explicitGroup);
+    }
+
+    @After
+    public void tearDown() {
+        index.close();
+    }
+
+    @Test
+    public void testNumberOfEntries() {
+        assertEquals(2, index.getNumberOfEntries(physics.getGroup()));
+        assertEquals(1, index.getNumberOfEntries(quantum.getGroup()));
+        assertEquals(1, index.getNumberOfEntries(explicit.getGroup()));
+        assertEquals(2, index.getNumberOfEntries(root.getGroup()));
+    }
+
+    @Test
+    public void testNumberOfEntriesFollowsChanges() {
+        assertEquals(1, index.getNumberOfEntries(quantum.getGroup()));
+
+        second.setField("keywords", "physics, quantum");
+        assertEquals(2, index.getNumberOfEntries(quantum.getGroup()));
+
+        first.clearField("keywords");
+        assertEquals(1, index.getNumberOfEntries(physics.getGroup()));
+
+        BibEntry third = new BibEntry();
+        third.setField("keywords", "quantum");
+        database.insertEntry(third);
+        assertEquals(2, index.getNumberOfEntries(quantum.getGroup()));
+
+        database.removeEntry(second);
+        assertEquals(1, index.getNumberOfEntries(quantum.getGroup()));
+        assertEquals(0, index.getNumberOfEntries(physics.getGroup()));
+    }
+
+    @Test
+    public void testGroupsWithSameDefinitionShareMembers() {
+        KeywordGroup renamed = new KeywordGroup("Other name", "keywords", "physics", false, false,
+                GroupHierarchyType.INDEPENDENT);
+        assertEquals(2, index.getNumberOfEntries(renamed));
+    }
+
+    @Test
+    public void testContainingGroupsEqualGroupTreeNode() {
+        for (boolean requireAll : Arrays.asList(true, false)) {
+            assertEquals(root.getContainingGroups(Arrays.asList(first, second), requireAll),
+                    index.getContainingGroups(root, Arrays.asList(first, second), requireAll));
+            assertEquals(root.getContainingGroups(Collections.singletonList(second), requireAll),
+                    index.getContainingGroups(root, Collections.singletonList(second), requireAll));
+        }
+    }
+
+    @Test
+    public void testMatchingGroupsEqualGroupTreeNode() {
+        assertEquals(root.getMatchingGroups(Collections.singletonList(first)),
+                index.getMatchingGroups(root, Collections.singletonList(first)));
+        assertEquals(root.getMatchingGroups(Collections.singletonList(second)),
+                index.getMatchingGroups(root, Collections.singletonList(second)));
+        assertEquals(Arrays.asList(root, physics, quantum),
+                index.getMatchingGroups(root, Collections.singletonList(first)));
+    }
+
+    @Test
+    public void testEntriesNotInDatabaseAreChecked() {
+        BibEntry other = new BibEntry();
+        other.setField("keywords", "quantum");
+        assertEquals(Arrays.asList(root, quantum),
+                index.getContainingGroups(root, Collections.singletonList(other), false));
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 
 import net.sf.jabref.BibDatabaseContext;
 import net.sf.jabref.Defaults;
@@ -25,6 +26,7 @@ import org.mockito.Mockito;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Matchers.any;
 
 public class IntegrityCheckTest {
@@ -172,6 +174,63 @@ public class IntegrityCheckTest {
         assertWrong(createContext("journal", "&Auml;rling Str&ouml;m for &#8211; &#x2031;"));
     }
 
+    @Test
+    public void testChangedEntryIsCheckedAgain() {
+        BibDatabaseContext context = createContext("year", "abc");
+        IntegrityCheck check = new IntegrityCheck(context);
+        assertEquals(1, check.checkBibtexDatabase().size());
+
+        BibEntry entry = context.getDatabase().getEntries().get(0);
+        entry.setField("year", "2016");
+        assertEquals(Collections.emptyList(), check.checkBibtexDatabase());
+
+        entry.setField("year", "16");
+        assertEquals(1, check.checkBibtexDatabase().size());
+        check.close();
+    }
+
+    @Test
+    public void testCheckFollowsChangedMode() {
+        BibDatabaseContext context = withMode(createContext("title", "This is a Title"), BibDatabaseMode.BIBTEX);
+        IntegrityCheck check = new IntegrityCheck(context);
+        assertEquals(1, check.checkBibtexDatabase().size());
+
+        context.setMode(BibDatabaseMode.BIBLATEX);
+        assertEquals(Collections.emptyList(), check.checkBibtexDatabase());
+        check.close();
+    }
+
+    @Test
+    public void testRemovedEntryIsNotReported() {
+        BibDatabaseContext context = createContext("year", "abc");
+        IntegrityCheck check = new IntegrityCheck(context);
+        assertEquals(1, check.checkBibtexDatabase().size());
+
+        context.getDatabase().removeEntry(context.getDatabase().getEntries().get(0));
+        assertEquals(Collections.emptyList(), check.checkBibtexDatabase());
+        check.close();
+    }
+
+    @Test
+    public void testManyEntriesAreReportedInOrder() {
+        BibDatabase database = new BibDatabase();
+        for (int i = 0; i < 2500; i++) {
+            BibEntry entry = new BibEntry();
+            entry.setField("year", i % 2 == 0 ? "abc" : "2016");
+            database.insertEntry(entry);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        IntegrityCheck check = new IntegrityCheck(new BibDatabaseContext(database, new Defaults()), pool);
+
+        List<IntegrityMessage> messages = check.checkBibtexDatabase();
+        assertEquals(1250, messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            assertSame(database.getEntries().get(2 * i), messages.get(i).getEntry());
+        }
+        pool.shutdown();
+        check.close();
+    }
+
     private BibDatabaseContext createContext(String field, String value, String type) {
         BibEntry entry = new BibEntry();
         entry.setField(field, value);
@@ -0,0 +1,130 @@
+package net.sf.jabref.logic.labelpattern;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.jabref.Globals;
+import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.MetaData;
+import net.sf.jabref.model.database.BibDatabase;
+import net.sf.jabref.model.entry.BibEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BibtexKeyGeneratorTest {
+
+    private BibDatabase database;
+    private boolean alwaysAddLetter;
+    private boolean firstLetterA;
+
+
+    @BeforeClass
+    public static void setUpGlobalsPrefs() {
+        Globals.prefs = JabRefPreferences.getInstance();
+    }
+
+    @Before
+    public void setUp() {
+        database = new BibDatabase();
+        alwaysAddLetter = Globals.prefs.getBoolean(JabRefPreferences.KEY_GEN_ALWAYS_ADD_LETTER);
+        firstLetterA = Globals.prefs.getBoolean(JabRefPreferences.KEY_GEN_FIRST_LETTER_A);
+        Globals.prefs.putBoolean(JabRefPreferences.KEY_GEN_ALWAYS_ADD_LETTER, false);
+        Globals.prefs.putBoolean(JabRefPreferences.KEY_GEN_FIRST_LETTER_A, true);
+    }
+
+    @After
+    public void tearDown() {
+        Globals.prefs.putBoolean(JabRefPreferences.KEY_GEN_ALWAYS_ADD_LETTER, alwaysAddLetter);
+        Globals.prefs.putBoolean(JabRefPreferences.KEY_GEN_FIRST_LETTER_A, firstLetterA);
+    }
+
+    private BibEntry addEntry(String author, String key) {
+        BibEntry entry = new BibEntry();
+        entry.setField("author", author);
+        entry.setField("year", "2010");
+        if (key != null) {
+            entry.setCiteKey(key);
+        }
+        database.insertEntry(entry);
+        return entry;
+    }
+
+    @Test
+    public void testKeysAreMadeUniqueInOrder() {
+        List<BibEntry> entries = Arrays.asList(addEntry("Smith", null), addEntry("Smith", null),
+                addEntry("Smith", null));
+
+        new BibtexKeyGenerator(new MetaData(), database).generateKeys(entries);
+
+        assertEquals("Smith2010", entries.get(0).getCiteKey());
+        assertEquals("Smith2010a", entries.get(1).getCiteKey());
+        assertEquals("Smith2010b", entries.get(2).getCiteKey());
+    }
+
+    @Test
+    public void testEntriesKeepTheirUniqueKeys() {
+        List<BibEntry> entries = Arrays.asList(addEntry("Smith", "Smith2010b"), addEntry("Smith", "Smith2010"),
+                addEntry("Smith", "Smith2010a"));
+
+        new BibtexKeyGenerator(new MetaData(), database).generateKeys(entries);
+
+        assertEquals("Smith2010b", entries.get(0).getCiteKey());
+        assertEquals("Smith2010", entries.get(1).getCiteKey());
+        assertEquals("Smith2010a", entries.get(2).getCiteKey());
+    }
+
+    @Test
+    public void testReleasedKeyIsUsedAgain() {
+        BibEntry first = addEntry("Smith", null);
+        BibEntry second = addEntry("Smith", null);
+        BibEntry changed = addEntry("Jones", "Smith2010a");
+        BibEntry third = addEntry("Smith", null);
+
+        new BibtexKeyGenerator(new MetaData(), database).generateKeys(Arrays.asList(first, second, changed, third));
+
+        assertEquals("Smith2010", first.getCiteKey());
+        assertEquals("Smith2010b", second.getCiteKey());
+        assertEquals("Jones2010", changed.getCiteKey());
+        assertEquals("Smith2010a", third.getCiteKey());
+    }
+
+    @Test
+    public void testKeyOfEntryOutsideDatabaseIsNotReserved() {
+        addEntry("Smith", "Smith2010");
+        BibEntry outside = new BibEntry();
+        outside.setField("author", "Smith");
+        outside.setField("year", "2010");
+        BibEntry inside = addEntry("Smith", null);
+
+        BibtexKeyGenerator generator = new BibtexKeyGenerator(new MetaData(), database);
+        generator.generateKey(outside);
+        generator.generateKey(inside);
+
+        assertEquals("Smith2010a", outside.getCiteKey());
+        assertEquals("Smith2010a", inside.getCiteKey());
+    }
+
+    @Test
+    public void testKeysGeneratedInParallelAreTheSameAsOneByOne() {
+        List<BibEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            entries.add(addEntry(i % 2 == 0 ? "Smith" : "Jones", null));
+        }
+
+        new BibtexKeyGenerator(new MetaData(), database, new ForkJoinPool(4)).generateKeys(entries);
+
+        assertEquals("Smith2010", entries.get(0).getCiteKey());
+        assertEquals("Jones2010", entries.get(1).getCiteKey());
+        for (int i = 2; i < entries.size(); i++) {
+            String key = (i % 2 == 0 ? "Smith2010" : "Jones2010") + LabelPatternUtil.getAddition((i / 2) - 1);
+            assertEquals(key, entries.get(i).getCiteKey());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package net.sf.jabref.logic.layout;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.Collection;
 
 import net.sf.jabref.Globals;
@@ -92,6 +93,19 @@ public class LayoutTest {
         Assert.assertEquals("Joe Doe, Moon Jane", layoutText);
     }
 
+    @Test
+    public void testLayoutWrittenToWriterEqualsText() throws IOException {
+        BibEntry entry = LayoutTest.bibtexString2BibtexEntry(t1BibtexString());
+        Layout layout = new LayoutHelper(
+                new StringReader("\\bibtextype: \\begin{author}\\format[NameFormatter]{\\author}\\end{author}"
+                        + "\\begin{editor} (\\editor)\\end{editor}, \\year"),
+                mock(JournalAbbreviationRepository.class)).getLayoutFromText();
+
+        StringWriter writer = new StringWriter();
+        layout.doLayout(entry, null, writer);
+        Assert.assertEquals(layout.doLayout(entry, null), writer.toString());
+    }
+
     /**
      * [ 1495181 ] Dotless i and tilde not handled in preview
      *
@@ -0,0 +1,65 @@
+package net.sf.jabref.logic.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+
+import net.sf.jabref.model.entry.BibEntry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class SearchExecutorTest {
+
+    private final List<BibEntry> entries = new ArrayList<>();
+
+
+    @Before
+    public void setUp() {
+        for (int i = 0; i < 100; i++) {
+            BibEntry entry = new BibEntry();
+            entry.setField("title", "Title " + i);
+            entry.setField("note", (i % 10) == 0 ? "special" : "ordinary");
+            entries.add(entry);
+        }
+    }
+
+    private List<BibEntry> getSpecialEntries() {
+        List<BibEntry> result = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i += 10) {
+            result.add(entries.get(i));
+        }
+        return result;
+    }
+
+    @Test
+    public void testSearchKeepsOrderOfEntries() {
+        SearchExecutor executor = new SearchExecutor(ForkJoinPool.commonPool(), 7);
+        assertEquals(getSpecialEntries(), executor.search(new SearchQuery("special", false, false), entries));
+    }
+
+    @Test
+    public void testNewerSearchAbandonsRunningOne() {
+        SearchExecutor executor = new SearchExecutor(ForkJoinPool.commonPool(), 1);
+        SearchQuery query = new SearchQuery("special", false, false) {
+
+            @Override
+            public boolean isMatch(BibEntry entry) {
+                // starting another search from within the running one makes the running one stale
+                executor.search(new SearchQuery("special", false, false), Collections.emptyList());
+                return super.isMatch(entry);
+            }
+        };
+        try {
+            executor.search(query, entries);
+        } catch (CancellationException e) {
+            return;
+        }
+        fail("search was not abandoned");
+    }
+}
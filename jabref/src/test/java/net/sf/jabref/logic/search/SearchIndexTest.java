@@ -0,0 +1,148 @@
+package net.sf.jabref.logic.search;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import net.sf.jabref.model.database.BibDatabase;
+import net.sf.jabref.model.entry.BibEntry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SearchIndexTest {
+
+    private BibDatabase database;
+    private BibEntry shields;
+    private BibEntry knuth;
+
+
+    @Before
+    public void setUp() {
+        database = new BibDatabase();
+
+        shields = new BibEntry();
+        shields.setType("incollection");
+        shields.setField("title", "Marine finfish larviculture in Europe");
+        shields.setField("author", "Kevin Shields");
+        shields.setField("year", "2001");
+        database.insertEntry(shields);
+
+        knuth = new BibEntry();
+        knuth.setType("misc");
+        knuth.setField("title", "The {TeX}book");
+        knuth.setField("author", "Donald E. Knuth");
+        database.insertEntry(knuth);
+    }
+
+    @Test
+    public void testMatchesWordsSpreadOverFields() {
+        SearchIndex index = new SearchIndex(database);
+        assertEquals(Collections.singletonList(shields),
+                index.getMatches(new SearchQuery("marine 2001 shields", false, false)));
+    }
+
+    @Test
+    public void testMatchesPartOfToken() {
+        SearchIndex index = new SearchIndex(database);
+        assertEquals(Collections.singletonList(shields), index.getMatches(new SearchQuery("larvi", false, false)));
+    }
+
+    @Test
+    public void testMatchesWholeTokenAndTokensContainingIt() {
+        SearchIndex index = new SearchIndex(database);
+        BibEntry entry = new BibEntry();
+        entry.setField("title", "Fish");
+        database.insertEntry(entry);
+
+        assertEquals(Arrays.asList(shields, entry), index.getMatches(new SearchQuery("fish", false, false)));
+    }
+
+    @Test
+    public void testShortWordDoesNotNarrowDownCandidates() {
+        SearchIndex index = new SearchIndex(database);
+        assertEquals(Arrays.asList(shields, knuth), index.getCandidates(new SearchQuery("ie", false, false)));
+        assertEquals(Collections.singletonList(shields), index.getMatches(new SearchQuery("ie", false, false)));
+    }
+
+    @Test
+    public void testMatchesAfterRemovingLatexCommands() {
+        SearchIndex index = new SearchIndex(database);
+        assertEquals(Collections.singletonList(knuth), index.getMatches(new SearchQuery("texbook", false, false)));
+    }
+
+    @Test
+    public void testCaseSensitiveSearchIsVerified() {
+        SearchIndex index = new SearchIndex(database);
+        assertEquals(Collections.emptyList(), index.getMatches(new SearchQuery("marine", true, false)));
+        assertEquals(Collections.singletonList(shields), index.getMatches(new SearchQuery("Marine", true, false)));
+    }
+
+    @Test
+    public void testQuotedWordOverSeveralTokens() {
+        SearchIndex index = new SearchIndex(database);
+        assertEquals(Collections.singletonList(shields),
+                index.getMatches(new SearchQuery("\"finfish larviculture\"", false, false)));
+        assertEquals(Collections.emptyList(),
+                index.getMatches(new SearchQuery("\"marine larviculture\"", false, false)));
+    }
+
+    @Test
+    public void testAddedEntryIsIndexed() {
+        SearchIndex index = new SearchIndex(database);
+        BibEntry entry = new BibEntry();
+        entry.setField("title", "Marine biology");
+        database.insertEntry(entry);
+
+        assertEquals(Arrays.asList(shields, entry), index.getMatches(new SearchQuery("marine", false, false)));
+    }
+
+    @Test
+    public void testRemovedEntryIsNotFound() {
+        SearchIndex index = new SearchIndex(database);
+        database.removeEntry(shields);
+
+        assertEquals(Collections.emptyList(), index.getMatches(new SearchQuery("marine", false, false)));
+    }
+
+    @Test
+    public void testChangedFieldIsReindexed() {
+        SearchIndex index = new SearchIndex(database);
+        shields.setField("title", "Freshwater fish");
+
+        assertEquals(Collections.emptyList(), index.getMatches(new SearchQuery("marine", false, false)));
+        assertEquals(Collections.singletonList(shields), index.getMatches(new SearchQuery("freshwater", false, false)));
+    }
+
+    @Test
+    public void testClearedFieldIsRemoved() {
+        SearchIndex index = new SearchIndex(database);
+        knuth.clearField("author");
+
+        assertEquals(Collections.emptyList(), index.getMatches(new SearchQuery("knuth", false, false)));
+    }
+
+    @Test
+    public void testChangedIdIsReindexed() {
+        SearchIndex index = new SearchIndex(database);
+        knuth.setId("newId");
+
+        assertEquals(Collections.singletonList(knuth), index.getMatches(new SearchQuery("knuth", false, false)));
+    }
+
+    @Test
+    public void testGrammarBasedSearchFallsBackToScan() {
+        SearchIndex index = new SearchIndex(database);
+        assertEquals(Collections.singletonList(knuth),
+                index.getMatches(new SearchQuery("author=knuth", false, false)));
+    }
+
+    @Test
+    public void testDatabaseSearcherUsesIndex() {
+        SearchIndex index = new SearchIndex(database);
+        BibDatabase result = new DatabaseSearcher(new SearchQuery("europe", false, false), index)
+                .getDatabaseFromMatches();
+        assertEquals(Collections.singletonList(shields), result.getEntries());
+    }
+}
@@ -0,0 +1,97 @@
+package net.sf.jabref.logic.search.rules;
+
+import net.sf.jabref.model.entry.BibEntry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GrammarBasedSearchRuleTest {
+
+    private BibEntry smith;
+    private BibEntry miller;
+
+
+    @Before
+    public void setUp() {
+        smith = new BibEntry();
+        smith.setType("inproceedings");
+        smith.setField("author", "John Smith");
+        smith.setField("title", "Compiling queries");
+
+        miller = new BibEntry();
+        miller.setType("phdthesis");
+        miller.setField("author", "Jane Miller");
+        miller.setField("school", "University of Stuttgart");
+        miller.setField("year", "2001");
+    }
+
+    private static GrammarBasedSearchRule createRule(String query, boolean caseSensitive, boolean regex) {
+        GrammarBasedSearchRule rule = new GrammarBasedSearchRule(caseSensitive, regex);
+        assertTrue(rule.validateSearchStrings(query));
+        return rule;
+    }
+
+    @Test
+    public void testCompiledRuleIsAppliedToSeveralEntries() {
+        GrammarBasedSearchRule rule = createRule("author=smith and title=queries", false, false);
+        assertTrue(rule.applyRule(rule.getQuery(), smith));
+        assertFalse(rule.applyRule(rule.getQuery(), miller));
+    }
+
+    @Test
+    public void testOrAndNot() {
+        GrammarBasedSearchRule rule = createRule("not (author=smith or author=nobody)", false, false);
+        assertFalse(rule.applyRule(rule.getQuery(), smith));
+        assertTrue(rule.applyRule(rule.getQuery(), miller));
+    }
+
+    @Test
+    public void testCaseSensitiveField() {
+        GrammarBasedSearchRule rule = createRule("Author=Smith", true, false);
+        assertFalse(rule.applyRule(rule.getQuery(), smith));
+
+        rule = createRule("author=Smith", true, false);
+        assertTrue(rule.applyRule(rule.getQuery(), smith));
+        assertFalse(createRule("author=smith", true, false).applyRule("author=smith", smith));
+    }
+
+    @Test
+    public void testDoesNotContainForMissingField() {
+        GrammarBasedSearchRule rule = createRule("school!=stuttgart", false, false);
+        assertTrue(rule.applyRule(rule.getQuery(), smith));
+        assertFalse(rule.applyRule(rule.getQuery(), miller));
+    }
+
+    @Test
+    public void testRegularExpressionForField() {
+        GrammarBasedSearchRule rule = createRule("author|school=stutt.*", false, true);
+        assertFalse(rule.applyRule(rule.getQuery(), smith));
+        assertTrue(rule.applyRule(rule.getQuery(), miller));
+    }
+
+    @Test
+    public void testEntryType() {
+        GrammarBasedSearchRule rule = createRule("entrytype=phdthesis", false, false);
+        assertFalse(rule.applyRule(rule.getQuery(), smith));
+        assertTrue(rule.applyRule(rule.getQuery(), miller));
+    }
+
+    @Test
+    public void testExactMatch() {
+        GrammarBasedSearchRule rule = createRule("school==stuttgart", false, false);
+        assertFalse(rule.applyRule(rule.getQuery(), miller));
+
+        rule = createRule("year matches 2001", false, false);
+        assertTrue(rule.applyRule(rule.getQuery(), miller));
+    }
+
+    @Test
+    public void testInvalidRegularExpressionMatchesNothing() {
+        GrammarBasedSearchRule rule = createRule("author=[", false, true);
+        assertFalse(rule.applyRule(rule.getQuery(), smith));
+        assertFalse(rule.applyRule(rule.getQuery(), miller));
+    }
+}
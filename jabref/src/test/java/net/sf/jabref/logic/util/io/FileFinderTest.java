@@ -0,0 +1,46 @@
+package net.sf.jabref.logic.util.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+public class FileFinderTest {
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+
+    @Test
+    public void findFilesInSubdirectories() throws IOException {
+        File pdf = testFolder.newFile("Smith2010.pdf");
+        testFolder.newFile("Smith2010.txt");
+        testFolder.newFolder("a", "b");
+        File nestedPdf = testFolder.newFile("a/b/Jones2010.pdf");
+        File nestedPs = testFolder.newFile("a/Jones2010.ps");
+
+        Set<File> files = FileFinder.findFiles(Arrays.asList("pdf", "ps"),
+                Collections.singletonList(testFolder.getRoot()));
+
+        assertEquals(new HashSet<>(Arrays.asList(pdf, nestedPdf, nestedPs)), files);
+    }
+
+    @Test
+    public void findFilesOnceInOverlappingDirectories() throws IOException {
+        File directory = testFolder.newFolder("a");
+        File pdf = testFolder.newFile("a/Smith2010.pdf");
+
+        Set<File> files = FileFinder.findFiles(Collections.singletonList("pdf"),
+                Arrays.asList(testFolder.getRoot(), directory));
+
+        assertEquals(Collections.singleton(pdf), files);
+    }
+}
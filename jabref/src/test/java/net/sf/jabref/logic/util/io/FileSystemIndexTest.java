@@ -0,0 +1,108 @@
+package net.sf.jabref.logic.util.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FileSystemIndexTest {
+
+    @Rule
+    public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private Path root;
+    private Path indexFile;
+
+
+    @Before
+    public void setUp() throws IOException {
+        root = testFolder.newFolder("files").toPath();
+        indexFile = testFolder.getRoot().toPath().resolve("index").resolve("files.idx");
+    }
+
+    private static List<Path> getPaths(List<FileSystemIndex.IndexedFile> files) {
+        return files.stream().map(FileSystemIndex.IndexedFile::getPath).collect(Collectors.toList());
+    }
+
+    @Test
+    public void refreshFindsFilesInSubdirectories() throws IOException {
+        File pdf = testFolder.newFile("files/Smith2010.pdf");
+        testFolder.newFolder("files", "sub");
+        File nestedPdf = testFolder.newFile("files/sub/Jones2010.pdf");
+
+        FileSystemIndex index = new FileSystemIndex(root, indexFile);
+        index.refresh();
+
+        assertEquals(Arrays.asList(pdf.toPath(), nestedPdf.toPath()), getPaths(index.getAllFiles()));
+        assertEquals(Collections.singletonList(pdf.toPath()), getPaths(index.getFiles(root)));
+        assertEquals(Collections.singletonList(root.resolve("sub")), index.getSubdirectories(root));
+    }
+
+    @Test
+    public void refreshFollowsAddedAndRemovedFiles() throws IOException {
+        File pdf = testFolder.newFile("files/Smith2010.pdf");
+        FileSystemIndex index = new FileSystemIndex(root, indexFile);
+        index.refresh();
+
+        File addedPdf = testFolder.newFile("files/Jones2010.pdf");
+        pdf.delete();
+        index.refresh();
+
+        assertEquals(Collections.singletonList(addedPdf.toPath()), getPaths(index.getAllFiles()));
+    }
+
+    @Test
+    public void storedIndexIsLoadedAgain() throws IOException {
+        testFolder.newFolder("files", "sub");
+        File nestedPdf = testFolder.newFile("files/sub/Jones2010.pdf");
+        // directories changed in the last seconds are listed on each refresh
+        FileTime past = FileTime.fromMillis(System.currentTimeMillis() - 60000);
+        Files.setLastModifiedTime(root.resolve("sub"), past);
+        Files.setLastModifiedTime(root, past);
+        new FileSystemIndex(root, indexFile).refresh();
+
+        // only seen if the directory is listed again
+        testFolder.newFile("files/sub/Smith2011.pdf");
+        Files.setLastModifiedTime(root.resolve("sub"), past);
+
+        FileSystemIndex index = new FileSystemIndex(root, indexFile);
+        index.refresh();
+
+        List<FileSystemIndex.IndexedFile> files = index.getAllFiles();
+        assertEquals(Collections.singletonList(nestedPdf.toPath()), getPaths(files));
+        assertEquals(nestedPdf.length(), files.get(0).getSize());
+        assertEquals(nestedPdf.lastModified(), files.get(0).getLastModified());
+    }
+
+    @Test
+    public void leastRecentlyUsedStoredIndexesArePruned() throws IOException {
+        Path indexDirectory = indexFile.getParent();
+        Files.createDirectories(indexDirectory);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < FileSystemIndex.MAXIMUM_STORED_INDEXES; i++) {
+            Path otherIndexFile = Files.createFile(indexDirectory.resolve("other" + i + ".idx"));
+            Files.setLastModifiedTime(otherIndexFile, FileTime.fromMillis(now - ((i + 1) * 60000L)));
+        }
+
+        new FileSystemIndex(root, indexFile).refresh();
+
+        assertTrue(Files.exists(indexFile));
+        assertTrue(Files.exists(indexDirectory.resolve("other0.idx")));
+        int oldest = FileSystemIndex.MAXIMUM_STORED_INDEXES - 1;
+        assertFalse(Files.exists(indexDirectory.resolve("other" + oldest + ".idx")));
+    }
+}
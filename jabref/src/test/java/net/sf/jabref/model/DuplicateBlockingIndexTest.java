@@ -0,0 +1,142 @@
+package net.sf.jabref.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import net.sf.jabref.Globals;
+import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.model.database.BibDatabaseMode;
+import net.sf.jabref.model.entry.BibEntry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DuplicateBlockingIndexTest {
+
+    @Before
+    public void setUp() {
+        Globals.prefs = JabRefPreferences.getInstance();
+    }
+
+    private static BibEntry createEntry(String type, String author, String title, String year) {
+        BibEntry entry = new BibEntry();
+        entry.setType(type);
+        if (author != null) {
+            entry.setField("author", author);
+        }
+        if (title != null) {
+            entry.setField("title", title);
+        }
+        if (year != null) {
+            entry.setField("year", year);
+        }
+        return entry;
+    }
+
+    @Test
+    public void testSameDoiSharesBlock() {
+        BibEntry one = createEntry("inproceedings", "Alice Adams", "First paper", "2001");
+        one.setField("doi", "10.1000/182");
+        BibEntry two = createEntry("inproceedings", "Bob Brown", "Something else entirely", "1999");
+        two.setField("doi", "http://dx.doi.org/10.1000/182");
+
+        DuplicateBlockingIndex index = new DuplicateBlockingIndex(Arrays.asList(one, two));
+        assertEquals(Collections.singletonList(two), index.getCandidates(one));
+    }
+
+    @Test
+    public void testSameFirstAuthorAndYearSharesBlock() {
+        BibEntry one = createEntry("inproceedings", "Smith, John and Doe, Jane", "First paper", "2001");
+        BibEntry two = createEntry("inproceedings", "J. Smith", "Totally different words", "2001");
+        BibEntry three = createEntry("inproceedings", "J. Smith", "Totally different words", "2002");
+
+        DuplicateBlockingIndex index = new DuplicateBlockingIndex(Arrays.asList(one, two, three));
+        assertEquals(Collections.singletonList(two), index.getCandidates(one));
+    }
+
+    @Test
+    public void testSimilarTitlesShareBlock() {
+        BibEntry one = createEntry("inproceedings", "Alice Adams", "Blocking for scalable duplicate detection",
+                "2001");
+        BibEntry two = createEntry("inproceedings", "Bob Brown", "Blocking for Scalable Duplicate Detection.", "2005");
+
+        DuplicateBlockingIndex index = new DuplicateBlockingIndex(Arrays.asList(one, two));
+        assertEquals(Collections.singletonList(two), index.getCandidates(one));
+    }
+
+    @Test
+    public void testUnrelatedEntriesDoNotShareBlock() {
+        BibEntry one = createEntry("inproceedings", "Alice Adams", "Blocking for duplicate detection", "2001");
+        BibEntry two = createEntry("inproceedings", "Bob Brown", "Quantum chromodynamics on the lattice", "2005");
+
+        DuplicateBlockingIndex index = new DuplicateBlockingIndex(Arrays.asList(one, two));
+        assertEquals(Collections.emptyList(), index.getCandidates(one));
+    }
+
+    @Test
+    public void testDifferentTypesDoNotShareBlock() {
+        BibEntry one = createEntry("inproceedings", "Alice Adams", "Blocking for duplicate detection", "2001");
+        BibEntry two = createEntry("techreport", "Alice Adams", "Blocking for duplicate detection", "2001");
+
+        DuplicateBlockingIndex index = new DuplicateBlockingIndex(Arrays.asList(one, two));
+        assertEquals(Collections.emptyList(), index.getCandidates(one));
+    }
+
+    @Test
+    public void testEntryWithoutBlockingFieldsIsCandidateForAll() {
+        BibEntry one = createEntry("misc", null, null, "2001");
+        BibEntry two = createEntry("misc", "Alice Adams", "Blocking for duplicate detection", "2001");
+        BibEntry three = createEntry("misc", "Bob Brown", "Quantum chromodynamics on the lattice", "2005");
+
+        DuplicateBlockingIndex index = new DuplicateBlockingIndex(Arrays.asList(one, two, three));
+        assertEquals(Arrays.asList(two, three), index.getCandidates(one));
+        assertEquals(Collections.singletonList(one), index.getCandidates(two));
+    }
+
+    @Test
+    public void testRemovedEntryIsNoCandidate() {
+        BibEntry one = createEntry("inproceedings", "Alice Adams", "Blocking for duplicate detection", "2001");
+        BibEntry two = createEntry("inproceedings", "Alice Adams", "Blocking for duplicate detection", "2001");
+
+        DuplicateBlockingIndex index = new DuplicateBlockingIndex(Arrays.asList(one, two));
+        index.remove(two);
+        assertEquals(Collections.emptyList(), index.getCandidates(one));
+    }
+
+    @Test
+    public void testContainsDuplicateWithIndex() {
+        BibEntry one = createEntry("inproceedings", "Alice Adams", "Blocking for duplicate detection", "2001");
+        BibEntry two = createEntry("inproceedings", "Bob Brown", "Quantum chromodynamics on the lattice", "2005");
+        BibEntry candidate = createEntry("inproceedings", "Alice Adams", "Blocking for duplicate detection", "2001");
+
+        DuplicateBlockingIndex index = new DuplicateBlockingIndex(Arrays.asList(one, two));
+        Optional<BibEntry> duplicate = DuplicateCheck.containsDuplicate(index, candidate, BibDatabaseMode.BIBTEX);
+        assertTrue(duplicate.isPresent());
+        assertEquals(one, duplicate.get());
+
+        BibEntry other = createEntry("inproceedings", "Carol Clark", "Something different", "2010");
+        assertFalse(DuplicateCheck.containsDuplicate(index, other, BibDatabaseMode.BIBTEX).isPresent());
+    }
+
+    @Test
+    public void testUpdateFollowsChangedEntries() {
+        BibEntry one = createEntry("inproceedings", "Alice Adams", "Blocking for duplicate detection", "2001");
+        BibEntry two = createEntry("inproceedings", "Bob Brown", "Quantum chromodynamics on the lattice", "2005");
+        BibEntry three = createEntry("inproceedings", "Carol Clark", "Something different", "2010");
+        BibEntry candidate = createEntry("inproceedings", "Alice Adams", "Blocking for duplicate detection", "2001");
+
+        DuplicateBlockingIndex index = new DuplicateBlockingIndex(Arrays.asList(one, two));
+        two.setField("author", "Alice Adams");
+        two.setField("title", "Blocking for duplicate detection");
+        two.setField("year", "2001");
+        index.update(Arrays.asList(two, three));
+
+        assertEquals(Collections.singletonList(two), index.getCandidates(candidate));
+        assertEquals(Collections.emptyList(), index.getCandidates(three));
+    }
+}
@@ -4,7 +4,9 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import net.sf.jabref.Globals;
 import net.sf.jabref.JabRefPreferences;
@@ -23,6 +25,7 @@ import org.junit.rules.ExpectedException;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -110,6 +113,148 @@ public class BibDatabaseTest {
         assertFalse(database.containsEntryWithId(entry.getId()));
     }
 
+    @Test
+    public void getEntryByKeyFindsInsertedEntry() {
+        BibDatabase database = new BibDatabase();
+        BibEntry entry = new BibEntry();
+        entry.setCiteKey("Smith2010");
+        database.insertEntry(entry);
+        assertSame(entry, database.getEntryByKey("Smith2010"));
+        assertNull(database.getEntryByKey("Jones2010"));
+    }
+
+    @Test
+    public void getEntryByKeyFollowsKeyChanges() {
+        BibDatabase database = new BibDatabase();
+        BibEntry entry = new BibEntry();
+        entry.setCiteKey("Smith2010");
+        database.insertEntry(entry);
+
+        entry.setCiteKey("Jones2010");
+        assertNull(database.getEntryByKey("Smith2010"));
+        assertSame(entry, database.getEntryByKey("Jones2010"));
+
+        database.setCiteKeyForEntry(entry, null);
+        assertNull(database.getEntryByKey("Jones2010"));
+    }
+
+    @Test
+    public void getEntriesByKeyReturnsEntriesInDatabaseOrder() {
+        BibDatabase database = new BibDatabase();
+        BibEntry first = new BibEntry();
+        BibEntry second = new BibEntry();
+        second.setCiteKey("Smith2010");
+        database.insertEntry(first);
+        database.insertEntry(second);
+        first.setCiteKey("Smith2010");
+
+        List<BibEntry> entries = database.getEntriesByKey("Smith2010");
+        assertEquals(2, entries.size());
+        assertSame(first, entries.get(0));
+        assertSame(second, entries.get(1));
+        assertSame(second, database.getEntryByKey("Smith2010"));
+    }
+
+    @Test
+    public void removedEntryIsNotFoundByKey() {
+        BibDatabase database = new BibDatabase();
+        BibEntry entry = new BibEntry();
+        entry.setCiteKey("Smith2010");
+        database.insertEntry(entry);
+        database.removeEntry(entry);
+
+        assertNull(database.getEntryByKey("Smith2010"));
+        entry.setCiteKey("Jones2010");
+        assertNull(database.getEntryByKey("Jones2010"));
+    }
+
+    @Test
+    public void removeEntriesKeepsOrderOfRemainingEntries() {
+        BibDatabase database = new BibDatabase();
+        List<BibEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            BibEntry entry = new BibEntry();
+            entry.setCiteKey("key" + i);
+            database.insertEntry(entry);
+            entries.add(entry);
+        }
+
+        List<BibEntry> remaining = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if ((i % 3) == 0) {
+                remaining.add(entries.get(i));
+            } else {
+                database.removeEntry(entries.get(i));
+            }
+        }
+
+        assertEquals(remaining, database.getEntries());
+        for (BibEntry entry : remaining) {
+            assertSame(entry, database.getEntryByKey(entry.getCiteKey()));
+            database.removeEntry(entry);
+        }
+        assertFalse(database.hasEntries());
+    }
+
+    @Test
+    public void removeEntryAfterIdChange() {
+        BibDatabase database = new BibDatabase();
+        BibEntry entry = new BibEntry();
+        database.insertEntry(entry);
+        String oldId = entry.getId();
+        entry.setId(IdGenerator.next());
+
+        assertFalse(database.containsEntryWithId(oldId));
+        assertTrue(database.containsEntryWithId(entry.getId()));
+        database.removeEntry(entry);
+        assertFalse(database.hasEntries());
+    }
+
+    @Test
+    public void resolveForStringsIgnoresCaseOfLabel() {
+        BibDatabase database = new BibDatabase();
+        database.addString(new BibtexString(IdGenerator.next(), "ACM", "Association for Computing Machinery"));
+        assertEquals("Association for Computing Machinery Press", database.resolveForStrings("#acm# Press"));
+    }
+
+    @Test
+    public void resolveForStringsFollowsChangedReferencedString() {
+        BibDatabase database = new BibDatabase();
+        database.addString(new BibtexString(IdGenerator.next(), "acm", "Association for #cm#"));
+        BibtexString string = new BibtexString(IdGenerator.next(), "cm", "Computing Machinery");
+        database.addString(string);
+        assertEquals("Association for Computing Machinery", database.resolveForStrings("#acm#"));
+
+        string.setContent("CM");
+        assertEquals("Association for CM", database.resolveForStrings("#acm#"));
+
+        string.setName("machinery");
+        assertEquals("Association for #cm#", database.resolveForStrings("#acm#"));
+    }
+
+    @Test
+    public void resolveForStringsFollowsAddedAndRemovedString() {
+        BibDatabase database = new BibDatabase();
+        database.addString(new BibtexString(IdGenerator.next(), "acm", "Association for #cm#"));
+        assertEquals("Association for #cm#", database.resolveForStrings("#acm#"));
+
+        BibtexString string = new BibtexString(IdGenerator.next(), "cm", "Computing Machinery");
+        database.addString(string);
+        assertEquals("Association for Computing Machinery", database.resolveForStrings("#acm#"));
+
+        database.removeString(string.getId());
+        assertEquals("Association for #cm#", database.resolveForStrings("#acm#"));
+    }
+
+    @Test
+    public void resolveForStringsStopsAtCircularReference() {
+        BibDatabase database = new BibDatabase();
+        database.addString(new BibtexString(IdGenerator.next(), "x", "#y#"));
+        database.addString(new BibtexString(IdGenerator.next(), "y", "#x#"));
+        assertEquals("x", database.resolveForStrings("#x#"));
+        assertEquals("y", database.resolveForStrings("#y#"));
+    }
+
     @Test(expected = NullPointerException.class)
     public void insertNullEntryThrowsException() {
         BibDatabase database = new BibDatabase();
@@ -0,0 +1,102 @@
+package net.sf.jabref.model.entry;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompactFieldMapTest {
+
+    private Map<String, String> fields;
+
+
+    @Before
+    public void setUp() {
+        fields = new CompactFieldMap();
+        fields.put("author", "Smith");
+        fields.put("title", "A title");
+        fields.put("year", "2016");
+    }
+
+    @Test
+    public void testPutAndGet() {
+        assertEquals(3, fields.size());
+        assertEquals("Smith", fields.get("author"));
+        assertEquals("2016", fields.put("year", "2017"));
+        assertEquals("2017", fields.get("year"));
+        assertEquals(3, fields.size());
+        assertNull(fields.get("neverUsedFieldName"));
+        assertFalse(fields.containsKey("neverUsedFieldName"));
+    }
+
+    @Test
+    public void testRemove() {
+        assertEquals("A title", fields.remove("title"));
+        assertNull(fields.remove("title"));
+        assertEquals(2, fields.size());
+        assertEquals("2016", fields.get("year"));
+        assertFalse(fields.containsKey("title"));
+    }
+
+    @Test
+    public void testEqualsHashMap() {
+        Map<String, String> expected = new HashMap<>();
+        expected.put("year", "2016");
+        expected.put("title", "A title");
+        expected.put("author", "Smith");
+        assertEquals(expected, fields);
+        assertEquals(fields, expected);
+        assertEquals(expected.hashCode(), fields.hashCode());
+        assertEquals(expected, new CompactFieldMap(expected));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        Iterator<Map.Entry<String, String>> iterator = fields.entrySet().iterator();
+        assertEquals("author", iterator.next().getKey());
+        iterator.remove();
+        Map.Entry<String, String> title = iterator.next();
+        title.setValue("Changed");
+        assertEquals("year", iterator.next().getKey());
+        assertFalse(iterator.hasNext());
+
+        assertEquals(2, fields.size());
+        assertEquals("Changed", fields.get("title"));
+    }
+
+    @Test
+    public void testRepetitiveValuesAreInterned() {
+        Map<String, String> other = new CompactFieldMap();
+        other.put("journal", new String("Journal of Things"));
+        fields.put("journal", new String("Journal of Things"));
+        assertSame(other.get("journal"), fields.get("journal"));
+    }
+
+    @Test
+    public void testEntryKeepsFields() {
+        BibEntry entry = new BibEntry();
+        entry.setField("publisher", "ACM");
+        entry.setField("title", "Title");
+        entry.clearField("title");
+        assertTrue(entry.hasField("publisher"));
+        assertFalse(entry.hasField("title"));
+        assertEquals(entry, entry.clone());
+    }
+
+    @Test
+    public void testAnyFieldMatches() {
+        BibEntry entry = new BibEntry();
+        entry.setField("author", "Smith");
+        entry.setField("title", "A title");
+        assertTrue(entry.anyFieldMatches((name, value) -> "title".equals(name) && value.startsWith("A")));
+        assertFalse(entry.anyFieldMatches((name, value) -> "author".equals(name) && value.startsWith("A")));
+    }
+}
@@ -1,12 +1,16 @@
 package net.sf.jabref.sql;
 
 import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import net.sf.jabref.BibDatabaseContext;
 import net.sf.jabref.Globals;
 import net.sf.jabref.JabRefPreferences;
+import net.sf.jabref.bibtex.InternalBibtexFields;
 import net.sf.jabref.logic.groups.AllEntriesGroup;
 import net.sf.jabref.logic.groups.GroupHierarchyType;
 import net.sf.jabref.logic.groups.GroupTreeNode;
@@ -24,6 +28,8 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class DatabaseImportExportTests {
 
@@ -123,6 +129,55 @@ public class DatabaseImportExportTests {
         testDatabaseExport(databaseContext, databaseType, databaseName, strings);
     }
 
+    @Test
+    public void testImportSingleDatabaseFromMySQLInPages() throws Exception {
+        Assume.assumeTrue(DevEnvironment.isCIServer());
+
+        BibDatabaseContext databaseContext = createContextWithSingleEntry();
+        DBStrings strings = new DBStrings();
+        strings.setPassword("");
+        strings.setDbPreferences(new DBStringsPreferences("mysql", "localhost", "root", "jabref"));
+        testDatabaseExport(databaseContext, DatabaseType.MYSQL, "jabref", strings);
+
+        DatabaseImporter importer = new DBExporterAndImporterFactory().getImporter(DatabaseType.MYSQL);
+        List<List<BibEntry>> pages = new ArrayList<>();
+        Optional<DBImporterResult> result = importer.performImport(strings, "jabref", databaseContext.getMode(),
+                pages::add);
+        assertTrue(result.isPresent());
+        assertEquals(databaseContext.getDatabase().getEntries(),
+                result.get().getDatabaseContext().getDatabase().getEntries());
+        assertEquals(Collections.singletonList(databaseContext.getDatabase().getEntries()), pages);
+
+        assertFalse(importer.performImport(strings, "missing", databaseContext.getMode(), pages::add).isPresent());
+    }
+
+    @Test
+    public void testImportChangedEntriesFromMySQL() throws Exception {
+        Assume.assumeTrue(DevEnvironment.isCIServer());
+
+        BibDatabaseContext databaseContext = createContextWithSingleEntry();
+        databaseContext.getDatabase().getEntries().get(0).setField(InternalBibtexFields.TIMESTAMP, "2016-05-01");
+        DBStrings strings = new DBStrings();
+        strings.setPassword("");
+        strings.setDbPreferences(new DBStringsPreferences("mysql", "localhost", "root", "jabref"));
+        testDatabaseExport(databaseContext, DatabaseType.MYSQL, "jabref", strings);
+
+        DatabaseImporter importer = new DBExporterAndImporterFactory().getImporter(DatabaseType.MYSQL);
+        List<BibEntry> changed = new ArrayList<>();
+        Set<String> keys = Collections.singleton(databaseContext.getDatabase().getEntries().get(0).getCiteKey());
+        assertEquals(Optional.of(keys), importer.importChangedEntries(strings, "jabref", databaseContext.getMode(),
+                "2016-04-30", changed::addAll));
+        assertEquals(databaseContext.getDatabase().getEntries(), changed);
+
+        changed.clear();
+        assertEquals(Optional.of(keys), importer.importChangedEntries(strings, "jabref", databaseContext.getMode(),
+                "2016-05-02", changed::addAll));
+        assertEquals(Collections.emptyList(), changed);
+
+        assertFalse(importer.importChangedEntries(strings, "missing", databaseContext.getMode(), "2016-05-02",
+                changed::addAll).isPresent());
+    }
+
     private void testDatabaseExport(BibDatabaseContext databaseContext, DatabaseType databaseType, String databaseName, DBStrings strings)
             throws Exception {
         DatabaseExporter db = new DBExporterAndImporterFactory().getExporter(databaseType);
@@ -0,0 +1,116 @@
+package net.sf.jabref.sql.exporter;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.jabref.model.entry.BibEntry;
+import net.sf.jabref.sql.Database;
+import net.sf.jabref.sql.DatabaseType;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class DatabaseExporterTest {
+
+    private Database database;
+    private Connection connection;
+    private PreparedStatement insert;
+    private List<BibEntry> entries;
+
+
+    @Before
+    public void setUp() throws Exception {
+        database = mock(Database.class);
+        connection = mock(Connection.class);
+
+        ResultSet entryTypes = mock(ResultSet.class);
+        when(entryTypes.next()).thenReturn(true, false);
+        when(entryTypes.getString("label")).thenReturn("misc");
+        when(entryTypes.getInt("entry_types_id")).thenReturn(7);
+        Statement statement = mock(Statement.class);
+        when(statement.executeQuery(anyString())).thenReturn(entryTypes);
+        when(connection.createStatement()).thenReturn(statement);
+
+        insert = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(insert);
+
+        entries = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            BibEntry entry = new BibEntry("id" + i, "misc");
+            entry.setField("title", "Title \"" + i + '"');
+            entries.add(entry);
+        }
+    }
+
+    @Test
+    public void testEntriesAreInsertedInBatches() throws Exception {
+        when(database.getType()).thenReturn(DatabaseType.MYSQL);
+        DatabaseExporter exporter = new DatabaseExporter(database);
+        exporter.setBatchSize(2);
+
+        exporter.populateEntriesTable(1, entries, connection);
+
+        verify(connection, times(1)).prepareStatement(startsWith("INSERT INTO entries"));
+        verify(insert, times(5)).setInt(2, 7);
+        verify(insert, times(5)).addBatch();
+        verify(insert, times(3)).executeBatch();
+    }
+
+    @Test
+    public void testEntriesAreCopiedOnPostgreSQL() throws Exception {
+        when(database.getType()).thenReturn(DatabaseType.POSTGRESQL);
+        CopyManager copyManager = mock(CopyManager.class);
+        List<String> copiedRows = new ArrayList<>();
+        when(copyManager.copyIn(anyString(), any(Reader.class))).then(invocation -> {
+            try (Reader reader = (Reader) invocation.getArguments()[1]) {
+                StringBuilder rows = new StringBuilder();
+                int c;
+                while ((c = reader.read()) != -1) {
+                    rows.append((char) c);
+                }
+                copiedRows.add(rows.toString());
+            }
+            return 0L;
+        });
+        PGConnection pgConnection = mock(PGConnection.class);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(connection.isWrapperFor(PGConnection.class)).thenReturn(true);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        DatabaseExporter exporter = new DatabaseExporter(database);
+        exporter.setBatchSize(2);
+
+        exporter.populateEntriesTable(1, entries, connection);
+
+        verify(connection, never()).prepareStatement(anyString());
+        verify(copyManager, times(3)).copyIn(startsWith("COPY entries"), any(StringReader.class));
+        assertEquals(3, copiedRows.size());
+        assertEquals(2, copiedRows.get(0).split("\n").length);
+        assertEquals(1, copiedRows.get(2).split("\n").length);
+        assertTrue(copiedRows.get(0).startsWith("\"id0\",7,,"));
+        assertTrue(copiedRows.get(0).contains(",\"Title \"\"0\"\"\","));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchSizeMustBePositive() {
+        new DatabaseExporter(database).setBatchSize(0);
+    }
+}